@@ -49,6 +49,7 @@ import javax.swing.ListSelectionModel;
 
 import org.arakhne.afc.vmutil.VMCommandLine;
 import org.arakhne.afc.vmutil.locale.Locale;
+import org.janusproject.kernel.bench.acl.ACLEncodingBench;
 import org.janusproject.kernel.bench.agent.message.BroadcastMessageSendingBench;
 import org.janusproject.kernel.bench.agent.message.HeavyAgentBroadcastMessageSendingBench;
 import org.janusproject.kernel.bench.agent.message.HeavyAgentMessageReceivingBench;
@@ -61,25 +62,35 @@ import org.janusproject.kernel.bench.agent.message.MessageSendingBench;
 import org.janusproject.kernel.bench.agent.signal.HeavyAgentSignalSendingBench;
 import org.janusproject.kernel.bench.agent.signal.LightAgentSignalSendingBench;
 import org.janusproject.kernel.bench.agent.signal.SignalSendingBench;
+import org.janusproject.kernel.bench.agentmemory.KnowledgeAccessBench;
 import org.janusproject.kernel.bench.api.Bench;
+import org.janusproject.kernel.bench.capacity.FutureCapacityCallBench;
+import org.janusproject.kernel.bench.capacity.IdentifierCapacityCallBench;
 import org.janusproject.kernel.bench.execution.HeavyAgentCreationBench;
 import org.janusproject.kernel.bench.execution.HeavyAgentDestructionBench;
 import org.janusproject.kernel.bench.execution.HeavyAgentExecutionBench;
+import org.janusproject.kernel.bench.execution.HeavyAgentIddleCpuUsageBench;
 import org.janusproject.kernel.bench.execution.HeavyAgentRoleExecutionBench;
 import org.janusproject.kernel.bench.execution.LightAgentCreationBench;
 import org.janusproject.kernel.bench.execution.LightAgentDestructionBench;
 import org.janusproject.kernel.bench.execution.LightAgentExecutionBench;
 import org.janusproject.kernel.bench.execution.LightAgentRoleExecutionBench;
+import org.janusproject.kernel.bench.execution.ParallelLightAgentExecutionBench;
+import org.janusproject.kernel.bench.execution.ReactiveHeavyAgentIddleCpuUsageBench;
 import org.janusproject.kernel.bench.mailbox.ArrayListMailboxInsertionBench;
 import org.janusproject.kernel.bench.mailbox.ArrayListMailboxReadingBench;
 import org.janusproject.kernel.bench.mailbox.BlackHoleMailboxInsertionBench;
 import org.janusproject.kernel.bench.mailbox.BlackHoleMailboxReadingBench;
+import org.janusproject.kernel.bench.mailbox.ConcurrentLinkedQueueMailboxInsertionBench;
+import org.janusproject.kernel.bench.mailbox.ConcurrentLinkedQueueMailboxReadingBench;
 import org.janusproject.kernel.bench.mailbox.LinkedListMailboxInsertionBench;
 import org.janusproject.kernel.bench.mailbox.LinkedListMailboxReadingBench;
 import org.janusproject.kernel.bench.mailbox.TreeSetMailboxInsertionBench;
 import org.janusproject.kernel.bench.mailbox.TreeSetMailboxReadingBench;
 import org.janusproject.kernel.bench.memory.HeavyAgentMemoryUsageBench;
 import org.janusproject.kernel.bench.memory.LightAgentMemoryUsageBench;
+import org.janusproject.kernel.bench.memory.StatusAllocationBench;
+import org.janusproject.kernel.bench.message.MessageCreationBench;
 import org.janusproject.kernel.bench.organization.message.CRIOBroadcastMessageSendingBench;
 import org.janusproject.kernel.bench.organization.message.CRIOHeavyAgentBroadcastMessageSendingBench;
 import org.janusproject.kernel.bench.organization.message.CRIOHeavyAgentMessageReceiving2Bench;
@@ -126,12 +137,18 @@ public class Benchs {
 				TreeSetMailboxInsertionBench.class,
 				LinkedListMailboxInsertionBench.class,
 				ArrayListMailboxInsertionBench.class,
+				ConcurrentLinkedQueueMailboxInsertionBench.class,
 				BlackHoleMailboxInsertionBench.class,
 				TreeSetMailboxReadingBench.class,
 				LinkedListMailboxReadingBench.class,
 				ArrayListMailboxReadingBench.class,
+				ConcurrentLinkedQueueMailboxReadingBench.class,
 				BlackHoleMailboxReadingBench.class,
 				//
+				// Messages
+				//
+				MessageCreationBench.class,
+				//
 				// Agent Messages
 				//
 				MessageSendingBench.class,
@@ -177,11 +194,25 @@ public class Benchs {
 				CRIOHeavyAgentSignalSending2Bench.class,
 				CRIOHeavyAgentSignalSending3Bench.class,
 				//
+				// Capacities
+				//
+				IdentifierCapacityCallBench.class,
+				FutureCapacityCallBench.class,
+				//
+				// Agent Memory
+				//
+				KnowledgeAccessBench.class,
+				//
+				// ACL
+				//
+				ACLEncodingBench.class,
+				//
 				// Execution
 				//
 				HeavyAgentCreationBench.class,
 				LightAgentCreationBench.class,
 				LightAgentExecutionBench.class,
+				ParallelLightAgentExecutionBench.class,
 				HeavyAgentExecutionBench.class,
 				LightAgentRoleExecutionBench.class,
 				HeavyAgentRoleExecutionBench.class,
@@ -191,7 +222,13 @@ public class Benchs {
 				// Memory Usage
 				//
 				LightAgentMemoryUsageBench.class,
-				HeavyAgentMemoryUsageBench.class
+				HeavyAgentMemoryUsageBench.class,
+				StatusAllocationBench.class,
+				//
+				// CPU Usage
+				//
+				HeavyAgentIddleCpuUsageBench.class,
+				ReactiveHeavyAgentIddleCpuUsageBench.class
 				);
 		System.exit(0);
 	}
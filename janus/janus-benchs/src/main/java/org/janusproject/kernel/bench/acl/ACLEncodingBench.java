@@ -0,0 +1,228 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.bench.acl;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.UUID;
+
+import org.janusproject.acl.ACLMessage;
+import org.janusproject.acl.ACLRepresentation;
+import org.janusproject.acl.ACLTransportMessage;
+import org.janusproject.acl.Performative;
+import org.janusproject.acl.encoding.ACLEncodingService;
+import org.janusproject.acl.encoding.ACLMessageContentEncodingService;
+import org.janusproject.acl.encoding.bitefficient.BitEfficientACLCodec;
+import org.janusproject.acl.protocol.EnumFipaProtocol;
+import org.janusproject.kernel.bench.api.AgentNumberBenchRun;
+import org.janusproject.kernel.bench.api.BenchUtil;
+import org.janusproject.kernel.bench.api.CsvBench;
+import org.janusproject.kernel.crio.core.AddressUtil;
+import org.janusproject.kernel.util.sizediterator.SizedIterator;
+
+/** Run the bench on the encoding and the decoding of the
+ * ACL messages with the representations supported by
+ * the {@link ACLEncodingService}.
+ * <p>
+ * The number of "agents" of a run is the number of messages
+ * encoded and decoded in a single test. The sizes of the
+ * encoded payload and of the encoded content are also
+ * written in the CSV file.
+ * <p>
+ * The "BitEfficientCodeTable" group uses the dynamic code table
+ * of the bit-efficient representation. The "BitEfficientPayload"
+ * group encodes and decodes the complete payload (envelope and content)
+ * with the {@link ACLEncodingService}.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public class ACLEncodingBench extends CsvBench<AgentNumberBenchRun> {
+
+	private ACLMessage message = null;
+	private ACLMessageContentEncodingService codec = null;
+	private ACLEncodingService service = null;
+	private int payloadSize = 0;
+	private int contentSize = 0;
+	private int nbMessages = 0;
+	
+	/**
+	 * @param directory
+	 * @throws IOException
+	 */
+	public ACLEncodingBench(File directory) throws IOException {
+		super(directory);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public SizedIterator<AgentNumberBenchRun> setUpGroupWithCSV(String benchFunctionName) throws Exception {
+		writeHeader("Name", "Messages", "Tests", "Payload Size (bytes)", "Content Size (bytes)", "Run (ns)", "Operation Duration (ns)", "Standard Deviation", "OS Load Average"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$
+		return BenchUtil.makeMessageIntervals(
+				AgentNumberBenchRun.class,
+				benchFunctionName,
+				1);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setUpUnitaryBench(AgentNumberBenchRun run) throws Exception {
+		super.setUpUnitaryBench(run);
+
+		ACLRepresentation representation;
+		if (run.getName().startsWith("BitEfficient")) { //$NON-NLS-1$
+			representation = ACLRepresentation.BIT_EFFICIENT;
+		}
+		else if (run.getName().startsWith("String")) { //$NON-NLS-1$
+			representation = ACLRepresentation.STRING;
+		}
+		else if (run.getName().startsWith("XML")) { //$NON-NLS-1$
+			representation = ACLRepresentation.XML;
+		}
+		else if (run.getName().startsWith("JSON")) { //$NON-NLS-1$
+			representation = ACLRepresentation.JSON;
+		}
+		else if (run.getName().startsWith("BSON")) { //$NON-NLS-1$
+			representation = ACLRepresentation.BSON;
+		}
+		else {
+			throw new IllegalStateException();
+		}
+		
+		this.message = new ACLMessage("Hello world", Performative.REQUEST); //$NON-NLS-1$
+		this.message.setAclRepresentation(representation.getValue());
+		this.message.setSender(AddressUtil.createAgentAddress(UUID.randomUUID()));
+		this.message.setReceiver(Arrays.asList(
+				AddressUtil.createAgentAddress(UUID.randomUUID()),
+				AddressUtil.createAgentAddress(UUID.randomUUID())));
+		this.message.setProtocol(EnumFipaProtocol.FIPA_REQUEST);
+		this.message.setConversationId(UUID.randomUUID());
+		this.message.setEncoding("UTF-8"); //$NON-NLS-1$
+		this.message.setLanguage("text/plain"); //$NON-NLS-1$
+		this.message.setOntology("bench"); //$NON-NLS-1$
+
+		// The encoding service selects the codec from the representation
+		this.service = new ACLEncodingService();
+		this.payloadSize = this.service.encode(this.message).length;
+		if (run.getName().startsWith("BitEfficientCodeTable")) { //$NON-NLS-1$
+			this.codec = new BitEfficientACLCodec(true);
+		}
+		else {
+			this.codec = this.service.getContentEncodingService();
+		}
+		this.contentSize = this.codec.encode(this.message).length;
+		
+		this.nbMessages = run.getNumberOfAgents();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void tearDownUnitaryBench(AgentNumberBenchRun run) throws Exception {
+		this.message = null;
+		this.codec = null;
+		this.service = null;
+		super.tearDownUnitaryBench(run);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void tearDownMultiRunBench(int nbRuns, AgentNumberBenchRun run)
+			throws Exception {
+		writeRecord(
+				run.getName(),
+				run.getNumberOfAgents(), 
+				getNumberOfTests(),
+				this.payloadSize,
+				this.contentSize,
+				run.getRunDuration(),
+				run.getTestAverageDuration(),
+				run.getTestStandardDeviation(),
+				getSystemLoadAverage());
+		super.tearDownMultiRunBench(nbRuns, run);
+	}
+	
+	private void encodeDecode() {
+		for(int i=0; i<this.nbMessages; ++i) {
+			this.codec.decode(this.codec.encode(this.message));
+		}
+	}
+
+	private void encodeDecodePayload() {
+		for(int i=0; i<this.nbMessages; ++i) {
+			this.service.decode(new ACLTransportMessage(this.service.encode(this.message)));
+		}
+	}
+
+	/**
+	 */
+	public void benchBitEfficient() {
+		encodeDecode();
+	}
+	
+	/**
+	 */
+	public void benchBitEfficientCodeTable() {
+		encodeDecode();
+	}
+	
+	/**
+	 */
+	public void benchBitEfficientPayload() {
+		encodeDecodePayload();
+	}
+	
+	/**
+	 */
+	public void benchString() {
+		encodeDecode();
+	}
+
+	/**
+	 */
+	public void benchXML() {
+		encodeDecode();
+	}
+
+	/**
+	 */
+	public void benchJSON() {
+		encodeDecode();
+	}
+
+	/**
+	 */
+	public void benchBSON() {
+		encodeDecode();
+	}
+
+}
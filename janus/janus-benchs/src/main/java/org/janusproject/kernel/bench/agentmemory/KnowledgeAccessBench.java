@@ -0,0 +1,234 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.bench.agentmemory;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.janusproject.kernel.agentmemory.BlackBoardMemory;
+import org.janusproject.kernel.agentmemory.ConcurrentBlackBoardMemory;
+import org.janusproject.kernel.agentmemory.JavaReflectionMemory;
+import org.janusproject.kernel.agentmemory.Memory;
+import org.janusproject.kernel.bench.api.AgentNumberBenchRun;
+import org.janusproject.kernel.bench.api.BenchUtil;
+import org.janusproject.kernel.bench.api.CsvBench;
+import org.janusproject.kernel.util.sizediterator.SizedIterator;
+
+/** Run the bench on the access to the knowledges stored
+ * in the agent memories.
+ * <p>
+ * The number of "agents" of a run is the number of knowledge
+ * reads and writes done in a single test.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public class KnowledgeAccessBench extends CsvBench<AgentNumberBenchRun> {
+
+	private static final String[] KNOWLEDGES = new String[] {
+		"position", //$NON-NLS-1$
+		"speed", //$NON-NLS-1$
+		"target", //$NON-NLS-1$
+		"unknown" //$NON-NLS-1$
+	};
+	
+	private Memory memory = null;
+	private Beliefs beliefs = null;
+	private int nbAccesses = 0;
+	
+	/**
+	 * @param directory
+	 * @throws IOException
+	 */
+	public KnowledgeAccessBench(File directory) throws IOException {
+		super(directory);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public SizedIterator<AgentNumberBenchRun> setUpGroupWithCSV(String benchFunctionName) throws Exception {
+		writeHeader("Name", "Accesses", "Tests", "Run (ns)", "Operation Duration (ns)", "Standard Deviation", "OS Load Average"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
+		return BenchUtil.makeMessageIntervals(
+				AgentNumberBenchRun.class,
+				benchFunctionName,
+				1);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setUpUnitaryBench(AgentNumberBenchRun run) throws Exception {
+		super.setUpUnitaryBench(run);
+
+		if (run.getName().startsWith("BlackBoardMemory")) { //$NON-NLS-1$
+			this.memory = new BlackBoardMemory();
+		}
+		else if (run.getName().startsWith("ConcurrentBlackBoardMemory")) { //$NON-NLS-1$
+			this.memory = new ConcurrentBlackBoardMemory();
+		}
+		else if (run.getName().startsWith("JavaReflectionMemory")) { //$NON-NLS-1$
+			// The reflection memory is weakly referencing the beliefs
+			this.beliefs = new Beliefs();
+			this.memory = new JavaReflectionMemory<Beliefs>(this.beliefs);
+		}
+		else {
+			throw new IllegalStateException();
+		}
+		
+		this.nbAccesses = run.getNumberOfAgents();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void tearDownUnitaryBench(AgentNumberBenchRun run) throws Exception {
+		this.memory = null;
+		this.beliefs = null;
+		super.tearDownUnitaryBench(run);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void tearDownMultiRunBench(int nbRuns, AgentNumberBenchRun run)
+			throws Exception {
+		writeRecord(
+				run.getName(),
+				run.getNumberOfAgents(), 
+				getNumberOfTests(),
+				run.getRunDuration(),
+				run.getTestAverageDuration(),
+				run.getTestStandardDeviation(),
+				getSystemLoadAverage());
+		super.tearDownMultiRunBench(nbRuns, run);
+	}
+	
+	private void accessKnowledges() {
+		String name;
+		for(int i=0; i<this.nbAccesses; ++i) {
+			name = KNOWLEDGES[i % KNOWLEDGES.length];
+			this.memory.putMemorizedData(name, Integer.valueOf(i));
+			this.memory.getMemorizedData(name);
+		}
+	}
+
+	/**
+	 */
+	public void benchBlackBoardMemory() {
+		accessKnowledges();
+	}
+	
+	/**
+	 */
+	public void benchConcurrentBlackBoardMemory() {
+		accessKnowledges();
+	}
+
+	/**
+	 */
+	public void benchJavaReflectionMemory() {
+		accessKnowledges();
+	}
+
+	/**
+	 * Object which is storing the knowledges for
+	 * the {@link JavaReflectionMemory}.
+	 * 
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	public static class Beliefs {
+		
+		private Object position = null;
+		private Object speed = null;
+		private Object target = null;
+		
+		/**
+		 */
+		public Beliefs() {
+			//
+		}
+		
+		/**
+		 * @return the position.
+		 */
+		public Object getKposition() {
+			return this.position;
+		}
+
+		/**
+		 * @param value
+		 * @return the old position.
+		 */
+		public Object setKposition(Object value) {
+			Object old = this.position;
+			this.position = value;
+			return old;
+		}
+
+		/**
+		 * @return the speed.
+		 */
+		public Object getKspeed() {
+			return this.speed;
+		}
+
+		/**
+		 * @param value
+		 * @return the old speed.
+		 */
+		public Object setKspeed(Object value) {
+			Object old = this.speed;
+			this.speed = value;
+			return old;
+		}
+
+		/**
+		 * @return the target.
+		 */
+		public Object getKtarget() {
+			return this.target;
+		}
+
+		/**
+		 * @param value
+		 * @return the old target.
+		 */
+		public Object setKtarget(Object value) {
+			Object old = this.target;
+			this.target = value;
+			return old;
+		}
+
+	}
+	
+}
@@ -0,0 +1,192 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.bench.capacity;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.janusproject.kernel.Kernel;
+import org.janusproject.kernel.bench.api.AbstractRoleOperationPerSecondCsvBench;
+import org.janusproject.kernel.bench.api.BenchUtil;
+import org.janusproject.kernel.bench.api.OperationAgentNumberBenchRun;
+import org.janusproject.kernel.crio.capacity.Capacity;
+import org.janusproject.kernel.crio.capacity.CapacityContext;
+import org.janusproject.kernel.crio.capacity.CapacityImplementation;
+import org.janusproject.kernel.crio.capacity.CapacityImplementationType;
+import org.janusproject.kernel.crio.core.CRIOContext;
+import org.janusproject.kernel.crio.core.Organization;
+import org.janusproject.kernel.crio.core.Role;
+import org.janusproject.kernel.util.sizediterator.SizedIterator;
+
+/**
+ * Bench on the throughput of the asynchronous capacity calls.
+ * <p>
+ * The benchmarked role keeps n capacity calls pending,
+ * and submits a new call each time a pending call is done.
+ * An operation is one consumed result of a capacity call.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public abstract class AbstractAsynchronousCapacityCallBench extends AbstractRoleOperationPerSecondCsvBench<OperationAgentNumberBenchRun> {
+
+	/**
+	 * @param directory
+	 * @throws IOException
+	 */
+	public AbstractAsynchronousCapacityCallBench(File directory) throws IOException {
+		super(directory,
+				"Pending Calls", //$NON-NLS-1$
+				"Calls per Second"); //$NON-NLS-1$
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected SizedIterator<OperationAgentNumberBenchRun> createIntervals(
+			String benchFunctionName) throws Exception {
+		return BenchUtil.makeAllLightAgentIntervals(
+				OperationAgentNumberBenchRun.class,
+				benchFunctionName,
+				1);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected final void waitAgentLaunching(OperationAgentNumberBenchRun run, AtomicInteger flag) {
+		while (flag.get()<1) {
+			Thread.yield();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected final BenchMarkedAgent launchAgents(
+			OperationAgentNumberBenchRun run, Kernel kernel,
+			AtomicInteger launchFlag) {
+		BenchMarkedAgent caller = new CallerAgent(
+				launchFlag,
+				getCallerRole(),
+				run.getNumberOfAgents()); // stands for getNumberOfPendingCalls
+		kernel.submitLightAgent(caller);
+		return caller;
+	}
+	
+	/** Replies the type of the role which is calling the capacity.
+	 * 
+	 * @return the type of the calling role.
+	 */
+	protected abstract Class<? extends BenchMarkedRole> getCallerRole();
+	
+	/**
+	 * @throws Exception
+	 */
+	public void benchCapacityCall() throws Exception {
+		runBenchFor(getCurrentRun(), getBenchMarkedRole());
+	}
+	
+	/**
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 */
+	public static interface EchoCapacity extends Capacity {
+		//
+	}
+
+	/**
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 */
+	public static class EchoCapacityImplementation extends CapacityImplementation implements EchoCapacity {
+
+		/**
+		 */
+		public EchoCapacityImplementation() {
+			super(CapacityImplementationType.DIRECT_ACTOMIC);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void call(CapacityContext call) throws Exception {
+			call.setOutputValues(call.getInputValues());
+		}
+
+	}
+
+	/**
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 */
+	protected static class CallerAgent extends BenchMarkedAgent {
+		
+		private static final long serialVersionUID = -4309862434946012786L;
+
+		/**
+		 * @param flag
+		 * @param role
+		 * @param nbPendingCalls
+		 */
+		public CallerAgent(AtomicInteger flag,
+				Class<? extends Role> role,
+				int nbPendingCalls) {
+			super(flag, BenchOrganization.class, role, true, nbPendingCalls);
+			getCapacityContainer().addCapacity(new EchoCapacityImplementation());
+		}
+		
+	}
+
+	/**
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 */
+	public static class BenchOrganization extends Organization {
+
+		/**
+		 * @param context
+		 */
+		public BenchOrganization(CRIOContext context) {
+			super(context);
+			addRole(IdentifierCapacityCallBench.IdentifierCallerRole.class);
+			addRole(FutureCapacityCallBench.FutureCallerRole.class);
+		}
+		
+	}
+
+}
@@ -0,0 +1,107 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.bench.capacity;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.janusproject.kernel.crio.capacity.CapacityContext;
+import org.janusproject.kernel.crio.capacity.CapacityContinuation;
+import org.janusproject.kernel.status.Status;
+
+/** Run the bench on the capacity calls replying a future.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public class FutureCapacityCallBench extends AbstractAsynchronousCapacityCallBench {
+
+	/**
+	 * @param directory
+	 * @throws IOException
+	 */
+	public FutureCapacityCallBench(File directory) throws IOException {
+		super(directory);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected Class<? extends BenchMarkedRole> getCallerRole() {
+		return FutureCallerRole.class;
+	}
+
+	/**
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 */
+	public static class FutureCallerRole extends BenchMarkedRole implements CapacityContinuation {
+
+		private int doneCalls = 0;
+		
+		/**
+		 */
+		public FutureCallerRole() {
+			super();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Status activate(Object... parameters) {
+			int nb = ((Integer)parameters[0]).intValue();
+			for(int i=0; i<nb; ++i) {
+				submitCapacityCallFuture(EchoCapacity.class, this).thenAccept(this);
+			}
+			return super.activate(parameters);
+		}
+		
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void capacityCallDone(CapacityContext context) {
+			++this.doneCalls;
+		}
+		
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected boolean doBench() {
+			if (this.doneCalls>0) {
+				--this.doneCalls;
+				submitCapacityCallFuture(EchoCapacity.class, this).thenAccept(this);
+				return true;
+			}
+			return false;
+		}
+
+	}
+
+}
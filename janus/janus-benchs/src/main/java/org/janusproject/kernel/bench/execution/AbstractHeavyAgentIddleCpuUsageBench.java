@@ -0,0 +1,154 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.bench.execution;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.janusproject.kernel.Kernel;
+import org.janusproject.kernel.agent.Kernels;
+import org.janusproject.kernel.bench.api.BenchUtil;
+import org.janusproject.kernel.bench.api.CsvBench;
+import org.janusproject.kernel.configuration.JanusProperty;
+import org.janusproject.kernel.logger.LoggerUtil;
+import org.janusproject.kernel.util.sizediterator.SizedIterator;
+
+/** Run the bench on the CPU consumed by iddle heavy agents.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public abstract class AbstractHeavyAgentIddleCpuUsageBench extends CsvBench<CpuUsageBenchRun> {
+
+	/** Duration of the measurement window in milliseconds.
+	 */
+	private static final long MEASUREMENT_WINDOW = 1000;
+	
+	private final boolean reactive;
+	private final ThreadMXBean threadBean;
+	
+	/**
+	 * @param directory
+	 * @param reactive indicates if the heavy agents are parked when iddle.
+	 * @throws IOException
+	 */
+	public AbstractHeavyAgentIddleCpuUsageBench(File directory, boolean reactive) throws IOException {
+		super(directory);
+		this.reactive = reactive;
+		this.threadBean = ManagementFactory.getThreadMXBean();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void initialize() throws Exception {
+		super.initialize();
+		if (this.threadBean.isThreadCpuTimeSupported()
+			&& !this.threadBean.isThreadCpuTimeEnabled()) {
+			this.threadBean.setThreadCpuTimeEnabled(true);
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public SizedIterator<CpuUsageBenchRun> setUpGroupWithCSV(String benchFunctionName) throws Exception {
+		writeHeader("Name", "Agents", "Tests", "Run (ns)", "Unit (ns)", "CPU (ns)", "Wall (ns)", "CPU per agent per second (ns)", "OS Load Average"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$
+		return BenchUtil.makeAllHeavyAgentIntervals(
+				CpuUsageBenchRun.class,
+				benchFunctionName,
+				1);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setUpUnitaryBench(CpuUsageBenchRun run) throws Exception {
+		super.setUpUnitaryBench(run);
+		Kernels.killAll();
+		LoggerUtil.setLoggingEnable(false);
+		Kernel kernel = Kernels.create();
+		kernel.getKernelContext().getProperties().setProperty(
+				JanusProperty.JANUS_AGENT_HEAVY_REACTIVE,
+				this.reactive);
+		
+		for(int i=0; i<run.getNumberOfAgents(); ++i) {
+			kernel.launchHeavyAgent(new IddleAgent(null));
+		}
+
+		Thread.sleep(1000);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void tearDownUnitaryBench(CpuUsageBenchRun run) throws Exception {
+		Kernels.killAll();
+		writeRecord(
+				run.getName(),
+				run.getNumberOfAgents(), 
+				getNumberOfTests(),
+				run.getRunDuration(),
+				run.getTestAverageDuration(),
+				run.getCpuTime(),
+				run.getWallTime(),
+				run.getCpuTimePerAgent(),
+				getSystemLoadAverage());
+	}
+	
+	/** Replies the CPU time consumed by all the live threads.
+	 * 
+	 * @return the CPU time in nanoseconds.
+	 */
+	private long getTotalCpuTime() {
+		long total = 0;
+		long time;
+		for(long id : this.threadBean.getAllThreadIds()) {
+			time = this.threadBean.getThreadCpuTime(id);
+			if (time>0) total += time;
+		}
+		return total;
+	}
+	
+	/**
+	 * @throws Exception
+	 */
+	public void benchIddleCpu() throws Exception {
+		long startCpu = getTotalCpuTime();
+		long startWall = System.nanoTime();
+		Thread.sleep(MEASUREMENT_WINDOW);
+		long endCpu = getTotalCpuTime();
+		long endWall = System.nanoTime();
+		getCurrentRun().addMeasurement(
+				Math.max(0, endCpu - startCpu),
+				endWall - startWall);
+	}
+
+}
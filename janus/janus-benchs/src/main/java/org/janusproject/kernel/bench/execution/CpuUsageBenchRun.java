@@ -0,0 +1,85 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.bench.execution;
+
+import org.janusproject.kernel.bench.api.AgentNumberBenchRun;
+
+/** This class describes a run of a bench
+ * that is measuring the CPU time consumed by a number of agents.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public class CpuUsageBenchRun extends AgentNumberBenchRun {
+
+	private long cpuTime = 0;
+	private long wallTime = 0;
+	
+	/**
+	 * @param name
+	 * @param nbAgents
+	 */
+	public CpuUsageBenchRun(String name, int nbAgents) {
+		super(name, nbAgents);
+	}
+	
+	/** Replies the CPU time consumed by all the threads
+	 * during the measurement window.
+	 * 
+	 * @return the CPU time in nanoseconds.
+	 */
+	public long getCpuTime() {
+		return this.cpuTime;
+	}
+		
+	/** Replies the duration of the measurement window.
+	 * 
+	 * @return the wall-clock time in nanoseconds.
+	 */
+	public long getWallTime() {
+		return this.wallTime;
+	}
+
+	/** Add a measurement.
+	 * 
+	 * @param cpu is the CPU time consumed during the window, in nanoseconds.
+	 * @param wall is the duration of the window, in nanoseconds.
+	 */
+	public void addMeasurement(long cpu, long wall) {
+		this.cpuTime += cpu;
+		this.wallTime += wall;
+	}
+
+	/** Replies the average CPU time consumed by one agent
+	 * during one second of wall-clock time.
+	 * 
+	 * @return the CPU time per agent per second, in nanoseconds.
+	 */
+	public long getCpuTimePerAgent() {
+		int n = getNumberOfAgents();
+		if (n<=0 || this.wallTime<=0) return 0;
+		return (long)((this.cpuTime * 1000000000.) / (this.wallTime * (double)n));
+	}
+
+}
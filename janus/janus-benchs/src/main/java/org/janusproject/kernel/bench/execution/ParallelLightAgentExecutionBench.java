@@ -0,0 +1,63 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.bench.execution;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.janusproject.kernel.Kernel;
+import org.janusproject.kernel.bench.api.OperationAgentNumberBenchRun;
+import org.janusproject.kernel.configuration.JanusProperty;
+
+/** Run the bench on the execution of light agents when they
+ * are run by one worker thread per available processor.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public class ParallelLightAgentExecutionBench extends LightAgentExecutionBench {
+
+	/**
+	 * @param directory
+	 * @throws IOException
+	 */
+	public ParallelLightAgentExecutionBench(File directory) throws IOException {
+		super(directory);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected BenchMarkedAgent launchAgents(
+			OperationAgentNumberBenchRun run, Kernel kernel,
+			AtomicInteger launchFlag) {
+		kernel.getKernelContext().getProperties().setProperty(
+				JanusProperty.JANUS_AGENT_LIGHT_WORKERS,
+				Runtime.getRuntime().availableProcessors());
+		return super.launchAgents(run, kernel, launchFlag);
+	}
+
+}
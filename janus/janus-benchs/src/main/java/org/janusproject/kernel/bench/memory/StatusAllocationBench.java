@@ -0,0 +1,256 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.bench.memory;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Iterator;
+
+import org.janusproject.kernel.bench.api.BenchUtil;
+import org.janusproject.kernel.bench.api.CsvBench;
+import org.janusproject.kernel.schedule.Activable;
+import org.janusproject.kernel.schedule.DefaultActivator;
+import org.janusproject.kernel.status.ExceptionStatus;
+import org.janusproject.kernel.status.MultipleStatus;
+import org.janusproject.kernel.status.Status;
+import org.janusproject.kernel.status.StatusFactory;
+import org.janusproject.kernel.util.sizediterator.SizedIterator;
+
+/** Run the bench on the garbage created by the status
+ * propagation at each simulation step.
+ * <p>
+ * The group "PackedStatus" is running the activables as
+ * they were run before the shared OK status: each activable
+ * replies its own OK status, and the statuses are added
+ * to a {@link MultipleStatus} which is packed.
+ * The group "SharedStatus" is running the activables with
+ * the {@link DefaultActivator} and the shared OK status.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public class StatusAllocationBench extends CsvBench<MemoryUsageBenchRun> {
+
+	private boolean packedStatus = false;
+	private BenchActivator activator = null;
+	private long allocatedBytes = 0;
+	
+	/**
+	 * @param directory
+	 * @throws IOException
+	 */
+	public StatusAllocationBench(File directory) throws IOException {
+		super(directory);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public SizedIterator<MemoryUsageBenchRun> setUpGroupWithCSV(String benchFunctionName) throws Exception {
+		writeHeader("Name", "Activables", "Tests", "Run (ns)", "Unit (ns)", "Garbage per Step (Bytes)", "OS Load Average"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
+		this.packedStatus = "PackedStatus".equals(benchFunctionName); //$NON-NLS-1$
+		return BenchUtil.makeAllLightAgentIntervals(
+				MemoryUsageBenchRun.class,
+				benchFunctionName,
+				1);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setUpUnitaryBench(MemoryUsageBenchRun run) throws Exception {
+		super.setUpUnitaryBench(run);
+		this.activator = this.packedStatus ? new PackingActivator() : new BenchActivator();
+		for(int i=0; i<run.getNumberOfAgents(); ++i) {
+			this.activator.addActivable(new OkActivable(this.packedStatus));
+		}
+		this.activator.sync();
+		this.activator.activate();
+		this.allocatedBytes = 0;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void tearDownUnitaryBench(MemoryUsageBenchRun run) throws Exception {
+		this.activator.end();
+		this.activator = null;
+		run.setAllocatedMemory(this.allocatedBytes / Math.max(1, getNumberOfTests()));
+		writeRecord(
+				run.getName(),
+				run.getNumberOfAgents(), 
+				getNumberOfTests(),
+				run.getRunDuration(),
+				run.getTestAverageDuration(),
+				run.getAllocatedMemory(),
+				getSystemLoadAverage());
+	}
+	
+	/**
+	 * @throws Exception
+	 */
+	public void benchPackedStatus() throws Exception {
+		runStep();
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void benchSharedStatus() throws Exception {
+		runStep();
+	}
+	
+	private void runStep() {
+		long start = getAllocatedBytes();
+		this.activator.live();
+		this.allocatedBytes += getAllocatedBytes() - start;
+	}
+
+	/** Replies the number of bytes allocated by the current thread,
+	 * or the used memory if the JVM is not able to count the
+	 * allocations per thread.
+	 * 
+	 * @return the number of allocated bytes.
+	 */
+	private static long getAllocatedBytes() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean)bean).getThreadAllocatedBytes(
+					Thread.currentThread().getId());
+		}
+		return HeavyAgentMemoryUsageBench.getMemoryUse();
+	}
+	
+	/**
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	private static class OkActivable implements Activable {
+
+		private final boolean ownStatus;
+		
+		/**
+		 * @param ownStatus indicates if the activable replies its own status.
+		 */
+		public OkActivable(boolean ownStatus) {
+			this.ownStatus = ownStatus;
+		}
+		
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Status activate(Object... parameters) {
+			return StatusFactory.ok();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Status live() {
+			return this.ownStatus ? StatusFactory.ok(this) : StatusFactory.ok();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Status end() {
+			return StatusFactory.ok();
+		}
+		
+	}
+
+	/**
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	private static class BenchActivator extends DefaultActivator<OkActivable> {
+
+		/**
+		 */
+		public BenchActivator() {
+			super(OkActivable.class);
+		}
+		
+		/**
+		 * @param activable
+		 */
+		public void addActivable(OkActivable activable) {
+			addActivableObject(activable);
+		}
+		
+	}
+
+	/** Activator which is packing the statuses in a {@link MultipleStatus}.
+	 * 
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	private static class PackingActivator extends BenchActivator {
+
+		/**
+		 */
+		public PackingActivator() {
+			super();
+		}
+		
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected Status executeBehaviour(Iterator<? extends OkActivable> objects) {
+			MultipleStatus ms = new MultipleStatus();
+			while (objects.hasNext()) {
+				try {
+					ms.addStatus(objects.next().live());
+				}
+				catch(AssertionError e) {
+					throw e;
+				}
+				catch(Throwable e) {
+					ms.addStatus(new ExceptionStatus(e));
+				}
+			}
+			return ms.pack(this);
+		}
+		
+	}
+	
+}
@@ -0,0 +1,151 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.bench.message;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.janusproject.kernel.bench.api.AgentNumberBenchRun;
+import org.janusproject.kernel.bench.api.BenchUtil;
+import org.janusproject.kernel.bench.api.CsvBench;
+import org.janusproject.kernel.message.StringMessage;
+import org.janusproject.kernel.util.identifier.CounterIdentifierGenerator;
+import org.janusproject.kernel.util.identifier.IdentifierGenerator;
+import org.janusproject.kernel.util.identifier.Identifiers;
+import org.janusproject.kernel.util.identifier.RandomIdentifierGenerator;
+import org.janusproject.kernel.util.identifier.TimeBasedIdentifierGenerator;
+import org.janusproject.kernel.util.sizediterator.SizedIterator;
+
+/** Run the bench on the creation of the messages with
+ * the different identifier generators.
+ * <p>
+ * The number of "agents" of a run is the number of messages
+ * created in a single test.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public class MessageCreationBench extends CsvBench<AgentNumberBenchRun> {
+
+	private IdentifierGenerator previousGenerator = null;
+	private int nbMessages = 0;
+	
+	/**
+	 * @param directory
+	 * @throws IOException
+	 */
+	public MessageCreationBench(File directory) throws IOException {
+		super(directory);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public SizedIterator<AgentNumberBenchRun> setUpGroupWithCSV(String benchFunctionName) throws Exception {
+		writeHeader("Name", "Messages", "Tests", "Run (ns)", "Operation Duration (ns)", "Standard Deviation", "OS Load Average"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
+		this.previousGenerator = Identifiers.getGenerator();
+		return BenchUtil.makeMessageIntervals(
+				AgentNumberBenchRun.class,
+				benchFunctionName,
+				1);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setUpUnitaryBench(AgentNumberBenchRun run) throws Exception {
+		super.setUpUnitaryBench(run);
+
+		IdentifierGenerator generator;
+		if (run.getName().startsWith("RandomIdentifier")) { //$NON-NLS-1$
+			generator = RandomIdentifierGenerator.SINGLETON;
+		}
+		else if (run.getName().startsWith("CounterIdentifier")) { //$NON-NLS-1$
+			generator = CounterIdentifierGenerator.SINGLETON;
+		}
+		else if (run.getName().startsWith("TimeIdentifier")) { //$NON-NLS-1$
+			generator = TimeBasedIdentifierGenerator.SINGLETON;
+		}
+		else {
+			throw new IllegalStateException();
+		}
+		
+		Identifiers.setGenerator(generator);
+		this.nbMessages = run.getNumberOfAgents();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void tearDownMultiRunBench(int nbRuns, AgentNumberBenchRun run)
+			throws Exception {
+		writeRecord(
+				run.getName(),
+				run.getNumberOfAgents(), 
+				getNumberOfTests(),
+				run.getRunDuration(),
+				run.getTestAverageDuration(),
+				run.getTestStandardDeviation(),
+				getSystemLoadAverage());
+		super.tearDownMultiRunBench(nbRuns, run);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void tearDownGroup() throws Exception {
+		Identifiers.setGenerator(this.previousGenerator);
+		this.previousGenerator = null;
+		super.tearDownGroup();
+	}
+	
+	private void createMessages() {
+		for(int i=0; i<this.nbMessages; ++i) {
+			new StringMessage(null);
+		}
+	}
+
+	/**
+	 */
+	public void benchRandomIdentifier() {
+		createMessages();
+	}
+	
+	/**
+	 */
+	public void benchCounterIdentifier() {
+		createMessages();
+	}
+
+	/**
+	 */
+	public void benchTimeIdentifier() {
+		createMessages();
+	}
+
+}
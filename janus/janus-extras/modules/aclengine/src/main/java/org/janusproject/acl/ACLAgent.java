@@ -20,16 +20,15 @@
  */
 package org.janusproject.acl;
 
-import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedList;
-import java.util.List;
 import java.util.UUID;
 
 import org.janusproject.acl.encoding.PayloadEncoding;
 import org.janusproject.acl.protocol.EnumFipaProtocol;
 import org.janusproject.kernel.address.AgentAddress;
 import org.janusproject.kernel.agent.Agent;
+import org.janusproject.kernel.mailbox.Mailbox;
 
 /**
  * Implements the agent concept of the Janus Metamodel
@@ -63,6 +62,11 @@ public class ACLAgent extends Agent {
 	 * Default Bit-efficient
 	 */
 	private ACLRepresentation aclRepresentation;
+	
+	/**
+	 * The index of the ACL Messages in the mailbox.
+	 */
+	private transient ACLMessageIndex aclMessageIndex = null;
 
 	/**
 	 * Creates a new ACL Agent with default payload encoding (UTF8) and default acl representation (string).
@@ -118,10 +122,12 @@ public class ACLAgent extends Agent {
 	 * @see #hasACLMessage()
 	 */
 	protected final ACLMessage getACLMessage() {
+		ACLMessageIndex index = getACLMessageIndex();
 		for(ACLTransportMessage msg : peekMessages(ACLTransportMessage.class)) {
-			ACLMessage aMsg = getAclMessageFromTransportMessage( msg ) ;
+			ACLMessage aMsg = index.getMessage( msg ) ;
 			if(aMsg != null) {
 				getMailbox().remove( msg );
+				index.remove( msg );
 				return aMsg;
 			}
 		}
@@ -174,20 +180,8 @@ public class ACLAgent extends Agent {
 	 * @see #hasACLMessage()
 	 */
 	public final ACLMessage getACLMessage(EnumFipaProtocol protocolType, Performative... performative) {
-		List<Performative> performatives = Arrays.asList(performative);
-		
-		for(ACLTransportMessage msg : peekMessages(ACLTransportMessage.class)) {
-			ACLMessage aMsg = getAclMessageFromTransportMessage( msg ) ;
-			if(aMsg != null 
-					&& ( performatives.contains(aMsg.getPerformative()) )
-					&& ( aMsg.getProtocol() == protocolType)
-					)
-			{
-				getMailbox().remove( msg );
-				return aMsg;
-			}
-		}
-		return null;
+		ACLMessageIndex index = getACLMessageIndex();
+		return consumeACLMessage(index, index.getFirst(protocolType, performative));
 	}
 
 	/**
@@ -202,14 +196,8 @@ public class ACLAgent extends Agent {
 	 * @return the first available ACL Message, or <code>null</code>
 	 */
 	public final ACLMessage getACLMessageForConversationId(UUID conversationId) {
-		for(ACLTransportMessage msg : peekMessages(ACLTransportMessage.class)) {
-			ACLMessage aMsg = getAclMessageFromTransportMessage( msg ) ;
-			if( ( aMsg != null ) && ( aMsg.getConversationId().compareTo(conversationId) == 0 ) ){
-				getMailbox().remove( msg );
-				return aMsg;
-			}
-		}
-		return null;
+		ACLMessageIndex index = getACLMessageIndex();
+		return consumeACLMessage(index, index.getFirst(conversationId));
 	}
 	
 	/**
@@ -224,17 +212,8 @@ public class ACLAgent extends Agent {
 	 * @return the first available ACL Message, or <code>null</code>
 	 */
 	public final ACLMessage getACLMessageFromProtocol(UUID conversationId, Performative... performative) {
-		List<Performative> performatives = Arrays.asList(performative);
-		
-		for(ACLTransportMessage msg : peekMessages(ACLTransportMessage.class)) {
-			ACLMessage aMsg = getAclMessageFromTransportMessage( msg ) ;
-			if( ( aMsg != null ) && ( aMsg.getConversationId().compareTo(conversationId) == 0 ) 
-					&& performatives.contains(aMsg.getPerformative())) {
-				getMailbox().remove( msg );
-				return aMsg;
-			}
-		}
-		return null;
+		ACLMessageIndex index = getACLMessageIndex();
+		return consumeACLMessage(index, index.getFirst(conversationId, performative));
 	}
 
 	/**
@@ -254,11 +233,13 @@ public class ACLAgent extends Agent {
 	protected final Iterable<ACLMessage> getACLMessages() {
 
 		LinkedList<ACLMessage> resultList = new LinkedList<ACLMessage>();
+		ACLMessageIndex index = getACLMessageIndex();
 
 		for(ACLTransportMessage msg : peekMessages(ACLTransportMessage.class)) {
-			ACLMessage aMsg = getAclMessageFromTransportMessage( msg ) ;
+			ACLMessage aMsg = index.getMessage( msg ) ;
 			if(aMsg != null){
 				getMailbox().remove( msg );
+				index.remove( msg );
 				resultList.add( aMsg );
 			}
 		}
@@ -283,11 +264,13 @@ public class ACLAgent extends Agent {
 	protected final Iterator<ACLMessage> getACLMessages(Performative performative) {
 
 		LinkedList<ACLMessage> resultList = new LinkedList<ACLMessage>();
+		ACLMessageIndex index = getACLMessageIndex();
 
 		for(ACLTransportMessage msg : peekMessages(ACLTransportMessage.class)) {
-			ACLMessage aMsg = getAclMessageFromTransportMessage( msg ) ;
+			ACLMessage aMsg = index.getMessage( msg ) ;
 			if(aMsg != null && aMsg.getPerformative() == performative){
 				getMailbox().remove( msg );
+				index.remove( msg );
 				resultList.add( aMsg );
 			}
 		}
@@ -307,8 +290,9 @@ public class ACLAgent extends Agent {
 	 * @see #hasACLMessage()
 	 */
 	protected final ACLMessage peekACLMessage() {
+		ACLMessageIndex index = getACLMessageIndex();
 		for(ACLTransportMessage msg : peekMessages(ACLTransportMessage.class)) {
-			ACLMessage aMsg = getAclMessageFromTransportMessage( msg ) ;
+			ACLMessage aMsg = index.getMessage( msg ) ;
 			if(aMsg != null) return aMsg;
 		}
 		return null;
@@ -330,9 +314,10 @@ public class ACLAgent extends Agent {
 	protected final Iterator<ACLMessage> peekACLMessages() {
 
 		LinkedList<ACLMessage> resultList = new LinkedList<ACLMessage>();
+		ACLMessageIndex index = getACLMessageIndex();
 
 		for(ACLTransportMessage msg : peekMessages(ACLTransportMessage.class)) {
-			ACLMessage aMsg = getAclMessageFromTransportMessage( msg ) ;
+			ACLMessage aMsg = index.getMessage( msg ) ;
 
 			if(aMsg != null){
 				resultList.add( aMsg );
@@ -362,20 +347,7 @@ public class ACLAgent extends Agent {
 	 * for the given protocol and performatives, otherwise <code>false</code>
 	 */
 	public final boolean hasACLMessages(EnumFipaProtocol protocol, Performative... performative) {
-		List<Performative> performatives = Arrays.asList(performative);
-		
-		for(ACLTransportMessage msg : peekMessages(ACLTransportMessage.class)) {
-			ACLMessage aMsg = getAclMessageFromTransportMessage( msg ) ;
-			if(aMsg != null 
-					&& ( performatives.contains(aMsg.getPerformative()) )
-					&& ( aMsg.getProtocol() == protocol)
-					)
-			{
-				return true;
-			}
-		}
-
-		return false;
+		return getACLMessageIndex().getFirst(protocol, performative) != null;
 	}
 
 	/**
@@ -391,6 +363,9 @@ public class ACLAgent extends Agent {
 		{
 			try{
 				ACLMessage aMsg = getAclMessageHandler().prepareIncomingMessage( tMsg ) ;
+				if (aMsg != null) {
+					tMsg.cacheHeaders( aMsg );
+				}
 				return aMsg;
 			}
 			catch(Exception e){
@@ -401,6 +376,40 @@ public class ACLAgent extends Agent {
 		return null;
 	}
 
+	/**
+	 * Replies the index of the ACL Messages after the indexation
+	 * of the messages arrived in the mailbox.
+	 * 
+	 * @return the index of the ACL Messages
+	 */
+	private ACLMessageIndex getACLMessageIndex() {
+		Mailbox mailbox = getMailbox();
+		if (this.aclMessageIndex == null || this.aclMessageIndex.getMailbox() != mailbox) {
+			if (this.aclMessageIndex != null) {
+				this.aclMessageIndex.release();
+			}
+			this.aclMessageIndex = new ACLMessageIndex(this, mailbox);
+		}
+		this.aclMessageIndex.update();
+		return this.aclMessageIndex;
+	}
+	
+	/**
+	 * Removes the given transport message from the mailbox
+	 * and replies the corresponding ACL Message.
+	 * 
+	 * @param index is the index of the ACL Messages
+	 * @param tMsg is the transport message to consume, may be <code>null</code>
+	 * @return the ACL Message, or <code>null</code>
+	 */
+	private ACLMessage consumeACLMessage(ACLMessageIndex index, ACLTransportMessage tMsg) {
+		if (tMsg == null) return null;
+		ACLMessage aMsg = index.getMessage( tMsg );
+		getMailbox().remove( tMsg );
+		index.remove( tMsg );
+		return aMsg;
+	}
+
 	/**
 	 * Gets the ACL Message Handler for the agent
 	 * 
@@ -434,4 +443,4 @@ public class ACLAgent extends Agent {
 		message.setEncoding(this.payloadEncoding.getValue());
 		message.setSender(getAddress());
 	}
-}
\ No newline at end of file
+}
\ No newline at end of file
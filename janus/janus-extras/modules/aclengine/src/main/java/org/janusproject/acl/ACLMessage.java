@@ -28,7 +28,6 @@ import java.util.Properties;
 import java.util.UUID;
 
 import org.janusproject.acl.encoding.StringACLCodec;
-import org.janusproject.acl.encoding.xml.XMLACLCodec;
 import org.janusproject.acl.encoding.xml.XMLACLCodecHelper;
 import org.janusproject.acl.protocol.EnumFipaProtocol;
 import org.janusproject.kernel.address.AgentAddress;
@@ -95,7 +94,7 @@ public class ACLMessage
 	 * @return a string representing this ACL Message.
 	 */
 	public String toXML() {
-		return XMLACLCodecHelper.format(XMLACLCodec.toXML(this));
+		return XMLACLCodecHelper.toPrettyXML(this);
 	}
 	
 	/**
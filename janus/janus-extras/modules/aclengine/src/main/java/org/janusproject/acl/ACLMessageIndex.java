@@ -0,0 +1,501 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.acl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.janusproject.acl.protocol.EnumFipaProtocol;
+import org.janusproject.kernel.mailbox.AbstractMailbox;
+import org.janusproject.kernel.mailbox.Mailbox;
+import org.janusproject.kernel.mailbox.MailboxListener;
+import org.janusproject.kernel.message.FirstArrivedMessageComparator;
+import org.janusproject.kernel.message.Message;
+import org.janusproject.kernel.util.selector.TypeSelector;
+
+/**
+ * Index of the ACL Messages which are inside the mailbox of an agent.
+ * <p>
+ * The ACL Messages are indexed by conversation id and by
+ * protocol and performative. The payload of each transport message
+ * is decoded at most once by the agent: the headers are cached in
+ * the {@link ACLTransportMessage}, and the decoded ACL Message is
+ * cached in this index.
+ * <p>
+ * The index is a {@link MailboxListener}: the transport messages
+ * are queued when they arrive in the mailbox, and they are indexed
+ * by the agent on its next lookup. The whole mailbox is traversed
+ * only when its content changed in bulk, or when the mailbox does
+ * not notify about the arrivals.
+ * The transport messages that are removed from the mailbox without
+ * this index are dropped when a lookup reaches them.
+ * <p>
+ * The indexed messages are sorted in the order of the mailbox,
+ * so that a lookup replies the same message as a traversal
+ * of the mailbox.
+ * <p>
+ * Except {@link #messageArrived(Mailbox, Message)}, the functions
+ * of the index are not synchronized; they must be invoked by the
+ * agent's thread only.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $Groupid$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+class ACLMessageIndex implements MailboxListener {
+
+	private final ACLAgent agent;
+	
+	private final Mailbox mailbox;
+	
+	/**
+	 * Order of the entries, which is the order of the mailbox.
+	 */
+	private final Comparator<Entry> comparator;
+	
+	/**
+	 * Indicates if the mailbox is notifying this index about the arrivals.
+	 */
+	private final boolean listening;
+	
+	/**
+	 * Transport messages which have arrived since the last update.
+	 */
+	private final Queue<ACLTransportMessage> arrivals = new ConcurrentLinkedQueue<ACLTransportMessage>();
+	
+	/**
+	 * Indicates if the whole mailbox must be traversed on the next update.
+	 */
+	private volatile boolean resynchronize = true;
+	
+	/**
+	 * Indexed transport messages.
+	 */
+	private final Map<ACLTransportMessage,Entry> entries = new IdentityHashMap<ACLTransportMessage,Entry>();
+
+	/**
+	 * Indexed transport messages per conversation.
+	 */
+	private final Map<UUID,SortedSet<Entry>> conversations = new HashMap<UUID,SortedSet<Entry>>();
+	
+	/**
+	 * Indexed transport messages per protocol and performative.
+	 */
+	private final Map<EnumFipaProtocol,Map<Performative,SortedSet<Entry>>> protocols
+		= new EnumMap<EnumFipaProtocol,Map<Performative,SortedSet<Entry>>>(EnumFipaProtocol.class);
+
+	/**
+	 * Counter used to order the indexed transport messages
+	 * which are equal according to the mailbox.
+	 */
+	private long order = 0;
+	
+	/**
+	 * Counter of the synchronizations with the mailbox.
+	 */
+	private long epoch = 0;
+	
+	/**
+	 * @param agent is the agent which owns the mailbox.
+	 * @param mailbox is the mailbox to index.
+	 */
+	public ACLMessageIndex(ACLAgent agent, Mailbox mailbox) {
+		this.agent = agent;
+		this.mailbox = mailbox;
+		Comparator<? super Message> mailboxComparator = mailbox.comparator();
+		if (mailboxComparator==null || mailboxComparator instanceof FirstArrivedMessageComparator) {
+			// The mailbox is sorted by arrival, which is the order of the entries
+			this.comparator = new EntryComparator(null);
+		}
+		else {
+			this.comparator = new EntryComparator(mailboxComparator);
+		}
+		if (mailbox instanceof AbstractMailbox) {
+			((AbstractMailbox)mailbox).addMailboxListener(this);
+			this.listening = true;
+		}
+		else {
+			this.listening = false;
+		}
+	}
+	
+	/**
+	 * Replies the indexed mailbox.
+	 * 
+	 * @return the indexed mailbox.
+	 */
+	public Mailbox getMailbox() {
+		return this.mailbox;
+	}
+	
+	/**
+	 * Stop to listen on the mailbox.
+	 */
+	public void release() {
+		if (this.listening) {
+			((AbstractMailbox)this.mailbox).removeMailboxListener(this);
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void messageArrived(Mailbox source, Message message) {
+		if (message==null) {
+			this.resynchronize = true;
+		}
+		else if (message instanceof ACLTransportMessage) {
+			this.arrivals.offer((ACLTransportMessage)message);
+		}
+	}
+	
+	/**
+	 * Index the transport messages which have arrived in the mailbox
+	 * since the last update.
+	 * <p>
+	 * When the mailbox has changed in bulk, or when it does not
+	 * notify about the arrivals, or when the index contains
+	 * too many messages that were removed from the mailbox without
+	 * this index, the index is synchronized with the whole mailbox.
+	 */
+	public void update() {
+		if (!this.listening || this.resynchronize
+			|| this.entries.size() > 2 * this.mailbox.size() + 16) {
+			this.resynchronize = false;
+			// The messages arriving from now are either traversed
+			// by the synchronization or queued
+			this.arrivals.clear();
+			synchronize(this.mailbox.iterable(new TypeSelector<ACLTransportMessage>(ACLTransportMessage.class), false));
+		}
+		else {
+			ACLTransportMessage msg;
+			while ((msg = this.arrivals.poll())!=null) {
+				if (!this.entries.containsKey(msg)) {
+					index(msg);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Synchronize this index with the content of the mailbox.
+	 * <p>
+	 * The new transport messages are indexed, and the
+	 * transport messages that are no more inside the mailbox
+	 * are removed from this index.
+	 * The complexity of this function is linear in the size of the
+	 * mailbox. Only the new transport messages are decoded.
+	 * 
+	 * @param messages are the transport messages inside the mailbox.
+	 */
+	private void synchronize(Iterable<ACLTransportMessage> messages) {
+		++this.epoch;
+		int found = 0;
+		Entry entry;
+		for(ACLTransportMessage msg : messages) {
+			entry = this.entries.get(msg);
+			if (entry==null) {
+				entry = index(msg);
+			}
+			entry.epoch = this.epoch;
+			++found;
+		}
+		if (found!=this.entries.size()) {
+			Iterator<Entry> iterator = this.entries.values().iterator();
+			while (iterator.hasNext()) {
+				entry = iterator.next();
+				if (entry.epoch!=this.epoch) {
+					iterator.remove();
+					unlink(entry);
+				}
+			}
+		}
+	}
+	
+	private Entry index(ACLTransportMessage msg) {
+		Entry entry = new Entry(msg, this.order++);
+		entry.epoch = this.epoch;
+		if (!msg.hasCachedHeaders()) {
+			// Decode the message to retreive the headers
+			entry.getMessage(this.agent);
+		}
+		this.entries.put(msg, entry);
+		
+		if (msg.hasCachedHeaders()) {
+			entry.performative = msg.getPerformative();
+			
+			UUID conversationId = msg.getConversationId();
+			if (conversationId!=null) {
+				SortedSet<Entry> set = this.conversations.get(conversationId);
+				if (set==null) {
+					set = new TreeSet<Entry>(this.comparator);
+					this.conversations.put(conversationId, set);
+				}
+				set.add(entry);
+				entry.conversationId = conversationId;
+			}
+
+			EnumFipaProtocol protocol = msg.getProtocol();
+			if (protocol!=null && entry.performative!=null) {
+				Map<Performative,SortedSet<Entry>> performatives = this.protocols.get(protocol);
+				if (performatives==null) {
+					performatives = new EnumMap<Performative,SortedSet<Entry>>(Performative.class);
+					this.protocols.put(protocol, performatives);
+				}
+				SortedSet<Entry> set = performatives.get(entry.performative);
+				if (set==null) {
+					set = new TreeSet<Entry>(this.comparator);
+					performatives.put(entry.performative, set);
+				}
+				set.add(entry);
+				entry.protocol = protocol;
+			}
+		}
+		
+		return entry;
+	}
+	
+	private void unlink(Entry entry) {
+		if (entry.conversationId!=null) {
+			SortedSet<Entry> set = this.conversations.get(entry.conversationId);
+			if (set!=null && set.remove(entry) && set.isEmpty()) {
+				this.conversations.remove(entry.conversationId);
+			}
+		}
+		if (entry.protocol!=null) {
+			Map<Performative,SortedSet<Entry>> performatives = this.protocols.get(entry.protocol);
+			if (performatives!=null) {
+				SortedSet<Entry> set = performatives.get(entry.performative);
+				if (set!=null && set.remove(entry) && set.isEmpty()) {
+					performatives.remove(entry.performative);
+					if (performatives.isEmpty()) this.protocols.remove(entry.protocol);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Replies the decoded ACL Message for the given transport message.
+	 * 
+	 * @param msg is the transport message.
+	 * @return the decoded ACL Message, or <code>null</code> if it cannot be decoded.
+	 */
+	public ACLMessage getMessage(ACLTransportMessage msg) {
+		Entry entry = this.entries.get(msg);
+		if (entry!=null) return entry.getMessage(this.agent);
+		return this.agent.getAclMessageFromTransportMessage(msg);
+	}
+	
+	/**
+	 * Remove the given transport message from this index.
+	 * 
+	 * @param msg is the transport message.
+	 */
+	public void remove(ACLTransportMessage msg) {
+		Entry entry = this.entries.remove(msg);
+		if (entry!=null) unlink(entry);
+	}
+	
+	/**
+	 * Replies the first transport message of the given conversation.
+	 * 
+	 * @param conversationId is the identifier of the conversation.
+	 * @return the first transport message of the conversation, or <code>null</code>.
+	 */
+	public ACLTransportMessage getFirst(UUID conversationId) {
+		Entry entry = first(this.conversations.get(conversationId), null);
+		return (entry==null) ? null : entry.transportMessage;
+	}
+
+	/**
+	 * Replies the first transport message of the given conversation
+	 * with one of the given performatives.
+	 * 
+	 * @param conversationId is the identifier of the conversation.
+	 * @param performatives are the expected performatives.
+	 * @return the first transport message, or <code>null</code>.
+	 */
+	public ACLTransportMessage getFirst(UUID conversationId, Performative... performatives) {
+		Entry entry = first(this.conversations.get(conversationId), performatives);
+		return (entry==null) ? null : entry.transportMessage;
+	}
+
+	/**
+	 * Replies the first transport message for the given protocol
+	 * with one of the given performatives.
+	 * 
+	 * @param protocol is the protocol.
+	 * @param performatives are the expected performatives.
+	 * @return the first transport message, or <code>null</code>.
+	 */
+	public ACLTransportMessage getFirst(EnumFipaProtocol protocol, Performative... performatives) {
+		Map<Performative,SortedSet<Entry>> map = this.protocols.get(protocol);
+		if (map!=null) {
+			Entry first = null;
+			Entry entry;
+			for(Performative performative : performatives) {
+				entry = first(map.get(performative), null);
+				if (entry!=null && (first==null || this.comparator.compare(entry, first)<0)) {
+					first = entry;
+				}
+			}
+			if (first!=null) return first.transportMessage;
+		}
+		return null;
+	}
+	
+	/**
+	 * Replies the first entry of the given set which has one of
+	 * the given performatives and which is still inside the mailbox.
+	 * The entries that are no more inside the mailbox are removed
+	 * from this index.
+	 * 
+	 * @param set is the set of entries, or <code>null</code>.
+	 * @param performatives are the expected performatives, or <code>null</code> for any.
+	 * @return the first entry, or <code>null</code>.
+	 */
+	private Entry first(SortedSet<Entry> set, Performative[] performatives) {
+		if (set==null) return null;
+		Entry found = null;
+		List<Entry> stale = null;
+		for(Entry entry : set) {
+			if (performatives==null || contains(performatives, entry.performative)) {
+				if (this.mailbox.contains(entry.transportMessage)) {
+					found = entry;
+					break;
+				}
+				if (stale==null) stale = new ArrayList<Entry>();
+				stale.add(entry);
+			}
+		}
+		if (stale!=null) {
+			for(Entry entry : stale) {
+				remove(entry.transportMessage);
+			}
+		}
+		return found;
+	}
+	
+	private static boolean contains(Performative[] performatives, Performative performative) {
+		for(Performative p : performatives) {
+			if (p==performative) return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Indexed transport message.
+	 * 
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $Groupid$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	private static class Entry {
+		
+		public final ACLTransportMessage transportMessage;
+		public final long order;
+		public long epoch = 0;
+		public UUID conversationId = null;
+		public EnumFipaProtocol protocol = null;
+		public Performative performative = null;
+		private boolean decoded = false;
+		private ACLMessage message = null;
+		
+		/**
+		 * @param transportMessage
+		 * @param order
+		 */
+		public Entry(ACLTransportMessage transportMessage, long order) {
+			this.transportMessage = transportMessage;
+			this.order = order;
+		}
+		
+		/**
+		 * Replies the decoded ACL Message.
+		 * 
+		 * @param agent is the agent which is able to decode the message.
+		 * @return the decoded message, or <code>null</code> if it cannot be decoded.
+		 */
+		public ACLMessage getMessage(ACLAgent agent) {
+			if (!this.decoded) {
+				this.decoded = true;
+				this.message = agent.getAclMessageFromTransportMessage(this.transportMessage);
+			}
+			return this.message;
+		}
+		
+	}
+	
+	/**
+	 * Comparator of the indexed transport messages, which
+	 * is using the comparator of the mailbox and then
+	 * the order of indexation.
+	 * 
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $Groupid$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	private static class EntryComparator implements Comparator<Entry> {
+		
+		private final Comparator<? super Message> mailboxComparator;
+		
+		/**
+		 * @param mailboxComparator is the comparator of the mailbox,
+		 * or <code>null</code> to use the order of indexation only.
+		 */
+		public EntryComparator(Comparator<? super Message> mailboxComparator) {
+			this.mailboxComparator = mailboxComparator;
+		}
+		
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int compare(Entry o1, Entry o2) {
+			if (o1==o2) return 0;
+			if (this.mailboxComparator!=null) {
+				int cmp = this.mailboxComparator.compare(o1.transportMessage, o2.transportMessage);
+				if (cmp!=0) return cmp;
+			}
+			return (o1.order<o2.order) ? -1 : ((o1.order==o2.order) ? 0 : 1);
+		}
+		
+	}
+	
+}
@@ -20,12 +20,20 @@
  */
 package org.janusproject.acl;
 
+import java.util.UUID;
+
+import org.janusproject.acl.protocol.EnumFipaProtocol;
 import org.janusproject.kernel.message.ObjectMessage;
 
 /**
  * This class extends ObjectMessage and is used to
  * transport the encoded ACLMessage (payload) via
  * the Message Transport Service
+ * <p>
+ * The headers of the transported ACLMessage (performative,
+ * protocol and conversation id) are cached inside this
+ * message when the payload is decoded for the first time.
+ * The cached headers are not serialized.
  * 
  * @author $Author: madeline$
  * @author $Author: kleroy$
@@ -38,6 +46,12 @@ import org.janusproject.kernel.message.ObjectMessage;
 public class ACLTransportMessage extends ObjectMessage
 {
 	private static final long serialVersionUID = -296154029511090541L;
+	
+	/**
+	 * The headers of the transported ACLMessage, or <code>null</code>
+	 * if the payload was never decoded.
+	 */
+	private transient volatile Header header = null;
 
 	/**
 	 * Creates a new ACLTransportMessage containing
@@ -59,4 +73,95 @@ public class ACLTransportMessage extends ObjectMessage
 	public byte[] getPayload() {
 		return getContent(byte[].class);
 	}
+	
+	/**
+	 * Replies if the headers of the transported ACLMessage
+	 * are already known.
+	 * 
+	 * @return <code>true</code> if the performative, the protocol and
+	 * the conversation id are cached, otherwise <code>false</code>
+	 * @since 1.1
+	 */
+	public boolean hasCachedHeaders() {
+		return this.header!=null;
+	}
+	
+	/**
+	 * Getter of the performative of the transported ACLMessage
+	 * 
+	 * @return the performative, or <code>null</code> if the headers
+	 * were not cached
+	 * @since 1.1
+	 */
+	public Performative getPerformative() {
+		Header h = this.header;
+		return (h==null) ? null : h.performative;
+	}
+
+	/**
+	 * Getter of the protocol of the transported ACLMessage
+	 * 
+	 * @return the protocol, or <code>null</code> if the headers
+	 * were not cached or if no protocol is set
+	 * @since 1.1
+	 */
+	public EnumFipaProtocol getProtocol() {
+		Header h = this.header;
+		return (h==null) ? null : h.protocol;
+	}
+
+	/**
+	 * Getter of the conversation id of the transported ACLMessage
+	 * 
+	 * @return the conversation id, or <code>null</code> if the headers
+	 * were not cached or if no conversation id is set
+	 * @since 1.1
+	 */
+	public UUID getConversationId() {
+		Header h = this.header;
+		return (h==null) ? null : h.conversationId;
+	}
+	
+	/**
+	 * Caches the headers of the given ACLMessage, which is
+	 * the decoded payload of this transport message.
+	 * 
+	 * @param aMsg is the decoded ACLMessage
+	 */
+	void cacheHeaders(ACLMessage aMsg) {
+		if (this.header==null) {
+			this.header = new Header(
+					aMsg.getPerformative(),
+					aMsg.getProtocol(),
+					aMsg.getConversationId());
+		}
+	}
+	
+	/**
+	 * Headers of the transported ACLMessage.
+	 * 
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $Groupid$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	private static class Header {
+		
+		public final Performative performative;
+		public final EnumFipaProtocol protocol;
+		public final UUID conversationId;
+		
+		/**
+		 * @param performative
+		 * @param protocol
+		 * @param conversationId
+		 */
+		public Header(Performative performative, EnumFipaProtocol protocol, UUID conversationId) {
+			this.performative = performative;
+			this.protocol = protocol;
+			this.conversationId = conversationId;
+		}
+		
+	}
 }
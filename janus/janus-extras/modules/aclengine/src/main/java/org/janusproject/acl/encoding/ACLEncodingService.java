@@ -20,6 +20,7 @@
  */
 package org.janusproject.acl.encoding;
 
+import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -70,6 +71,39 @@ public class ACLEncodingService
 	 */
 	private static int BIG_ENVELOPE_LENGTH = 6;
 	
+	/*
+	 * The codecs are stateless, so that they are shared
+	 * by all the encoding services.
+	 */
+	private static final ACLMessageContentEncodingService BIT_EFFICIENT_CODEC = new BitEfficientACLCodec();
+	private static final ACLMessageContentEncodingService STRING_CODEC = new StringACLCodec();
+	private static final ACLMessageContentEncodingService XML_CODEC = new XMLACLCodec();
+	private static final ACLMessageContentEncodingService JSON_CODEC = new JSONACLCodec();
+	private static final ACLMessageContentEncodingService BSON_CODEC = new BSONACLCodec();
+	private static final ACLMessageEnvelopeEncodingService BIT_EFFICIENT_ENVELOPE_CODEC = new BitEfficientEnvelopeCodec();
+	private static final ACLMessageEnvelopeEncodingService XML_ENVELOPE_CODEC = new XMLEnvelopeCodec();
+	
+	/**
+	 * The initial size of the pooled buffers.
+	 */
+	private static final int INITIAL_BUFFER_SIZE = 4096;
+	
+	/**
+	 * The maximal size of a pooled buffer. The larger buffers
+	 * are allocated for a single message.
+	 */
+	private static final int MAX_POOLED_BUFFER_SIZE = 1024 * 1024;
+	
+	/**
+	 * The buffers in which the payloads are built, one per thread.
+	 */
+	private static final ThreadLocal<ByteBuffer> BUFFERS = new ThreadLocal<ByteBuffer>() {
+		@Override
+		protected ByteBuffer initialValue() {
+			return ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+		}
+	};
+	
 	/**
 	 * Creates a new ACLEncodingService.
 	 */
@@ -97,7 +131,13 @@ public class ACLEncodingService
 			e.printStackTrace();
 		}
 		
-    	return buildEncodedACLMessage(this.contentEncodingService.encode(aMsg), this.envelopeEncodingService.encode(aMsg.getEnvelope()));
+    	byte[] encodedEnvelope = this.envelopeEncodingService.encode(aMsg.getEnvelope());
+    	
+    	if (this.contentEncodingService instanceof ACLMessageContentBufferEncodingService) {
+    		return buildEncodedACLMessage(aMsg, (ACLMessageContentBufferEncodingService) this.contentEncodingService, encodedEnvelope);
+    	}
+    	
+    	return buildEncodedACLMessage(this.contentEncodingService.encode(aMsg), encodedEnvelope);
     }
 
 	/**
@@ -135,18 +175,68 @@ public class ACLEncodingService
 		int totalLength = envelopeLength + contentLength + envelopeSizeLength;
 		ByteBuffer completePayload = ByteBuffer.allocate(totalLength);
 		
-		if ( envelopeSizeLength == ENVELOPE_LENGTH ) {
-			completePayload.putShort( (short) envelopeLength );
+		putEnvelope(completePayload, encodedEnvelope);
+		completePayload.put( encodedContent );	
+		
+		return completePayload.array();
+	}
+	
+	/**
+	 * Gets the payload for a given message, when the content
+	 * encoding service is able to write in a buffer.
+	 * <p>
+	 * The envelope and the content are written in a single buffer
+	 * that is pooled by the current thread. The buffer is enlarged
+	 * when it is too small for the message.
+	 * 
+	 * @param aMsg is the ACL Message to encode
+	 * @param contentEncoder is the encoder of the content
+	 * @param encodedEnvelope is the ACLMessageEnvelope encode in an array of bytes
+	 * @return the payload
+	 * @see #buildEncodedACLMessage(byte[], byte[])
+	 */
+	private static byte[] buildEncodedACLMessage(ACLMessage aMsg, ACLMessageContentBufferEncodingService contentEncoder, byte[] encodedEnvelope) {
+		ByteBuffer buffer = BUFFERS.get();
+		while (true) {
+			buffer.clear();
+			try {
+				putEnvelope(buffer, encodedEnvelope);
+				contentEncoder.encode(aMsg, buffer);
+				break;
+			}
+			catch(BufferOverflowException _) {
+				buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+				if (buffer.capacity() <= MAX_POOLED_BUFFER_SIZE) {
+					BUFFERS.set(buffer);
+				}
+			}
+		}
+		
+		byte[] payload = new byte[buffer.position()];
+		buffer.flip();
+		buffer.get(payload);
+		return payload;
+	}
+	
+	/**
+	 * Writes the length of the envelope and the envelope in the given buffer.
+	 * 
+	 * @param buffer is the buffer to fill
+	 * @param encodedEnvelope is the ACLMessageEnvelope encode in an array of bytes
+	 * @see #buildEncodedACLMessage(byte[], byte[])
+	 */
+	private static void putEnvelope(ByteBuffer buffer, byte[] encodedEnvelope) {
+		int envelopeLength = encodedEnvelope.length;
+		
+		if ( envelopeLength < Short.MAX_VALUE ) {
+			buffer.putShort( (short) envelopeLength );
 		} 
 		else {
-			completePayload.putShort( (short) 0 );
-			completePayload.putInt( envelopeSizeLength );
+			buffer.putShort( (short) 0 );
+			buffer.putInt( envelopeLength );
 		}
 		
-		completePayload.put( encodedEnvelope );
-		completePayload.put( encodedContent );	
-		
-		return completePayload.array();
+		buffer.put( encodedEnvelope );
 	}
 
 	/**
@@ -174,7 +264,7 @@ public class ACLEncodingService
 	 */
     public ACLMessage decode(ACLTransportMessage tMsg, Object... parameters)
     {		
-    	this.envelopeEncodingService = new BitEfficientEnvelopeCodec();
+    	this.envelopeEncodingService = BIT_EFFICIENT_ENVELOPE_CODEC;
 		
 		ByteBuffer payloadBuffer = ByteBuffer.wrap(tMsg.getPayload());
 		
@@ -199,11 +289,18 @@ public class ACLEncodingService
 		}
 		
 		// GET CONTENT :
-		int contentLength = payloadBuffer.capacity() - envelopeLength - envelopeSizeLength;
-		byte[] encodedContent = new byte[contentLength];
 		payloadBuffer.position(envelopeLength + envelopeSizeLength);
-		payloadBuffer.get(encodedContent, 0, contentLength);
-		ACLMessageContent content = this.contentEncodingService.decode(encodedContent);
+		ACLMessageContent content;
+		if (this.contentEncodingService instanceof ACLMessageContentBufferEncodingService) {
+			// Read the content from the payload without copy
+			content = ((ACLMessageContentBufferEncodingService) this.contentEncodingService).decode(payloadBuffer.slice());
+		}
+		else {
+			int contentLength = payloadBuffer.capacity() - envelopeLength - envelopeSizeLength;
+			byte[] encodedContent = new byte[contentLength];
+			payloadBuffer.get(encodedContent, 0, contentLength);
+			content = this.contentEncodingService.decode(encodedContent);
+		}
 		
 		return new ACLMessage(envelope, content);
     }
@@ -243,19 +340,19 @@ public class ACLEncodingService
     	String aclRepresentation = envelope.getAclRepresentation();
     	
     	if (aclRepresentation.equalsIgnoreCase(ACLRepresentation.BIT_EFFICIENT.getValue())) {
-    		this.contentEncodingService = new BitEfficientACLCodec();
+    		this.contentEncodingService = BIT_EFFICIENT_CODEC;
 		} 
     	else if (aclRepresentation.equalsIgnoreCase(ACLRepresentation.STRING.getValue())) {
-    		this.contentEncodingService = new StringACLCodec();
+    		this.contentEncodingService = STRING_CODEC;
 		} 
     	else if (aclRepresentation.equalsIgnoreCase(ACLRepresentation.XML.getValue())) {
-    		this.contentEncodingService = new XMLACLCodec();
+    		this.contentEncodingService = XML_CODEC;
     	}
     	else if (aclRepresentation.equalsIgnoreCase(ACLRepresentation.JSON.getValue())) {
-    		this.contentEncodingService = new JSONACLCodec();
+    		this.contentEncodingService = JSON_CODEC;
     	}
     	else if (aclRepresentation.equalsIgnoreCase(ACLRepresentation.BSON.getValue())) {
-    		this.contentEncodingService = new BSONACLCodec();
+    		this.contentEncodingService = BSON_CODEC;
 		} else {
 			throw new UnspecifiedACLMessageRepresentationException();
 		}
@@ -276,24 +373,24 @@ public class ACLEncodingService
     	String aclRepresentation = envelope.getAclRepresentation();
     	
     	if (aclRepresentation.equalsIgnoreCase(ACLRepresentation.BIT_EFFICIENT.getValue())) {
-    		this.contentEncodingService = new BitEfficientACLCodec();
-			this.envelopeEncodingService = new BitEfficientEnvelopeCodec();
+    		this.contentEncodingService = BIT_EFFICIENT_CODEC;
+			this.envelopeEncodingService = BIT_EFFICIENT_ENVELOPE_CODEC;
 		} 
     	else if (aclRepresentation.equalsIgnoreCase(ACLRepresentation.STRING.getValue())) {
-    		this.contentEncodingService = new StringACLCodec();
-			this.envelopeEncodingService = new BitEfficientEnvelopeCodec();
+    		this.contentEncodingService = STRING_CODEC;
+			this.envelopeEncodingService = BIT_EFFICIENT_ENVELOPE_CODEC;
 		} 
     	else if (aclRepresentation.equalsIgnoreCase(ACLRepresentation.XML.getValue())) {
-    		this.contentEncodingService = new XMLACLCodec();
-    		this.envelopeEncodingService = new XMLEnvelopeCodec();
+    		this.contentEncodingService = XML_CODEC;
+    		this.envelopeEncodingService = XML_ENVELOPE_CODEC;
     	}
     	else if (aclRepresentation.equalsIgnoreCase(ACLRepresentation.JSON.getValue())) {
-    		this.contentEncodingService = new JSONACLCodec();
-    		this.envelopeEncodingService = new BitEfficientEnvelopeCodec();
+    		this.contentEncodingService = JSON_CODEC;
+    		this.envelopeEncodingService = BIT_EFFICIENT_ENVELOPE_CODEC;
 		}
     	else if (aclRepresentation.equalsIgnoreCase(ACLRepresentation.BSON.getValue())) {
-    		this.contentEncodingService = new BSONACLCodec();
-    		this.envelopeEncodingService = new BitEfficientEnvelopeCodec();
+    		this.contentEncodingService = BSON_CODEC;
+    		this.envelopeEncodingService = BIT_EFFICIENT_ENVELOPE_CODEC;
     	}
     	else {
 			throw new UnspecifiedACLMessageRepresentationException();
@@ -0,0 +1,67 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.acl.encoding;
+
+import java.nio.ByteBuffer;
+
+import org.janusproject.acl.ACLMessage;
+import org.janusproject.acl.ACLMessageContent;
+
+/**
+ * This interface describes an EncodingService which is able to encode
+ * the ACLMessageContent of an ACLMessage directly in a {@link ByteBuffer},
+ * and to decode it from a {@link ByteBuffer} without intermediate array.
+ * <p>
+ * The {@link ACLEncodingService} writes the envelope and the content
+ * in a single buffer when the content encoding service implements
+ * this interface.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $Groupid$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public interface ACLMessageContentBufferEncodingService extends ACLMessageContentEncodingService
+{
+    /**
+     * This method encodes the ACLMessageContent of an ACLMessage in the matching type,
+     * starting at the current position of the given buffer.
+     * <p>
+     * If the buffer has not enough remaining space, a
+     * {@link java.nio.BufferOverflowException} is thrown and the
+     * content of the buffer after its initial position is unspecified.
+     * 
+     * @param aMsg the ACLMessage containing the ACLMessageContent
+     * @param buffer the buffer in which the ACLMessageContent is encoded
+     */
+    public void encode(ACLMessage aMsg, ByteBuffer buffer);
+    
+    /**
+     * This method decodes the ACLMessageContent of an ACLMessage encoded in the matching type,
+     * from the current position of the given buffer to its limit.
+     * 
+     * @param buffer the buffer that contains the encoded ACLMessageContent
+     * @param parameters
+     * @return the ACLMessageContent decoded
+     */
+    public ACLMessageContent decode(ByteBuffer buffer, Object... parameters);
+}
@@ -36,13 +36,17 @@ import de.undercouch.bson4jackson.BsonFactory;
  */
 public class BSONACLCodec extends JSONACLCodec {
 
+	private static final ObjectMapper BSON_MAPPER = new ObjectMapper(new BsonFactory());
+
 	/**
-	 * Return BSON ObjectMapper, used to convert Map to BSON String
+	 * Return BSON ObjectMapper, which provides the factory of the BSON streams.
+	 * <p>
+	 * The replied mapper is shared by all the BSON codecs.
 	 * 
-	 * @return the BSON mapper.
+	 * @return the shared BSON mapper.
 	 */
 	@Override
 	protected ObjectMapper getMapper() {
-		return new ObjectMapper(new BsonFactory());
+		return BSON_MAPPER;
 	}
 }
@@ -24,16 +24,17 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.arakhne.afc.vmutil.locale.Locale;
-import org.codehaus.jackson.JsonGenerationException;
-import org.codehaus.jackson.JsonParseException;
-import org.codehaus.jackson.map.JsonMappingException;
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
 import org.codehaus.jackson.map.ObjectMapper;
-import org.codehaus.jackson.type.TypeReference;
 import org.janusproject.acl.ACLMessage;
 import org.janusproject.acl.ACLMessageContent;
 import org.janusproject.kernel.address.AgentAddress;
@@ -42,6 +43,10 @@ import org.janusproject.kernel.crio.core.AddressUtil;
 /**
  * This class encodes an ACLMessageContent in JSON or decodes an
  * ACLMessageContent encoded in bytes to JSON
+ * <p>
+ * The content is directly written and read with the streaming
+ * API of Jackson, without building an intermediate map.
+ * The codec is stateless and may be shared between threads.
  * 
  * @author $Author: ngrenie$
  * @author $Author: bfeld$
@@ -51,78 +56,107 @@ import org.janusproject.kernel.crio.core.AddressUtil;
  */
 public class JSONACLCodec implements ACLMessageContentEncodingService {
 
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private static final String PERFORMATIVE = Locale.getString(JSONACLCodec.class, "PERFORMATIVE"); //$NON-NLS-1$
+	private static final String SENDER = Locale.getString(JSONACLCodec.class, "SENDER"); //$NON-NLS-1$
+	private static final String RECEIVERS = Locale.getString(JSONACLCodec.class, "RECEIVERS"); //$NON-NLS-1$
+	private static final String CONTENT = Locale.getString(JSONACLCodec.class, "CONTENT"); //$NON-NLS-1$
+	private static final String ENCODING = Locale.getString(JSONACLCodec.class, "ENCODING"); //$NON-NLS-1$
+	private static final String LANGUAGE = Locale.getString(JSONACLCodec.class, "LANGUAGE"); //$NON-NLS-1$
+	private static final String ONTOLOGY = Locale.getString(JSONACLCodec.class, "ONTOLOGY"); //$NON-NLS-1$
+	private static final String PROTOCOL = Locale.getString(JSONACLCodec.class, "PROTOCOL"); //$NON-NLS-1$
+	private static final String CONVERSATIONID = Locale.getString(JSONACLCodec.class, "CONVERSATIONID"); //$NON-NLS-1$
+	private static final String NAME = Locale.getString(JSONACLCodec.class, "NAME"); //$NON-NLS-1$
+	private static final String ID = Locale.getString(JSONACLCodec.class, "ID"); //$NON-NLS-1$
+
+	private final Logger logger = Logger.getLogger(getClass().getCanonicalName());
+
 	/**
 	 * Encodes a given ACL Message into an array of bytes.
+	 * <p>
+	 * If the message cannot be encoded, an empty array is replied.
 	 */
 	@Override
 	public byte[] encode(ACLMessage aMsg) {
-
-		Map<String, Object> output = new HashMap<String, Object>();
-
-		// Performative
-		output.put(Locale.getString(JSONACLCodec.class, "PERFORMATIVE"), aMsg //$NON-NLS-1$
-				.getPerformative().ordinal());
-
-		// Display SENDER
-		AgentAddress sender = aMsg.getSender();
-		if (sender != null) {
-			Map<String, String> sender_infos = new HashMap<String, String>();
-			sender_infos.put(Locale.getString(JSONACLCodec.class, "NAME"), //$NON-NLS-1$
-					sender.getName());
-			sender_infos.put(Locale.getString(JSONACLCodec.class, "ID"), sender //$NON-NLS-1$
-					.getUUID().toString());
-			output.put(Locale.getString(JSONACLCodec.class, "SENDER"), //$NON-NLS-1$
-					sender_infos);
-		}
-
-		// Display RECEIVERS
-		Collection<AgentAddress> receivers = aMsg.getReceiver();
-		Collection<Map<String, String>> receivers_infos = new ArrayList<Map<String, String>>();
-
-		if (receivers != null) {
-			for (AgentAddress receiver : receivers) {
-				Map<String, String> receiver_info = new HashMap<String, String>();
-				receiver_info.put(Locale.getString(JSONACLCodec.class, "NAME"), //$NON-NLS-1$
-						receiver.getName());
-				receiver_info.put(Locale.getString(JSONACLCodec.class, "ID"), //$NON-NLS-1$
-						receiver.getUUID().toString());
-				receivers_infos.add(receiver_info);
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try {
+			JsonGenerator generator = getFactory().createJsonGenerator(baos, JsonEncoding.UTF8);
+			try {
+				generator.writeStartObject();
+
+				// Performative
+				generator.writeNumberField(PERFORMATIVE, aMsg.getPerformative().ordinal());
+
+				// Display SENDER
+				AgentAddress sender = aMsg.getSender();
+				if (sender != null) {
+					generator.writeObjectFieldStart(SENDER);
+					writeAddress(generator, sender);
+					generator.writeEndObject();
+				}
+
+				// Display RECEIVERS
+				Collection<AgentAddress> receivers = aMsg.getReceiver();
+				if (receivers != null) {
+					generator.writeArrayFieldStart(RECEIVERS);
+					for (AgentAddress receiver : receivers) {
+						generator.writeStartObject();
+						writeAddress(generator, receiver);
+						generator.writeEndObject();
+					}
+					generator.writeEndArray();
+				}
+
+				// Display CONTENT
+				StringBuffer content = aMsg.getContent().getContent();
+				if (content != null && content.length() > 0) {
+					generator.writeStringField(CONTENT, content.toString().trim());
+				}
+
+				// Display ENCODING
+				writeStringField(generator, ENCODING, aMsg.getEncoding());
+
+				// Display LANGUAGE
+				writeStringField(generator, LANGUAGE, aMsg.getLanguage());
+
+				// Display ONTOLOGY
+				writeStringField(generator, ONTOLOGY, aMsg.getOntology());
+
+				// Display PROTOCOL
+				generator.writeStringField(PROTOCOL, aMsg.getProtocol().getName());
+
+				// Display CONVERSATION ID
+				UUID conversationId = aMsg.getConversationId();
+				if (conversationId != null) {
+					generator.writeStringField(CONVERSATIONID, conversationId.toString());
+				}
+
+				generator.writeEndObject();
+			}
+			finally {
+				generator.close();
 			}
-			output.put(Locale.getString(JSONACLCodec.class, "RECEIVERS"), //$NON-NLS-1$
-					receivers_infos);
 		}
-
-		// Display CONTENT
-		String content = aMsg.getContent().getContent().toString();
-		if (content != null && content.length() > 0) {
-			output.put(Locale.getString(JSONACLCodec.class, "CONTENT"), //$NON-NLS-1$
-					content.trim());
+		catch (IOException e) {
+			this.logger.log(Level.SEVERE, Locale.getString(JSONACLCodec.class, "ENCODING_ERROR", e.getLocalizedMessage()), e); //$NON-NLS-1$
+			return new byte[0];
 		}
+		return baos.toByteArray();
+	}
 
-		// Display ENCODING
-		output.put(Locale.getString(JSONACLCodec.class, "ENCODING"), //$NON-NLS-1$
-				aMsg.getEncoding());
-
-		// Display LANGUAGE
-		output.put(Locale.getString(JSONACLCodec.class, "LANGUAGE"), //$NON-NLS-1$
-				aMsg.getLanguage());
-
-		// Display ONTOLOGY
-		output.put(Locale.getString(JSONACLCodec.class, "ONTOLOGY"), //$NON-NLS-1$
-				aMsg.getOntology());
-
-		// Display PROTOCOL
-		output.put(Locale.getString(JSONACLCodec.class, "PROTOCOL"), aMsg //$NON-NLS-1$
-				.getProtocol().getName());
+	private static void writeAddress(JsonGenerator generator, AgentAddress address) throws IOException {
+		generator.writeStringField(NAME, address.getName());
+		generator.writeStringField(ID, address.getUUID().toString());
+	}
 
-		// Display CONVERSATION ID
-		UUID conversationId = aMsg.getConversationId();
-		if (conversationId != null) {
-			output.put(Locale.getString(JSONACLCodec.class, "CONVERSATIONID"), //$NON-NLS-1$
-					aMsg.getConversationId().toString());
+	private static void writeStringField(JsonGenerator generator, String name, String value) throws IOException {
+		if (value == null) {
+			generator.writeNullField(name);
+		}
+		else {
+			generator.writeStringField(name, value);
 		}
-
-		return fromMap(output);
 	}
 
 	/**
@@ -133,130 +167,125 @@ public class JSONACLCodec implements ACLMessageContentEncodingService {
 	public ACLMessageContent decode(byte[] byteMsg, Object... parameters) {
 		ACLMessage.Content content = new ACLMessage.Content();
 
-		Map<String, Object> json = fromBytes(byteMsg);
-
-		// PERFORMATIVE
-		content.setPerformative((Integer) json.get(Locale.getString(
-				JSONACLCodec.class, "PERFORMATIVE"))); //$NON-NLS-1$
-
-		// SENDER
-		if (json.containsKey(Locale.getString(JSONACLCodec.class, "SENDER"))) { //$NON-NLS-1$
-			@SuppressWarnings("unchecked")
-			String sender_id = (String) ((Map<String, Object>) json.get(Locale
-					.getString(JSONACLCodec.class, "SENDER"))).get(Locale //$NON-NLS-1$
-					.getString(JSONACLCodec.class, "ID")); //$NON-NLS-1$
-			content.setSender(AddressUtil.createAgentAddress(UUID
-					.fromString(sender_id)));
-		}
-
-		// RECEIVERS
-		if (json.containsKey(Locale.getString(JSONACLCodec.class, "RECEIVERS"))) { //$NON-NLS-1$
-			@SuppressWarnings("unchecked")
-			ArrayList<Map<String, Object>> json_receivers = (ArrayList<Map<String, Object>>) json
-					.get(Locale.getString(JSONACLCodec.class, "RECEIVERS")); //$NON-NLS-1$
-			Collection<AgentAddress> receivers = new ArrayList<AgentAddress>();
-
-			for (int i = 0; i < json_receivers.size(); i++) {
-				String receiver_info = (String) json_receivers.get(i).get(
-						Locale.getString(JSONACLCodec.class, "ID")); //$NON-NLS-1$
-				receivers.add(AddressUtil.createAgentAddress(UUID
-						.fromString(receiver_info)));
+		try {
+			JsonParser parser = getFactory().createJsonParser(byteMsg);
+			try {
+				if (parser.nextToken() != JsonToken.START_OBJECT) {
+					return null;
+				}
+				String field;
+				JsonToken value;
+				while (parser.nextToken() == JsonToken.FIELD_NAME) {
+					field = parser.getCurrentName();
+					value = parser.nextToken();
+
+					if (PERFORMATIVE.equals(field)) {
+						content.setPerformative(parser.getIntValue());
+					}
+					else if (SENDER.equals(field) && value == JsonToken.START_OBJECT) {
+						UUID sender = readAddress(parser);
+						if (sender != null) {
+							content.setSender(AddressUtil.createAgentAddress(sender));
+						}
+					}
+					else if (RECEIVERS.equals(field) && value == JsonToken.START_ARRAY) {
+						Collection<AgentAddress> receivers = new ArrayList<AgentAddress>();
+						UUID receiver;
+						while (parser.nextToken() == JsonToken.START_OBJECT) {
+							receiver = readAddress(parser);
+							if (receiver != null) {
+								receivers.add(AddressUtil.createAgentAddress(receiver));
+							}
+						}
+						content.setReceiver(receivers);
+					}
+					else if (CONTENT.equals(field)) {
+						content.setContent(new StringBuffer(readString(parser, value)));
+					}
+					else if (ENCODING.equals(field)) {
+						content.setEncoding(readString(parser, value));
+					}
+					else if (LANGUAGE.equals(field)) {
+						content.setLanguage(readString(parser, value));
+					}
+					else if (ONTOLOGY.equals(field)) {
+						content.setOntology(readString(parser, value));
+					}
+					else if (PROTOCOL.equals(field)) {
+						content.setProtocol(readString(parser, value));
+					}
+					else if (CONVERSATIONID.equals(field)) {
+						String uuid = readString(parser, value);
+						if (uuid != null) {
+							try {
+								content.setConversationId(UUID.fromString(uuid));
+							} catch (IllegalArgumentException e) {
+								content.setConversationId(null);
+							}
+						}
+					}
+					else {
+						parser.skipChildren();
+					}
+				}
+			}
+			finally {
+				parser.close();
 			}
-			content.setReceiver(receivers);
-		}
-
-		// CONTENT
-		if (json.containsKey(Locale.getString(JSONACLCodec.class, "CONTENT"))) { //$NON-NLS-1$
-			content.setContent(new StringBuffer((String) json.get(Locale
-					.getString(JSONACLCodec.class, "CONTENT")))); //$NON-NLS-1$
-		}
-
-		// ENCODING
-		content.setEncoding((String) json.get(Locale.getString(
-				JSONACLCodec.class, "ENCODING"))); //$NON-NLS-1$
-
-		// LANGUAGE
-		if (json.containsKey(Locale.getString(JSONACLCodec.class, "LANGUAGE"))) { //$NON-NLS-1$
-			content.setLanguage((String) json.get(Locale.getString(
-					JSONACLCodec.class, "LANGUAGE"))); //$NON-NLS-1$
 		}
-
-		// ONTOLOGY
-		if (json.containsKey(Locale.getString(JSONACLCodec.class, "ONTOLOGY"))) { //$NON-NLS-1$
-			content.setOntology((String) json.get(Locale.getString(
-					JSONACLCodec.class, "ONTOLOGY"))); //$NON-NLS-1$
+		catch (IOException e) {
+			this.logger.log(Level.SEVERE, Locale.getString(JSONACLCodec.class, "DECODING_ERROR", e.getLocalizedMessage()), e); //$NON-NLS-1$
+			return null;
 		}
 
-		// PROTOCOL
-		content.setProtocol((String) json.get(Locale.getString(
-				JSONACLCodec.class, "PROTOCOL"))); //$NON-NLS-1$
-
-		// CONVERSATION ID
-		if (json.containsKey(Locale.getString(JSONACLCodec.class,
-				"CONVERSATIONID")) //$NON-NLS-1$
-				&& json.get(Locale.getString(JSONACLCodec.class,
-						"CONVERSATIONID")) != null) { //$NON-NLS-1$
+		return content;
+	}
 
-			try {
-				String uuid = (String) json.get(Locale.getString(
-						JSONACLCodec.class, "CONVERSATIONID")); //$NON-NLS-1$
-				content.setConversationId(UUID.fromString(uuid));
-			} catch (IllegalArgumentException e) {
-				content.setConversationId(null);
+	/** Read the identifier of the address object on which the
+	 * parser is positioned, and move the parser to the end of
+	 * the object.
+	 */
+	private static UUID readAddress(JsonParser parser) throws IOException {
+		String id = null;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			JsonToken value = parser.nextToken();
+			if (ID.equals(field)) {
+				id = readString(parser, value);
+			}
+			else {
+				parser.skipChildren();
 			}
 		}
+		return id == null ? null : UUID.fromString(id);
+	}
 
-		return content;
+	private static String readString(JsonParser parser, JsonToken value) throws IOException {
+		if (value == JsonToken.VALUE_NULL) {
+			return null;
+		}
+		return parser.getText();
 	}
 
 	/**
-	 * Return JSON ObjectMapper, used to convert Map to JSON String
-	 * @return a new object mapper
+	 * Return JSON ObjectMapper, which provides the factory of the JSON streams.
+	 * <p>
+	 * The replied mapper is shared by all the codecs: it is
+	 * created once and it must not be reconfigured.
+	 * 
+	 * @return the shared object mapper
 	 */
 	@SuppressWarnings("static-method")
 	protected ObjectMapper getMapper() {
-		return new ObjectMapper();
+		return MAPPER;
 	}
 
 	/**
-	 * Convert a Map to byte[] using getMapper
+	 * Replies the factory of the streaming generators and parsers.
+	 * 
+	 * @return the factory of the mapper replied by {@link #getMapper()}.
 	 */
-	private byte[] fromMap(Map<String, Object> m) {
-		ObjectMapper mapper = getMapper();
-		ByteArrayOutputStream baos = new ByteArrayOutputStream();
-		try {
-			mapper.writeValue(baos, m);
-		} catch (JsonGenerationException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		} catch (JsonMappingException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		} catch (IOException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
-		System.out.println(new String(baos.toByteArray()));
-		return baos.toByteArray();
-	}
-
-	/**
-	 * Convert a byte[] to Map using getMapper
-	 */
-	private Map<String, Object> fromBytes(byte[] byteMsg) {
-		ObjectMapper mapper = getMapper();
-		try {
-			return mapper.readValue(byteMsg,
-					new TypeReference<Map<String, Object>>() {
-						//
-					});
-		} catch (JsonParseException e) {
-			e.printStackTrace();
-		} catch (JsonMappingException e) {
-			e.printStackTrace();
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
-		return null;
+	protected final JsonFactory getFactory() {
+		return getMapper().getJsonFactory();
 	}
 }
@@ -20,8 +20,7 @@
  */
 package org.janusproject.acl.encoding.bitefficient;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.ByteBuffer;
 
 import org.janusproject.acl.encoding.ACLDateUtil;
 import org.janusproject.acl.encoding.bitefficient.constant.BinDateTimeToken;
@@ -42,11 +41,9 @@ public class BinDate {
 	 * Encode an ISO8601 date
 	 * 
 	 * @param s String representing an ISO8601 date
-	 * @return the encoded date for bit efficient
+	 * @param buffer buffer in which bytes will be written
 	 */
-	public static List<Byte> toBin(String s) {
-        List<Byte> encodedDate = new ArrayList<Byte>();
-        byte b;
+	public static void toBin(String s, ByteBuffer buffer) {
         int startPos = 0;
         
         // should never happen for now because dates stored in a ACLMessage are absolute date
@@ -56,43 +53,42 @@ public class BinDate {
         
         // YY YY MM DD
         for (int i = startPos ; i < 8+startPos ; i+=2) {
-        	b = (byte)(NumberToken.getCode(s.charAt(i)) << 4);
-        	b |= (NumberToken.getCode(s.charAt(i+1)) & 0x0f);
-        	encodedDate.add(b);
+        	buffer.put(toBin(s.charAt(i), s.charAt(i+1)));
         }
 
         // HH MM SS SS
         for (int i = 9+startPos ; i < 17+startPos ; i+=2) {
-            b = (byte)(NumberToken.getCode(s.charAt(i)) << 4);
-            b |= (NumberToken.getCode(s.charAt(i+1)) & 0x0f);
-            encodedDate.add(b);
+        	buffer.put(toBin(s.charAt(i), s.charAt(i+1)));
         }
         
         // S0
-        b = (byte)(NumberToken.getCode(s.charAt(17+startPos)) << 4);
-        encodedDate.add(b);
-        
-        return encodedDate;
+        buffer.put((byte)(NumberToken.getCode(s.charAt(17+startPos)) << 4));
     }
 	
+	private static byte toBin(char high, char low) {
+		return (byte) ((NumberToken.getCode(high) << 4) | (NumberToken.getCode(low) & 0x0f));
+	}
+	
 	/**
 	 * decode an encoded ISO8601 date
 	 * 
-	 * @param bytesRead an ISO8601 encoded date
+	 * @param buffer buffer from which the 9 bytes of an ISO8601 encoded date are read
 	 * @return the corresponding String
 	 */
-	public static String toString(List<Byte> bytesRead) {
-		String s = ""; //$NON-NLS-1$
+	public static String toString(ByteBuffer buffer) {
+		StringBuilder s = new StringBuilder(20);
+		byte b;
 		
 		for (int i = 0 ; i < 9 ; ++i) {
-			if (s.length() == 8) {	
-				s += 'T';
+			if (i == 4) {	
+				s.append('T');
 			}
-			s += NumberToken.getToken((byte) ((bytesRead.get(i)>>4) & 0x0f));
-			s += NumberToken.getToken((byte) (bytesRead.get(i) & 0x0f));
+			b = buffer.get();
+			s.append(NumberToken.getToken((byte) ((b>>4) & 0x0f)));
+			s.append(NumberToken.getToken((byte) (b & 0x0f)));
         }
 		
-		return s;
+		return s.toString();
 	}
 	
 	/**
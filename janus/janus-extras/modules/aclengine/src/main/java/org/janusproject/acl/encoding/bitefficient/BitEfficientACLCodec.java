@@ -20,15 +20,17 @@
  */
 package org.janusproject.acl.encoding.bitefficient;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
-import org.apache.commons.lang.ArrayUtils;
+import org.arakhne.afc.vmutil.locale.Locale;
 import org.janusproject.acl.ACLMessage;
 import org.janusproject.acl.ACLMessageContent;
 import org.janusproject.acl.Performative;
-import org.janusproject.acl.encoding.ACLMessageContentEncodingService;
+import org.janusproject.acl.encoding.ACLMessageContentBufferEncodingService;
 import org.janusproject.acl.encoding.bitefficient.constant.EndOfCollection;
 import org.janusproject.acl.encoding.bitefficient.constant.MessageID;
 import org.janusproject.acl.encoding.bitefficient.constant.PredefinedMsgParam;
@@ -36,6 +38,12 @@ import org.janusproject.acl.encoding.bitefficient.constant.Version;
 
 /**
  * This class encodes an ACLMessageContent in bit efficient or decodes an ACLMessageContent encoded in bytes from bit efficient
+ * <p>
+ * The message is directly written in, and read from, a {@link ByteBuffer}.
+ * When the dynamic code table is enabled, the words and the strings
+ * that are repeated in a message are replaced by their index
+ * in a {@link BitEfficientCodeTable}. The decoder supports the messages
+ * with and without code table.
  * 
  * @see <a href="http://fipa.org/specs/fipa00069/SC00069G.html">FIPA ACL Message Representation in Bit Efficient Specification</a>
  * 
@@ -46,137 +54,208 @@ import org.janusproject.acl.encoding.bitefficient.constant.Version;
  * @mavengroupid $Groupid$
  * @mavenartifactid $ArtifactId$
  */
-public class BitEfficientACLCodec implements ACLMessageContentEncodingService {
+public class BitEfficientACLCodec implements ACLMessageContentBufferEncodingService {
+	
+	private final boolean useCodeTable;
+	
+	private final Logger logger = Logger.getLogger(getClass().getCanonicalName());
 	
 	/**
-	 * {@inheritDoc}
+	 * Creates a codec that is not using the dynamic code table.
+	 */
+	public BitEfficientACLCodec() {
+		this(false);
+	}
+	
+	/**
+	 * @param useCodeTable indicates if the encoder is using the dynamic code table.
+	 */
+	public BitEfficientACLCodec(boolean useCodeTable) {
+		this.useCodeTable = useCodeTable;
+	}
+	
+	/** Replies if the encoder is using the dynamic code table.
 	 * 
-	 * @see #toBitEfficient(ACLMessage)
+	 * @return <code>true</code> if the code table is used, <code>false</code> otherwise.
 	 */
-	@Override
-	public byte[] encode(ACLMessage aMsg) {
-		
-		return ArrayUtils.toPrimitive(toBitEfficient(aMsg).toArray(new Byte[0]));
+	public boolean isCodeTableUsed() {
+		return this.useCodeTable;
 	}
-
+	
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public ACLMessageContent decode(byte[] byteMsg, Object... parameters) {
-		ACLMessage.Content content = new ACLMessage.Content();
-		
-		List<Byte> buffer = new ArrayList<Byte>(Arrays.asList(ArrayUtils.toObject(byteMsg)));
-		
-		// MessageId
-		BitEfficientACLCodecHelperDecode.readByte(buffer);
-		
-		// Version
-		BitEfficientACLCodecHelperDecode.readByte(buffer);
-		
-		Performative per = BitEfficientACLCodecHelperDecode.decodePerformative(buffer);
-		content.setPerformative(per.ordinal());
-		
-		Byte b;
-		while ((b = BitEfficientACLCodecHelperDecode.readByte(buffer)) != EndOfCollection.END_OF_COLLECTION.getCode()) {
-			
-			if (b == PredefinedMsgParam.PARAM_SENDER.getCode()) {
-				
-				content.setSender(BitEfficientACLCodecHelperDecode.decodeAgent(buffer));
-				
-			} else if (b == PredefinedMsgParam.PARAM_RECEIVER.getCode()) {
-				
-				content.setReceiver(BitEfficientACLCodecHelperDecode.decodeAgents(buffer));
-				
-			} else if (b == PredefinedMsgParam.PARAM_REPLY_TO.getCode()) {
-				
-				content.setReceiver(BitEfficientACLCodecHelperDecode.decodeAgents(buffer));
-				
-			} else if (b == PredefinedMsgParam.PARAM_REPLY_BY.getCode()) {
-				
-				content.setReplyBy(BitEfficientACLCodecHelperDecode.decodeDate(buffer));
-				
-			} else if (b == PredefinedMsgParam.PARAM_REPLY_WITH.getCode()) {
-				
-				content.setReplyWith(BitEfficientACLCodecHelperDecode.decodeParam(buffer));
-				
-			} else if (b == PredefinedMsgParam.PARAM_LANGUAGE.getCode()) {
-				
-				content.setLanguage(BitEfficientACLCodecHelperDecode.decodeParam(buffer));
-				
-			} else if (b == PredefinedMsgParam.PARAM_ENCODING.getCode()) {
-				
-				content.setEncoding(BitEfficientACLCodecHelperDecode.decodeParam(buffer));
-				
-			} else if (b == PredefinedMsgParam.PARAM_ONTOLOGY.getCode()) {
-				
-				content.setOntology(BitEfficientACLCodecHelperDecode.decodeParam(buffer));
-				
-			} else if (b == PredefinedMsgParam.PARAM_PROTOCOL.getCode()) {
-				
-				content.setProtocol(BitEfficientACLCodecHelperDecode.decodeParam(buffer));
-				
-			} else if (b == PredefinedMsgParam.PARAM_CONVERSATION_ID.getCode()) {
-				
-				content.setConversationId(BitEfficientACLCodecHelperDecode.decodeUUID(buffer));
-				
-			} else if (b == PredefinedMsgParam.PARAM_CONTENT.getCode()) {
-				
-				content.setContent(BitEfficientACLCodecHelperDecode.decodeMsgContent(buffer));
-				
-			} else {
-				break;
+	public byte[] encode(ACLMessage aMsg) {
+		StringBuffer content = aMsg.getContent().getContent();
+		int size = 256 + (content == null ? 0 : content.length() * 2);
+		while (true) {
+			ByteBuffer buffer = ByteBuffer.allocate(size);
+			try {
+				encode(aMsg, buffer);
+				byte[] bytes = new byte[buffer.position()];
+				buffer.flip();
+				buffer.get(bytes);
+				return bytes;
+			}
+			catch(BufferOverflowException _) {
+				size *= 2;
 			}
 		}
-		
-		return content;
 	}
-	
+
 	/**
-	 * Compute the Bit Efficient representation of an ACLMessage
-	 * 
-	 * @param msg the ACLMessage to encode to bit efficient
-	 * @return list of Byte representing the given ACLMessage
-	 * 
-	 * @see ACLMessage#toXML()
+	 * {@inheritDoc}
 	 */
-	public static List<Byte> toBitEfficient(ACLMessage msg) {
-		List<Byte> buffer = new ArrayList<Byte>();
-
-		buffer.add(MessageID.BITEFFICIENT.getCode()); // we don't use code table for now
-		buffer.add(Version.VERSION.getCode()); // 0x10
+	@Override
+	public void encode(ACLMessage msg, ByteBuffer buffer) {
+		BitEfficientCodeTable table;
+		if (this.useCodeTable) {
+			table = new BitEfficientCodeTable();
+			buffer.put(MessageID.BITEFFICIENT_CODETABLE.getCode());
+		}
+		else {
+			table = null;
+			buffer.put(MessageID.BITEFFICIENT.getCode());
+		}
+		buffer.put(Version.VERSION.getCode()); // 0x10
+		
+		ACLMessage.Content content = msg.getContent();
 		
-		// add the corresponding byte of the performative
-		// we don't deal with user defined performative as done in jade
-		BitEfficientACLCodecHelperEncode.dumpMsgType(buffer, msg.getPerformative());
+		BitEfficientACLCodecHelperEncode.dumpMsgType(buffer, table, msg.getPerformative());
 
-		BitEfficientACLCodecHelperEncode.dumpAgent(buffer, PredefinedMsgParam.PARAM_SENDER.getCode(), msg.getSender());
+		BitEfficientACLCodecHelperEncode.dumpAgent(buffer, table, PredefinedMsgParam.PARAM_SENDER.getCode(), content.getSender());
 		
-		BitEfficientACLCodecHelperEncode.dumpAgents(buffer, PredefinedMsgParam.PARAM_RECEIVER.getCode(), msg.getReceiver());
+		BitEfficientACLCodecHelperEncode.dumpAgents(buffer, table, PredefinedMsgParam.PARAM_RECEIVER.getCode(), content.getReceiver());
 		
-		BitEfficientACLCodecHelperEncode.dumpAgents(buffer, PredefinedMsgParam.PARAM_REPLY_TO.getCode(), msg.getContent().getReplyTo());
+		BitEfficientACLCodecHelperEncode.dumpAgents(buffer, table, PredefinedMsgParam.PARAM_REPLY_TO.getCode(), content.getReplyTo());
 		
-		BitEfficientACLCodecHelperEncode.dumpReplyBy(buffer, PredefinedMsgParam.PARAM_REPLY_BY.getCode(), msg.getContent().getReplyBy());
+		BitEfficientACLCodecHelperEncode.dumpReplyBy(buffer, PredefinedMsgParam.PARAM_REPLY_BY.getCode(), content.getReplyBy());
 		
-		BitEfficientACLCodecHelperEncode.dumpParam(buffer, PredefinedMsgParam.PARAM_REPLY_WITH.getCode(), msg.getContent().getReplyWith());
+		BitEfficientACLCodecHelperEncode.dumpParam(buffer, table, PredefinedMsgParam.PARAM_REPLY_WITH.getCode(), content.getReplyWith());
 		
-		BitEfficientACLCodecHelperEncode.dumpParam(buffer, PredefinedMsgParam.PARAM_IN_REPLY_TO.getCode(), msg.getContent().getInReplyTo());
+		BitEfficientACLCodecHelperEncode.dumpParam(buffer, table, PredefinedMsgParam.PARAM_IN_REPLY_TO.getCode(), content.getInReplyTo());
 
-		BitEfficientACLCodecHelperEncode.dumpParam(buffer, PredefinedMsgParam.PARAM_LANGUAGE.getCode(), msg.getContent().getLanguage());
+		BitEfficientACLCodecHelperEncode.dumpParam(buffer, table, PredefinedMsgParam.PARAM_LANGUAGE.getCode(), content.getLanguage());
 		
-		BitEfficientACLCodecHelperEncode.dumpParam(buffer, PredefinedMsgParam.PARAM_ENCODING.getCode(), msg.getContent().getEncoding());
+		BitEfficientACLCodecHelperEncode.dumpParam(buffer, table, PredefinedMsgParam.PARAM_ENCODING.getCode(), content.getEncoding());
 		
-		BitEfficientACLCodecHelperEncode.dumpParam(buffer, PredefinedMsgParam.PARAM_ONTOLOGY.getCode(), msg.getContent().getOntology());
+		BitEfficientACLCodecHelperEncode.dumpParam(buffer, table, PredefinedMsgParam.PARAM_ONTOLOGY.getCode(), content.getOntology());
 		
-		BitEfficientACLCodecHelperEncode.dumpWordParam(buffer, PredefinedMsgParam.PARAM_PROTOCOL.getCode(), msg.getContent().getProtocol());
+		BitEfficientACLCodecHelperEncode.dumpParam(buffer, table, PredefinedMsgParam.PARAM_PROTOCOL.getCode(), content.getProtocol());
 		
-		BitEfficientACLCodecHelperEncode.dumpParam(buffer, PredefinedMsgParam.PARAM_CONVERSATION_ID.getCode(), msg.getContent().getOntology());
+		if (content.getConversationId() != null) {
+			BitEfficientACLCodecHelperEncode.dumpParam(buffer, table, PredefinedMsgParam.PARAM_CONVERSATION_ID.getCode(), content.getConversationId().toString());
+		}
 		
-		BitEfficientACLCodecHelperEncode.dumpMsgContent(buffer, PredefinedMsgParam.PARAM_CONTENT.getCode(), msg.getContent().getContent().toString());
+		if (content.getContent() != null) {
+			BitEfficientACLCodecHelperEncode.dumpMsgContent(buffer, table, PredefinedMsgParam.PARAM_CONTENT.getCode(), content.getContent().toString());
+		}
 	
-		buffer.add(EndOfCollection.END_OF_COLLECTION.getCode());
-		
-		return buffer;
+		buffer.put(EndOfCollection.END_OF_COLLECTION.getCode());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ACLMessageContent decode(byte[] byteMsg, Object... parameters) {
+		return decode(ByteBuffer.wrap(byteMsg), parameters);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * If the message is truncated or malformed, the error is
+	 * logged and <code>null</code> is replied.
+	 */
+	@Override
+	public ACLMessageContent decode(ByteBuffer buffer, Object... parameters) {
+		try {
+			ACLMessage.Content content = new ACLMessage.Content();
+			
+			// MessageId
+			BitEfficientCodeTable table = null;
+			byte messageId = buffer.get();
+			if (messageId == MessageID.BITEFFICIENT_CODETABLE.getCode()) {
+				table = new BitEfficientCodeTable();
+			}
+			
+			// Version
+			buffer.get();
+			
+			Performative per = BitEfficientACLCodecHelperDecode.decodePerformative(buffer, table);
+			content.setPerformative(per.ordinal());
+			
+			byte b;
+			while ((b = buffer.get()) != EndOfCollection.END_OF_COLLECTION.getCode()) {
+				
+				if (b == PredefinedMsgParam.PARAM_SENDER.getCode()) {
+					
+					content.setSender(BitEfficientACLCodecHelperDecode.decodeAgent(buffer, table));
+					
+				} else if (b == PredefinedMsgParam.PARAM_RECEIVER.getCode()) {
+					
+					content.setReceiver(BitEfficientACLCodecHelperDecode.decodeAgents(buffer, table));
+					
+				} else if (b == PredefinedMsgParam.PARAM_REPLY_TO.getCode()) {
+					
+					content.setReplyTo(BitEfficientACLCodecHelperDecode.decodeAgents(buffer, table));
+					
+				} else if (b == PredefinedMsgParam.PARAM_REPLY_BY.getCode()) {
+					
+					content.setReplyBy(BitEfficientACLCodecHelperDecode.decodeDate(buffer));
+					
+				} else if (b == PredefinedMsgParam.PARAM_REPLY_WITH.getCode()) {
+					
+					content.setReplyWith(BitEfficientACLCodecHelperDecode.decodeParam(buffer, table));
+					
+				} else if (b == PredefinedMsgParam.PARAM_IN_REPLY_TO.getCode()) {
+					
+					content.setInReplyTo(BitEfficientACLCodecHelperDecode.decodeParam(buffer, table));
+					
+				} else if (b == PredefinedMsgParam.PARAM_LANGUAGE.getCode()) {
+					
+					content.setLanguage(BitEfficientACLCodecHelperDecode.decodeParam(buffer, table));
+					
+				} else if (b == PredefinedMsgParam.PARAM_ENCODING.getCode()) {
+					
+					content.setEncoding(BitEfficientACLCodecHelperDecode.decodeParam(buffer, table));
+					
+				} else if (b == PredefinedMsgParam.PARAM_ONTOLOGY.getCode()) {
+					
+					content.setOntology(BitEfficientACLCodecHelperDecode.decodeParam(buffer, table));
+					
+				} else if (b == PredefinedMsgParam.PARAM_PROTOCOL.getCode()) {
+					
+					content.setProtocol(BitEfficientACLCodecHelperDecode.decodeParam(buffer, table));
+					
+				} else if (b == PredefinedMsgParam.PARAM_CONVERSATION_ID.getCode()) {
+					
+					content.setConversationId(BitEfficientACLCodecHelperDecode.decodeUUID(buffer, table));
+					
+				} else if (b == PredefinedMsgParam.PARAM_CONTENT.getCode()) {
+					
+					content.setContent(BitEfficientACLCodecHelperDecode.decodeMsgContent(buffer, table));
+					
+				} else {
+					throw new IllegalArgumentException(Integer.toHexString(b & 0xff));
+				}
+			}
+			
+			return content;
+		}
+		catch(BufferUnderflowException e) {
+			return decodingError(e);
+		}
+		catch(IllegalArgumentException e) {
+			return decodingError(e);
+		}
+	}
+	
+	private ACLMessageContent decodingError(RuntimeException e) {
+		this.logger.log(Level.SEVERE, Locale.getString(BitEfficientACLCodec.class, "DECODING_ERROR", e.toString()), e); //$NON-NLS-1$
+		return null;
 	}
 	
 }
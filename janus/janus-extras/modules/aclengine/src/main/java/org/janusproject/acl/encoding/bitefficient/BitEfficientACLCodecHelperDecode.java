@@ -20,13 +20,14 @@
  */
 package org.janusproject.acl.encoding.bitefficient;
 
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
-import java.util.List;
 import java.util.UUID;
 
-import org.apache.commons.lang.ArrayUtils;
 import org.janusproject.acl.Performative;
 import org.janusproject.acl.encoding.ACLDateUtil;
 import org.janusproject.acl.encoding.bitefficient.constant.AgentIdentifier;
@@ -35,11 +36,20 @@ import org.janusproject.acl.encoding.bitefficient.constant.BinString;
 import org.janusproject.acl.encoding.bitefficient.constant.BinWord;
 import org.janusproject.acl.encoding.bitefficient.constant.EndOfCollection;
 import org.janusproject.acl.encoding.bitefficient.constant.PredefinedMsgType;
+import org.janusproject.acl.encoding.bitefficient.constant.UserDefinedMsgType;
 import org.janusproject.kernel.address.AgentAddress;
 import org.janusproject.kernel.crio.core.AddressUtil;
 
 /**
  * Helper used in bit efficient decoding. Make the BitEfficientACLCodec class simplier and easier to read.
+ * <p>
+ * The bytes are directly read from a {@link ByteBuffer}, from its position to its limit.
+ * When the buffer is backed by an array, the strings are decoded from this array
+ * without intermediate copy.
+ * <p>
+ * When a {@link BitEfficientCodeTable} is given, the words and the strings
+ * read in the message are added to the code table, and the indexes
+ * are resolved with it.
  * 
  * @see <a href="http://fipa.org/specs/fipa00069/SC00069G.html">FIPA ACL Message Representation in Bit Efficient Specification</a>
  * 
@@ -52,59 +62,78 @@ import org.janusproject.kernel.crio.core.AddressUtil;
  */
 public class BitEfficientACLCodecHelperDecode {
 	
+	private static final Charset UTF8 = Charset.forName("UTF-8"); //$NON-NLS-1$
+	
 	/**
-	 * Read the performative-byte from the buffer.
+	 * Read the performative from the buffer.
 	 * 
 	 * @param buffer buffer from which bytes are read
+	 * @param table code table, or <code>null</code> if no code table is used
 	 * @return the corresponding Performative
 	 */
-	public static Performative decodePerformative(List<Byte> buffer) {
-		return PredefinedMsgType.getPerformative(readByte(buffer));
+	public static Performative decodePerformative(ByteBuffer buffer, BitEfficientCodeTable table) {
+		byte code = buffer.get();
+		if (code == UserDefinedMsgType.MSG_TYPE_NAME_BEGIN.getCode()) {
+			Performative performative = Performative.valueOfByName(getString(buffer, table));
+			return performative == null ? Performative.NONE : performative;
+		}
+		return PredefinedMsgType.getPerformative(code);
 	}
 	
 	/**
 	 * Read a agent address from the buffer
 	 * 
 	 * @param buffer buffer from which bytes are read
+	 * @param table code table, or <code>null</code> if no code table is used
 	 * @return the corresponding Agent Address
 	 */
-	public static AgentAddress decodeAgent(List<Byte> buffer) {
+	public static AgentAddress decodeAgent(ByteBuffer buffer, BitEfficientCodeTable table) {
 		AgentAddress agent = null;
 		
-		Byte b = readByte(buffer); // b == AgentIdentifier.AGENT_NAME_BEGIN == 0x02
+		byte b = buffer.get(); // b == AgentIdentifier.AGENT_NAME_BEGIN == 0x02
 		
 		if (b == AgentIdentifier.AGENT_NAME_BEGIN.getCode()) {
-			String s = getString(buffer);
+			String s = getString(buffer, table);
 			UUID uuid = UUID.fromString(s);
 			agent = AddressUtil.createAgentAddress(uuid);
 		}
 		
-		b = readByte(buffer); // b == EndOfCollection.END_OF_COLLECTION == 0x00
+		// skip the optional addresses, resolvers and user defined parameters
+		while (buffer.get() != EndOfCollection.END_OF_COLLECTION.getCode()) {
+			//
+		}
 		
 		return agent;
 	}
 	
+	/** Replies the next byte without consuming it.
+	 */
+	private static byte peek(ByteBuffer buffer) {
+		if (!buffer.hasRemaining()) {
+			throw new BufferUnderflowException();
+		}
+		return buffer.get(buffer.position());
+	}
+	
 	/**
 	 * Read a collection of agent address from the buffer
 	 * 
 	 * @param buffer buffer from which bytes are read
+	 * @param table code table, or <code>null</code> if no code table is used
 	 * @return the corresponding collection of Agent Address
 	 */
-	public static Collection<AgentAddress> decodeAgents(List<Byte> buffer) {
-		Collection<AgentAddress> agents = null;
+	public static Collection<AgentAddress> decodeAgents(ByteBuffer buffer, BitEfficientCodeTable table) {
+		Collection<AgentAddress> agents = new ArrayList<AgentAddress>();
 		AgentAddress agt;
 		
-		while (buffer.get(0) != EndOfCollection.END_OF_COLLECTION.getCode()) {
-			agt = decodeAgent(buffer);
+		while (peek(buffer) != EndOfCollection.END_OF_COLLECTION.getCode()) {
+			agt = decodeAgent(buffer, table);
 			if (agt != null) {
-				if (agents == null) {
-					agents = new ArrayList<AgentAddress>();
-				}
 				agents.add(agt);
 			}
 		}
 		
-		readByte(buffer); // EndOfCollection.END_OF_COLLECTION
+		buffer.get(); // EndOfCollection.END_OF_COLLECTION
 		
 		return agents;
 	}
@@ -115,17 +144,15 @@ public class BitEfficientACLCodecHelperDecode {
 	 * @param buffer buffer from which bytes are read
 	 * @return the corresponding date
 	 */
-	public static Date decodeDate(List<Byte> buffer) {
-		byte type = readByte(buffer);
+	public static Date decodeDate(ByteBuffer buffer) {
+		byte type = buffer.get();
 		
-		List<Byte> bytesRead = readBytes(buffer, 9);
-
-        String s = BinDate.toString(bytesRead);
+        String s = BinDate.toString(buffer);
         
         if (type == BinDateTimeToken.ABS_TIME_TYPE_DESIGNATOR.getCode() 
         		|| type == BinDateTimeToken.REL_TIME_POS_TYPE_DESIGNATOR.getCode()
                 || type == BinDateTimeToken.REL_TIME_NEG_TYPE_DESIGNATOR.getCode()) {
-			s += (char)readByte(buffer).byteValue();
+			s += (char) buffer.get();
         }
         
         if (type == BinDateTimeToken.REL_TIME_POS.getCode() || type == BinDateTimeToken.REL_TIME_POS_TYPE_DESIGNATOR.getCode()) {
@@ -141,151 +168,109 @@ public class BitEfficientACLCodecHelperDecode {
 	 * Read a string parameter from the buffer.
 	 * 
 	 * @param buffer buffer from which bytes are read
+	 * @param table code table, or <code>null</code> if no code table is used
 	 * @return the corresponding String parameter
 	 */
-	public static String decodeParam(List<Byte> buffer) {
-		return getString(buffer);
+	public static String decodeParam(ByteBuffer buffer, BitEfficientCodeTable table) {
+		return getString(buffer, table);
 	}
 	
 	/**
 	 * Read an UUID from the buffer
 	 * 
 	 * @param buffer buffer from which bytes are read
+	 * @param table code table, or <code>null</code> if no code table is used
 	 * @return the corresponding UUID
 	 */
-	public static UUID decodeUUID(List<Byte> buffer) {
-		return UUID.fromString(decodeParam(buffer));
+	public static UUID decodeUUID(ByteBuffer buffer, BitEfficientCodeTable table) {
+		return UUID.fromString(decodeParam(buffer, table));
 	}
 	
 	/**
 	 * Read a content of an ACLMessage from the buffer
 	 * 
 	 * @param buffer buffer from which bytes are read
+	 * @param table code table, or <code>null</code> if no code table is used
 	 * @return the string buffer content
 	 */
-	public static StringBuffer decodeMsgContent(List<Byte> buffer) {
-		return new StringBuffer(decodeParam(buffer));
+	public static StringBuffer decodeMsgContent(ByteBuffer buffer, BitEfficientCodeTable table) {
+		return new StringBuffer(decodeParam(buffer, table));
 	}
 	
-	/**
-	 * Read a String (Word or String) from the buffer
-	 * 
-	 * @param buffer buffer from which bytes are read
-	 * @return the corresponding String
-	 */
-	private static String getString(List<Byte> buffer) {
-		byte type = readByte(buffer);
-		return getRealString(type, buffer);
-    }
-	
 	/**
 	 * Read a Word or a String (depending on type byte) from the buffer
 	 * 
-	 * @param type of String (String, Word, ByteLengthEncoded, ..)
 	 * @param buffer buffer from which bytes are read
+	 * @param table code table, or <code>null</code> if no code table is used
 	 * @return the corresponding String
 	 */
-    private static String getRealString(byte type, List<Byte> buffer) {
-    	String decodedString = null;
-    	List<Byte> bytesRead = new ArrayList<Byte>();
+    private static String getString(ByteBuffer buffer, BitEfficientCodeTable table) {
+    	byte type = buffer.get();
+    	String decodedString;
     	
 		if (type == BinWord.WORD_BEGIN.getCode() || type == BinString.STRING_BEGIN.getCode()) {
-			byte until = (type == BinWord.WORD_BEGIN.getCode()) ? BinString.STRING_END.getCode() : BinWord.WORD_END.getCode();
+			// BinWord.WORD_END == BinString.STRING_END == 0x00
+			int start = buffer.position();
+			int end = start;
+			int limit = buffer.limit();
+			while (end < limit && buffer.get(end) != BinString.STRING_END.getCode()) {
+				++end;
+			}
+			if (end >= limit) {
+				throw new BufferUnderflowException();
+			}
+			decodedString = readUTF8(buffer, end - start);
+			buffer.get(); // BinString.STRING_END
 			
-			bytesRead = readBytes(buffer, until);
-			decodedString = new String(toPrimitive(bytesRead));
+		} else if (type == BinString.LEN8_BYTE_SEQ_BEGIN.getCode()) {
+			decodedString = readUTF8(buffer, buffer.get() & 0xff);
 			
-		} else if (type == BinString.LEN8_BYTE_SEQ_BEGIN.getCode()
-					|| type == BinString.LEN16_BYTE_SEQ_BEGIN.getCode()
-					|| type == BinString.LEN32_BYTE_SEQ_BEGIN.getCode()) {
+		} else if (type == BinString.LEN16_BYTE_SEQ_BEGIN.getCode()) {
+			decodedString = readUTF8(buffer, buffer.getShort() & 0xffff);
 			
+		} else if (type == BinString.LEN32_BYTE_SEQ_BEGIN.getCode()) {
+			decodedString = readUTF8(buffer, buffer.getInt());
 			
-			int length = getBLEHeader(buffer, type);
-			decodedString = "#"; //$NON-NLS-1$
-			decodedString += length;
-			decodedString += "\""; //$NON-NLS-1$
+		} else if (type == BinWord.INDEX_BEGIN.getCode()
+					|| type == BinString.INDEX_STRING_BEGIN.getCode()
+					|| type == BinString.INDEX_BYTE_LENGTH_ENCODED_BEGIN.getCode()) {
+			if (table == null) {
+				throw new IllegalArgumentException(Integer.toHexString(type & 0xff));
+			}
+			return table.get(buffer.get() & 0xff);
 			
-			bytesRead = readBytes(buffer, length);			
-			decodedString += new String(toPrimitive(bytesRead));
+		} else {
+			throw new IllegalArgumentException(Integer.toHexString(type & 0xff));
+		}
+		
+		if (table != null) {
+			table.add(decodedString);
 		}
         
         return decodedString;
     }
     
     /**
-     * Read the BLE header from the buffer
-     * 
-     * @param buffer buffer from which bytes are read
-     * @param type the type of BLE (8, 16 or 32 bits)
-     * @return the corresponding length
-     */
-    private static int getBLEHeader(List<Byte> buffer, byte type) {
-    	int length = 0;
-    	
-    	if (type == BinString.LEN8_BYTE_SEQ_BEGIN.getCode()) {
-    		length = readByte(buffer);
-        } else if (type == BinString.LEN16_BYTE_SEQ_BEGIN.getCode()) {
-        	length = ((readByte(buffer)&0xff)<<8) + (readByte(buffer)&0xff);
-        } else if (type == BinString.LEN32_BYTE_SEQ_BEGIN.getCode()) {
-        	length = ((readByte(buffer)&0xff)<<24) + ((readByte(buffer)&0xff)<<16) + ((readByte(buffer)&0xff)<<8) + (readByte(buffer)&0xff);
-        }
-    	
-    	return length;
-    }
-    
-    /**
-     * Read bytes from the buffer until it reach the given byte.
+     * Read the given number of UTF-8 bytes from the buffer.
      * 
      * @param buffer buffer from which bytes are read
-     * @param until byte limit
-     * @return list of Byte read
+     * @param length number of bytes to read
+     * @return the decoded string
      */
-    public static List<Byte> readBytes(List<Byte> buffer, byte until) {
-    	List<Byte> bytesRead = new ArrayList<Byte>();
-		
-    	Byte b;
-    	while (((b = readByte(buffer)) != until) && (!buffer.isEmpty())) {
-    		bytesRead.add(b);
+    private static String readUTF8(ByteBuffer buffer, int length) {
+    	if (length < 0 || length > buffer.remaining()) {
+    		throw new BufferUnderflowException();
     	}
-    	
-    	return bytesRead;
-    }
-    
-    /**
-     * Read bytes (according to the given number) from the buffer
-     * 
-     * @param buffer buffer from which bytes are read
-     * @param nbBytes number of bytes to read
-     * @return list of Byte read
-     */
-    public static List<Byte> readBytes(List<Byte> buffer, int nbBytes) {
-    	List<Byte> bytesRead = new ArrayList<Byte>();
-    	
-    	int byteNUmber = nbBytes;
-    	while (byteNUmber > 0 && !buffer.isEmpty()) {
-    		bytesRead.add(buffer.remove(0));
-    		--byteNUmber;
+    	String s;
+    	if (buffer.hasArray()) {
+    		s = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, UTF8);
+    		buffer.position(buffer.position() + length);
     	}
-    	
-    	return bytesRead;
-    }
-    
-    /**
-     * Read one byte from the buffer 
-     * @param buffer buffer from which bytes are read
-     * @return byte read
-     */
-    public static Byte readByte(List<Byte> buffer) {
-    	return buffer.remove(0);
-    }
-    
-    /**
-     * List of Byte to array of byte
-     * 
-     * @param buffer
-     * @return array of byte from buffer
-     */
-    private static byte[] toPrimitive(List<Byte> buffer) {
-    	return ArrayUtils.toPrimitive(buffer.toArray(new Byte[0]));
+    	else {
+    		byte[] bytes = new byte[length];
+    		buffer.get(bytes);
+    		s = new String(bytes, UTF8);
+    	}
+    	return s;
     }
 }
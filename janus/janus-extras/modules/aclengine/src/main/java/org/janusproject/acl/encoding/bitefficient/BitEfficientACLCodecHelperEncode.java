@@ -20,24 +20,29 @@
  */
 package org.janusproject.acl.encoding.bitefficient;
 
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.Date;
-import java.util.List;
 
 import org.janusproject.acl.Performative;
 import org.janusproject.acl.encoding.ACLDateUtil;
 import org.janusproject.acl.encoding.bitefficient.constant.AgentIdentifier;
-import org.janusproject.acl.encoding.bitefficient.constant.BinNumber;
 import org.janusproject.acl.encoding.bitefficient.constant.BinString;
 import org.janusproject.acl.encoding.bitefficient.constant.BinWord;
 import org.janusproject.acl.encoding.bitefficient.constant.EndOfCollection;
-import org.janusproject.acl.encoding.bitefficient.constant.NumberToken;
 import org.janusproject.acl.encoding.bitefficient.constant.PredefinedMsgType;
+import org.janusproject.acl.encoding.bitefficient.constant.UserDefinedMsgType;
 import org.janusproject.kernel.address.AgentAddress;
 
 /**
  * Helper used in bit efficient encoding. Make the BitEfficientACLCodec class simplier and easier to read.
+ * <p>
+ * The bytes are directly written in a {@link ByteBuffer}. When the buffer has not
+ * enough remaining space, a {@link java.nio.BufferOverflowException} is thrown
+ * by the buffer; the caller is supposed to retry with a larger buffer.
+ * <p>
+ * When a {@link BitEfficientCodeTable} is given, the words and the strings
+ * already written in the message are replaced by their index in the code table.
  * 
  * @see <a href="http://fipa.org/specs/fipa00069/SC00069G.html">FIPA ACL Message Representation in Bit Efficient Specification</a>
  * 
@@ -51,13 +56,23 @@ import org.janusproject.kernel.address.AgentAddress;
 public class BitEfficientACLCodecHelperEncode {
 	
 	/**
-	 * Add byte of the given performative
+	 * Add byte of the given performative.
+	 * The performatives that are not predefined by FIPA are
+	 * written as user defined message types.
 	 * 
 	 * @param buffer buffer in which bytes will be added
+	 * @param table code table, or <code>null</code> if no code table is used
 	 * @param performative a performative of an ACLMessage
 	 */
-	public static void dumpMsgType(List<Byte> buffer, Performative performative) {
-		buffer.add(PredefinedMsgType.getCode(performative));
+	public static void dumpMsgType(ByteBuffer buffer, BitEfficientCodeTable table, Performative performative) {
+		byte code = PredefinedMsgType.getCode(performative);
+		if (code > 0) {
+			buffer.put(code);
+		}
+		else {
+			buffer.put(UserDefinedMsgType.MSG_TYPE_NAME_BEGIN.getCode());
+			dumpWord(buffer, table, performative.getName());
+		}
 	}
 	
 	/**
@@ -65,33 +80,33 @@ public class BitEfficientACLCodecHelperEncode {
 	 * representation that encode the information of the agent address.
 	 * 
 	 * @param buffer buffer in which bytes will be added
+	 * @param table code table, or <code>null</code> if no code table is used
 	 * @param msgParam byte representation of the role of the agent to encode (sender = 0x02, receiver = 0x03, ..)
 	 * @param agent agent address to dump
 	 */
-	public static void dumpAgent(List<Byte> buffer, byte msgParam, AgentAddress agent) {
+	public static void dumpAgent(ByteBuffer buffer, BitEfficientCodeTable table, byte msgParam, AgentAddress agent) {
 		if (agent != null) {
-			buffer.add(msgParam);
-			dumpAgentIdentifier(buffer, agent);
+			buffer.put(msgParam);
+			dumpAgentIdentifier(buffer, table, agent);
 		}
 	}
 	
 	/**
-	 * Add bytes of the given agents. Add the message parameter (sender, receiver) and then add an agent identifier
+	 * Add bytes of the given agents. Add the message parameter (receiver, reply-to) and then add an agent identifier
 	 * representation that encode the information of a agent address for the given collection.
 	 * 
 	 * @param buffer buffer in which bytes will be added
+	 * @param table code table, or <code>null</code> if no code table is used
 	 * @param msgParam byte representation of the role of the agent to encode (sender = 0x02, receiver = 0x03, ..)
 	 * @param agents list of agent addresses to dump
 	 */
-	public static void dumpAgents(List<Byte> buffer, byte msgParam, Collection<AgentAddress> agents) {
+	public static void dumpAgents(ByteBuffer buffer, BitEfficientCodeTable table, byte msgParam, Collection<AgentAddress> agents) {
 		if (agents != null && !agents.isEmpty()) {
-			buffer.add(msgParam);
-			if (agents.size() > 0) {
-				for (AgentAddress agent : agents) {
-					dumpAgentIdentifier(buffer, agent);
-				}
+			buffer.put(msgParam);
+			for (AgentAddress agent : agents) {
+				dumpAgentIdentifier(buffer, table, agent);
 			}
-			buffer.add(EndOfCollection.END_OF_COLLECTION.getCode());
+			buffer.put(EndOfCollection.END_OF_COLLECTION.getCode());
 		}
 	}
 	
@@ -99,72 +114,54 @@ public class BitEfficientACLCodecHelperEncode {
 	 * Dump an agent address
 	 * 
 	 * @param buffer buffer in which bytes will be added
+	 * @param table code table, or <code>null</code> if no code table is used
 	 * @param agent agent address to dump
 	 */
-	private static void dumpAgentIdentifier(List<Byte> buffer, AgentAddress agent) {
+	private static void dumpAgentIdentifier(ByteBuffer buffer, BitEfficientCodeTable table, AgentAddress agent) {
 		if (agent != null) {
-			buffer.add(AgentIdentifier.AGENT_NAME_BEGIN.getCode());
-			dumpWord(buffer,agent.getUUID().toString());
-			buffer.add(EndOfCollection.END_OF_COLLECTION.getCode());
+			buffer.put(AgentIdentifier.AGENT_NAME_BEGIN.getCode());
+			dumpWord(buffer, table, agent.getUUID().toString());
+			buffer.put(EndOfCollection.END_OF_COLLECTION.getCode());
 		}
 	}
 	
 	/**
-	 * Add bytes for the given parameter and its type.
-	 * Deal with String and Word cases.
+	 * Add bytes for the given parameter.
+	 * The parameter is written as a word when possible, as a string otherwise.
 	 * 
 	 * @param buffer buffer in which bytes will be added
+	 * @param table code table, or <code>null</code> if no code table is used
 	 * @param msgParam byte representation of predefined parameter
 	 * @param string information to dump
 	 */
-	public static void dumpParam(List<Byte> buffer, byte msgParam, String string) {
+	public static void dumpParam(ByteBuffer buffer, BitEfficientCodeTable table, byte msgParam, String string) {
 		if (string == null || string.length() < 1) {
 			return;
 		}
         
-		String newString = ""; //$NON-NLS-1$
-        if (string.contains(" ")) { //$NON-NLS-1$
-            if (string.charAt(0) != '"') {
-            	newString = '"' + escape(string) + '"';
-            }
-        }
-		
-        buffer.add(msgParam);
+        buffer.put(msgParam);
         
-        if (isExpression(newString)) {
-        	dumpString(buffer, newString);
-        } else if (isString(newString)) {
-        	dumpString(buffer, newString);
+        if (isWord(string)) {
+        	dumpWord(buffer, table, string);
         } else {
-        	dumpWord(buffer, newString);
+        	dumpString(buffer, table, string);
         }
 	}
 	
-	/**
-	 * Add bytes for the given parameter wich is a simple word and will be encoded as simple word.
-	 * 
-	 * @param buffer buffer in which bytes will be added
-	 * @param msgParam byte representation of predefined parameter
-	 * @param word the word to dump
-	 */
-	public static void dumpWordParam(List<Byte> buffer, byte msgParam, String word) {
-		if (word != null) {
-			buffer.add(msgParam);
-			dumpWord(buffer, word);
-		}
-	}
-	
 	/** 
-	 * Add bytes for the content parameter. The content is always encoded as a String.
+	 * Add bytes for the content parameter. The content is always encoded as a
+	 * byte-length-encoded string, so that the decoder does not need to search
+	 * for the end of the string.
 	 * 
 	 * @param buffer buffer in which bytes will be added
+	 * @param table code table, or <code>null</code> if no code table is used
 	 * @param msgParam byte representation of predefined parameter
 	 * @param content content of an ACLMessage
 	 */
-	public static void dumpMsgContent(List<Byte> buffer, byte msgParam, String content) {
+	public static void dumpMsgContent(ByteBuffer buffer, BitEfficientCodeTable table, byte msgParam, String content) {
 		if (content != null) {
-			buffer.add(msgParam);
-			dumpString(buffer, content);
+			buffer.put(msgParam);
+			dumpBLEString(buffer, table, content);
 		}
 	}
 	
@@ -175,9 +172,9 @@ public class BitEfficientACLCodecHelperEncode {
 	 * @param msgParam byte representation of predefined parameter
 	 * @param date the date to dump
 	 */
-	public static void dumpReplyBy(List<Byte> buffer, byte msgParam, Date date) {
+	public static void dumpReplyBy(ByteBuffer buffer, byte msgParam, Date date) {
 		if (date != null) {
-			buffer.add(msgParam);
+			buffer.put(msgParam);
 			dumpDate(buffer, date);
 		}
 	}
@@ -188,14 +185,14 @@ public class BitEfficientACLCodecHelperEncode {
 	 * @param buffer buffer in which bytes will be added
 	 * @param date the date to dump
 	 */
-	private static void dumpDate(List<Byte> buffer, Date date) {
+	private static void dumpDate(ByteBuffer buffer, Date date) {
 		String s = ACLDateUtil.toDateTimeToken(date);
         
-		buffer.add(BinDate.getDateTimeType(s));
-		buffer.addAll(BinDate.toBin(s));
+		buffer.put(BinDate.getDateTimeType(s));
+		BinDate.toBin(s, buffer);
 		
 		if (ACLDateUtil.containsTypeDesignator(s)) {
-			buffer.add((byte) s.charAt(s.length()-1));
+			buffer.put((byte) s.charAt(s.length()-1));
 		}
 	}
 
@@ -203,176 +200,169 @@ public class BitEfficientACLCodecHelperEncode {
 	 * Add bytes for the given word
 	 * 
 	 * @param buffer buffer in which bytes will be added
+	 * @param table code table, or <code>null</code> if no code table is used
 	 * @param word word to dump
 	 */
-	private static void dumpWord(List<Byte> buffer, String word) {
-		buffer.add(BinWord.WORD_BEGIN.getCode());
-		buffer.addAll(getBytesFromString(word));
-		buffer.add(BinWord.WORD_END.getCode());
+	private static void dumpWord(ByteBuffer buffer, BitEfficientCodeTable table, String word) {
+		if (table != null) {
+			int index = table.indexOf(word);
+			if (index >= 0) {
+				buffer.put(BinWord.INDEX_BEGIN.getCode());
+				buffer.put((byte) index);
+				return;
+			}
+			table.add(word);
+		}
+		buffer.put(BinWord.WORD_BEGIN.getCode());
+		putUTF8(buffer, word);
+		buffer.put(BinWord.WORD_END.getCode());
 	}
 	
 	/**
 	 * Add bytes for the given string.
-	 * Deal with bytes length encoding case.
+	 * The string is null-terminated, except if it contains a null character:
+	 * the byte-length-encoded representation is used in this case.
 	 * 
 	 * @param buffer buffer in which bytes will be added
+	 * @param table code table, or <code>null</code> if no code table is used
 	 * @param string string to dump
 	 */
-	private static void dumpString(List<Byte> buffer, String string) {
-		if (string == null || string.length() < 1) {
+	private static void dumpString(ByteBuffer buffer, BitEfficientCodeTable table, String string) {
+		if (string.indexOf('\u0000') >= 0) {
+			dumpBLEString(buffer, table, string);
 			return;
 		}
-		
-		boolean isBLE = (string.charAt(0) == '#' ? true : false);
-		
-		BinString id = getBinStringId(string);
-		buffer.add(id.getCode());
-		
-		String newString = ""; //$NON-NLS-1$
-		if (isBLE) {
-			newString = string.substring(string.indexOf('"')+1);
-			dumpBLEHeader(buffer, newString.length());
-		}
-		
-		buffer.addAll(getBytesFromString(newString));
-		
-		if (id == BinString.STRING_BEGIN) {
-			buffer.add(BinString.STRING_END.getCode());
-		}
-	}
-	
-	/**
-	 * Get the bin String ID for a given String
-	 * @param s string
-	 * @return the bin strnig id of s
-	 */
-	private static BinString getBinStringId(String s) {
-		if (s.charAt(0) != '#') { 
-			return BinString.STRING_BEGIN;
-		} else if (s.length() < 256)  {
-			return BinString.LEN8_BYTE_SEQ_BEGIN;
-		} else if (s.length() < 65536) {
-			return BinString.LEN16_BYTE_SEQ_BEGIN;
-		} else {
-			return BinString.LEN32_BYTE_SEQ_BEGIN;
+		if (table != null) {
+			int index = table.indexOf(string);
+			if (index >= 0) {
+				buffer.put(BinString.INDEX_STRING_BEGIN.getCode());
+				buffer.put((byte) index);
+				return;
+			}
+			table.add(string);
 		}
+		buffer.put(BinString.STRING_BEGIN.getCode());
+		putUTF8(buffer, string);
+		buffer.put(BinString.STRING_END.getCode());
 	}
 	
 	/**
-	 * Add bytes corresponding to the length of the byte length encoded string.
+	 * Add bytes for the given byte-length-encoded string.
 	 * 
 	 * @param buffer buffer in which bytes will be added
-	 * @param length the length of the string which is BLE
+	 * @param table code table, or <code>null</code> if no code table is used
+	 * @param string string to dump
 	 */
-	private static void dumpBLEHeader(List<Byte> buffer, int length) {
+	private static void dumpBLEString(ByteBuffer buffer, BitEfficientCodeTable table, String string) {
+		if (table != null) {
+			int index = table.indexOf(string);
+			if (index >= 0) {
+				buffer.put(BinString.INDEX_BYTE_LENGTH_ENCODED_BEGIN.getCode());
+				buffer.put((byte) index);
+				return;
+			}
+			table.add(string);
+		}
+		int length = utf8Length(string);
         if (length < 256) {
-            buffer.add((byte) (length & 0xff));
+        	buffer.put(BinString.LEN8_BYTE_SEQ_BEGIN.getCode());
+        	buffer.put((byte) length);
         } else if (length < 65536) {
-            buffer.add((byte) ((length >> 8) & 0xff));
-            buffer.add((byte) (length & 0xff));
+        	buffer.put(BinString.LEN16_BYTE_SEQ_BEGIN.getCode());
+        	buffer.putShort((short) length);
         } else {
-        	buffer.add((byte) ((length >> 24) & 0xff));
-            buffer.add((byte) ((length >> 16) & 0xff));
-            buffer.add((byte) ((length >> 8) & 0xff));
-            buffer.add((byte) (length & 0xff));
+        	buffer.put(BinString.LEN32_BYTE_SEQ_BEGIN.getCode());
+        	buffer.putInt(length);
         }
-    }
-	
-	/**
-	 * Add bytes for the given number.
-	 * 
-	 * @param buffer buffer in which bytes will be added
-	 * @param number string representing a number
-	 */
-	@SuppressWarnings("unused")
-	private static void dumpBinNumber(List<Byte> buffer, String number) {
-		buffer.add(BinNumber.DECIMAL_NUMBER_BEGIN.getCode());
-		dumpDigits(buffer, number);
+		putUTF8(buffer, string);
 	}
 	
 	/**
-	 * Add bytes for the given number.
+	 * Write the UTF-8 bytes of the given string without intermediate array.
+	 * As for {@link String#getBytes(String)}, an unpaired surrogate is
+	 * replaced by <code>'?'</code>.
 	 * 
 	 * @param buffer buffer in which bytes will be added
-	 * @param number string representing a number
+	 * @param s string
 	 */
-	private static void dumpDigits(List<Byte> buffer, String number) {
-		int length = number.length();
-		byte d;
-		
-		for (int i = 0 ; i < length ; i+=2) {
-			d = NumberToken.getCode(number.charAt(i));
-			if ((i+1) < length) {
-				d |= (NumberToken.getCode(number.charAt(i))&0x0f);
-			} else {
-				d |= 0x00;
+	private static void putUTF8(ByteBuffer buffer, String s) {
+		int n = s.length();
+		char c;
+		for (int i = 0; i < n; ++i) {
+			c = s.charAt(i);
+			if (c < 0x80) {
+				buffer.put((byte) c);
+			}
+			else if (c < 0x800) {
+				buffer.put((byte) (0xc0 | (c >> 6)));
+				buffer.put((byte) (0x80 | (c & 0x3f)));
+			}
+			else if (c < Character.MIN_SURROGATE || c > Character.MAX_SURROGATE) {
+				buffer.put((byte) (0xe0 | (c >> 12)));
+				buffer.put((byte) (0x80 | ((c >> 6) & 0x3f)));
+				buffer.put((byte) (0x80 | (c & 0x3f)));
+			}
+			else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+				int cp = Character.toCodePoint(c, s.charAt(++i));
+				buffer.put((byte) (0xf0 | (cp >> 18)));
+				buffer.put((byte) (0x80 | ((cp >> 12) & 0x3f)));
+				buffer.put((byte) (0x80 | ((cp >> 6) & 0x3f)));
+				buffer.put((byte) (0x80 | (cp & 0x3f)));
+			}
+			else {
+				buffer.put((byte) '?');
 			}
-			
-			buffer.add(d);
-		}
-		
-		if ((length % 2) == 0) {
-			buffer.add((byte) 0x00);
 		}
 	}
 	
 	/**
-	 * Get the Bytes of a given String
+	 * Replies the number of bytes written by {@link #putUTF8(ByteBuffer, String)}.
 	 * 
 	 * @param s string
-	 * @return a collection of Bytes
+	 * @return the number of bytes in the UTF-8 representation of <var>s</var>.
 	 */
-	private static Collection<Byte> getBytesFromString(String s) {
-		ArrayList<Byte> bytes = null;
-		
-		if (s != null) {
-			bytes = new ArrayList<Byte>();
-			for (byte b : s.getBytes()) {
-				bytes.add(b);
+	private static int utf8Length(String s) {
+		int n = s.length();
+		int length = n;
+		char c;
+		for (int i = 0; i < n; ++i) {
+			c = s.charAt(i);
+			if (c >= 0x80) {
+				if (c < 0x800) {
+					length += 1;
+				}
+				else if (c < Character.MIN_SURROGATE || c > Character.MAX_SURROGATE) {
+					length += 2;
+				}
+				else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+					// two chars for four bytes
+					length += 2;
+					++i;
+				}
 			}
 		}
-		
-		return bytes;
-	}
-
-
-	/**
-	 * Escape all " characters in a String. Used in dumpParam when dealing with string with at least one space char.
-	 * 
-	 * @param s string
-	 * @return s with " characters escaped
-	 */
-	private static String escape(String s) {
-        StringBuffer result = new StringBuffer(s.length());
-        
-        for (int i=0 ; i < s.length() ; i++) {
-            if (s.charAt(i) == '"' ) {
-                result.append("\\\""); //$NON-NLS-1$
-            } else {
-                result.append(s.charAt(i));
-            }
-        }
-        
-        return result.toString();
-    }
-	
-	/**
-	 * Check if the give string is an expression
-	 * 
-	 * @param s string
-	 * @return boolean
-	 */
-	private static boolean isExpression(String s) {
-		return s.charAt(0) == '(' ? true : false;
+		return length;
 	}
 	
 	/**
-	 * Check if the give string is a string (according to bit efficient representation)
+	 * Check if the given string is a word according to the bit efficient representation:
+	 * it does not contain a white space, a control character or a parenthesis,
+	 * and it does not start with a character reserved for the other tokens.
 	 * 
 	 * @param s string
 	 * @return boolean
 	 */
-	private static boolean isString(String s) {
-		return s.charAt(0) == '"' || s.charAt(0) == '#' ? true : false;
+	private static boolean isWord(String s) {
+		char c = s.charAt(0);
+		if (c == '#' || c == '"' || c == '-' || c == '@' || (c >= '0' && c <= '9')) {
+			return false;
+		}
+		for (int i = 0; i < s.length(); ++i) {
+			c = s.charAt(i);
+			if (c <= ' ' || c == '(' || c == ')') {
+				return false;
+			}
+		}
+		return true;
 	}
 }
@@ -0,0 +1,124 @@
+/*
+ * $Id$
+ *
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2012 Janus Core Developers
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.acl.encoding.bitefficient;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dynamic code table used by the bit-efficient representation
+ * when the message identifier is
+ * {@link org.janusproject.acl.encoding.bitefficient.constant.MessageID#BITEFFICIENT_CODETABLE}.
+ * <p>
+ * Each word or string that is written (or read) literally is added
+ * to the table. When the same word or string appears again in
+ * the message, only its index in the table is written.
+ * The encoder and the decoder are building the same table
+ * because they are adding the entries in the same order.
+ * <p>
+ * The table contains 256 entries, so that an index is coded
+ * with one byte. When the table is full, the oldest entry
+ * is replaced.
+ * <p>
+ * A code table is created for each encoded or decoded message,
+ * so that the codecs stay stateless.
+ *
+ * @see <a href="http://fipa.org/specs/fipa00069/SC00069G.html">FIPA ACL Message Representation in Bit Efficient Specification</a>
+ *
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $Groupid$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public class BitEfficientCodeTable {
+
+	/** Number of entries in the code table.
+	 */
+	public static final int SIZE = 256;
+
+	private final String[] entries = new String[SIZE];
+
+	/** Indexes of the entries, only used by the encoder.
+	 */
+	private Map<String,Integer> indexes = null;
+
+	/** Index of the next entry to fill.
+	 */
+	private int next = 0;
+
+	/**
+	 */
+	public BitEfficientCodeTable() {
+		//
+	}
+
+	/** Replies the index of the given word or string.
+	 *
+	 * @param value
+	 * @return the index of <var>value</var> in the table,
+	 * or <code>-1</code> if not inside the table.
+	 */
+	public int indexOf(String value) {
+		if (this.indexes == null) {
+			this.indexes = new HashMap<String,Integer>();
+			for (int i = 0; i < SIZE; ++i) {
+				if (this.entries[i] != null) {
+					this.indexes.put(this.entries[i], i);
+				}
+			}
+		}
+		Integer index = this.indexes.get(value);
+		return index == null ? -1 : index.intValue();
+	}
+
+	/** Replies the word or string at the given index.
+	 *
+	 * @param index
+	 * @return the word or string.
+	 * @throws IllegalArgumentException if there is no entry at the given index.
+	 */
+	public String get(int index) {
+		String value = (index >= 0 && index < SIZE) ? this.entries[index] : null;
+		if (value == null) {
+			throw new IllegalArgumentException(Integer.toString(index));
+		}
+		return value;
+	}
+
+	/** Add the given word or string in the table.
+	 * If the table is full, the oldest entry is replaced.
+	 *
+	 * @param value
+	 */
+	public void add(String value) {
+		String old = this.entries[this.next];
+		this.entries[this.next] = value;
+		if (this.indexes != null) {
+			if (old != null) {
+				this.indexes.remove(old);
+			}
+			this.indexes.put(value, this.next);
+		}
+		this.next = (this.next + 1) % SIZE;
+	}
+
+}
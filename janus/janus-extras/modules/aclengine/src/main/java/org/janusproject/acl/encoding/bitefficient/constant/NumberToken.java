@@ -112,6 +112,20 @@ public enum NumberToken {
 	 */
 	DOT(".", (byte) 0x0e); //$NON-NLS-1$
 	
+	private static final byte[] CODES = new byte[128];
+	private static final String[] TOKENS = new String[16];
+	
+	static {
+		for (NumberToken value : values()) {
+			TOKENS[value.getCode()] = value.getToken();
+			if (value.getToken().length() > 0) {
+				char c = value.getToken().charAt(0);
+				CODES[c] = value.getCode();
+				CODES[Character.toLowerCase(c)] = value.getCode();
+			}
+		}
+	}
+	
 	private final String token;
 	private final byte code;
 	
@@ -143,10 +157,8 @@ public enum NumberToken {
 	 * recognized.
 	 */
 	public static byte getCode(char token) {
-		for (NumberToken value : values()) { 
-			if (value.getToken().equalsIgnoreCase(Character.toString(token))) { 
-				return value.getCode();
-			} 
+		if (token < CODES.length) {
+			return CODES[token];
 		}
 		return NumberToken.PADDING.getCode(); 
 	}
@@ -159,10 +171,8 @@ public enum NumberToken {
 	 * code is not recognized.
 	 */
 	public static String getToken(byte code) {
-		for (NumberToken value : values()) { 
-			if (value.getCode() == code) { 
-				return value.getToken();
-			} 
+		if (code >= 0 && code < TOKENS.length && TOKENS[code] != null) {
+			return TOKENS[code];
 		}
 		return NumberToken.PADDING.getToken();
 	}
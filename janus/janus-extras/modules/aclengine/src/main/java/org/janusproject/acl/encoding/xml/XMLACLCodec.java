@@ -21,16 +21,25 @@
 package org.janusproject.acl.encoding.xml;
 
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.arakhne.afc.vmutil.locale.Locale;
 import org.janusproject.acl.ACLMessage;
 import org.janusproject.acl.ACLMessageContent;
 import org.janusproject.acl.encoding.ACLMessageContentEncodingService;
-import org.jdom2.Document;
-import org.jdom2.Element;
+import org.janusproject.kernel.address.AgentAddress;
 
 
 /**
  * This class encodes an ACLMessageContent in XML or decodes an ACLMessageContent encoded in bytes from XML
+ * <p>
+ * The messages are written and read with StAX streams, without building a document.
  * 
  * @see <a href="http://www.fipa.org/specs/fipa00071/SC00071E.html">FIPA ACL Message Representation in XML Specification</a>
  * 
@@ -42,19 +51,22 @@ import org.jdom2.Element;
  * @mavenartifactid $ArtifactId$
  */
 public class XMLACLCodec implements ACLMessageContentEncodingService {
+
+	private final Logger logger = Logger.getLogger(getClass().getCanonicalName());
+
 	/**
 	 * {@inheritDoc}
 	 * 
-	 * @see #toXML(ACLMessage)
+	 * @see XMLACLCodecHelper#toPrettyXML(ACLMessage)
 	 */
 	@Override
 	public byte[] encode(ACLMessage aMsg) {
 		byte[] payload;
 		
 		try {
-			payload = aMsg.toXML().getBytes(aMsg.getEncoding());
+			payload = XMLACLCodecHelper.toPrettyXML(aMsg).getBytes(aMsg.getEncoding());
 		} catch (UnsupportedEncodingException e) {
-			e.printStackTrace();
+			this.logger.log(Level.SEVERE, Locale.getString(XMLACLCodec.class, "ENCODING_ERROR", e.getLocalizedMessage()), e); //$NON-NLS-1$
 			return new byte[0];
 		}
 		
@@ -68,68 +80,91 @@ public class XMLACLCodec implements ACLMessageContentEncodingService {
 	public ACLMessageContent decode(byte[] byteMsg, Object... parameters) {
 		ACLMessage.Content content = new ACLMessage.Content();
 		
-		// get back a JDOM document from the encoded bytes
-		Document doc = XMLACLCodecHelper.getXMLDocument(byteMsg, parameters);
-		
-		// <fipa-message act="..">
-		Element root = doc.getRootElement();
-		
-		// the act attribut of the root contains the performative
-		content.setPerformative(XMLACLCodecHelper.decodePerformative(root).ordinal());
-		
-		// handle collections of agents (receiver, reply-to)
-		content.setReceiver(XMLACLCodecHelper.decodeAgents(root.getChildren(XMLACLCodecXMLElement.RECEIVER.getTag())));
-		content.setReplyTo(XMLACLCodecHelper.decodeAgents(root.getChildren(XMLACLCodecXMLElement.REPLY_TO.getTag())));
-		
-		// handle other (easier) param/tags
-		Element currentElt;
-		for (Object childObj : root.getChildren()) {
-			if (childObj instanceof Element) {
-				currentElt = (Element) childObj;
+		try {
+			XMLStreamReader reader = XMLACLCodecHelper.getXMLStreamReader(byteMsg, parameters);
+			try {
+				// <fipa-message act="..">
+				reader.nextTag();
+				
+				// the act attribut of the root contains the performative
+				content.setPerformative(XMLACLCodecHelper.decodePerformative(reader).ordinal());
+				
+				Collection<AgentAddress> receivers = null;
+				Collection<AgentAddress> replyTo = null;
+				AgentAddress agent;
 				
-				if (currentElt.getName().equals(XMLACLCodecXMLElement.SENDER.getTag())) {	
-					
-					content.setSender(XMLACLCodecHelper.decodeAgent(currentElt));
-					
-				} else if (currentElt.getName().equals(XMLACLCodecXMLElement.CONTENT.getTag())) {
-					
-					content.setContent(XMLACLCodecHelper.decodeContent(currentElt));
-					
-				} else if (currentElt.getName().equals(XMLACLCodecXMLElement.LANGUAGE.getTag())) {
-					
-					content.setLanguage(XMLACLCodecHelper.decodeStringMsgParam(currentElt));
-					
-				} else if (currentElt.getName().equals(XMLACLCodecXMLElement.ENCODING.getTag())) {
-					
-					content.setEncoding(XMLACLCodecHelper.decodeStringMsgParam(currentElt));
-					
-				} else if (currentElt.getName().equals(XMLACLCodecXMLElement.ONTOLOGY.getTag())) {
-					
-					content.setOntology(XMLACLCodecHelper.decodeStringMsgParam(currentElt));
-					
-				} else if (currentElt.getName().equals(XMLACLCodecXMLElement.PROTOCOL.getTag())) {
-					
-					content.setProtocol(XMLACLCodecHelper.decodeStringMsgParam(currentElt));
-					
-				} else if (currentElt.getName().equals(XMLACLCodecXMLElement.CONVERSATION_ID.getTag())) {
-					
-					content.setConversationId(XMLACLCodecHelper.decodeConversationId(currentElt));
-					
-				} else if (currentElt.getName().equals(XMLACLCodecXMLElement.REPLY_WITH.getTag())) {
-					
-					content.setReplyWith(XMLACLCodecHelper.decodeStringMsgParam(currentElt));
-					
-				} else if (currentElt.getName().equals(XMLACLCodecXMLElement.IN_REPLY_TO.getTag())) {
-					
-					content.setInReplyTo(XMLACLCodecHelper.decodeStringMsgParam(currentElt));
-					
-				} else if (currentElt.getName().equals(XMLACLCodecXMLElement.REPLY_BY.getTag())) {
-					
-					content.setReplyBy(XMLACLCodecHelper.decodeReplyByDate(currentElt));
-					
-				} 
+				while (XMLACLCodecHelper.nextChild(reader)) {
+					XMLACLCodecXMLElement element = XMLACLCodecXMLElement.valueOfTag(reader.getLocalName());
+					if (element == null) {
+						XMLACLCodecHelper.skipElement(reader, null);
+						continue;
+					}
+					switch (element) {
+					case SENDER:
+						content.setSender(XMLACLCodecHelper.decodeAgent(reader));
+						break;
+					case RECEIVER:
+						// handle collections of agents (receiver, reply-to)
+						agent = XMLACLCodecHelper.decodeAgent(reader);
+						if (agent != null) {
+							if (receivers == null) {
+								receivers = new ArrayList<AgentAddress>();
+							}
+							receivers.add(agent);
+						}
+						break;
+					case REPLY_TO:
+						agent = XMLACLCodecHelper.decodeAgent(reader);
+						if (agent != null) {
+							if (replyTo == null) {
+								replyTo = new ArrayList<AgentAddress>();
+							}
+							replyTo.add(agent);
+						}
+						break;
+					case CONTENT:
+						content.setContent(new StringBuffer(XMLACLCodecHelper.decodeStringMsgParam(reader)));
+						break;
+					case LANGUAGE:
+						content.setLanguage(XMLACLCodecHelper.decodeStringMsgParam(reader));
+						break;
+					case ENCODING:
+						content.setEncoding(XMLACLCodecHelper.decodeStringMsgParam(reader));
+						break;
+					case ONTOLOGY:
+						content.setOntology(XMLACLCodecHelper.decodeStringMsgParam(reader));
+						break;
+					case PROTOCOL:
+						content.setProtocol(XMLACLCodecHelper.decodeStringMsgParam(reader));
+						break;
+					case CONVERSATION_ID:
+						content.setConversationId(XMLACLCodecHelper.decodeConversationId(reader));
+						break;
+					case REPLY_WITH:
+						content.setReplyWith(XMLACLCodecHelper.decodeStringMsgParam(reader));
+						break;
+					case IN_REPLY_TO:
+						content.setInReplyTo(XMLACLCodecHelper.decodeStringMsgParam(reader));
+						break;
+					case REPLY_BY:
+						content.setReplyBy(XMLACLCodecHelper.decodeReplyByDate(reader));
+						break;
+					default:
+						XMLACLCodecHelper.skipElement(reader, null);
+					}
+				}
+				
+				content.setReceiver(receivers);
+				content.setReplyTo(replyTo);
+			}
+			finally {
+				reader.close();
 			}
 		}
+		catch (XMLStreamException e) {
+			this.logger.log(Level.SEVERE, Locale.getString(XMLACLCodec.class, "DECODING_ERROR", e.getLocalizedMessage()), e); //$NON-NLS-1$
+			return null;
+		}
 		
 		return content;
 	}
@@ -20,19 +20,30 @@
  */
 package org.janusproject.acl.encoding.xml;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.StringReader;
+import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.regex.Pattern;
 
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 
 import org.arakhne.afc.vmutil.locale.Locale;
+import org.janusproject.acl.ACLMessage;
 import org.janusproject.acl.Performative;
 import org.janusproject.acl.encoding.ACLDateUtil;
 import org.janusproject.acl.encoding.PayloadEncoding;
@@ -62,6 +73,36 @@ import org.xml.sax.InputSource;
  */
 public class XMLACLCodecHelper {
 
+	private static final String FIPA_MESSAGE = Locale.getString(XMLACLCodec.class, "FIPAMESSAGE"); //$NON-NLS-1$
+	private static final String FIPA_MESSAGE_ATTR = Locale.getString(XMLACLCodec.class, "FIPAMESSAGEATTR"); //$NON-NLS-1$
+	private static final String AGENT_IDENTIFIER = Locale.getString(XMLACLCodec.class, "AGENTIDENTIFIER"); //$NON-NLS-1$
+	private static final String NAME = Locale.getString(XMLACLCodec.class, "NAME"); //$NON-NLS-1$
+	private static final String NAME_ATTR = Locale.getString(XMLACLCodec.class, "NAMEATTR"); //$NON-NLS-1$
+	private static final String REPLY_BY_ATTR = Locale.getString(XMLACLCodec.class, "REPLYBYATTR"); //$NON-NLS-1$
+	private static final String CDATA_END = Locale.getString(XMLACLCodec.class, "CDATAEND"); //$NON-NLS-1$
+	private static final Pattern INVALID_CHARS = Pattern.compile(Locale.getString(XMLACLCodec.class, "INVALIDCHARREGEX")); //$NON-NLS-1$
+	
+	/*
+	 * Indentations used by the pretty printer of {@link #format(String)}.
+	 * They mirror the layout of the LSSerializer of the JDK 9 and later,
+	 * which indents each level with 4 spaces and ends the lines with "\n".
+	 */
+	private static final String INDENT_0 = "\n"; //$NON-NLS-1$
+	private static final String INDENT_1 = "\n    "; //$NON-NLS-1$
+	private static final String INDENT_2 = "\n        "; //$NON-NLS-1$
+	private static final String INDENT_3 = "\n            "; //$NON-NLS-1$
+	
+	/*
+	 * The factories are configured once, and then
+	 * they are only used to create the streams.
+	 */
+	private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+	private static final XMLInputFactory INPUT_FACTORY = XMLInputFactory.newInstance();
+	
+	static {
+		INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+	}
+
 	/**
 	 * Builds the fipa-message begin tag
 	 * ex: <fipa-message act="inform">
@@ -170,11 +211,9 @@ public class XMLACLCodecHelper {
 	 * @param value value of the tag
 	 */
 	public static void encodeBasicElement(StringBuffer sb, String tag, String value) {
-		Pattern p = Pattern.compile(Locale.getString(XMLACLCodec.class, "INVALIDCHARREGEX")); //$NON-NLS-1$
-		
 		String effectiveValue = ifNotNull(value).toString();
 		
-		if (p.matcher(effectiveValue).find()) {
+		if (INVALID_CHARS.matcher(effectiveValue).find()) {
 			effectiveValue = Locale.getString(XMLACLCodec.class, "CDATABEGIN") //$NON-NLS-1$
 							+ effectiveValue
 							+ Locale.getString(XMLACLCodec.class, "CDATAEND"); //$NON-NLS-1$
@@ -205,6 +244,345 @@ public class XMLACLCodecHelper {
 		);
 	}
 
+	/**
+	 * Computes the pretty xml representation of an ACLMessage with a StAX writer.
+	 * <p>
+	 * The result is the same as <code>format(XMLACLCodec.toXML(msg))</code>, without
+	 * building, parsing and serializing again an intermediate document.
+	 * The few values which are altered by the pretty printer (invalid xml characters,
+	 * carriage returns, supplementary characters, end of CDATA sections) are
+	 * delegated to {@link #format(String)}.
+	 * 
+	 * @param msg the ACLMessage to build in xml format
+	 * @return the pretty xml representation of the given ACLMessage
+	 * 
+	 * @see XMLACLCodec#toXML(ACLMessage)
+	 * @see #format(String)
+	 */
+	public static String toPrettyXML(ACLMessage msg) {
+		ACLMessage.Content content = msg.getContent();
+		
+		StringBuffer contentValue = content.getContent();
+		String[] values = new String[] {
+			contentValue == null ? "" : contentValue.toString(), //$NON-NLS-1$
+			ifNotNull(content.getLanguage()).toString(),
+			ifNotNull(content.getEncoding()).toString(),
+			ifNotNull(content.getOntology()).toString(),
+			ifNotNull(content.getProtocol()).toString(),
+			ifNotNull(content.getConversationId()).toString(),
+			ifNotNull(content.getReplyWith()).toString(),
+			ifNotNull(content.getInReplyTo()).toString()
+		};
+		
+		for (String value : values) {
+			if (!isPrettyPrintable(value)) {
+				return format(XMLACLCodec.toXML(msg));
+			}
+		}
+		
+		StringWriter buffer = new StringWriter();
+		try {
+			XMLStreamWriter writer = OUTPUT_FACTORY.createXMLStreamWriter(buffer);
+			try {
+				// <fipa-message act="inform">
+				writer.writeStartElement(FIPA_MESSAGE);
+				writer.writeAttribute(FIPA_MESSAGE_ATTR, ifNotNull(msg.getPerformative().getName()).toString());
+				
+				encodeAgent(writer, XMLACLCodecXMLElement.SENDER.getTag(), content.getSender());
+				encodeAgents(writer, XMLACLCodecXMLElement.RECEIVER.getTag(), content.getReceiver());
+				encodeAgents(writer, XMLACLCodecXMLElement.REPLY_TO.getTag(), content.getReplyTo());
+				
+				encodeBasicElement(writer, XMLACLCodecXMLElement.CONTENT.getTag(), values[0]);
+				encodeBasicElement(writer, XMLACLCodecXMLElement.LANGUAGE.getTag(), values[1]);
+				encodeBasicElement(writer, XMLACLCodecXMLElement.ENCODING.getTag(), values[2]);
+				encodeBasicElement(writer, XMLACLCodecXMLElement.ONTOLOGY.getTag(), values[3]);
+				encodeBasicElement(writer, XMLACLCodecXMLElement.PROTOCOL.getTag(), values[4]);
+				encodeBasicElement(writer, XMLACLCodecXMLElement.CONVERSATION_ID.getTag(), values[5]);
+				encodeBasicElement(writer, XMLACLCodecXMLElement.REPLY_WITH.getTag(), values[6]);
+				encodeBasicElement(writer, XMLACLCodecXMLElement.IN_REPLY_TO.getTag(), values[7]);
+				
+				// <reply-by time=""/>
+				writer.writeCharacters(INDENT_1);
+				writer.writeEmptyElement(XMLACLCodecXMLElement.REPLY_BY.getTag());
+				writer.writeAttribute(REPLY_BY_ATTR, ifNotNull(ACLDateUtil.toDateTimeToken(content.getReplyBy())).toString());
+				
+				// </fipa-message>
+				writer.writeCharacters(INDENT_0);
+				writer.writeEndElement();
+				writer.flush();
+			}
+			finally {
+				writer.close();
+			}
+		}
+		catch (XMLStreamException e) {
+			Logger.getLogger(XMLACLCodec.class.getCanonicalName()).log(Level.WARNING,
+					Locale.getString(XMLACLCodec.class, "ENCODING_ERROR", e.getLocalizedMessage()), e); //$NON-NLS-1$
+			return format(XMLACLCodec.toXML(msg));
+		}
+		buffer.append(INDENT_0);
+		
+		return buffer.toString();
+	}
+	
+	/**
+	 * Replies if the given value is written by the pretty printer
+	 * of {@link #format(String)} as it is.
+	 */
+	private static boolean isPrettyPrintable(String value) {
+		char c;
+		for (int i = 0; i < value.length(); ++i) {
+			c = value.charAt(i);
+			if ((c < 0x20 && c != '\t' && c != '\n')
+				|| (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE)
+				|| c >= 0xFFFE) {
+				return false;
+			}
+		}
+		return value.indexOf(CDATA_END) < 0;
+	}
+	
+	/**
+	 * Writes a agent tag (sender, receiver, reply-to)
+	 * ex: <sender><agent-identifier><name id=".."/></agent-identifier></sender>
+	 */
+	private static void encodeAgent(XMLStreamWriter writer, String tag, AgentAddress agentAddress) throws XMLStreamException {
+		writer.writeCharacters(INDENT_1);
+		if (agentAddress == null) {
+			writer.writeEmptyElement(tag);
+			return;
+		}
+		writer.writeStartElement(tag);
+		writer.writeCharacters(INDENT_2);
+		writer.writeStartElement(AGENT_IDENTIFIER);
+		writer.writeCharacters(INDENT_3);
+		writer.writeEmptyElement(NAME);
+		writer.writeAttribute(NAME_ATTR, ifNotNull(agentAddress.getUUID()).toString());
+		writer.writeCharacters(INDENT_2);
+		writer.writeEndElement();
+		writer.writeCharacters(INDENT_1);
+		writer.writeEndElement();
+	}
+	
+	/**
+	 * Writes several agent tags for only one type of agent (receiver, reply-to)
+	 */
+	private static void encodeAgents(XMLStreamWriter writer, String tag, Collection<AgentAddress> agentAddresses) throws XMLStreamException {
+		if (agentAddresses != null && agentAddresses.size() > 0) {
+			for (AgentAddress agentAddress : agentAddresses) {
+				encodeAgent(writer, tag, agentAddress);
+			}
+		} else {
+			writer.writeCharacters(INDENT_1);
+			writer.writeEmptyElement(tag);
+		}
+	}
+	
+	/**
+	 * Writes a simple tag, in a CDATA section if the value contains invalid xml characters.
+	 * The pretty printer replaces the blank values by an empty tag.
+	 */
+	private static void encodeBasicElement(XMLStreamWriter writer, String tag, String value) throws XMLStreamException {
+		writer.writeCharacters(INDENT_1);
+		if (INVALID_CHARS.matcher(value).find()) {
+			writer.writeStartElement(tag);
+			writer.writeCData(value);
+			writer.writeEndElement();
+		}
+		else if (isBlank(value)) {
+			writer.writeEmptyElement(tag);
+		}
+		else {
+			writer.writeStartElement(tag);
+			writer.writeCharacters(value);
+			writer.writeEndElement();
+		}
+	}
+	
+	private static boolean isBlank(String value) {
+		char c;
+		for (int i = 0; i < value.length(); ++i) {
+			c = value.charAt(i);
+			if (c != ' ' && c != '\t' && c != '\n') {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Creates a StAX reader on the encoded bytes.
+	 * 
+	 * @param byteMsg the ACLMessage encoded in byte array (payload)
+	 * @param parameters may contains the PayloadEncoding (not mandatory)
+	 * @return a StAX reader on the byteMsg param
+	 * @throws XMLStreamException
+	 * 
+	 * @see XMLACLCodec#decode(byte[], Object...)
+	 */
+	public static XMLStreamReader getXMLStreamReader(byte[] byteMsg, Object... parameters) throws XMLStreamException {
+		String charset = PayloadEncoding.UTF8.getValue();
+		for (Object parameter : parameters) {
+			if (parameter instanceof PayloadEncoding) {
+				charset = ((PayloadEncoding)parameter).getValue();
+			}
+		}
+		return INPUT_FACTORY.createXMLStreamReader(new ByteArrayInputStream(byteMsg), charset);
+	}
+	
+	/**
+	 * Moves the reader to the next child of the current element.
+	 * 
+	 * @param reader a StAX reader positioned on a start tag, or on the end tag of a child
+	 * @return <code>true</code> if the reader is positioned on the start tag of the next child,
+	 * <code>false</code> if it is positioned on the end tag of the current element.
+	 * @throws XMLStreamException
+	 */
+	public static boolean nextChild(XMLStreamReader reader) throws XMLStreamException {
+		int event;
+		do {
+			event = reader.next();
+		}
+		while (event != XMLStreamConstants.START_ELEMENT && event != XMLStreamConstants.END_ELEMENT);
+		return event == XMLStreamConstants.START_ELEMENT;
+	}
+	
+	/**
+	 * Moves the reader to the end tag of the current element, and
+	 * replies the text of the element and of its descendants.
+	 * 
+	 * @param reader a StAX reader positioned on a start tag
+	 * @param value is filled with the text of the element, or <code>null</code> to ignore it
+	 * @throws XMLStreamException
+	 */
+	public static void skipElement(XMLStreamReader reader, StringBuilder value) throws XMLStreamException {
+		int depth = 1;
+		while (depth > 0) {
+			switch (reader.next()) {
+			case XMLStreamConstants.START_ELEMENT:
+				++depth;
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				--depth;
+				break;
+			case XMLStreamConstants.CHARACTERS:
+			case XMLStreamConstants.CDATA:
+			case XMLStreamConstants.SPACE:
+				if (value != null) {
+					value.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+				}
+				break;
+			default:
+			}
+		}
+	}
+	
+	/**
+	 * Retrieves the Performative
+	 * 
+	 * @param reader a StAX reader positioned on the root tag (<fipa-message>)
+	 * @return the decoded Performative
+	 * 
+	 * @see Performative
+	 */
+	public static Performative decodePerformative(XMLStreamReader reader) {
+		String act = reader.getAttributeValue(null, FIPA_MESSAGE_ATTR);
+		if (act == null) {
+			return Performative.NONE;
+		}
+		return Performative.valueOfByName(act);
+	}
+	
+	/**
+	 * Retrieves a AgentAddress (sender, receiver, reply-to), and moves the reader
+	 * to the end of the tag.
+	 * 
+	 * @param reader a StAX reader positioned on a (sender|receiver|reply-to) tag
+	 * @return the decoded AgentAddress
+	 * @throws XMLStreamException
+	 * 
+	 * @see AgentAddress
+	 */
+	public static AgentAddress decodeAgent(XMLStreamReader reader) throws XMLStreamException {
+		String id = null;
+		boolean identifierFound = false;
+		boolean nameFound = false;
+		
+		// <agent-identifier><name id=".."/></agent-identifier>
+		while (nextChild(reader)) {
+			if (!identifierFound && AGENT_IDENTIFIER.equals(reader.getLocalName())) {
+				identifierFound = true;
+				while (nextChild(reader)) {
+					if (!nameFound && NAME.equals(reader.getLocalName())) {
+						nameFound = true;
+						id = reader.getAttributeValue(null, NAME_ATTR);
+					}
+					skipElement(reader, null);
+				}
+			}
+			else {
+				skipElement(reader, null);
+			}
+		}
+		
+		if (id == null) {
+			return null;
+		}
+		
+		try {
+			return AddressUtil.createAgentAddress(UUID.fromString(id));
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * Retrieves the String value of a basic tag, and moves the reader
+	 * to the end of the tag.
+	 * 
+	 * @param reader a StAX reader positioned on a basic tag
+	 * @return the value of the tag
+	 * @throws XMLStreamException
+	 */
+	public static String decodeStringMsgParam(XMLStreamReader reader) throws XMLStreamException {
+		StringBuilder value = new StringBuilder();
+		skipElement(reader, value);
+		return value.toString();
+	}
+	
+	/**
+	 * Retrieves the reply by date, and moves the reader
+	 * to the end of the tag.
+	 * 
+	 * @param reader a StAX reader positioned on a reply-by tag
+	 * @return the reply by data String value
+	 * @throws XMLStreamException
+	 */
+	public static Date decodeReplyByDate(XMLStreamReader reader) throws XMLStreamException {
+		String time = reader.getAttributeValue(null, REPLY_BY_ATTR);
+		skipElement(reader, null);
+		if (time == null) {
+			return null;
+		}
+		return ACLDateUtil.toDate(time);
+	}
+	
+	/**
+	 * Retrieves the conversation ID, and moves the reader
+	 * to the end of the tag.
+	 * 
+	 * @param reader a StAX reader positioned on a conversation-id tag
+	 * @return the UUID of the conversation
+	 * @throws XMLStreamException
+	 */
+	public static UUID decodeConversationId(XMLStreamReader reader) throws XMLStreamException {
+		try {
+			return UUID.fromString(decodeStringMsgParam(reader));
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
 	/**
 	 * 
 	 * @param byteMsg the ACLMessage encoded in byte array (payload)
@@ -20,6 +20,9 @@
  */
 package org.janusproject.acl.encoding.xml;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * This enumeration describes all available message param (name of the xml tags) as defined by FIPA for XML encoding, 
  * and their setter (used for decoding process - java reflection tips)
@@ -74,11 +77,27 @@ public enum XMLACLCodecXMLElement {
 	 */
 	PERFORMATIVE("performative"); //$NON-NLS-1$
 
+	private static final Map<String,XMLACLCodecXMLElement> TAGS = new HashMap<String,XMLACLCodecXMLElement>();
+	
+	static {
+		for (XMLACLCodecXMLElement element : values()) {
+			TAGS.put(element.getTag(), element);
+		}
+	}
+	
 	private final String tag;
 	
 	XMLACLCodecXMLElement(String tag) {
 		this.tag = tag;
 	}
+	
+	/**
+	 * @param tag the name tag of the msg param
+	 * @return the msg param with the given name tag, or <code>null</code> if the tag is unknown
+	 */
+	public static XMLACLCodecXMLElement valueOfTag(String tag) {
+		return TAGS.get(tag);
+	}
 
 	/**
 	 * @return the name tag of the msg param
@@ -89,6 +89,11 @@ public abstract class AbstractFipaProtocol {
 	 */
 	private long startedTime = 0;
 	
+	/**
+	 * Conversation manager which is storing this protocol, or <code>null</code>.
+	 */
+	private FipaConversationManager conversationManager = null;
+	
 	/**
 	 * Logger
 	 */
@@ -140,7 +145,7 @@ public abstract class AbstractFipaProtocol {
 				this.logger.log(Level.WARNING, Locale.getString("AbstractFipaProtocol.1")); //$NON-NLS-1$
 			}
 		}
-		this.conversationId = generateConversationId();
+		setConversationId(generateConversationId());
 	}
 	
 	/**
@@ -161,7 +166,7 @@ public abstract class AbstractFipaProtocol {
 				this.logger.log(Level.WARNING, Locale.getString("AbstractFipaProtocol.3")); //$NON-NLS-1$
 			}
 		}
-		this.conversationId = generateConversationId();
+		setConversationId(generateConversationId());
 	}
 	
 	/**
@@ -231,7 +236,11 @@ public abstract class AbstractFipaProtocol {
 	 * @param conversationId
 	 */
 	public void setConversationId(UUID conversationId) {
+		UUID oldId = this.conversationId;
 		this.conversationId = conversationId;
+		if (this.conversationManager != null) {
+			this.conversationManager.onConversationIdChanged(this, oldId);
+		}
 	}
 
 	/**
@@ -331,7 +340,11 @@ public abstract class AbstractFipaProtocol {
 	 * @param state
 	 */
 	public void setState(ProtocolState state) {
+		ProtocolState oldState = this.state;
 		this.state = state;
+		if (this.conversationManager != null) {
+			this.conversationManager.onStateChanged(this, oldState);
+		}
 	}
 	
 	/**
@@ -382,6 +395,9 @@ public abstract class AbstractFipaProtocol {
 	 */
 	public void setStartedTime(){
 		this.startedTime = getCurrentTime();
+		if (this.conversationManager != null) {
+			this.conversationManager.onStartedTimeChanged(this);
+		}
 	}
 	
 	/**
@@ -389,6 +405,50 @@ public abstract class AbstractFipaProtocol {
 	 */
 	public void resetStartedTime(){
 		this.startedTime = 0;
+		if (this.conversationManager != null) {
+			this.conversationManager.onStartedTimeChanged(this);
+		}
+	}
+	
+	/**
+	 * Replies if the timeout of this protocol is checked during
+	 * the execution of the protocol.
+	 * 
+	 * @return <code>true</code> if the timeout is checked,
+	 * otherwise <code>false</code>.
+	 * @since 1.1
+	 */
+	public boolean isTimeoutChecked() {
+		return true;
+	}
+	
+	/**
+	 * Replies the conversation manager which is storing this protocol.
+	 * 
+	 * @return the conversation manager, or <code>null</code>
+	 */
+	FipaConversationManager getConversationManager() {
+		return this.conversationManager;
+	}
+	
+	/**
+	 * Sets the conversation manager which is storing this protocol.
+	 * 
+	 * @param manager is the conversation manager, or <code>null</code>
+	 */
+	void setConversationManager(FipaConversationManager manager) {
+		this.conversationManager = manager;
+	}
+	
+	/**
+	 * Replies the date at which the timeout of this protocol will be reached.
+	 * 
+	 * @return the timeout date in milliseconds, or <code>0</code> if the
+	 * started time is not set.
+	 */
+	long getTimeoutDate() {
+		if (this.startedTime == 0) return 0;
+		return this.startedTime + TIMEOUT;
 	}
 	
 	/**
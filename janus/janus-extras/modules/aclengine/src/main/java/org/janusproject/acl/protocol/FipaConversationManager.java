@@ -21,7 +21,11 @@
 package org.janusproject.acl.protocol;
 
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -54,6 +58,14 @@ import org.janusproject.acl.protocol.request.RequestProtocolState;
  * <dt>Initiation of the protocol on the Participant side :</dt>
  * <dl><code>protocol.initiateAsParticipant();</code></dl>
  * </ul>
+ * <p>
+ * The conversations are indexed by conversation id and by state.
+ * The protocols notify their manager when their conversation id,
+ * their state or their started time is changed.
+ * The conversations for which the timeout was reached may be
+ * removed with {@link #removeExpiredConversations()}. The
+ * conversations of the protocols that are not checking their
+ * timeouts are never removed by this function.
  * 
  * @see EnumFipaProtocol
  * @see AbstractFipaProtocol
@@ -70,7 +82,19 @@ import org.janusproject.acl.protocol.request.RequestProtocolState;
  */
 public class FipaConversationManager {	
 	
-	private ArrayList<AbstractFipaProtocol> conversations;
+	private final Set<AbstractFipaProtocol> conversations = new LinkedHashSet<AbstractFipaProtocol>();
+	private final Map<UUID,Set<AbstractFipaProtocol>> conversationsPerId = new HashMap<UUID,Set<AbstractFipaProtocol>>();
+	private final Map<ProtocolState,Set<AbstractFipaProtocol>> conversationsPerState = new HashMap<ProtocolState,Set<AbstractFipaProtocol>>();
+	
+	/**
+	 * Started conversations which are checking their timeouts,
+	 * sorted by timeout date.
+	 * Because all the protocols have the same timeout duration,
+	 * the order of the starting dates is the order of the timeout dates.
+	 * A conversation is moved at the end of this set when it is restarted.
+	 */
+	private final Set<AbstractFipaProtocol> timeouts = new LinkedHashSet<AbstractFipaProtocol>();
+	
 	private ACLAgent agent;
 	
 	private Logger logger;
@@ -80,7 +104,6 @@ public class FipaConversationManager {
 	 */
 	public FipaConversationManager(final ACLAgent agent) {
 		this.agent = agent;
-		this.conversations = new ArrayList<AbstractFipaProtocol>();
 		this.logger = Logger.getLogger(this.getClass().getName());
 	}
 	
@@ -96,27 +119,27 @@ public class FipaConversationManager {
 			protocol = new FipaRequestProtocol(this.agent);
 			protocol.setState(RequestProtocolState.NOT_STARTED);
 			protocol.setRefAclAgent(this.agent);
-			this.conversations.add(protocol);
+			addConversation(protocol);
 			return protocol;
 		}
 		else if (EnumFipaProtocol.FIPA_CONTRACT_NET == protocolType) {
 			protocol = new FipaContractNetProtocol(this.agent);
 			protocol.setState(ContractNetProtocolState.NOT_STARTED);
 			protocol.setRefAclAgent(this.agent);
-			this.conversations.add(protocol);
+			addConversation(protocol);
 			return protocol;
 		} else if (EnumFipaProtocol.FIPA_PROPOSE == protocolType) {
 			protocol = new FipaProposeProtocol(this.agent);
 			protocol.setState(ProposeProtocolState.NOT_STARTED);
 			protocol.setRefAclAgent(this.agent);
-			this.conversations.add(protocol);
+			addConversation(protocol);
 			return protocol;
 		}
 		else if (EnumFipaProtocol.FIPA_QUERY == protocolType) {
 			protocol = new FipaQueryProtocol(this.agent);
 			protocol.setState(QueryProtocolState.NOT_STARTED);
 			protocol.setRefAclAgent(this.agent);
-			this.conversations.add(protocol);
+			addConversation(protocol);
 			return protocol;
 		}
 		else {
@@ -160,9 +183,9 @@ public class FipaConversationManager {
 	 * @return the protocol with the specified conversationId
 	 */
 	public AbstractFipaProtocol getConversation(UUID conversationId) {
-		for (AbstractFipaProtocol protocol : this.conversations) {
-			if (protocol.getConversationId().compareTo(conversationId) == 0)
-				return protocol;
+		Set<AbstractFipaProtocol> protocols = this.conversationsPerId.get(conversationId);
+		if (protocols != null) {
+			return protocols.iterator().next();
 		}
 		return null;		
 	}
@@ -186,22 +209,49 @@ public class FipaConversationManager {
 	 * @param state
 	 */
 	public void removeConversations(ProtocolState state) {
-		Iterator<AbstractFipaProtocol> i = this.conversations.iterator();
-		
-		while (i.hasNext()) {
-			AbstractFipaProtocol conv = i.next();
-			if (conv.getState() == state) {
-				i.remove();
+		Set<AbstractFipaProtocol> protocols = this.conversationsPerState.get(state);
+		if (protocols != null) {
+			for (AbstractFipaProtocol protocol : new ArrayList<AbstractFipaProtocol>(protocols)) {
+				removeConversation(protocol);
 			}
 		}
 	}
 	
+	/**
+	 * Delete the current protocols for which the timeout was reached.
+	 * <p>
+	 * Only the protocols that are checking their timeouts are
+	 * considered, see {@link AbstractFipaProtocol#isTimeoutChecked()}.
+	 * The cost of this function depends on the number of
+	 * expired conversations, not on the number of conversations.
+	 * 
+	 * @return the number of removed conversations.
+	 * @see AbstractFipaProtocol#hasReachedTimeout()
+	 */
+	public int removeExpiredConversations() {
+		int count = 0;
+		long now = AbstractFipaProtocol.getCurrentTime();
+		AbstractFipaProtocol protocol;
+		while (!this.timeouts.isEmpty()) {
+			protocol = this.timeouts.iterator().next();
+			if (now <= protocol.getTimeoutDate()) {
+				break;
+			}
+			removeConversation(protocol);
+			++count;
+		}
+		return count;
+	}
+	
 	/**
 	 * Gets the list of current conversations.
+	 * <p>
+	 * The replied list is a copy of the current conversations.
+	 * 
 	 * @return the list of current conversations.
 	 */
 	public ArrayList<AbstractFipaProtocol> getConversations() {
-		return this.conversations;
+		return new ArrayList<AbstractFipaProtocol>(this.conversations);
 	}
 
 	/**
@@ -209,8 +259,113 @@ public class FipaConversationManager {
 	 * @param protocols - the list of current conversations.
 	 */
 	public void setConversations(ArrayList<AbstractFipaProtocol> protocols) {
-		this.conversations = protocols;
+		for (AbstractFipaProtocol protocol : new ArrayList<AbstractFipaProtocol>(this.conversations)) {
+			removeConversation(protocol);
+		}
+		for (AbstractFipaProtocol protocol : protocols) {
+			addConversation(protocol);
+		}
+	}
+	
+	/**
+	 * Adds a conversation in this manager.
+	 * 
+	 * @param protocol
+	 */
+	private void addConversation(AbstractFipaProtocol protocol) {
+		if (this.conversations.add(protocol)) {
+			FipaConversationManager oldManager = protocol.getConversationManager();
+			if (oldManager != null && oldManager != this) {
+				oldManager.removeConversation(protocol);
+			}
+			protocol.setConversationManager(this);
+			index(this.conversationsPerId, protocol.getConversationId(), protocol);
+			index(this.conversationsPerState, protocol.getState(), protocol);
+			onStartedTimeChanged(protocol);
+		}
+	}
+	
+	/**
+	 * Removes a conversation from this manager.
+	 * 
+	 * @param protocol
+	 */
+	private void removeConversation(AbstractFipaProtocol protocol) {
+		if (this.conversations.remove(protocol)) {
+			protocol.setConversationManager(null);
+			unindex(this.conversationsPerId, protocol.getConversationId(), protocol);
+			unindex(this.conversationsPerState, protocol.getState(), protocol);
+			this.timeouts.remove(protocol);
+		}
 	}
 	
+	/**
+	 * Invoked when the conversation id of a protocol has changed.
+	 * 
+	 * @param protocol
+	 * @param oldId
+	 */
+	void onConversationIdChanged(AbstractFipaProtocol protocol, UUID oldId) {
+		unindex(this.conversationsPerId, oldId, protocol);
+		index(this.conversationsPerId, protocol.getConversationId(), protocol);
+	}
+
+	/**
+	 * Invoked when the state of a protocol has changed.
+	 * 
+	 * @param protocol
+	 * @param oldState
+	 */
+	void onStateChanged(AbstractFipaProtocol protocol, ProtocolState oldState) {
+		unindex(this.conversationsPerState, oldState, protocol);
+		index(this.conversationsPerState, protocol.getState(), protocol);
+	}
+
+	/**
+	 * Invoked when the started time of a protocol has changed.
+	 * 
+	 * @param protocol
+	 */
+	void onStartedTimeChanged(AbstractFipaProtocol protocol) {
+		this.timeouts.remove(protocol);
+		if (protocol.getStartedTime() != 0 && protocol.isTimeoutChecked()) {
+			this.timeouts.add(protocol);
+		}
+	}
+	
+	/**
+	 * Replies the number of started conversations for which the
+	 * timeout is checked.
+	 * 
+	 * @return the number of started conversations.
+	 */
+	int getStartedConversationCount() {
+		return this.timeouts.size();
+	}
+	
+	private static <K, C extends Collection<AbstractFipaProtocol>> void index(Map<K,C> map, K key, AbstractFipaProtocol protocol) {
+		if (key != null) {
+			C protocols = map.get(key);
+			if (protocols == null) {
+				@SuppressWarnings("unchecked")
+				C newSet = (C)new LinkedHashSet<AbstractFipaProtocol>();
+				protocols = newSet;
+				map.put(key, protocols);
+			}
+			protocols.add(protocol);
+		}
+	}
+
+	private static <K, C extends Collection<AbstractFipaProtocol>> void unindex(Map<K,C> map, K key, AbstractFipaProtocol protocol) {
+		if (key != null) {
+			C protocols = map.get(key);
+			if (protocols != null) {
+				protocols.remove(protocol);
+				if (protocols.isEmpty()) {
+					map.remove(key);
+				}
+			}
+		}
+	}
 	
 }
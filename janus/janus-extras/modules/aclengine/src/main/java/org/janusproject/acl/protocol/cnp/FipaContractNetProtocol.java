@@ -72,6 +72,14 @@ public class FipaContractNetProtocol extends AbstractFipaProtocol {
 		this.checkTimeOut = checkTimeOut;
 	}
 	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isTimeoutChecked() {
+		return this.checkTimeOut;
+	}
+	
 	/**
 	 * The proposals received from the participants
 	 */
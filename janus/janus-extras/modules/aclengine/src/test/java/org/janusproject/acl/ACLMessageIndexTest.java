@@ -0,0 +1,248 @@
+/*
+ * $Id$
+ *
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2012 Janus Core Developers
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.acl;
+
+import java.util.UUID;
+
+import junit.framework.TestCase;
+
+import org.janusproject.acl.encoding.PayloadEncoding;
+import org.janusproject.acl.protocol.EnumFipaProtocol;
+import org.janusproject.kernel.mailbox.BufferedTreeSetMailbox;
+import org.janusproject.kernel.mailbox.LinkedListMailbox;
+import org.janusproject.kernel.mailbox.Mailbox;
+import org.janusproject.kernel.util.selector.TypeSelector;
+
+/**
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $Groupid$
+ * @mavenartifactid $ArtifactId$
+ */
+public class ACLMessageIndexTest extends TestCase {
+
+	private ACLAgent agent;
+	private Mailbox mailbox;
+	private ACLMessageIndex index;
+	private UUID conversation1;
+	private UUID conversation2;
+
+	/**
+	 * @throws Exception
+	 */
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		this.agent = new ACLAgent();
+		this.mailbox = new LinkedListMailbox();
+		this.index = new ACLMessageIndex(this.agent, this.mailbox);
+		this.conversation1 = UUID.randomUUID();
+		this.conversation2 = UUID.randomUUID();
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	@Override
+	protected void tearDown() throws Exception {
+		this.index.release();
+		this.index = null;
+		this.mailbox = null;
+		this.agent = null;
+		this.conversation1 = this.conversation2 = null;
+		super.tearDown();
+	}
+
+	private ACLTransportMessage createMessage(UUID conversationId, EnumFipaProtocol protocol, Performative performative) {
+		ACLMessage msg = new ACLMessage("content", performative); //$NON-NLS-1$
+		msg.setConversationId(conversationId);
+		msg.setProtocol(protocol);
+		msg.setAclRepresentation(ACLRepresentation.BIT_EFFICIENT.getValue());
+		msg.setEncoding(PayloadEncoding.UTF8.getValue());
+		return this.agent.getAclMessageHandler().prepareOutgoingACLMessage(msg);
+	}
+
+	/**
+	 * Replies the first message in the mailbox as the agent
+	 * was finding it by traversing the mailbox.
+	 */
+	private ACLTransportMessage scan(UUID conversationId, EnumFipaProtocol protocol, Performative... performatives) {
+		for(ACLTransportMessage msg : this.mailbox.iterable(new TypeSelector<ACLTransportMessage>(ACLTransportMessage.class), false)) {
+			ACLMessage aMsg = this.agent.getAclMessageFromTransportMessage(msg);
+			if (aMsg!=null
+				&& (conversationId==null || conversationId.equals(aMsg.getConversationId()))
+				&& (protocol==null || protocol==aMsg.getProtocol())) {
+				if (performatives.length==0) return msg;
+				for(Performative p : performatives) {
+					if (p==aMsg.getPerformative()) return msg;
+				}
+			}
+		}
+		return null;
+	}
+
+	private void fillMailbox() {
+		Performative[] performatives = new Performative[] {
+			Performative.REQUEST, Performative.AGREE, Performative.INFORM, Performative.REFUSE
+		};
+		for(int i=0; i<20; ++i) {
+			this.mailbox.add(createMessage(
+					(i%2==0) ? this.conversation1 : this.conversation2,
+					(i%3==0) ? EnumFipaProtocol.FIPA_REQUEST : EnumFipaProtocol.FIPA_QUERY,
+					performatives[i%performatives.length]));
+		}
+	}
+
+	private void assertLikeScan() {
+		assertSame(
+				scan(this.conversation1, null),
+				this.index.getFirst(this.conversation1));
+		assertSame(
+				scan(this.conversation2, null),
+				this.index.getFirst(this.conversation2));
+		assertSame(
+				scan(this.conversation1, null, Performative.INFORM, Performative.REFUSE),
+				this.index.getFirst(this.conversation1, Performative.INFORM, Performative.REFUSE));
+		assertSame(
+				scan(this.conversation2, null, Performative.AGREE),
+				this.index.getFirst(this.conversation2, Performative.AGREE));
+		assertSame(
+				scan(null, EnumFipaProtocol.FIPA_REQUEST, Performative.REQUEST, Performative.INFORM),
+				this.index.getFirst(EnumFipaProtocol.FIPA_REQUEST, Performative.REQUEST, Performative.INFORM));
+		assertSame(
+				scan(null, EnumFipaProtocol.FIPA_QUERY, Performative.AGREE, Performative.REFUSE),
+				this.index.getFirst(EnumFipaProtocol.FIPA_QUERY, Performative.AGREE, Performative.REFUSE));
+	}
+
+	/**
+	 */
+	public void testUpdate_arrivals() {
+		this.index.update();
+		assertNull(this.index.getFirst(this.conversation1));
+
+		// The messages are indexed on arrival, and sorted in the mailbox order
+		fillMailbox();
+		this.index.update();
+		assertLikeScan();
+
+		ACLTransportMessage msg = createMessage(this.conversation1, EnumFipaProtocol.FIPA_REQUEST, Performative.REQUEST);
+		this.mailbox.add(msg);
+		this.index.update();
+		assertLikeScan();
+	}
+
+	/**
+	 */
+	public void testUpdate_existingMessages() {
+		// The messages already in the mailbox are indexed
+		fillMailbox();
+		ACLMessageIndex idx = new ACLMessageIndex(this.agent, this.mailbox);
+		try {
+			idx.update();
+			assertSame(scan(this.conversation1, null), idx.getFirst(this.conversation1));
+			assertSame(
+					scan(null, EnumFipaProtocol.FIPA_QUERY, Performative.INFORM),
+					idx.getFirst(EnumFipaProtocol.FIPA_QUERY, Performative.INFORM));
+		}
+		finally {
+			idx.release();
+		}
+	}
+
+	/**
+	 */
+	public void testUpdate_bulkChanges() {
+		BufferedTreeSetMailbox buffered = new BufferedTreeSetMailbox();
+		ACLMessageIndex idx = new ACLMessageIndex(this.agent, buffered);
+		try {
+			idx.update();
+			ACLTransportMessage msg = createMessage(this.conversation1, EnumFipaProtocol.FIPA_REQUEST, Performative.REQUEST);
+			buffered.add(msg);
+			idx.update();
+			assertNull(idx.getFirst(this.conversation1));
+
+			// The flush of the buffer is notified in bulk
+			buffered.synchronizeMessages();
+			idx.update();
+			assertSame(msg, idx.getFirst(this.conversation1));
+			assertSame(msg, idx.getFirst(EnumFipaProtocol.FIPA_REQUEST, Performative.REQUEST));
+		}
+		finally {
+			idx.release();
+		}
+	}
+
+	/**
+	 */
+	public void testRemove() {
+		this.index.update();
+		fillMailbox();
+		this.index.update();
+
+		ACLTransportMessage first = this.index.getFirst(this.conversation1);
+		assertNotNull(first);
+		this.mailbox.remove(first);
+		this.index.remove(first);
+		assertNotSame(first, this.index.getFirst(this.conversation1));
+		assertLikeScan();
+	}
+
+	/**
+	 */
+	public void testGetFirst_removedOutsideIndex() {
+		this.index.update();
+		fillMailbox();
+		this.index.update();
+
+		// The messages consumed without the index are skipped
+		ACLTransportMessage first = this.index.getFirst(this.conversation2);
+		assertNotNull(first);
+		this.mailbox.remove(first);
+		ACLTransportMessage request = this.index.getFirst(EnumFipaProtocol.FIPA_REQUEST, Performative.REQUEST);
+		assertNotNull(request);
+		this.mailbox.remove(request);
+		this.index.update();
+		assertNotSame(first, this.index.getFirst(this.conversation2));
+		assertNotSame(request, this.index.getFirst(EnumFipaProtocol.FIPA_REQUEST, Performative.REQUEST));
+		assertLikeScan();
+
+		this.mailbox.clear();
+		this.index.update();
+		assertNull(this.index.getFirst(this.conversation1));
+		assertNull(this.index.getFirst(this.conversation2, Performative.AGREE));
+		assertNull(this.index.getFirst(EnumFipaProtocol.FIPA_QUERY, Performative.INFORM));
+	}
+
+	/**
+	 */
+	public void testGetMessage() {
+		ACLTransportMessage msg = createMessage(this.conversation1, EnumFipaProtocol.FIPA_REQUEST, Performative.INFORM);
+		this.mailbox.add(msg);
+		this.index.update();
+		ACLMessage aMsg = this.index.getMessage(msg);
+		assertNotNull(aMsg);
+		assertEquals(this.conversation1, aMsg.getConversationId());
+		assertSame(Performative.INFORM, aMsg.getPerformative());
+		// The payload is decoded once
+		assertSame(aMsg, this.index.getMessage(msg));
+	}
+
+}
@@ -0,0 +1,222 @@
+/*
+ * $Id$
+ *
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2012 Janus Core Developers
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.acl.encoding.bitefficient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import junit.framework.TestCase;
+
+import org.janusproject.acl.ACLMessage;
+import org.janusproject.acl.ACLMessageContent;
+import org.janusproject.acl.Performative;
+import org.janusproject.acl.encoding.bitefficient.constant.EndOfCollection;
+import org.janusproject.acl.protocol.EnumFipaProtocol;
+import org.janusproject.kernel.address.AgentAddress;
+import org.janusproject.kernel.crio.core.AddressUtil;
+
+/**
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $Groupid$
+ * @mavenartifactid $ArtifactId$
+ */
+public class BitEfficientACLCodecTest extends TestCase {
+
+	private Logger logger;
+	private Level oldLevel;
+
+	/**
+	 * @throws Exception
+	 */
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		// The decoding errors are expected by some tests
+		this.logger = Logger.getLogger(BitEfficientACLCodec.class.getCanonicalName());
+		this.oldLevel = this.logger.getLevel();
+		this.logger.setLevel(Level.OFF);
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	@Override
+	protected void tearDown() throws Exception {
+		this.logger.setLevel(this.oldLevel);
+		this.logger = null;
+		super.tearDown();
+	}
+
+	private static List<AgentAddress> createAddresses(int count) {
+		List<AgentAddress> addresses = new ArrayList<AgentAddress>(count);
+		for(int i=0; i<count; ++i) {
+			addresses.add(AddressUtil.createAgentAddress(UUID.randomUUID()));
+		}
+		return addresses;
+	}
+
+	private static ACLMessage createMessage(String content) {
+		ACLMessage msg = new ACLMessage(content, Performative.INFORM);
+		msg.setSender(AddressUtil.createAgentAddress(UUID.randomUUID()));
+		msg.setReceiver(createAddresses(3));
+		msg.getContent().setReplyTo(createAddresses(1));
+		msg.getContent().setReplyWith("reply-with-value"); //$NON-NLS-1$
+		msg.getContent().setInReplyTo("in reply to \"value\""); //$NON-NLS-1$
+		msg.setLanguage("fipa-sl"); //$NON-NLS-1$
+		msg.setEncoding("UTF-8"); //$NON-NLS-1$
+		msg.setOntology("fipa-sl"); //$NON-NLS-1$
+		msg.setProtocol(EnumFipaProtocol.FIPA_REQUEST);
+		msg.setConversationId(UUID.randomUUID());
+		return msg;
+	}
+
+	private static void assertAddresses(Collection<AgentAddress> expected, Collection<AgentAddress> actual) {
+		if (expected==null || expected.isEmpty()) {
+			assertTrue(actual==null || actual.isEmpty());
+			return;
+		}
+		assertNotNull(actual);
+		assertEquals(expected.size(), actual.size());
+		Iterator<AgentAddress> it = actual.iterator();
+		for(AgentAddress adr : expected) {
+			assertEquals(adr.getUUID(), it.next().getUUID());
+		}
+	}
+
+	private static void assertRoundTrip(BitEfficientACLCodec codec, ACLMessage msg) {
+		byte[] bytes = codec.encode(msg);
+		ACLMessageContent decoded = codec.decode(bytes);
+		assertNotNull(decoded);
+		ACLMessage.Content expected = msg.getContent();
+		assertEquals(expected.getPerformative(), decoded.getPerformative());
+		assertEquals(expected.getSender().getUUID(), decoded.getSender().getUUID());
+		assertAddresses(expected.getReceiver(), decoded.getReceiver());
+		assertAddresses(expected.getReplyTo(), decoded.getReplyTo());
+		assertEquals(expected.getReplyWith(), decoded.getReplyWith());
+		assertEquals(expected.getInReplyTo(), decoded.getInReplyTo());
+		assertEquals(expected.getLanguage(), decoded.getLanguage());
+		assertEquals(expected.getEncoding(), decoded.getEncoding());
+		assertEquals(expected.getOntology(), decoded.getOntology());
+		assertEquals(expected.getProtocol(), decoded.getProtocol());
+		assertEquals(expected.getConversationId(), decoded.getConversationId());
+		assertEquals(expected.getContent().toString(), decoded.getContent().toString());
+	}
+
+	/**
+	 */
+	public void testRoundTrip_plain() {
+		BitEfficientACLCodec codec = new BitEfficientACLCodec();
+		assertFalse(codec.isCodeTableUsed());
+		assertRoundTrip(codec, createMessage("content of the message")); //$NON-NLS-1$
+		assertRoundTrip(codec, createMessage("caf\u00e9 \u20ac \ud83d\ude00")); //$NON-NLS-1$
+	}
+
+	/**
+	 */
+	public void testRoundTrip_codeTable() {
+		BitEfficientACLCodec codec = new BitEfficientACLCodec(true);
+		assertTrue(codec.isCodeTableUsed());
+		ACLMessage msg = createMessage("fipa-sl"); //$NON-NLS-1$
+		// The repeated values are replaced by their indexes
+		msg.getContent().setReplyTo(msg.getReceiver());
+		msg.getContent().setInReplyTo(msg.getContent().getReplyWith());
+		assertRoundTrip(codec, msg);
+		assertTrue(codec.encode(msg).length < new BitEfficientACLCodec().encode(msg).length);
+	}
+
+	/**
+	 */
+	public void testRoundTrip_codeTableWrapAround() {
+		BitEfficientACLCodec codec = new BitEfficientACLCodec(true);
+		ACLMessage msg = createMessage("content"); //$NON-NLS-1$
+		// More words than entries in the table, so that the
+		// oldest entries are replaced
+		List<AgentAddress> receivers = createAddresses(BitEfficientCodeTable.SIZE + 44);
+		msg.setReceiver(receivers);
+		List<AgentAddress> replyTo = new ArrayList<AgentAddress>();
+		replyTo.add(receivers.get(0));
+		replyTo.add(receivers.get(receivers.size() - 1));
+		replyTo.add(receivers.get(10));
+		replyTo.add(receivers.get(receivers.size() - 10));
+		msg.getContent().setReplyTo(replyTo);
+		assertRoundTrip(codec, msg);
+	}
+
+	/**
+	 */
+	public void testRoundTrip_nulCharacter() {
+		ACLMessage msg = createMessage("a\u0000content\u0000"); //$NON-NLS-1$
+		msg.getContent().setInReplyTo("in\u0000reply"); //$NON-NLS-1$
+		msg.getContent().setReplyWith("\u0000"); //$NON-NLS-1$
+		assertRoundTrip(new BitEfficientACLCodec(), msg);
+		assertRoundTrip(new BitEfficientACLCodec(true), msg);
+	}
+
+	/**
+	 */
+	public void testRoundTrip_bigMessage() {
+		char[] chars = new char[70000];
+		Arrays.fill(chars, 'x');
+		chars[100] = '\u00e9';
+		ACLMessage msg = createMessage(new String(chars));
+		msg.setReceiver(createAddresses(1000));
+		assertRoundTrip(new BitEfficientACLCodec(), msg);
+		assertRoundTrip(new BitEfficientACLCodec(true), msg);
+
+		chars = new char[300];
+		Arrays.fill(chars, 'y');
+		assertRoundTrip(new BitEfficientACLCodec(), createMessage(new String(chars)));
+	}
+
+	/**
+	 */
+	public void testDecode_truncated() {
+		for(BitEfficientACLCodec codec : new BitEfficientACLCodec[] {
+				new BitEfficientACLCodec(), new BitEfficientACLCodec(true)}) {
+			byte[] bytes = codec.encode(createMessage("content")); //$NON-NLS-1$
+			for(int length=0; length<bytes.length; ++length) {
+				assertNull(codec.decode(Arrays.copyOf(bytes, length)));
+			}
+			assertNotNull(codec.decode(bytes));
+		}
+	}
+
+	/**
+	 */
+	public void testDecode_unknownParameter() {
+		BitEfficientACLCodec codec = new BitEfficientACLCodec();
+		byte[] bytes = codec.encode(new ACLMessage(Performative.INFORM));
+		assertNotNull(codec.decode(bytes));
+
+		byte[] invalid = Arrays.copyOf(bytes, bytes.length + 1);
+		invalid[bytes.length - 1] = (byte) 0x7F;
+		invalid[bytes.length] = EndOfCollection.END_OF_COLLECTION.getCode();
+		assertNull(codec.decode(invalid));
+	}
+
+}
@@ -0,0 +1,114 @@
+/*
+ * $Id$
+ *
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2012 Janus Core Developers
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.acl.encoding.xml;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.UUID;
+
+import junit.framework.TestCase;
+
+import org.janusproject.acl.ACLMessage;
+import org.janusproject.acl.Performative;
+import org.janusproject.acl.protocol.EnumFipaProtocol;
+import org.janusproject.kernel.address.AgentAddress;
+import org.janusproject.kernel.crio.core.AddressUtil;
+
+/**
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $Groupid$
+ * @mavenartifactid $ArtifactId$
+ */
+public class XMLACLCodecHelperTest extends TestCase {
+
+	private static ACLMessage createMessage(String value) {
+		ACLMessage msg = new ACLMessage(value, Performative.INFORM);
+		msg.setSender(AddressUtil.createAgentAddress(UUID.randomUUID()));
+		msg.setReceiver(Arrays.<AgentAddress>asList(
+				AddressUtil.createAgentAddress(UUID.randomUUID()),
+				AddressUtil.createAgentAddress(UUID.randomUUID())));
+		msg.getContent().setReplyWith(value);
+		msg.getContent().setInReplyTo(value);
+		msg.getContent().setReplyBy(new Date());
+		msg.setLanguage(value);
+		msg.setEncoding("UTF-8"); //$NON-NLS-1$
+		msg.setOntology(value);
+		msg.setProtocol(EnumFipaProtocol.FIPA_REQUEST);
+		msg.setConversationId(UUID.randomUUID());
+		return msg;
+	}
+
+	private static void assertPrettyXML(String value) {
+		ACLMessage msg = createMessage(value);
+		assertEquals(
+				XMLACLCodecHelper.format(XMLACLCodec.toXML(msg)),
+				XMLACLCodecHelper.toPrettyXML(msg));
+	}
+
+	/**
+	 */
+	public void testToPrettyXML_plain() {
+		assertPrettyXML("fipa-sl"); //$NON-NLS-1$
+		assertPrettyXML("some content with spaces"); //$NON-NLS-1$
+	}
+
+	/**
+	 */
+	public void testToPrettyXML_cdata() {
+		assertPrettyXML("<a href=\"x\">b & c</a>"); //$NON-NLS-1$
+		assertPrettyXML("a < b"); //$NON-NLS-1$
+		assertPrettyXML("a > b"); //$NON-NLS-1$
+	}
+
+	/**
+	 */
+	public void testToPrettyXML_multiLine() {
+		assertPrettyXML("first line\nsecond line\n\tthird line"); //$NON-NLS-1$
+		assertPrettyXML("first <line>\nsecond & line"); //$NON-NLS-1$
+	}
+
+	/**
+	 */
+	public void testToPrettyXML_blank() {
+		assertPrettyXML(""); //$NON-NLS-1$
+		assertPrettyXML("   "); //$NON-NLS-1$
+		assertPrettyXML("\t"); //$NON-NLS-1$
+		assertPrettyXML("\n"); //$NON-NLS-1$
+	}
+
+	/**
+	 */
+	public void testToPrettyXML_nonAscii() {
+		assertPrettyXML("caf\u00e9 \u20ac \u65e5\u672c"); //$NON-NLS-1$
+		assertPrettyXML("<caf\u00e9>"); //$NON-NLS-1$
+	}
+
+	/**
+	 */
+	public void testToPrettyXML_delegated() {
+		// The values altered by the pretty printer are formatted by the DOM serializer
+		assertPrettyXML("line\r\nline"); //$NON-NLS-1$
+		assertPrettyXML("\ud83d\ude00"); //$NON-NLS-1$
+		assertPrettyXML("<![CDATA[a]]>"); //$NON-NLS-1$
+	}
+
+}
@@ -0,0 +1,175 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.acl.protocol;
+
+import java.util.ArrayList;
+import java.util.UUID;
+
+import junit.framework.TestCase;
+
+import org.janusproject.acl.ACLAgent;
+import org.janusproject.acl.protocol.cnp.FipaContractNetProtocol;
+import org.janusproject.acl.protocol.request.RequestProtocolState;
+
+/**
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $Groupid$
+ * @mavenartifactid $ArtifactId$
+ */
+public class FipaConversationManagerTest extends TestCase {
+
+	private static final int TEST_TIMEOUT = 100;
+	
+	private int oldTimeout;
+	private ACLAgent agent;
+	private FipaConversationManager manager;
+	
+	/**
+	 * @throws Exception
+	 */
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		this.oldTimeout = AbstractFipaProtocol.TIMEOUT;
+		AbstractFipaProtocol.TIMEOUT = TEST_TIMEOUT;
+		this.agent = new ACLAgent();
+		this.manager = new FipaConversationManager(this.agent);
+	}
+	
+	/**
+	 * @throws Exception
+	 */
+	@Override
+	protected void tearDown() throws Exception {
+		this.manager = null;
+		this.agent = null;
+		AbstractFipaProtocol.TIMEOUT = this.oldTimeout;
+		super.tearDown();
+	}
+	
+	private AbstractFipaProtocol createConversation() {
+		AbstractFipaProtocol protocol = this.manager.createProtocol(EnumFipaProtocol.FIPA_REQUEST);
+		protocol.setConversationId(UUID.randomUUID());
+		return protocol;
+	}
+	
+	/**
+	 * @throws Exception
+	 */
+	public void testGetConversation_expired() throws Exception {
+		AbstractFipaProtocol p = createConversation();
+		UUID id = p.getConversationId();
+		
+		p.setStartedTime();
+		Thread.sleep(TEST_TIMEOUT * 2);
+		
+		// The lookup has no side effect
+		assertSame(p, this.manager.getConversation(id));
+		assertEquals(1, this.manager.getStartedConversationCount());
+		assertEquals(1, this.manager.getConversations().size());
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testRemoveExpiredConversations() throws Exception {
+		AbstractFipaProtocol p1 = createConversation();
+		AbstractFipaProtocol p2 = createConversation();
+		UUID id1 = p1.getConversationId();
+		UUID id2 = p2.getConversationId();
+		
+		p1.setStartedTime();
+		assertEquals(1, this.manager.getStartedConversationCount());
+		assertEquals(0, this.manager.removeExpiredConversations());
+		assertSame(p1, this.manager.getConversation(id1));
+		
+		Thread.sleep(TEST_TIMEOUT * 2);
+		
+		assertEquals(1, this.manager.removeExpiredConversations());
+		assertNull(this.manager.getConversation(id1));
+		assertSame(p2, this.manager.getConversation(id2));
+		assertEquals(0, this.manager.getStartedConversationCount());
+		assertEquals(1, this.manager.getConversations().size());
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testRemoveExpiredConversations_uncheckedTimeout() throws Exception {
+		AbstractFipaProtocol p = new FipaContractNetProtocol(this.agent, false);
+		p.setConversationId(UUID.randomUUID());
+		ArrayList<AbstractFipaProtocol> protocols = new ArrayList<AbstractFipaProtocol>();
+		protocols.add(p);
+		this.manager.setConversations(protocols);
+		
+		p.setStartedTime();
+		assertEquals(0, this.manager.getStartedConversationCount());
+		
+		Thread.sleep(TEST_TIMEOUT * 2);
+		
+		assertEquals(0, this.manager.removeExpiredConversations());
+		assertSame(p, this.manager.getConversation(p.getConversationId()));
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testSetStartedTime_restart() throws Exception {
+		AbstractFipaProtocol p = createConversation();
+		UUID id = p.getConversationId();
+		
+		p.setStartedTime();
+		Thread.sleep(TEST_TIMEOUT * 2);
+		p.setStartedTime();
+		
+		assertEquals(1, this.manager.getStartedConversationCount());
+		assertEquals(0, this.manager.removeExpiredConversations());
+		assertSame(p, this.manager.getConversation(id));
+		
+		p.resetStartedTime();
+		assertEquals(0, this.manager.getStartedConversationCount());
+		Thread.sleep(TEST_TIMEOUT * 2);
+		assertEquals(0, this.manager.removeExpiredConversations());
+		assertSame(p, this.manager.getConversation(id));
+	}
+
+	/**
+	 */
+	public void testRemoveConversations() {
+		AbstractFipaProtocol p1 = createConversation();
+		AbstractFipaProtocol p2 = createConversation();
+		p1.setStartedTime();
+		p2.setStartedTime();
+		p2.setState(RequestProtocolState.DONE);
+		assertEquals(2, this.manager.getStartedConversationCount());
+		
+		this.manager.removeConversations(RequestProtocolState.NOT_STARTED);
+		assertEquals(1, this.manager.getStartedConversationCount());
+		assertNull(this.manager.getConversation(p1.getConversationId()));
+		assertSame(p2, this.manager.getConversation(p2.getConversationId()));
+		
+		this.manager.removeConversations(RequestProtocolState.DONE);
+		assertEquals(0, this.manager.getStartedConversationCount());
+		assertTrue(this.manager.getConversations().isEmpty());
+	}
+
+}
@@ -22,6 +22,8 @@ package org.janusproject.kernel.address;
 
 import java.util.UUID;
 
+import org.janusproject.kernel.util.identifier.Identifiers;
+
 /** This abstract class describes all the addresses used by the kernel
  * to identify its elements
  * 
@@ -47,13 +49,13 @@ public abstract class AbstractAddress implements Address {
 	 */
 	protected AbstractAddress(UUID id) {
 		if (id==null)
-			this.id = UUID.randomUUID();
+			this.id = Identifiers.newIdentifier();
 		else
 			this.id = id;
 	}
 
 	/**
-	 * Create an address with an random identifier.
+	 * Create an address with a new identifier.
 	 */
 	protected AbstractAddress() {
 		this(null);
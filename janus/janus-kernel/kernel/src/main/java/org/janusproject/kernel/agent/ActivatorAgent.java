@@ -24,8 +24,8 @@ import org.janusproject.kernel.address.AgentAddress;
 import org.janusproject.kernel.crio.capacity.CapacityContainer;
 import org.janusproject.kernel.crio.core.Role;
 import org.janusproject.kernel.schedule.Activator;
-import org.janusproject.kernel.status.MultipleStatus;
 import org.janusproject.kernel.status.Status;
+import org.janusproject.kernel.status.StatusFactory;
 
 /**
  * Agent owning its execution resource and scheduling activable objects.
@@ -179,7 +179,8 @@ extends Agent {
 		this.initializationParameters = parameters;
 		Status s = super.activate(parameters);
 		Status s2 = this.activator.activate(parameters);
-		return new MultipleStatus(s, s2).pack(this);
+		Status status = StatusFactory.merge(s, s2);
+		return (status==null) ? StatusFactory.ok() : status;
 	}
 
 	/** Replies a numerical indicator about its suicidal state.
@@ -357,7 +358,18 @@ extends Agent {
 		assert(this.activator!=null);
 		Status s = super.live();
 		Status s2 = this.activator.live();
-		return new MultipleStatus(s, s2).pack(this);
+		Status status = StatusFactory.merge(s, s2);
+		return (status==null) ? StatusFactory.ok() : status;
+	}
+
+	/** {@inheritDoc}
+	 * <p>
+	 * An ActivatorAgent is never idle when it has activable objects to schedule.
+	 */
+	@Override
+	protected boolean isIdle() {
+		assert(this.activator!=null);
+		return !this.activator.hasActivable() && super.isIdle();
 	}
 
 	/** {@inheritDoc}
@@ -377,7 +389,8 @@ extends Agent {
 		Status s = this.activator.end();
 		Status s2 = super.end();
 		this.initializationParameters = null;
-		return new MultipleStatus(s, s2).pack(this);
+		Status status = StatusFactory.merge(s, s2);
+		return (status==null) ? StatusFactory.ok() : status;
 	}
 
 }
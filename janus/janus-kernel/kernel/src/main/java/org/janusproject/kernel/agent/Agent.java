@@ -28,10 +28,12 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.janusproject.kernel.address.Address;
 import org.janusproject.kernel.address.AgentAddress;
+import org.janusproject.kernel.agentsignal.AbstractSignalManager;
 import org.janusproject.kernel.agentsignal.BufferedSignalManager;
 import org.janusproject.kernel.agentsignal.SignalManager;
 import org.janusproject.kernel.condition.AfterTimeCondition;
@@ -47,6 +49,8 @@ import org.janusproject.kernel.crio.interaction.MailboxUtil;
 import org.janusproject.kernel.crio.organization.GroupCondition;
 import org.janusproject.kernel.mailbox.BufferedMailbox;
 import org.janusproject.kernel.mailbox.Mailbox;
+import org.janusproject.kernel.mailbox.MailboxOverflowPolicy;
+import org.janusproject.kernel.mailbox.MessageRejectedSignal;
 import org.janusproject.kernel.message.Message;
 import org.janusproject.kernel.message.MessageReceiverSelectionPolicy;
 import org.janusproject.kernel.organization.holonic.HolonicOrganization;
@@ -58,6 +62,7 @@ import org.janusproject.kernel.status.SingleStatus;
 import org.janusproject.kernel.status.Status;
 import org.janusproject.kernel.status.StatusSeverity;
 import org.janusproject.kernel.time.KernelTimeManager;
+import org.janusproject.kernel.time.VMKernelTimeManager;
 import org.janusproject.kernel.util.selector.TypeSelector;
 import org.janusproject.kernel.util.sizediterator.SizedIterator;
 
@@ -521,6 +526,9 @@ implements Activable, Holon, Serializable {
 			for(AgentLifeStateListener listener : getEventListeners(AgentLifeStateListener.class)) {
 				listener.agentLifeChanged(adr, this.agentState);
 			}
+			
+			// A parked agent must be waken up to take its new state into account.
+			wakeUpExecutionResource();
 		}
 	}
 
@@ -919,12 +927,18 @@ implements Activable, Holon, Serializable {
 		if (sm instanceof BufferedSignalManager) {
 			((BufferedSignalManager)sm).sync();
 		}
+		
+		syncRolePlayingEvents();
 
 		if (isSelfKillableNow()) {
 			return killMe();
 		}		
 
-		return live();
+		Status s = live();
+		
+		syncMemoryEvents();
+		
+		return s;
 	}
 
 	/** Destroy this agent and invoke {@link #end()}
@@ -1111,6 +1125,126 @@ implements Activable, Holon, Serializable {
 		return false;
 	}
 
+	/** Replies the delay after which this agent should be waken up
+	 * when it is sleeping until a given time.
+	 * <p>
+	 * The delay is computed only when the time manager follows the
+	 * operating system clock. Otherwise the time may be changed
+	 * at any moment by the simulator, and <code>0</code> is replied
+	 * to make the wake-up condition polled.
+	 * 
+	 * @param unit is the time unit of the replied delay.
+	 * @return the remaining sleeping delay, <code>0</code> if the
+	 * wake-up condition must be polled, or a negative value if
+	 * the agent is not sleeping until a given time.
+	 * @see #sleep(float)
+	 * @see VMKernelTimeManager
+	 */
+	long getSleepingDelay(TimeUnit unit) {
+		Condition<?> c = this.agentWakeUpCondition;
+		if (c instanceof AfterTimeCondition) {
+			KernelTimeManager timeManager = getKernelContext().getTimeManager();
+			if (!(timeManager instanceof VMKernelTimeManager)) {
+				return 0;
+			}
+			float remaining = ((AfterTimeCondition)c).getLimitTime()
+					- timeManager.getCurrentTime();
+			// The condition is satisfied strictly after the limit time.
+			return unit.convert(Math.max(0, (long)Math.ceil(remaining)) + 1, TimeUnit.MILLISECONDS);
+		}
+		return -1;
+	}
+
+	/** Wake up this agent.
+	 * <p>
+	 * If the agent is sleeping, its wake-up condition is discarded.
+	 * If the agent is a reactive heavy agent which is currently
+	 * parked because it is idle, its thread is resumed.
+	 * <p>
+	 * This function is available for both heavy and light agents.
+	 * 
+	 * @see #sleep(float)
+	 * @see #isIdle()
+	 * @see JanusProperty#JANUS_AGENT_HEAVY_REACTIVE
+	 * @since 1.1
+	 */
+	public final void wakeUp() {
+		this.agentWakeUpCondition = null;
+		wakeUpExecutionResource();
+	}
+
+	/** Wake up the execution resource of this agent if it
+	 * is waiting for a stimulus.
+	 * <p>
+	 * This function is invoked each time a message or a signal
+	 * is received by this agent.
+	 */
+	final void wakeUpExecutionResource() {
+		AgentExecutionResource resource = this.executionResource;
+		if (resource!=null) {
+			resource.wakeUp();
+		}
+	}
+
+	/** Notify this agent that a message it has sent was rejected
+	 * by the mailbox of the receiver.
+	 * <p>
+	 * A {@link MessageRejectedSignal} is fired in the context of this agent.
+	 * 
+	 * @param receiver is the address of the receiver of the message.
+	 * @param message is the rejected message.
+	 * @see MailboxOverflowPolicy#REJECT
+	 */
+	final void fireMessageRejection(AgentAddress receiver, Message message) {
+		getSignalManager().fireSignal(new MessageRejectedSignal(receiver, message));
+	}
+
+	/** Connect or disconnect the signal manager of this agent to
+	 * its execution resource. When connected, the execution resource
+	 * is waken up each time a signal is received.
+	 * 
+	 * @param connect is <code>true</code> to connect, <code>false</code> to disconnect.
+	 */
+	final void connectSignalManagerToExecutionResource(boolean connect) {
+		SignalManager sm = getSignalManager();
+		if (sm instanceof AbstractSignalManager) {
+			((AbstractSignalManager)sm).setSignalArrivalListener(
+					connect ? new SignalArrivalListener(this) : null);
+		}
+	}
+
+	/** Replies if this agent is idle, ie. it has nothing to do
+	 * until it receives a stimulus (message, signal, wake-up request).
+	 * <p>
+	 * This function is invoked after each invocation of {@link #live()}
+	 * on the heavy agents which are reactive. When an heavy
+	 * agent is idle, its thread is parked until a stimulus is received
+	 * or the idle timeout is reached.
+	 * Light agents are never parked.
+	 * <p>
+	 * By default, an agent is idle if its mailbox is empty, if no
+	 * signal is pending, and if its role activator has nothing
+	 * to activate (see {@link Activator#hasActivable()}).
+	 * You may override this function to provide your own idleness
+	 * criteria. An agent that is doing some job without external
+	 * stimulus must reply <code>false</code>.
+	 * 
+	 * @return <code>true</code> if this agent is idle,
+	 * otherwise <code>false</code>
+	 * @see #wakeUp()
+	 * @see JanusProperty#JANUS_AGENT_HEAVY_REACTIVE
+	 * @see JanusProperty#JANUS_AGENT_HEAVY_IDLE_TIMEOUT
+	 * @since 1.1
+	 */
+	protected boolean isIdle() {
+		Activator<? extends Role> activator = getRoleActivator();
+		assert(activator!=null);
+		if (activator.hasActivable()) return false;
+		Mailbox mb = this.mailbox;
+		if (mb!=null && !mb.isEmpty()) return false;
+		return !getSignalManager().hasSignal();
+	}
+
 	/** Replies if the agent is currently sleeping, ie. it is
 	 * waiting for a particular condition to wake up.
 	 *  
@@ -1990,4 +2124,35 @@ implements Activable, Holon, Serializable {
 
 	}
 
+	/**
+	 * Listener on signal arrivals which wakes up the
+	 * execution resource of an agent.
+	 * 
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	private static class SignalArrivalListener implements Runnable {
+
+		private final Agent agent;
+
+		/**
+		 * @param agent
+		 */
+		public SignalArrivalListener(Agent agent) {
+			this.agent = agent;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void run() {
+			this.agent.wakeUpExecutionResource();
+		}
+
+	}
+
 }
@@ -20,14 +20,23 @@
  */
 package org.janusproject.kernel.agent;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.janusproject.kernel.schedule.AbstractActivator;
 import org.janusproject.kernel.schedule.ActivationStage;
 import org.janusproject.kernel.status.ExceptionStatus;
 import org.janusproject.kernel.status.KernelStatusConstants;
-import org.janusproject.kernel.status.MultipleStatus;
 import org.janusproject.kernel.status.SingleStatus;
 import org.janusproject.kernel.status.Status;
 import org.janusproject.kernel.status.StatusFactory;
@@ -39,6 +48,15 @@ import org.janusproject.kernel.util.directaccess.SafeIterator;
  * Determine a execution policy among a set of agents.
  * <p>
  * The activator is empty when no more agent is registered inside.
+ * <p>
+ * By default, the agents are run sequentially on the thread
+ * of the activator's owner. When the parallelism level is greater
+ * than one, the agents are partitioned into chunks which are
+ * run by a pool of worker threads. Each worker takes the next
+ * available chunk until all the chunks were run, and the
+ * activator waits for the end of all the chunks before
+ * replying. Each agent is run by only one worker per step,
+ * so the sequential semantic of the agent's behaviour is preserved.
  * 
  * @author $Author: ngaud$
  * @author $Author: srodriguez$
@@ -50,6 +68,29 @@ import org.janusproject.kernel.util.directaccess.SafeIterator;
 public class AgentActivator
 extends AbstractActivator<Agent> {
 
+	/** Minimal number of agents inside a chunk.
+	 * Below this size the cost of the dispatching is
+	 * greater than the gain of the parallel execution.
+	 * 
+	 * @since 1.1
+	 */
+	public static final int MIN_CHUNK_SIZE = 64;
+
+	/** Number of chunks per worker. More than one chunk per
+	 * worker permits to balance the load among the workers
+	 * when the agents have different execution durations.
+	 * 
+	 * @since 1.1
+	 */
+	public static final int CHUNKS_PER_WORKER = 4;
+
+	/** Delay in seconds before an iddle worker thread is destroyed.
+	 */
+	private static final long WORKER_KEEP_ALIVE = 60;
+
+	private volatile int parallelism = 1;
+	private ThreadPoolExecutor workers = null;
+
 	/** 
 	 */
 	public AgentActivator() {
@@ -68,7 +109,7 @@ extends AbstractActivator<Agent> {
 	 */
 	@Override
 	protected Status executeInit(Iterator<? extends Agent> agents, Object... parameters) {
-		MultipleStatus ms = new MultipleStatus();
+		Status status = null;
 		Agent h;
 		Status s;
 		while (agents.hasNext()) {
@@ -85,11 +126,83 @@ extends AbstractActivator<Agent> {
 				}
 			}
 			else {
-				s = StatusFactory.ok(h);
+				s = StatusFactory.ok();
+			}
+			status = StatusFactory.merge(status, s);
+		}
+		return (status==null) ? StatusFactory.ok() : status;
+	}
+
+	/** Replies the number of threads which are used to run
+	 * the agents.
+	 * 
+	 * @return the parallelism level, always greater or equal to one.
+	 * @since 1.1
+	 */
+	public int getParallelism() {
+		return this.parallelism;
+	}
+
+	/** Set the number of threads which are used to run
+	 * the agents.
+	 * <p>
+	 * A value of one means that the agents are run sequentially
+	 * on the thread of the activator's owner. A negative or zero value
+	 * means that the number of available processors is used.
+	 * 
+	 * @param parallelism is the parallelism level.
+	 * @since 1.1
+	 */
+	public void setParallelism(int parallelism) {
+		int p = parallelism;
+		if (p<=0) p = Runtime.getRuntime().availableProcessors();
+		if (p!=this.parallelism) {
+			this.parallelism = p;
+			synchronized(this) {
+				if (this.workers!=null) {
+					if (p>1) {
+						resizeWorkers(this.workers, p-1);
+					}
+					else {
+						this.workers.shutdown();
+						this.workers = null;
+					}
+				}
 			}
-			ms.addStatus(s);
 		}
-		return ms.pack(this);
+	}
+	
+	private static void resizeWorkers(ThreadPoolExecutor pool, int size) {
+		if (size>pool.getMaximumPoolSize()) {
+			pool.setMaximumPoolSize(size);
+			pool.setCorePoolSize(size);
+		}
+		else {
+			pool.setCorePoolSize(size);
+			pool.setMaximumPoolSize(size);
+		}
+	}
+
+	/** Replies the pool of worker threads.
+	 * The thread of the activator's owner is also a worker,
+	 * so the pool contains <code>parallelism-1</code> threads.
+	 * 
+	 * @param size is the number of threads in the pool.
+	 * @return the pool of workers.
+	 */
+	private synchronized Executor getWorkers(int size) {
+		if (this.workers==null) {
+			this.workers = new ThreadPoolExecutor(
+					size, size,
+					WORKER_KEEP_ALIVE, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(),
+					new WorkerThreadFactory());
+			this.workers.allowCoreThreadTimeOut(true);
+		}
+		else if (this.workers.getCorePoolSize()!=size) {
+			resizeWorkers(this.workers, size);
+		}
+		return this.workers;
 	}
 
 	/**
@@ -97,59 +210,121 @@ extends AbstractActivator<Agent> {
 	 */
 	@Override
 	protected Status executeBehaviour(Iterator<? extends Agent> agents) {
-		MultipleStatus ms = new MultipleStatus();
-		Agent h;
-		Status s;
+		int p = this.parallelism;
+		if (p>1) {
+			List<Agent> candidates = new ArrayList<Agent>();
+			while (agents.hasNext()) {
+				candidates.add(agents.next());
+			}
+			int nbChunks = Math.min(p * CHUNKS_PER_WORKER, candidates.size() / MIN_CHUNK_SIZE);
+			if (nbChunks>1) {
+				return executeParallelBehaviour(candidates, nbChunks, Math.min(p, nbChunks));
+			}
+			agents = candidates.iterator();
+		}
+		Status status = null;
 		while (agents.hasNext()) {
-			h = agents.next();
-			s = null;
-			switch(h.getState()) {
-			case ALIVE:
-				// standard execution
-				try {
-					if (!h.wakeUpIfSleeping()) {
-						s = h.proceedPrivateBehaviour();
-					}
-				}
-				catch(AssertionError e) {
-					throw e;
-				}
-				catch(Throwable e) {
-					s = new ExceptionStatus(e);
-				}
-				break;
-			case DYING:
-				// kill the agent
-				s = killAgent(h);
-				break;
-			case DIED:
-				// Special case of the failure in the activation function
-				killAgent(h);
-				break;
-			case UNBORN:
-			case BORN:
-				// void states
-				s = new SingleStatus(
-						StatusSeverity.WARNING,
-						h.getAddress().toString(),
-						KernelStatusConstants.UNEXPECTED_AGENT_STATE_DURING_ACTIVATION);
-				killAgent(h);
-				break;
-			case BREAKING_DOWN:
-				// void states
-				s = new SingleStatus(
-						StatusSeverity.WARNING,
-						h.getAddress().toString(),
-						KernelStatusConstants.UNEXPECTED_AGENT_STATE_DURING_DESTRUCTION);
-				killAgent(h);
+			status = StatusFactory.merge(status, executeBehaviour(agents.next()));
+			Thread.yield();
+		}
+		return (status==null) ? StatusFactory.ok() : status;
+	}
+	
+	/** Run the behaviours of the given agents on several threads.
+	 * 
+	 * @param agents are the agents to run.
+	 * @param nbChunks is the number of chunks to create.
+	 * @param nbWorkers is the number of workers to use, including the current thread.
+	 * @return the behaviour status.
+	 */
+	private Status executeParallelBehaviour(List<Agent> agents, int nbChunks, int nbWorkers) {
+		AtomicInteger nextChunk = new AtomicInteger(0);
+		AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+		CountDownLatch latch = new CountDownLatch(nbWorkers-1);
+		ChunkRunner[] runners = new ChunkRunner[nbWorkers];
+		Executor executor = getWorkers(this.parallelism-1);
+		for(int i=1; i<nbWorkers; ++i) {
+			runners[i] = new ChunkRunner(agents, nbChunks, nextChunk, error, latch);
+			executor.execute(runners[i]);
+		}
+		// The current thread is also a worker
+		runners[0] = new ChunkRunner(agents, nbChunks, nextChunk, error, null);
+		runners[0].run();
+		
+		boolean interrupted = false;
+		while (true) {
+			try {
+				latch.await();
 				break;
-			default:
-				s = new ExceptionStatus(new IllegalStateException());
 			}
-			if (s!=null) ms.addStatus(s);
-			Thread.yield();
+			catch(InterruptedException _) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) Thread.currentThread().interrupt();
+		
+		Throwable e = error.get();
+		if (e instanceof AssertionError) throw (AssertionError)e;
+
+		Status status = null;
+		for(ChunkRunner runner : runners) {
+			status = StatusFactory.merge(status, runner.getStatus());
 		}
-		return ms.pack(this);
+		if (e!=null) status = StatusFactory.merge(status, new ExceptionStatus(e));
+		return (status==null) ? StatusFactory.ok() : status;
+	}
+	
+	/** Run the behaviour of the given agent.
+	 * 
+	 * @param h is the agent to run.
+	 * @return the behaviour status.
+	 */
+	final Status executeBehaviour(Agent h) {
+		Status s = null;
+		switch(h.getState()) {
+		case ALIVE:
+			// standard execution
+			try {
+				if (!h.wakeUpIfSleeping()) {
+					s = h.proceedPrivateBehaviour();
+				}
+			}
+			catch(AssertionError e) {
+				throw e;
+			}
+			catch(Throwable e) {
+				s = new ExceptionStatus(e);
+			}
+			break;
+		case DYING:
+			// kill the agent
+			s = killAgent(h);
+			break;
+		case DIED:
+			// Special case of the failure in the activation function
+			killAgent(h);
+			break;
+		case UNBORN:
+		case BORN:
+			// void states
+			s = new SingleStatus(
+					StatusSeverity.WARNING,
+					h.getAddress().toString(),
+					KernelStatusConstants.UNEXPECTED_AGENT_STATE_DURING_ACTIVATION);
+			killAgent(h);
+			break;
+		case BREAKING_DOWN:
+			// void states
+			s = new SingleStatus(
+					StatusSeverity.WARNING,
+					h.getAddress().toString(),
+					KernelStatusConstants.UNEXPECTED_AGENT_STATE_DURING_DESTRUCTION);
+			killAgent(h);
+			break;
+		default:
+			s = new ExceptionStatus(new IllegalStateException());
+		}
+		return s;
 	}
 
 	/**
@@ -157,26 +332,26 @@ extends AbstractActivator<Agent> {
 	 */
 	@Override
 	protected Status executeDestroy(Iterator<? extends Agent> agents) {
-		MultipleStatus ms = new MultipleStatus();
+		Status status = null;
 		Agent h;
 		while (agents.hasNext()) {
 			h = agents.next();
 			if (h.isAlive() && !h.isMigrating.get()) {
 				try {
-					ms.addStatus(h.proceedPrivateDestruction());
+					status = StatusFactory.merge(status, h.proceedPrivateDestruction());
 				}
 				catch(AssertionError e) {
 					throw e;
 				}
 				catch(Throwable e) {
-					ms.addStatus(new ExceptionStatus(e));
+					status = StatusFactory.merge(status, new ExceptionStatus(e));
 				}
 			}
 			else {
-				ms.addStatus(StatusFactory.ok(h));
+				status = StatusFactory.merge(status, StatusFactory.ok());
 			}
 		}
-		return ms.pack(this);
+		return (status==null) ? StatusFactory.ok() : status;
 	}
 	
 	private Status killAgent(Agent agent) {
@@ -251,4 +426,103 @@ extends AbstractActivator<Agent> {
 		return candidates.iterator();
 	}
 
+	/**
+	 * Run the chunks of agents until all the chunks were run.
+	 * 
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	private class ChunkRunner implements Runnable {
+
+		private final List<Agent> agents;
+		private final int nbChunks;
+		private final AtomicInteger nextChunk;
+		private final AtomicReference<Throwable> error;
+		private final CountDownLatch latch;
+		private Status status = null;
+
+		/**
+		 * @param agents are the agents to run.
+		 * @param nbChunks is the number of chunks.
+		 * @param nextChunk is the index of the next chunk to run.
+		 * @param error is the first error thrown by a worker.
+		 * @param latch is the latch to count down when this runner has finished, or <code>null</code>.
+		 */
+		public ChunkRunner(List<Agent> agents, int nbChunks, AtomicInteger nextChunk,
+				AtomicReference<Throwable> error, CountDownLatch latch) {
+			this.agents = agents;
+			this.nbChunks = nbChunks;
+			this.nextChunk = nextChunk;
+			this.error = error;
+			this.latch = latch;
+		}
+
+		/** Replies the merging of the statuses replied by the agents run by this runner.
+		 * 
+		 * @return the status, or <code>null</code> if none.
+		 */
+		public Status getStatus() {
+			return this.status;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void run() {
+			try {
+				int size = this.agents.size();
+				int chunk, end;
+				while (this.error.get()==null
+					&& (chunk = this.nextChunk.getAndIncrement())<this.nbChunks) {
+					end = (int)(((long)(chunk+1) * size) / this.nbChunks);
+					for(int i=(int)(((long)chunk * size) / this.nbChunks); i<end; ++i) {
+						this.status = StatusFactory.merge(this.status, executeBehaviour(this.agents.get(i)));
+					}
+				}
+			}
+			catch(Throwable e) {
+				this.error.compareAndSet(null, e);
+			}
+			finally {
+				if (this.latch!=null) this.latch.countDown();
+			}
+		}
+
+	}
+
+	/**
+	 * Factory of the worker threads.
+	 * 
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	private static class WorkerThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger count = new AtomicInteger(0);
+
+		/**
+		 */
+		public WorkerThreadFactory() {
+			//
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread t = new Thread(r, "Janus Light Agent Worker #"+this.count.incrementAndGet()); //$NON-NLS-1$
+			t.setDaemon(true);
+			return t;
+		}
+
+	}
+
 }
@@ -48,4 +48,13 @@ public interface AgentExecutionResource {
 	 */
 	public String getName();
 
+	/** Wake up the resource if it is waiting for a stimulus,
+	 * ie. if it was parked because its agent is idle.
+	 * If the resource is not waiting, the next wait will
+	 * immediately return.
+	 * 
+	 * @since 1.1
+	 */
+	public void wakeUp();
+
 }
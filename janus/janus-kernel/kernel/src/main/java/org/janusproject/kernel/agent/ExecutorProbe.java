@@ -0,0 +1,207 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.agent;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.janusproject.kernel.address.AgentAddress;
+import org.janusproject.kernel.crio.core.CapacityExecutor;
+import org.janusproject.kernel.probe.AbstractIndividualProbe;
+
+
+/**
+ * This class defines a probe allowing the observation of the thread pools
+ * of the kernel which is running a given agent.
+ * <p>
+ * The probed values are:<ul>
+ * <li>{@link #AGENT_ACTIVE_COUNT}: the number of threads running agents;</li>
+ * <li>{@link #AGENT_POOL_SIZE}: the number of threads in the pool of the agents;</li>
+ * <li>{@link #AGENT_QUEUE_SIZE}: the number of agents waiting for a thread;</li>
+ * <li>{@link #CAPACITY_ACTIVE_COUNT}: the number of threads running capacities;</li>
+ * <li>{@link #CAPACITY_POOL_SIZE}: the number of threads in the pool of the capacities;</li>
+ * <li>{@link #CAPACITY_QUEUE_SIZE}: the number of capacity calls waiting for a thread;</li>
+ * <li>{@link #PRIORITY_ACTIVE_COUNT}: the number of threads running latency-sensitive capacities;</li>
+ * <li>{@link #PRIORITY_QUEUE_SIZE}: the number of latency-sensitive capacity calls waiting for a thread.</li>
+ * </ul>
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ * @see ProbeManager#createProbe(Class, AgentAddress)
+ */
+public class ExecutorProbe
+extends AbstractIndividualProbe {
+
+	/** Name of the probed value which is the number of threads running agents.
+	 */
+	public static final String AGENT_ACTIVE_COUNT = "agentPoolActiveCount"; //$NON-NLS-1$
+
+	/** Name of the probed value which is the number of threads in the pool of the agents.
+	 */
+	public static final String AGENT_POOL_SIZE = "agentPoolSize"; //$NON-NLS-1$
+
+	/** Name of the probed value which is the number of agents waiting for a thread.
+	 */
+	public static final String AGENT_QUEUE_SIZE = "agentPoolQueueSize"; //$NON-NLS-1$
+
+	/** Name of the probed value which is the number of threads running capacities.
+	 */
+	public static final String CAPACITY_ACTIVE_COUNT = "capacityPoolActiveCount"; //$NON-NLS-1$
+
+	/** Name of the probed value which is the number of threads in the pool of the capacities.
+	 */
+	public static final String CAPACITY_POOL_SIZE = "capacityPoolSize"; //$NON-NLS-1$
+
+	/** Name of the probed value which is the number of capacity calls waiting for a thread.
+	 */
+	public static final String CAPACITY_QUEUE_SIZE = "capacityPoolQueueSize"; //$NON-NLS-1$
+
+	/** Name of the probed value which is the number of threads running latency-sensitive capacities.
+	 */
+	public static final String PRIORITY_ACTIVE_COUNT = "capacityPriorityPoolActiveCount"; //$NON-NLS-1$
+
+	/** Name of the probed value which is the number of latency-sensitive capacity calls waiting for a thread.
+	 */
+	public static final String PRIORITY_QUEUE_SIZE = "capacityPriorityPoolQueueSize"; //$NON-NLS-1$
+
+	private final WeakReference<KernelContext> context;
+	
+	/**
+	 * @param context is the kernel context of the watched agent.
+	 * @param watchedAgent is the address of the watched agent 
+	 */
+	public ExecutorProbe(KernelContext context, AgentAddress watchedAgent) {
+		super(watchedAgent);
+		this.context = new WeakReference<KernelContext>(context);
+	}
+
+	private KernelContext getKernelContext() {
+		if (!isAlive()) return null;
+		return this.context.get();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object getProbeValue(String probeName) {
+		KernelContext kc = getKernelContext();
+		if (kc!=null) {
+			ExecutorService service = kc.getExecutorService();
+			if (service instanceof ThreadPoolExecutor) {
+				ThreadPoolExecutor pool = (ThreadPoolExecutor)service;
+				if (AGENT_ACTIVE_COUNT.equals(probeName)) {
+					return Integer.valueOf(pool.getActiveCount());
+				}
+				if (AGENT_POOL_SIZE.equals(probeName)) {
+					return Integer.valueOf(pool.getPoolSize());
+				}
+				if (AGENT_QUEUE_SIZE.equals(probeName)) {
+					return Integer.valueOf(pool.getQueue().size());
+				}
+			}
+			CapacityExecutor executor = kc.getCapacityExecutorService();
+			if (CAPACITY_ACTIVE_COUNT.equals(probeName)) {
+				return Integer.valueOf(executor.getActiveCount(false));
+			}
+			if (CAPACITY_POOL_SIZE.equals(probeName)) {
+				return Integer.valueOf(executor.getPoolSize(false));
+			}
+			if (CAPACITY_QUEUE_SIZE.equals(probeName)) {
+				return Integer.valueOf(executor.getQueueSize(false));
+			}
+			if (PRIORITY_ACTIVE_COUNT.equals(probeName)) {
+				return Integer.valueOf(executor.getActiveCount(true));
+			}
+			if (PRIORITY_QUEUE_SIZE.equals(probeName)) {
+				return Integer.valueOf(executor.getQueueSize(true));
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <T> T getProbeValue(String probeName, Class<T> clazz) {
+		Object v = getProbeValue(probeName);
+		if (clazz.isInstance(v)) {
+			return clazz.cast(v);
+		}
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T[] getProbeArray(String probeName, Class<T> clazz) {
+		T v = getProbeValue(probeName, clazz);
+		T[] t = (T[])(Array.newInstance(clazz, v==null ? 0 : 1));
+		if (v!=null) t[0] = v;
+		return t;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Set<String> getProbedValueNames() {
+		KernelContext kc = getKernelContext();
+		if (kc==null) return Collections.emptySet();
+		Set<String> names = new TreeSet<String>();
+		if (kc.getExecutorService() instanceof ThreadPoolExecutor) {
+			names.addAll(Arrays.asList(AGENT_ACTIVE_COUNT, AGENT_POOL_SIZE, AGENT_QUEUE_SIZE));
+		}
+		names.addAll(Arrays.asList(
+				CAPACITY_ACTIVE_COUNT, CAPACITY_POOL_SIZE, CAPACITY_QUEUE_SIZE,
+				PRIORITY_ACTIVE_COUNT, PRIORITY_QUEUE_SIZE));
+		return names;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean hasProbeValues() {
+		return getKernelContext()!=null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean hasProbeValue(String probeValueName) {
+		return getProbedValueNames().contains(probeValueName);
+	}
+	
+}
@@ -30,6 +30,9 @@ import org.janusproject.kernel.address.Address;
 import org.janusproject.kernel.address.AgentAddress;
 import org.janusproject.kernel.crio.core.PrivilegedPlayerAddressService;
 import org.janusproject.kernel.crio.core.RolePlayer;
+import org.janusproject.kernel.mailbox.BoundedMailbox;
+import org.janusproject.kernel.mailbox.Mailbox;
+import org.janusproject.kernel.mailbox.MailboxOverflowPolicy;
 import org.janusproject.kernel.message.Message;
 import org.janusproject.kernel.message.MessageFactory;
 import org.janusproject.kernel.message.MessageReceiverSelectionPolicy;
@@ -91,7 +94,17 @@ class InteractionUtil extends MessageFactory {
 			setReceiver(message, receiverAddress);
 	
 			// Put message in mail box
-			return receiver.getMailbox().add(message);
+			Mailbox mailbox = receiver.getMailbox();
+			if (mailbox.add(message)) {
+				// Wake up the receiver if it is waiting for a message
+				receiver.wakeUpExecutionResource();
+				return true;
+			}
+			if (mailbox instanceof BoundedMailbox
+				&& ((BoundedMailbox)mailbox).getOverflowPolicy()==MailboxOverflowPolicy.REJECT) {
+				// Notify the emitter about the full mailbox of the receiver
+				emitter.fireMessageRejection(receiver.getAddress(), message);
+			}
 		}
 		return false;
 	}
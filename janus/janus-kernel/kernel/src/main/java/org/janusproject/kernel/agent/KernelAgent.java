@@ -40,6 +40,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -487,6 +488,11 @@ extends ActivatorAgent<AgentActivator> {
 			KernelAgent ka = (KernelAgent)agent;
 			Kernels.remove(ka);
 			ka.context.destroy();
+			AgentActivator activator = ka.getActivator();
+			if (activator!=null) {
+				// Release the worker threads
+				activator.setParallelism(1);
+			}
 		}
 		
 		fireAgentKilling(agent, isKernel);
@@ -502,6 +508,10 @@ extends ActivatorAgent<AgentActivator> {
 				k.notifyAll();
 			}
 		}
+		else {
+			// The kernel may commit suicide when its last agent is removed.
+			wakeUpExecutionResource();
+		}
 		
 		// Remove all memory foot print for the agent.
 		agent.dispose();
@@ -545,6 +555,14 @@ extends ActivatorAgent<AgentActivator> {
 	@Override
 	Status proceedPrivateBehaviour() {
 		clearMailbox();
+		
+		// The number of workers for the light agents may be changed at runtime.
+		AgentActivator activator = getActivator();
+		if (activator!=null) {
+			activator.setParallelism(this.context.getProperties().getInt(
+					JanusProperty.JANUS_AGENT_LIGHT_WORKERS));
+		}
+		
 		Status s = super.proceedPrivateBehaviour();
 
 		// The creation of the threads is differed to be sure that
@@ -569,6 +587,19 @@ extends ActivatorAgent<AgentActivator> {
 		return s;
 	}
 
+	/** {@inheritDoc}
+	 * <p>
+	 * A KernelAgent is not idle when agents are waiting for
+	 * their threads to be created.
+	 */
+	@Override
+	protected final boolean isIdle() {
+		synchronized(this) {
+			if (!this.newHeavyAgents.isEmpty()) return false;
+		}
+		return super.isIdle();
+	}
+
 	/** {@inheritDoc}
 	 * <p>
 	 * A KernelAgent has the same suicidal behaviour as a {@link ActivatorAgent},
@@ -934,6 +965,7 @@ extends ActivatorAgent<AgentActivator> {
 		}
 		else {
 			currentActivator.addAgent(agent, initParameters);
+			wakeUpExecutionResource();
 			agent.creationDate = this.context.getTimeManager().getCurrentTime();
 			logger.fine(Locale.getString(
 					KernelAgent.class,
@@ -963,7 +995,7 @@ extends ActivatorAgent<AgentActivator> {
 		assert(thread instanceof AgentThread);
 		
 		agent.isMigrating.set(true);
-		((AgentThread)thread).kill(new MigrationListener(agent, currentActivator));
+		((AgentThread)thread).kill(new MigrationListener(this, agent, currentActivator));
 		
 		return true;
 	}
@@ -1115,6 +1147,7 @@ extends ActivatorAgent<AgentActivator> {
 		// The creation of the threads is differed to be sure that
 		// the agent was properly removed from the activator.
 		this.newHeavyAgents.add(agent);
+		wakeUpExecutionResource();
 		
 		return true;
 	}
@@ -1242,14 +1275,17 @@ extends ActivatorAgent<AgentActivator> {
 	 */
 	private static class MigrationListener implements Runnable {
 		
+		private final KernelAgent kernel;
 		private final Agent agent;
 		private final AgentActivator activator;
 		
 		/**
+		 * @param kernel
 		 * @param agent
 		 * @param activator
 		 */
-		public MigrationListener(Agent agent, AgentActivator activator) {
+		public MigrationListener(KernelAgent kernel, Agent agent, AgentActivator activator) {
+			this.kernel = kernel;
 			this.agent = agent;
 			this.activator = activator;
 		}
@@ -1261,6 +1297,7 @@ extends ActivatorAgent<AgentActivator> {
 		public void run() {
 			this.agent.executionResource = null;
 			this.activator.addAgent(this.agent);
+			this.kernel.wakeUpExecutionResource();
 		}
 		
 	}
@@ -1281,9 +1318,14 @@ extends ActivatorAgent<AgentActivator> {
 		private Agent agent;
 		private Object[] initParameters;
 		
-		private boolean kill = false;
+		private volatile boolean kill = false;
 		private Collection<Runnable> killingListeners = null;
 		
+		/** Thread which is running this resource, or <code>null</code>
+		 * if the resource is not running.
+		 */
+		private volatile Thread thread = null;
+		
 		/**
 		 * @param runAgent is the agent run by this execution resource.
 		 * @param params are the parameters to pass to init functions.
@@ -1309,6 +1351,7 @@ extends ActivatorAgent<AgentActivator> {
 		 */
 		public void kill() {
 			this.kill = true;
+			wakeUp();
 		}
 
 		/** Kill this thread and the agent.
@@ -1321,6 +1364,7 @@ extends ActivatorAgent<AgentActivator> {
 			}
 			this.killingListeners.add(listener);
 			this.kill = true;
+			wakeUp();
 		}
 
 		@SuppressWarnings("synthetic-access")
@@ -1328,6 +1372,7 @@ extends ActivatorAgent<AgentActivator> {
 		public void run() {
 			Logger logger = this.agent.getLogger();
 			assert(logger!=null);
+			this.thread = Thread.currentThread();
 			try {
 				Status s = null;
 				
@@ -1367,8 +1412,17 @@ extends ActivatorAgent<AgentActivator> {
 					}
 
 					// Live
+					JanusProperties props = getKernelContext().getProperties();
+					boolean isConnected = false;
+					boolean isReactive, isIdle;
 					try {
 						while (!this.kill && this.agent.getState()==AgentLifeState.ALIVE) {
+							// The execution mode may be changed at runtime.
+							isReactive = props.getBoolean(JanusProperty.JANUS_AGENT_HEAVY_REACTIVE);
+							if (isReactive!=isConnected) {
+								this.agent.connectSignalManagerToExecutionResource(isReactive);
+								isConnected = isReactive;
+							}
 							if (!getKernelContext().isKernelPaused() && !this.agent.wakeUpIfSleeping()) {
 								s = this.agent.proceedPrivateBehaviour();
 								if (s!=null && s.isLoggable()) {
@@ -1377,11 +1431,38 @@ extends ActivatorAgent<AgentActivator> {
 								if (s!=null && s.isFailure() && s.getSeverity()!=StatusSeverity.CANCEL) {
 									this.kill = true; // Force to kill the agent because is has failed
 								}
+								isIdle = isReactive && this.agent.isIdle();
+							}
+							else {
+								// Paused kernel or sleeping agent
+								isIdle = isReactive;
+							}
+							if (isIdle && !this.kill) {
+								// The stimulus received since the last park
+								// make this function returning immediately.
+								long delay = TimeUnit.MILLISECONDS.toNanos(
+										props.getLong(JanusProperty.JANUS_AGENT_HEAVY_IDLE_TIMEOUT));
+								// Do not oversleep the wake-up time of a sleeping agent.
+								long sleepingDelay = this.agent.getSleepingDelay(TimeUnit.NANOSECONDS);
+								if (sleepingDelay>=0 && sleepingDelay<delay) {
+									delay = sleepingDelay;
+								}
+								if (delay>0) {
+									LockSupport.parkNanos(this, delay);
+								}
+								else {
+									Thread.yield();
+								}
+							}
+							else {
+								Thread.yield();
 							}
-							Thread.yield();
 						}
 					}
 					finally {
+						if (isConnected) {
+							this.agent.connectSignalManagerToExecutionResource(false);
+						}
 						if (!this.agent.isMigrating.get()) {
 							if (this.agent instanceof KernelAgent) {
 								((KernelAgent)this.agent).isLaunch.set(false);
@@ -1408,6 +1489,7 @@ extends ActivatorAgent<AgentActivator> {
 				}
 			}
 			finally {			
+				this.thread = null;
 				this.agent = null;
 				this.initParameters = null;
 				
@@ -1450,6 +1532,16 @@ extends ActivatorAgent<AgentActivator> {
 		public String getName() {
 			return Thread.currentThread().getName();
 		}
+
+		/** {@inheritDoc}
+		 */
+		@Override
+		public void wakeUp() {
+			Thread t = this.thread;
+			if (t!=null) {
+				LockSupport.unpark(t);
+			}
+		}
 		
 		/**
 		 * {@inheritDoc}
@@ -1841,6 +1933,10 @@ extends ActivatorAgent<AgentActivator> {
 		@Override
 		public void resume() {
 			getKernelContext().setKernelPaused(false);
+			// Resume the heavy agents parked during the pause
+			for(Agent ag : getKernelContext().getAgentRepository().values()) {
+				if (ag!=null) ag.wakeUpExecutionResource();
+			}
 		}
 
 		/**
@@ -2125,6 +2221,7 @@ extends ActivatorAgent<AgentActivator> {
 		public void launch() {
 			AgentAddress adr = this.agent.getAddress();
 			this.activator.addAgent(this.agent, this.initParameters);
+			KernelAgent.this.wakeUpExecutionResource();
 			this.agent.creationDate = this.agent.getKernelContext().getTimeManager().getCurrentTime();
 			this.agent.getLogger().fine(Locale.getString(
 					KernelAgent.class,
@@ -23,19 +23,22 @@ package org.janusproject.kernel.agent;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
 
 import org.janusproject.kernel.Kernel;
 import org.janusproject.kernel.address.AgentAddress;
+import org.janusproject.kernel.configuration.JanusProperty;
 import org.janusproject.kernel.configuration.PrivilegedJanusPropertySetter;
 import org.janusproject.kernel.crio.core.CRIOContext;
+import org.janusproject.kernel.crio.core.CapacityExecutor;
 import org.janusproject.kernel.crio.core.PrivilegedPlayerAddressService;
 import org.janusproject.kernel.crio.interaction.PrivilegedMessageTransportService;
 import org.janusproject.kernel.crio.organization.PrivilegedPersistentGroupCleanerService;
 import org.janusproject.kernel.time.KernelTimeManager;
+import org.janusproject.kernel.util.concurrent.ThreadPools;
 import org.janusproject.kernel.util.sizediterator.SizedIterator;
 import org.janusproject.kernel.util.sizediterator.UnmodifiableSizedIterator;
 
@@ -55,11 +58,13 @@ public class KernelContext extends CRIOContext {
 	 */
 	public static final int NUMBER_OF_IDDLE_THREAD_IN_SCHEDULED_THREAD_POOL = 2;
 	
-	private final ExecutorService executionService = new ThreadPoolExecutor(
-			1, // Min number of threads in pool size, even if iddle
-			Short.MAX_VALUE, // Max pool size
-			60L, TimeUnit.SECONDS, // Time to keep alive the threads before destruction
-			new SynchronousQueue<Runnable>()); // Blocking queue
+	/** Time (in seconds) during which an idle thread of the pool
+	 * of the heavy agents is kept alive.
+	 * @since 1.1
+	 */
+	public static final long AGENT_THREAD_KEEP_ALIVE = 60;
+	
+	private final ThreadPoolExecutor executionService;
 
 	private ScheduledExecutorService scheduledExecutionService = null;
 
@@ -117,6 +122,15 @@ public class KernelContext extends CRIOContext {
 			PrivilegedContext privilegedServiceListener) {
 		super(kernelAgent.getUUID(), tm, distantKernelHandler, privilegedServiceListener);
 		this.kernel = kernelAgent;
+		this.executionService = ThreadPools.newThreadPool(
+				getProperties(),
+				JanusProperty.JANUS_AGENT_POOL_CORE_SIZE,
+				JanusProperty.JANUS_AGENT_POOL_MAX_SIZE,
+				JanusProperty.JANUS_AGENT_POOL_QUEUE_TYPE,
+				JanusProperty.JANUS_AGENT_POOL_QUEUE_CAPACITY,
+				JanusProperty.JANUS_AGENT_POOL_REJECTION_POLICY,
+				AGENT_THREAD_KEEP_ALIVE, TimeUnit.SECONDS,
+				Logger.getLogger(KernelContext.class.getCanonicalName()));
 
 		this.privilegedMTS = privilegedServiceListener.getPrivilegedMessageTransportService();
 		this.privilegedJPS = privilegedServiceListener.getPrivilegedJanusPropertySetter();
@@ -182,6 +196,16 @@ public class KernelContext extends CRIOContext {
 		return this.executionService;
 	}
 
+	/**
+	 * Replies the executor of the capacities.
+	 * 
+	 * @return the executor of the capacities.
+	 * @since 1.1
+	 */
+	final CapacityExecutor getCapacityExecutorService() {
+		return getCapacityExecutor();
+	}
+
 	/**
 	 * Replies the executor sevice that support scheduling plans.
 	 * <p>
@@ -0,0 +1,202 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2004-2011 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.agent;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.janusproject.kernel.address.AgentAddress;
+import org.janusproject.kernel.mailbox.BoundedMailbox;
+import org.janusproject.kernel.mailbox.BufferedMailbox;
+import org.janusproject.kernel.mailbox.Mailbox;
+import org.janusproject.kernel.probe.AbstractIndividualProbe;
+
+
+/**
+ * This class defines a probe allowing the observation of the mailbox of a given agent.
+ * <p>
+ * The probed values are:<ul>
+ * <li>{@link #SIZE}: the number of messages in the mailbox;</li>
+ * <li>{@link #BUFFER_SIZE}: the number of messages in the buffer of the mailbox;</li>
+ * <li>{@link #CAPACITY}: the maximal number of messages in the mailbox, only for a {@link BoundedMailbox};</li>
+ * <li>{@link #HIGH_WATER_MARK}: the highest number of messages in the mailbox, only for a {@link BoundedMailbox};</li>
+ * <li>{@link #OVERFLOW_COUNT}: the number of discarded messages, only for a {@link BoundedMailbox}.</li>
+ * </ul>
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ * @see ProbeManager#createProbe(Class, AgentAddress)
+ */
+public class MailboxProbe
+extends AbstractIndividualProbe {
+
+	/** Name of the probed value which is the number of messages in the mailbox.
+	 */
+	public static final String SIZE = "mailboxSize"; //$NON-NLS-1$
+
+	/** Name of the probed value which is the number of buffered messages.
+	 */
+	public static final String BUFFER_SIZE = "mailboxBufferSize"; //$NON-NLS-1$
+
+	/** Name of the probed value which is the capacity of a bounded mailbox.
+	 */
+	public static final String CAPACITY = "mailboxCapacity"; //$NON-NLS-1$
+
+	/** Name of the probed value which is the high-water mark of a bounded mailbox.
+	 */
+	public static final String HIGH_WATER_MARK = "mailboxHighWaterMark"; //$NON-NLS-1$
+
+	/** Name of the probed value which is the number of messages discarded by a bounded mailbox.
+	 */
+	public static final String OVERFLOW_COUNT = "mailboxOverflowCount"; //$NON-NLS-1$
+
+	private WeakReference<ProbeManager> manager;
+	
+	private WeakReference<Agent> probedAgent = null;
+	
+	/**
+	 * @param manager is the probe manager that has instanced this probe.
+	 * @param watchedAgent is the address of the watched agent 
+	 */
+	public MailboxProbe(ProbeManager manager, AgentAddress watchedAgent) {
+		super(watchedAgent);
+		this.manager = new WeakReference<ProbeManager>(manager);
+	}
+
+	private Mailbox getMailbox() {
+		if (!isAlive()) return null;
+		Agent a = (this.probedAgent==null) ? null : this.probedAgent.get();
+		if (a==null) {
+			ProbeManager pm = (this.manager==null) ? null : this.manager.get();
+			if (pm!=null) {
+				a = pm.getAgent(getWatchedObject());
+				if (a!=null && !a.isAlive()) a = null;
+				if (a!=null) this.probedAgent = new WeakReference<Agent>(a);
+			}
+		}
+		return (a==null) ? null : a.getMailbox();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Object getProbeValue(String probeName) {
+		Mailbox mailbox = getMailbox();
+		if (mailbox!=null) {
+			if (SIZE.equals(probeName)) {
+				return Integer.valueOf(mailbox.size());
+			}
+			if (BUFFER_SIZE.equals(probeName)) {
+				return Integer.valueOf((mailbox instanceof BufferedMailbox)
+						? ((BufferedMailbox)mailbox).getBufferSize() : 0);
+			}
+			if (mailbox instanceof BoundedMailbox) {
+				BoundedMailbox bm = (BoundedMailbox)mailbox;
+				if (CAPACITY.equals(probeName)) {
+					return Integer.valueOf(bm.getCapacity());
+				}
+				if (HIGH_WATER_MARK.equals(probeName)) {
+					return Integer.valueOf(bm.getHighWaterMark());
+				}
+				if (OVERFLOW_COUNT.equals(probeName)) {
+					return Long.valueOf(bm.getOverflowCount());
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <T> T getProbeValue(String probeName, Class<T> clazz) {
+		Object v = getProbeValue(probeName);
+		if (clazz.isInstance(v)) {
+			return clazz.cast(v);
+		}
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T[] getProbeArray(String probeName, Class<T> clazz) {
+		T v = getProbeValue(probeName, clazz);
+		T[] t = (T[])(Array.newInstance(clazz, v==null ? 0 : 1));
+		if (v!=null) t[0] = v;
+		return t;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Set<String> getProbedValueNames() {
+		Mailbox mailbox = getMailbox();
+		if (mailbox==null) return Collections.emptySet();
+		Set<String> names = new TreeSet<String>();
+		names.add(SIZE);
+		names.add(BUFFER_SIZE);
+		if (mailbox instanceof BoundedMailbox) {
+			names.addAll(Arrays.asList(CAPACITY, HIGH_WATER_MARK, OVERFLOW_COUNT));
+		}
+		return names;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean hasProbeValues() {
+		return getMailbox()!=null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean hasProbeValue(String probeValueName) {
+		return getProbedValueNames().contains(probeValueName);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void releaseProbe() {
+		super.releaseProbe();
+		// Be sure that the probe manager has released this probe.
+		ProbeManager pm = this.manager.get();
+		if (pm!=null) pm.release(this);
+	}
+		
+}
@@ -33,16 +33,31 @@ import org.janusproject.kernel.util.event.ListenerCollection;
  */
 public abstract class AbstractMemory implements Memory {
 
-	private ListenerCollection<MemoryListener> listeners = null;
+	private volatile ListenerCollection<MemoryListener> listeners = null;
 
+	/** Replies if at least one listener is registered on this memory.
+	 * <p>
+	 * This function may be used to avoid the creation of
+	 * memory events when no one is listening.
+	 * 
+	 * @return <code>true</code> if a listener is registered,
+	 * otherwise <code>false</code>.
+	 * @since 1.1
+	 */
+	protected boolean hasMemoryListener() {
+		ListenerCollection<MemoryListener> l = this.listeners;
+		return l!=null && !l.isEmpty();
+	}
+	
 	/**
 	 * Notify listeners on knownledge change.
 	 * @param id is the identifier of the changed knowledge.
 	 * @param event describes the change.
 	 */
 	protected void fireKnowledgeEvent(String id, MemoryEvent event) {
-		if (this.listeners!=null && !this.listeners.isEmpty()) {
-			for(MemoryListener listener : this.listeners.getListeners(MemoryListener.class)) {
+		ListenerCollection<MemoryListener> l = this.listeners;
+		if (l!=null && !l.isEmpty()) {
+			for(MemoryListener listener : l.getListeners(MemoryListener.class)) {
 				listener.onKnownledgeChanged(event);
 			}
 		}
@@ -55,7 +70,8 @@ public abstract class AbstractMemory implements Memory {
 	 * @param newValue is the new value of the knowledge.
 	 */
 	protected void fireKnowledgeUpdate(String id, Object oldValue, Object newValue) {
-		fireKnowledgeEvent(id, new MemoryEvent(this,id,oldValue,newValue));
+		if (hasMemoryListener())
+			fireKnowledgeEvent(id, new MemoryEvent(this,id,oldValue,newValue));
 	}
 
 	/** Notify listeners on knownledge addition.
@@ -64,7 +80,8 @@ public abstract class AbstractMemory implements Memory {
 	 * @param newValue is the new value of the knowledge.
 	 */
 	protected void fireKnowledgeAdded(String id, Object newValue) {
-		fireKnowledgeEvent(id, new MemoryEvent(this,id,null,newValue));
+		if (hasMemoryListener())
+			fireKnowledgeEvent(id, new MemoryEvent(this,id,null,newValue));
 	}
 
 	/** Notify listeners on knownledge removal.
@@ -73,7 +90,8 @@ public abstract class AbstractMemory implements Memory {
 	 * @param oldValue is the old value of the knowledge.
 	 */
 	protected void fireKnowledgeRemoved(String id, Object oldValue) {
-		fireKnowledgeEvent(id, new MemoryEvent(this,id,oldValue,null));
+		if (hasMemoryListener())
+			fireKnowledgeEvent(id, new MemoryEvent(this,id,oldValue,null));
 	}
 
 	/** Remove a listener on memory events.
@@ -81,7 +99,7 @@ public abstract class AbstractMemory implements Memory {
 	 * @param listener is the listener
 	 */
 	@Override
-	public void removeMemoryListener(MemoryListener listener) {
+	public synchronized void removeMemoryListener(MemoryListener listener) {
 		if (this.listeners!=null) {
 			this.listeners.remove(MemoryListener.class, listener);
 			if (this.listeners.isEmpty()) this.listeners = null;
@@ -93,7 +111,7 @@ public abstract class AbstractMemory implements Memory {
 	 * @param listener is the listener
 	 */
 	@Override
-	public void addMemoryListener(MemoryListener listener) {
+	public synchronized void addMemoryListener(MemoryListener listener) {
 		if (this.listeners==null) 
 			this.listeners = new ListenerCollection<MemoryListener>();
 		this.listeners.add(MemoryListener.class, listener);
@@ -0,0 +1,240 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2004-2011 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.agentmemory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Implementation of an agent memory using a black board
+ * which may be shared by several threads.
+ * <p>
+ * <code>ConcurrentBlackBoardMemory</code> uses a {@link ConcurrentHashMap}:
+ * the knowledges are read without locking, and written
+ * without locking the entire memory.
+ * <p>
+ * The memory events are not created when no listener is
+ * registered. When the buffering of the events is enabled,
+ * the changes of a knowledge are merged and the listeners are
+ * notified only when {@link #fireBufferedEvents()} is invoked.
+ * The buffering is disabled by default. When this memory is the
+ * memory of an agent, the agent invokes {@link #fireBufferedEvents()}
+ * at the end of each of its steps.
+ * While the events are buffered for listeners, a knowledge is changed
+ * under the lock of the buffer, so that the buffered values follow
+ * the order of the changes.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public class ConcurrentBlackBoardMemory extends AbstractMemory {
+
+	private final ConcurrentMap<String,Object> blackBoard = new ConcurrentHashMap<String,Object>();
+	
+	/** Buffered changes: the knowledge identifier is associated to
+	 * the pair of the oldest value and the newest value.
+	 */
+	private final Map<String,Object[]> bufferedChanges = new LinkedHashMap<String,Object[]>();
+	
+	private volatile boolean bufferedEvents = false;
+	
+	/**
+	 * Create an empty black board.
+	 */
+	public ConcurrentBlackBoardMemory() {
+		//
+	}
+	
+	/** Replies if the memory events are buffered until
+	 * {@link #fireBufferedEvents()} is invoked.
+	 * 
+	 * @return <code>true</code> if the events are buffered,
+	 * <code>false</code> if they are fired as soon as the
+	 * knowledge is changed.
+	 */
+	public boolean isBufferedEvents() {
+		return this.bufferedEvents;
+	}
+	
+	/** Set if the memory events are buffered until
+	 * {@link #fireBufferedEvents()} is invoked.
+	 * <p>
+	 * When the buffering is disabled, the buffered events
+	 * are fired.
+	 * 
+	 * @param buffered is <code>true</code> if the events are buffered,
+	 * <code>false</code> if they are fired as soon as the
+	 * knowledge is changed.
+	 */
+	public void setBufferedEvents(boolean buffered) {
+		this.bufferedEvents = buffered;
+		if (!buffered) fireBufferedEvents();
+	}
+	
+	/** Fire the buffered memory events.
+	 * <p>
+	 * One event is fired per changed knowledge. This event
+	 * is describing the change from the value before the first buffered
+	 * change to the last value of the knowledge.
+	 */
+	public void fireBufferedEvents() {
+		List<MemoryEvent> events;
+		synchronized(this.bufferedChanges) {
+			if (this.bufferedChanges.isEmpty()) return;
+			events = new ArrayList<MemoryEvent>(this.bufferedChanges.size());
+			for(Map.Entry<String,Object[]> entry : this.bufferedChanges.entrySet()) {
+				Object[] change = entry.getValue();
+				if (change[0]!=null || change[1]!=null) {
+					events.add(new MemoryEvent(this, entry.getKey(), change[0], change[1]));
+				}
+			}
+			this.bufferedChanges.clear();
+		}
+		for(MemoryEvent event : events) {
+			fireKnowledgeEvent(event.getKnowledgeIdentifier(), event);
+		}
+	}
+	
+	/** Replies if the changes must be buffered.
+	 * 
+	 * @return <code>true</code> if the changes are buffered for listeners.
+	 */
+	private boolean isBufferingChanges() {
+		return this.bufferedEvents && hasMemoryListener();
+	}
+	
+	/** Buffer the change of a knowledge.
+	 * The caller must own the lock on the buffer.
+	 * 
+	 * @param id is the identifier of the knowledge.
+	 * @param oldValue is the old value of the knowledge.
+	 * @param newValue is the new value of the knowledge.
+	 */
+	private void bufferChange(String id, Object oldValue, Object newValue) {
+		assert(Thread.holdsLock(this.bufferedChanges));
+		Object[] change = this.bufferedChanges.get(id);
+		if (change==null) {
+			this.bufferedChanges.put(id, new Object[] {oldValue, newValue});
+		}
+		else {
+			change[1] = newValue;
+		}
+	}
+	
+	/** Fire the buffered events if the buffering was disabled
+	 * during a change.
+	 */
+	private void flushIfNotBuffered() {
+		if (!this.bufferedEvents) fireBufferedEvents();
+	}
+	
+	/** Notify about the change of a knowledge.
+	 * 
+	 * @param id is the identifier of the knowledge.
+	 * @param oldValue is the old value of the knowledge.
+	 * @param newValue is the new value of the knowledge.
+	 */
+	private void knowledgeChanged(String id, Object oldValue, Object newValue) {
+		if (!hasMemoryListener()) return;
+		if (newValue==null) {
+			fireKnowledgeRemoved(id, oldValue);
+		}
+		else if (oldValue==null) {
+			fireKnowledgeAdded(id, newValue);
+		}
+		else {
+			fireKnowledgeUpdate(id, oldValue, newValue);
+		}
+	}
+	
+	/** Replies the knowledge with the given identifier.
+	 * 
+	 * @param id is the identifier of the knowledge.
+	 * @return the data or <code>null</code>
+	 */
+	@Override
+	public Object getMemorizedData(String id) {
+		return this.blackBoard.get(id);
+	}
+	
+	/** Replies if a knowledge with the given identifier is existing in the memory.
+	 * 
+	 * @param id is the identifier of the knowledge.
+	 * @return <code>true</code> if the knowledge is existing, otherwise <code>false</code>
+	 */
+	@Override
+	public boolean hasMemorizedData(String id) {
+		return this.blackBoard.containsKey(id);
+	}
+
+	/** Put a knowledge in the memory.
+	 * 
+	 * @param id is the identifier of the knowledge.
+	 * @param value is the data to memorize.
+	 * @return <code>true</code> if the knowledge was successfully saved, otherwise <code>false</code>
+	 */
+	@Override
+	public boolean putMemorizedData(String id, Object value) {
+		if (value==null) {
+			removeMemorizedData(id);
+		}
+		else if (isBufferingChanges()) {
+			synchronized(this.bufferedChanges) {
+				bufferChange(id, this.blackBoard.put(id, value), value);
+			}
+			flushIfNotBuffered();
+		}
+		else {
+			Object oldValue = this.blackBoard.put(id, value);
+			knowledgeChanged(id, oldValue, value);
+		}
+		return true;
+	}
+
+	/** Remove a knowledge from the memory.
+	 * 
+	 * @param id is the identifier of the knowledge.
+	 */
+	@Override
+	public void removeMemorizedData(String id) {
+		if (isBufferingChanges()) {
+			synchronized(this.bufferedChanges) {
+				Object oldValue = this.blackBoard.remove(id);
+				if (oldValue!=null)
+					bufferChange(id, oldValue, null);
+			}
+			flushIfNotBuffered();
+		}
+		else {
+			Object oldValue = this.blackBoard.remove(id);
+			if (oldValue!=null)
+				knowledgeChanged(id, oldValue, null);
+		}
+	}
+
+}
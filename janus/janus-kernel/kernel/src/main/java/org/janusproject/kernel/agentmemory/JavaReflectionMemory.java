@@ -20,8 +20,13 @@
  */
 package org.janusproject.kernel.agentmemory;
 
+import java.lang.ref.SoftReference;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Implementation of an agent memory using a direct access to
@@ -33,6 +38,12 @@ import java.lang.reflect.Method;
  * <li><code>Object setK&lt;name&gt;(Object value)</code>, where <code>&lt;name&gt;</code> is the name of the knowledge.</li>
  * </ul>
  * <p>
+ * The getter and setter functions are resolved once per
+ * Java class and per knowledge name. The resolved functions, and
+ * the knowledge names without function, are cached and shared by all the
+ * <code>JavaReflectionMemory</code> instances that are referencing an
+ * object of the same class.
+ * <p>
  * <code>JavaReflectionMemory</code> is not synchronized.
  * 
  * @param <OBJ> is the type of the object to access.
@@ -57,8 +68,34 @@ public class JavaReflectionMemory<OBJ> extends AbstractMemory {
 		return knowledgeName.replaceAll("[^a-zA-Z0-9_]+", ""); //$NON-NLS-1$ //$NON-NLS-2$
 	}
 	
+	/** Accessors per Java class. The tables are softly referenced to allow
+	 * the classes to be unloaded.
+	 */
+	private static final Map<Class<?>,SoftReference<AccessorTable>> ACCESSORS = new WeakHashMap<Class<?>,SoftReference<AccessorTable>>();
+	
+	/** Replies the accessors of the given type.
+	 * 
+	 * @param type
+	 * @return the accessors of the given type.
+	 */
+	private static AccessorTable getAccessorTable(Class<?> type) {
+		synchronized(ACCESSORS) {
+			SoftReference<AccessorTable> ref = ACCESSORS.get(type);
+			AccessorTable table = (ref==null) ? null : ref.get();
+			if (table==null) {
+				table = new AccessorTable(type);
+				ACCESSORS.put(type, new SoftReference<AccessorTable>(table));
+			}
+			return table;
+		}
+	}
+	
 	private final WeakReference<OBJ> referee;
 	
+	/** Accessors of the type of the referent.
+	 */
+	private AccessorTable accessors = null;
+	
 	/**
 	 * @param referent is the object to access to.
 	 */
@@ -66,6 +103,21 @@ public class JavaReflectionMemory<OBJ> extends AbstractMemory {
 		this.referee = new WeakReference<OBJ>(referent);
 	}
 	
+	/** Replies the accessors for the given referent.
+	 * 
+	 * @param referent
+	 * @return the accessors for the type of the referent.
+	 */
+	private AccessorTable getAccessorTable(OBJ referent) {
+		Class<?> type = referent.getClass();
+		AccessorTable table = this.accessors;
+		if (table==null || table.getType()!=type) {
+			table = getAccessorTable(type);
+			this.accessors = table;
+		}
+		return table;
+	}
+	
 	/** Replies the getter function that permits to access to
 	 * the field with the given name.
 	 * 
@@ -73,18 +125,9 @@ public class JavaReflectionMemory<OBJ> extends AbstractMemory {
 	 * @return the getter function for the given knowledge.
 	 */
 	protected Method getGetter(String fieldName) {
-		try {
-			OBJ referent = this.referee.get();
-			if (referent!=null) {
-				Class<?> type = referent.getClass();
-				return type.getMethod("getK"+formatKnowledgeName(fieldName)); //$NON-NLS-1$
-			}
-		}
-		catch(AssertionError ae) {
-			throw ae;
-		}
-		catch(Exception _) {
-			// return null on error
+		OBJ referent = this.referee.get();
+		if (referent!=null) {
+			return getAccessorTable(referent).getGetter(fieldName);
 		}
 		return null;
 	}
@@ -96,18 +139,9 @@ public class JavaReflectionMemory<OBJ> extends AbstractMemory {
 	 * @return the setter function for the given knowledge.
 	 */
 	protected Method getSetter(String fieldName) {
-		try {
-			OBJ referent = this.referee.get();
-			if (referent!=null) {
-				Class<?> type = referent.getClass();
-				return type.getMethod("setK"+formatKnowledgeName(fieldName), Object.class); //$NON-NLS-1$
-			}
-		}
-		catch(AssertionError ae) {
-			throw ae;
-		}
-		catch(Exception _) {
-			// return null on error
+		OBJ referent = this.referee.get();
+		if (referent!=null) {
+			return getAccessorTable(referent).getSetter(fieldName);
 		}
 		return null;
 	}
@@ -220,4 +254,82 @@ public class JavaReflectionMemory<OBJ> extends AbstractMemory {
 		}
 	}
 
+	/**
+	 * Getter and setter functions of a Java class.
+	 * 
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	private static class AccessorTable {
+		
+		/** Value stored for the knowledge names that have no accessor.
+		 */
+		private static final Object NO_ACCESSOR = new Object();
+		
+		private final Class<?> type;
+		private final ConcurrentMap<String,Object> getters = new ConcurrentHashMap<String,Object>();
+		private final ConcurrentMap<String,Object> setters = new ConcurrentHashMap<String,Object>();
+		
+		/**
+		 * @param type
+		 */
+		public AccessorTable(Class<?> type) {
+			this.type = type;
+		}
+		
+		/** Replies the type for which the accessors are stored.
+		 * 
+		 * @return the type.
+		 */
+		public Class<?> getType() {
+			return this.type;
+		}
+		
+		/** Replies the getter function for the given knowledge.
+		 * 
+		 * @param fieldName
+		 * @return the getter function, or <code>null</code>.
+		 */
+		public Method getGetter(String fieldName) {
+			Object m = this.getters.get(fieldName);
+			if (m==null) {
+				m = findMethod("getK"+formatKnowledgeName(fieldName)); //$NON-NLS-1$
+				this.getters.putIfAbsent(fieldName, m);
+			}
+			return (m==NO_ACCESSOR) ? null : (Method)m;
+		}
+
+		/** Replies the setter function for the given knowledge.
+		 * 
+		 * @param fieldName
+		 * @return the setter function, or <code>null</code>.
+		 */
+		public Method getSetter(String fieldName) {
+			Object m = this.setters.get(fieldName);
+			if (m==null) {
+				m = findMethod("setK"+formatKnowledgeName(fieldName), Object.class); //$NON-NLS-1$
+				this.setters.putIfAbsent(fieldName, m);
+			}
+			return (m==NO_ACCESSOR) ? null : (Method)m;
+		}
+		
+		private Object findMethod(String name, Class<?>... parameters) {
+			try {
+				return this.type.getMethod(name, parameters);
+			}
+			catch(AssertionError ae) {
+				throw ae;
+			}
+			catch(Exception _) {
+				// no accessor
+			}
+			return NO_ACCESSOR;
+		}
+		
+	}
+	
+
 }
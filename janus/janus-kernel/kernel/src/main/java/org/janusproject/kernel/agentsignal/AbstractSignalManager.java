@@ -52,6 +52,11 @@ public abstract class AbstractSignalManager implements SignalManager, SignalList
 	 */
 	protected QueuedSignalAdapter<Signal> events = null;
 
+	/**
+	 * Listener invoked each time a signal is received, whatever the policy.
+	 */
+	private volatile Runnable arrivalListener = null;
+
 	/**
 	 * @param properties
 	 */
@@ -131,6 +136,32 @@ public abstract class AbstractSignalManager implements SignalManager, SignalList
 		return false;
 	}
 
+	/** Set the listener which is invoked each time a signal
+	 * is received by this manager, whatever the signal policy
+	 * and after the signal was buffered or fired.
+	 * <p>
+	 * This listener is used by the execution resources to be
+	 * notified about the arrival of new signals, eg. to
+	 * wake up an idle agent.
+	 * 
+	 * @param listener is the listener, or <code>null</code> to remove it.
+	 * @since 1.1
+	 */
+	public void setSignalArrivalListener(Runnable listener) {
+		this.arrivalListener = listener;
+	}
+
+	/** Notifies the arrival listener, if any, that a signal was received.
+	 * 
+	 * @since 1.1
+	 */
+	protected final void fireSignalArrival() {
+		Runnable listener = this.arrivalListener;
+		if (listener!=null) {
+			listener.run();
+		}
+	}
+
 	/** Reset this manager: its parent, its events, and its listeners.
 	 */
 	public void reset() {
@@ -145,6 +176,7 @@ public abstract class AbstractSignalManager implements SignalManager, SignalList
 		if (this.parentManager!=null)
 			this.parentManager.removeSignalListener(this);
 		this.parentManager = null;
+		this.arrivalListener = null;
 	}
 
 	/**
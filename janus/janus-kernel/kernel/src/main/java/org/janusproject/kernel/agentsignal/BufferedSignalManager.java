@@ -105,6 +105,7 @@ public class BufferedSignalManager extends AbstractSignalManager {
 			break;
 		default:
 		}
+		fireSignalArrival();
 	}
 
 }
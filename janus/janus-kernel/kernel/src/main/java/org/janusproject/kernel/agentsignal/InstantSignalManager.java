@@ -89,6 +89,7 @@ public class InstantSignalManager extends AbstractSignalManager {
 			break;
 		default:
 		}
+		fireSignalArrival();
 	}
 
 }
@@ -43,6 +43,15 @@ public class AfterTimeCondition extends AbstractCondition<TimeConditionParameter
 		this.time = limitTime;
 	}
 
+	/** Replies the time after which the condition is satisfied.
+	 * 
+	 * @return the limit time.
+	 * @since 1.1
+	 */
+	public float getLimitTime() {
+		return this.time;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -181,6 +181,34 @@ public class JanusProperties extends Properties {
 	 */
 	public static final String DEFAULT_ZEROMQ_MULICAT_GROUP_ADDRESS = "237.252.249.227"; //$NON-NLS-1$
 
+	/** Default maximal number of messages waiting to be published by ZeroMQ.
+	 * <p>
+	 * Value: <code>65536</code>.
+	 * 
+	 * @see JanusProperty#ZEROMQ_OUTBOUND_QUEUE_SIZE
+	 * @since 1.1
+	 */
+	public static final int DEFAULT_ZEROMQ_OUTBOUND_QUEUE_SIZE = 65536;
+
+	/** Default maximal number of messages published by ZeroMQ in a single batch.
+	 * <p>
+	 * Value: <code>64</code>.
+	 * 
+	 * @see JanusProperty#ZEROMQ_BATCH_SIZE
+	 * @since 1.1
+	 */
+	public static final int DEFAULT_ZEROMQ_BATCH_SIZE = 64;
+
+	/** Default delay (in milliseconds) during which ZeroMQ waits for
+	 * additional messages before publishing a batch.
+	 * <p>
+	 * Value: <code>0</code>.
+	 * 
+	 * @see JanusProperty#ZEROMQ_BATCH_DELAY
+	 * @since 1.1
+	 */
+	public static final long DEFAULT_ZEROMQ_BATCH_DELAY = 0;
+
 	/** Timeout delay (in milliseconds) to await a kernel agent
 	 * to be killed.
 	 * <p>
@@ -237,6 +265,163 @@ public class JanusProperties extends Properties {
 	 */
 	public static final String DEFAULT_ROLE_MAILBOX_TYPE = null;
 
+	/** Indicates the default maximal number of messages in a mailbox.
+	 * <p>
+	 * Value: <code>0</code> (unbounded).
+	 * 
+	 * @see JanusProperty#JANUS_AGENT_MAILBOX_CAPACITY
+	 * @since 1.1
+	 */
+	public static final int DEFAULT_AGENT_MAILBOX_CAPACITY = 0;
+
+	/** Indicates the default policy to apply when a bounded mailbox is full.
+	 * <p>
+	 * Value: <code>REJECT</code>.
+	 * 
+	 * @see JanusProperty#JANUS_AGENT_MAILBOX_OVERFLOW_POLICY
+	 * @since 1.1
+	 */
+	public static final String DEFAULT_AGENT_MAILBOX_OVERFLOW_POLICY = "REJECT"; //$NON-NLS-1$
+
+	/** Indicates if the heavy agents are reactive by default.
+	 * <p>
+	 * Value: <code>false</code>.
+	 * 
+	 * @see JanusProperty#JANUS_AGENT_HEAVY_REACTIVE
+	 * @since 1.1
+	 */
+	public static final boolean DEFAULT_AGENT_HEAVY_REACTIVE = false;
+
+	/** Maximal delay (in milliseconds) during which an idle
+	 * reactive heavy agent is parked.
+	 * <p>
+	 * Value: <code>100</code>.
+	 * 
+	 * @see JanusProperty#JANUS_AGENT_HEAVY_IDLE_TIMEOUT
+	 * @since 1.1
+	 */
+	public static final long DEFAULT_AGENT_HEAVY_IDLE_TIMEOUT = 100;
+
+	/** Number of threads which are used to run the light agents.
+	 * <p>
+	 * Value: <code>1</code>.
+	 * 
+	 * @see JanusProperty#JANUS_AGENT_LIGHT_WORKERS
+	 * @since 1.1
+	 */
+	public static final int DEFAULT_AGENT_LIGHT_WORKERS = 1;
+
+	/** Indicates the default generator of the identifiers.
+	 * This generator is used by {@link org.janusproject.kernel.util.identifier.Identifiers}
+	 * when {@link JanusProperty#JANUS_IDENTIFIER_GENERATOR} is not set,
+	 * so that the property has no default value in the kernel configuration.
+	 * <p>
+	 * Value: <code>RANDOM</code>.
+	 * 
+	 * @see JanusProperty#JANUS_IDENTIFIER_GENERATOR
+	 * @since 1.1
+	 */
+	public static final String DEFAULT_IDENTIFIER_GENERATOR = "RANDOM"; //$NON-NLS-1$
+
+	/** Minimal number of threads in the pool of the heavy agents.
+	 * <p>
+	 * Value: <code>1</code>.
+	 * 
+	 * @see JanusProperty#JANUS_AGENT_POOL_CORE_SIZE
+	 * @since 1.1
+	 */
+	public static final int DEFAULT_AGENT_POOL_CORE_SIZE = 1;
+
+	/** Maximal number of threads in the pool of the heavy agents.
+	 * <p>
+	 * Value: <code>Short.MAX_VALUE</code>.
+	 * 
+	 * @see JanusProperty#JANUS_AGENT_POOL_MAX_SIZE
+	 * @since 1.1
+	 */
+	public static final int DEFAULT_AGENT_POOL_MAX_SIZE = Short.MAX_VALUE;
+
+	/** Type of the queue of the pool of the heavy agents.
+	 * <p>
+	 * Value: <code>SYNCHRONOUS</code>.
+	 * 
+	 * @see JanusProperty#JANUS_AGENT_POOL_QUEUE_TYPE
+	 * @since 1.1
+	 */
+	public static final String DEFAULT_AGENT_POOL_QUEUE_TYPE = "SYNCHRONOUS"; //$NON-NLS-1$
+
+	/** Capacity of the queue of the pool of the heavy agents.
+	 * <p>
+	 * Value: <code>0</code>.
+	 * 
+	 * @see JanusProperty#JANUS_AGENT_POOL_QUEUE_CAPACITY
+	 * @since 1.1
+	 */
+	public static final int DEFAULT_AGENT_POOL_QUEUE_CAPACITY = 0;
+
+	/** Policy to apply when the pool of the heavy agents is saturated.
+	 * <p>
+	 * Value: <code>ABORT</code>.
+	 * 
+	 * @see JanusProperty#JANUS_AGENT_POOL_REJECTION_POLICY
+	 * @since 1.1
+	 */
+	public static final String DEFAULT_AGENT_POOL_REJECTION_POLICY = "ABORT"; //$NON-NLS-1$
+
+	/** Minimal number of threads in the pool of the capacity calls.
+	 * <p>
+	 * Value: <code>0</code>.
+	 * 
+	 * @see JanusProperty#JANUS_CAPACITY_POOL_CORE_SIZE
+	 * @since 1.1
+	 */
+	public static final int DEFAULT_CAPACITY_POOL_CORE_SIZE = 0;
+
+	/** Maximal number of threads in the pool of the capacity calls.
+	 * <p>
+	 * Value: <code>50</code>.
+	 * 
+	 * @see JanusProperty#JANUS_CAPACITY_POOL_MAX_SIZE
+	 * @since 1.1
+	 */
+	public static final int DEFAULT_CAPACITY_POOL_MAX_SIZE = 50;
+
+	/** Type of the queue of the pool of the capacity calls.
+	 * <p>
+	 * Value: <code>SYNCHRONOUS</code>.
+	 * 
+	 * @see JanusProperty#JANUS_CAPACITY_POOL_QUEUE_TYPE
+	 * @since 1.1
+	 */
+	public static final String DEFAULT_CAPACITY_POOL_QUEUE_TYPE = "SYNCHRONOUS"; //$NON-NLS-1$
+
+	/** Capacity of the queue of the pool of the capacity calls.
+	 * <p>
+	 * Value: <code>0</code>.
+	 * 
+	 * @see JanusProperty#JANUS_CAPACITY_POOL_QUEUE_CAPACITY
+	 * @since 1.1
+	 */
+	public static final int DEFAULT_CAPACITY_POOL_QUEUE_CAPACITY = 0;
+
+	/** Policy to apply when the pool of the capacity calls is saturated.
+	 * <p>
+	 * Value: <code>ABORT</code>.
+	 * 
+	 * @see JanusProperty#JANUS_CAPACITY_POOL_REJECTION_POLICY
+	 * @since 1.1
+	 */
+	public static final String DEFAULT_CAPACITY_POOL_REJECTION_POLICY = "ABORT"; //$NON-NLS-1$
+
+	/** Number of threads in the priority lane of the capacity calls.
+	 * <p>
+	 * Value: <code>2</code>.
+	 * 
+	 * @see JanusProperty#JANUS_CAPACITY_PRIORITY_POOL_SIZE
+	 * @since 1.1
+	 */
+	public static final int DEFAULT_CAPACITY_PRIORITY_POOL_SIZE = 2;
+
 	static {
 		try {
 			DEFAULT_JXTA_SEEDING_URI = new URI("http://www.janus-project.org/JxtaRendezVous"); //$NON-NLS-1$
@@ -598,6 +783,54 @@ public class JanusProperties extends Properties {
 		case JANUS_ROLE_MAILBOX_TYPE:
 			defVal = DEFAULT_ROLE_MAILBOX_TYPE;
 			break;
+		case JANUS_AGENT_MAILBOX_CAPACITY:
+			defVal = Integer.toString(DEFAULT_AGENT_MAILBOX_CAPACITY);
+			break;
+		case JANUS_AGENT_MAILBOX_OVERFLOW_POLICY:
+			defVal = DEFAULT_AGENT_MAILBOX_OVERFLOW_POLICY;
+			break;
+		case JANUS_AGENT_HEAVY_REACTIVE:
+			defVal = Boolean.toString(DEFAULT_AGENT_HEAVY_REACTIVE);
+			break;
+		case JANUS_AGENT_HEAVY_IDLE_TIMEOUT:
+			defVal = Long.toString(DEFAULT_AGENT_HEAVY_IDLE_TIMEOUT);
+			break;
+		case JANUS_AGENT_LIGHT_WORKERS:
+			defVal = Integer.toString(DEFAULT_AGENT_LIGHT_WORKERS);
+			break;
+		case JANUS_AGENT_POOL_CORE_SIZE:
+			defVal = Integer.toString(DEFAULT_AGENT_POOL_CORE_SIZE);
+			break;
+		case JANUS_AGENT_POOL_MAX_SIZE:
+			defVal = Integer.toString(DEFAULT_AGENT_POOL_MAX_SIZE);
+			break;
+		case JANUS_AGENT_POOL_QUEUE_TYPE:
+			defVal = DEFAULT_AGENT_POOL_QUEUE_TYPE;
+			break;
+		case JANUS_AGENT_POOL_QUEUE_CAPACITY:
+			defVal = Integer.toString(DEFAULT_AGENT_POOL_QUEUE_CAPACITY);
+			break;
+		case JANUS_AGENT_POOL_REJECTION_POLICY:
+			defVal = DEFAULT_AGENT_POOL_REJECTION_POLICY;
+			break;
+		case JANUS_CAPACITY_POOL_CORE_SIZE:
+			defVal = Integer.toString(DEFAULT_CAPACITY_POOL_CORE_SIZE);
+			break;
+		case JANUS_CAPACITY_POOL_MAX_SIZE:
+			defVal = Integer.toString(DEFAULT_CAPACITY_POOL_MAX_SIZE);
+			break;
+		case JANUS_CAPACITY_POOL_QUEUE_TYPE:
+			defVal = DEFAULT_CAPACITY_POOL_QUEUE_TYPE;
+			break;
+		case JANUS_CAPACITY_POOL_QUEUE_CAPACITY:
+			defVal = Integer.toString(DEFAULT_CAPACITY_POOL_QUEUE_CAPACITY);
+			break;
+		case JANUS_CAPACITY_POOL_REJECTION_POLICY:
+			defVal = DEFAULT_CAPACITY_POOL_REJECTION_POLICY;
+			break;
+		case JANUS_CAPACITY_PRIORITY_POOL_SIZE:
+			defVal = Integer.toString(DEFAULT_CAPACITY_PRIORITY_POOL_SIZE);
+			break;
 		case JANUS_KERNEL_KILL_TIMEOUT:
 			defVal = Long.toString(DEFAULT_KERNEL_AGENT_KILL_TIMEOUT);
 			break;
@@ -617,12 +850,22 @@ public class JanusProperties extends Properties {
 		case ZEROMQ_MULICAT_GROUP_ADDRESS:
 			defVal = DEFAULT_ZEROMQ_MULICAT_GROUP_ADDRESS;
 			break;
+		case ZEROMQ_OUTBOUND_QUEUE_SIZE:
+			defVal = Integer.toString(DEFAULT_ZEROMQ_OUTBOUND_QUEUE_SIZE);
+			break;
+		case ZEROMQ_BATCH_SIZE:
+			defVal = Integer.toString(DEFAULT_ZEROMQ_BATCH_SIZE);
+			break;
+		case ZEROMQ_BATCH_DELAY:
+			defVal = Long.toString(DEFAULT_ZEROMQ_BATCH_DELAY);
+			break;
 		case JANUS_KERNEL_HOME:
 		case JANUS_APPLICATION_HOME:
 		case JANUS_HOME:
 		case JXTA_HOME:
 		case JXTA_WOJ_ID:
 		case JXTA_APPLICATION_ID:
+		case JANUS_IDENTIFIER_GENERATOR:
 			// null default value
 			break;
 		default:
@@ -664,6 +907,23 @@ public class JanusProperties extends Properties {
 		case JANUS_AGENT_KEEP_ALIVE:
 		case JANUS_AGENT_SIGNAL_POLICY:
 		case JANUS_ROLE_MAILBOX_TYPE:
+		case JANUS_AGENT_MAILBOX_CAPACITY:
+		case JANUS_AGENT_MAILBOX_OVERFLOW_POLICY:
+		case JANUS_AGENT_HEAVY_REACTIVE:
+		case JANUS_AGENT_HEAVY_IDLE_TIMEOUT:
+		case JANUS_AGENT_LIGHT_WORKERS:
+		case JANUS_IDENTIFIER_GENERATOR:
+		case JANUS_AGENT_POOL_CORE_SIZE:
+		case JANUS_AGENT_POOL_MAX_SIZE:
+		case JANUS_AGENT_POOL_QUEUE_TYPE:
+		case JANUS_AGENT_POOL_QUEUE_CAPACITY:
+		case JANUS_AGENT_POOL_REJECTION_POLICY:
+		case JANUS_CAPACITY_POOL_CORE_SIZE:
+		case JANUS_CAPACITY_POOL_MAX_SIZE:
+		case JANUS_CAPACITY_POOL_QUEUE_TYPE:
+		case JANUS_CAPACITY_POOL_QUEUE_CAPACITY:
+		case JANUS_CAPACITY_POOL_REJECTION_POLICY:
+		case JANUS_CAPACITY_PRIORITY_POOL_SIZE:
 		case JANUS_KERNEL_KEEP_ALIVE:
 		case JANUS_KERNEL_KILL_TIMEOUT:
 		case JXTA_HOME:
@@ -675,6 +935,9 @@ public class JanusProperties extends Properties {
 		case JXTA_LEVEL:
 		case JXTA_LOGGING:
 		case ZEROMQ_MULICAT_GROUP_ADDRESS:
+		case ZEROMQ_OUTBOUND_QUEUE_SIZE:
+		case ZEROMQ_BATCH_SIZE:
+		case ZEROMQ_BATCH_DELAY:
 			return new JanusProperty[0];
 		default:
 		}
@@ -708,12 +971,29 @@ public class JanusProperties extends Properties {
 				return propertyValue;
 			}
 		case JANUS_AGENT_MAILBOX_TYPE:
+		case JANUS_AGENT_MAILBOX_CAPACITY:
+		case JANUS_AGENT_MAILBOX_OVERFLOW_POLICY:
 		case GROUP_DISTRIBUTION:
 		case GROUP_PERSISTENCE:
 		case JANUS_APPLICATION_NAME:
 		case JANUS_KERNEL_KEEP_ALIVE:
 		case JANUS_AGENT_KEEP_ALIVE:
 		case JANUS_AGENT_SIGNAL_POLICY:
+		case JANUS_AGENT_HEAVY_REACTIVE:
+		case JANUS_AGENT_HEAVY_IDLE_TIMEOUT:
+		case JANUS_AGENT_LIGHT_WORKERS:
+		case JANUS_IDENTIFIER_GENERATOR:
+		case JANUS_AGENT_POOL_CORE_SIZE:
+		case JANUS_AGENT_POOL_MAX_SIZE:
+		case JANUS_AGENT_POOL_QUEUE_TYPE:
+		case JANUS_AGENT_POOL_QUEUE_CAPACITY:
+		case JANUS_AGENT_POOL_REJECTION_POLICY:
+		case JANUS_CAPACITY_POOL_CORE_SIZE:
+		case JANUS_CAPACITY_POOL_MAX_SIZE:
+		case JANUS_CAPACITY_POOL_QUEUE_TYPE:
+		case JANUS_CAPACITY_POOL_QUEUE_CAPACITY:
+		case JANUS_CAPACITY_POOL_REJECTION_POLICY:
+		case JANUS_CAPACITY_PRIORITY_POOL_SIZE:
 		case JANUS_KERNEL_KILL_TIMEOUT:
 		case JXTA_CLEAN:
 		case JXTA_MODE:
@@ -723,6 +1003,9 @@ public class JanusProperties extends Properties {
 		case JXTA_LEVEL:
 		case JXTA_LOGGING:
 		case ZEROMQ_MULICAT_GROUP_ADDRESS:
+		case ZEROMQ_OUTBOUND_QUEUE_SIZE:
+		case ZEROMQ_BATCH_SIZE:
+		case ZEROMQ_BATCH_DELAY:
 			return getProperty(property.getPropertyName(), defaultValue);
 		default:
 		}
@@ -127,6 +127,11 @@ public enum JanusProperty {
 	JANUS_AGENT_SIGNAL_POLICY("janus.agent.signalPolicy", false), //$NON-NLS-1$
 
 	/** Indicates the default type of mailbox for the agents.
+	 * <p>
+	 * The value is the fully qualified name of a {@link org.janusproject.kernel.mailbox.Mailbox}
+	 * implementation with a default constructor, eg.
+	 * <code>org.janusproject.kernel.mailbox.ConcurrentLinkedQueueMailbox</code>
+	 * for agents which are receiving messages from many senders.
 	 * <p>
 	 * Read-only: no.
 	 */
@@ -138,6 +143,195 @@ public enum JanusProperty {
 	 */
 	JANUS_ROLE_MAILBOX_TYPE("janus.agent.role.mailbox.type", false), //$NON-NLS-1$
 
+	/** Indicates the maximal number of messages in the mailboxes
+	 * of the agents and the roles. A negative or zero value means that
+	 * the mailboxes are unbounded.
+	 * <p>
+	 * Read-only: no.
+	 * @since 1.1
+	 * @see org.janusproject.kernel.mailbox.BoundedMailbox
+	 */
+	JANUS_AGENT_MAILBOX_CAPACITY("janus.agent.mailbox.capacity", false), //$NON-NLS-1$
+
+	/** Indicates the policy to apply when a bounded mailbox is full.
+	 * The value is the name of a constant of
+	 * {@link org.janusproject.kernel.mailbox.MailboxOverflowPolicy}.
+	 * <p>
+	 * Read-only: no.
+	 * @since 1.1
+	 * @see #JANUS_AGENT_MAILBOX_CAPACITY
+	 */
+	JANUS_AGENT_MAILBOX_OVERFLOW_POLICY("janus.agent.mailbox.overflowPolicy", false), //$NON-NLS-1$
+
+	/** Indicates if the heavy agents are reactive.
+	 * A reactive heavy agent parks its thread when it is idle,
+	 * and it is waken up when a message or a signal is received,
+	 * when the idle timeout is reached, or when
+	 * {@link org.janusproject.kernel.agent.Agent#wakeUp()} is invoked.
+	 * <p>
+	 * Read-only: no.
+	 * @since 1.1
+	 */
+	JANUS_AGENT_HEAVY_REACTIVE("janus.agent.heavy.reactive", false), //$NON-NLS-1$
+
+	/** Indicates the maximal delay (in milliseconds) during which
+	 * an idle reactive heavy agent is parked.
+	 * <p>
+	 * Read-only: no.
+	 * @since 1.1
+	 */
+	JANUS_AGENT_HEAVY_IDLE_TIMEOUT("janus.agent.heavy.idleTimeout", false), //$NON-NLS-1$
+
+	/** Indicates the number of threads which are used to run
+	 * the light agents of a kernel. A value of one means that
+	 * the light agents are run sequentially by the kernel agent.
+	 * A negative or zero value means that the number of available
+	 * processors is used.
+	 * <p>
+	 * Read-only: no.
+	 * @since 1.1
+	 */
+	JANUS_AGENT_LIGHT_WORKERS("janus.agent.light.workers", false), //$NON-NLS-1$
+
+	/** Indicates the generator of the identifiers of the messages
+	 * and of the addresses. The value is <code>RANDOM</code>,
+	 * <code>COUNTER</code>, <code>TIME</code>, or the fully qualified
+	 * name of a class implementing
+	 * {@link org.janusproject.kernel.util.identifier.IdentifierGenerator}.
+	 * The generator is shared by all the kernels of the virtual machine.
+	 * It is replaced by a new kernel only if this property is explicitly
+	 * set in the configuration of the kernel.
+	 * <p>
+	 * Read-only: no.
+	 * @since 1.1
+	 * @see org.janusproject.kernel.util.identifier.Identifiers
+	 */
+	JANUS_IDENTIFIER_GENERATOR("janus.identifier.generator", false), //$NON-NLS-1$
+
+	/** Indicates the minimal number of threads in the pool which
+	 * is running the heavy agents of a kernel.
+	 * <p>
+	 * The value is read when the kernel is launched.
+	 * <p>
+	 * Read-only: no.
+	 * @since 1.1
+	 */
+	JANUS_AGENT_POOL_CORE_SIZE("janus.agent.pool.coreSize", false), //$NON-NLS-1$
+
+	/** Indicates the maximal number of threads in the pool which
+	 * is running the heavy agents of a kernel. Because each heavy agent
+	 * owns a thread during its life, this value is also the maximal
+	 * number of heavy agents which are running at the same time
+	 * when the queue of the pool is synchronous.
+	 * <p>
+	 * The value is read when the kernel is launched.
+	 * <p>
+	 * Read-only: no.
+	 * @since 1.1
+	 */
+	JANUS_AGENT_POOL_MAX_SIZE("janus.agent.pool.maxSize", false), //$NON-NLS-1$
+
+	/** Indicates the type of the queue of the pool which is running
+	 * the heavy agents of a kernel. The value is the name of a constant of
+	 * {@link org.janusproject.kernel.util.concurrent.ThreadPoolQueueType}.
+	 * <p>
+	 * The value is read when the kernel is launched.
+	 * <p>
+	 * Read-only: no.
+	 * @since 1.1
+	 */
+	JANUS_AGENT_POOL_QUEUE_TYPE("janus.agent.pool.queueType", false), //$NON-NLS-1$
+
+	/** Indicates the capacity of the queue of the pool which is running
+	 * the heavy agents of a kernel. A negative or zero value means
+	 * that the queue is unbounded.
+	 * <p>
+	 * The value is read when the kernel is launched.
+	 * <p>
+	 * Read-only: no.
+	 * @since 1.1
+	 */
+	JANUS_AGENT_POOL_QUEUE_CAPACITY("janus.agent.pool.queueCapacity", false), //$NON-NLS-1$
+
+	/** Indicates the policy to apply when the pool which is running
+	 * the heavy agents cannot accept a new agent. The value is the name
+	 * of a constant of
+	 * {@link org.janusproject.kernel.util.concurrent.ThreadPoolRejectionPolicy}.
+	 * <p>
+	 * The value is read when the kernel is launched.
+	 * <p>
+	 * Read-only: no.
+	 * @since 1.1
+	 */
+	JANUS_AGENT_POOL_REJECTION_POLICY("janus.agent.pool.rejectionPolicy", false), //$NON-NLS-1$
+
+	/** Indicates the minimal number of threads in the pool which
+	 * is running the asynchronous capacity calls.
+	 * <p>
+	 * The value is read when the first asynchronous call is submitted.
+	 * <p>
+	 * Read-only: no.
+	 * @since 1.1
+	 */
+	JANUS_CAPACITY_POOL_CORE_SIZE("janus.capacity.pool.coreSize", false), //$NON-NLS-1$
+
+	/** Indicates the maximal number of threads in the pool which
+	 * is running the asynchronous capacity calls.
+	 * <p>
+	 * The value is read when the first asynchronous call is submitted.
+	 * <p>
+	 * Read-only: no.
+	 * @since 1.1
+	 */
+	JANUS_CAPACITY_POOL_MAX_SIZE("janus.capacity.pool.maxSize", false), //$NON-NLS-1$
+
+	/** Indicates the type of the queue of the pool which is running
+	 * the asynchronous capacity calls. The value is the name of a constant of
+	 * {@link org.janusproject.kernel.util.concurrent.ThreadPoolQueueType}.
+	 * <p>
+	 * The value is read when the first asynchronous call is submitted.
+	 * <p>
+	 * Read-only: no.
+	 * @since 1.1
+	 */
+	JANUS_CAPACITY_POOL_QUEUE_TYPE("janus.capacity.pool.queueType", false), //$NON-NLS-1$
+
+	/** Indicates the capacity of the queue of the pool which is running
+	 * the asynchronous capacity calls. A negative or zero value means
+	 * that the queue is unbounded.
+	 * <p>
+	 * The value is read when the first asynchronous call is submitted.
+	 * <p>
+	 * Read-only: no.
+	 * @since 1.1
+	 */
+	JANUS_CAPACITY_POOL_QUEUE_CAPACITY("janus.capacity.pool.queueCapacity", false), //$NON-NLS-1$
+
+	/** Indicates the policy to apply when the pool which is running
+	 * the asynchronous capacity calls cannot accept a new call. The value
+	 * is the name of a constant of
+	 * {@link org.janusproject.kernel.util.concurrent.ThreadPoolRejectionPolicy}.
+	 * <p>
+	 * The value is read when the first asynchronous call is submitted.
+	 * <p>
+	 * Read-only: no.
+	 * @since 1.1
+	 */
+	JANUS_CAPACITY_POOL_REJECTION_POLICY("janus.capacity.pool.rejectionPolicy", false), //$NON-NLS-1$
+
+	/** Indicates the number of threads in the priority lane which
+	 * is running the asynchronous calls to the latency-sensitive
+	 * capacity implementations. A negative or zero value means that
+	 * there is no priority lane: all the calls are run by the
+	 * same pool.
+	 * <p>
+	 * The value is read when the first asynchronous call is submitted.
+	 * <p>
+	 * Read-only: no.
+	 * @since 1.1
+	 */
+	JANUS_CAPACITY_PRIORITY_POOL_SIZE("janus.capacity.priorityPool.size", false), //$NON-NLS-1$
+
 	/**
 	 * If janus should clean the jxta home, it deletes
 	 * all directories.
@@ -199,7 +393,35 @@ public enum JanusProperty {
 	 * Read-only: yes.
 	 * @since 1.0
 	 */
-	ZEROMQ_MULICAT_GROUP_ADDRESS("org.zeromq.multicastGroupAddress", true); //$NON-NLS-1$
+	ZEROMQ_MULICAT_GROUP_ADDRESS("org.zeromq.multicastGroupAddress", true), //$NON-NLS-1$
+
+	/**
+	 * The maximal number of messages waiting to be published by ZeroMQ.
+	 * When this number is reached, the new messages are rejected.
+	 * <p>
+	 * Read-only: no.
+	 * @since 1.1
+	 */
+	ZEROMQ_OUTBOUND_QUEUE_SIZE("org.zeromq.outboundQueueSize", false), //$NON-NLS-1$
+
+	/**
+	 * The maximal number of messages that are published by ZeroMQ
+	 * in a single batch.
+	 * <p>
+	 * Read-only: no.
+	 * @since 1.1
+	 */
+	ZEROMQ_BATCH_SIZE("org.zeromq.batchSize", false), //$NON-NLS-1$
+
+	/**
+	 * The maximal delay (in milliseconds) during which ZeroMQ waits for
+	 * additional messages before publishing a batch. A zero value means
+	 * that the batch is published as soon as the publisher is available.
+	 * <p>
+	 * Read-only: no.
+	 * @since 1.1
+	 */
+	ZEROMQ_BATCH_DELAY("org.zeromq.batchDelay", false); //$NON-NLS-1$
 
 
 
@@ -86,6 +86,7 @@ implements CapacityContainer {
 	 * @param implementation is the added implementation.
 	 */
 	protected void fireRepositoryAddition(CapacityImplementation implementation) {
+		if (this.listeners==null) return;
 		RepositoryChangeEvent event = new RepositoryChangeEvent(
 				this,
 				ChangeType.ADD,
@@ -101,6 +102,7 @@ implements CapacityContainer {
 	 * @param implementation is the removed implementation.
 	 */
 	protected void fireRepositoryRemoval(CapacityImplementation implementation) {
+		if (this.listeners==null) return;
 		RepositoryChangeEvent event = new RepositoryChangeEvent(
 				this,
 				ChangeType.REMOVE,
@@ -111,11 +113,23 @@ implements CapacityContainer {
 	}
 	
 	/** Set the capacity implementation policy used by {@link #selectImplementation(Class)}.
+	 * <p>
+	 * A change of the policy is notified to the listeners
+	 * as an {@link ChangeType#UPDATE update} of this container.
 	 *
 	 * @param policy the new policy or <code>null</code> for default policy.
 	 */
 	public final void setCapacityImplementationSelectionPolicy(CapacityImplementationSelectionPolicy policy) {
+		CapacityImplementationSelectionPolicy old = this.capacitySelectionPolicy;
 		this.capacitySelectionPolicy = policy;
+		if (old!=policy && this.listeners!=null) {
+			fireRepositoryChangeEvent(new RepositoryChangeEvent(
+					this,
+					ChangeType.UPDATE,
+					this,
+					old,
+					policy));
+		}
 	}
 	
 	/** Replies the capacity implementation policy used by {@link #selectImplementation(Class)}.
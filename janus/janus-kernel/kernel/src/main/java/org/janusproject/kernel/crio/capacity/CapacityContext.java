@@ -26,6 +26,7 @@ import java.util.UUID;
 import java.util.logging.Logger;
 
 import org.janusproject.kernel.time.KernelTimeManager;
+import org.janusproject.kernel.util.identifier.Identifiers;
 
 /**
  * This class stores the informations relative to a call
@@ -42,8 +43,9 @@ public abstract class CapacityContext {
 
 	/**
 	 * The string unambigeously identifying this call.
+	 * It is lazily created when it was not given to the constructor.
 	 */
-	private final UUID identifier;
+	private volatile UUID identifier;
 
 	/**
 	 * The invoked capacity.
@@ -98,7 +100,7 @@ public abstract class CapacityContext {
 			Class<? extends Capacity> invokedCapacity, 
 			CapacityImplementationType type,
 			Object... input) {
-		this(caller, invokedCapacity, type, UUID.randomUUID(), input);
+		this(caller, invokedCapacity, type, (UUID)null, input);
 	}
 
 	/**
@@ -107,7 +109,8 @@ public abstract class CapacityContext {
 	 * @param caller is the caller of this capacity.
 	 * @param invokedCapacity is the invoked capacity in this context.
 	 * @param type is the type of the invoked capacity implementation.
-	 * @param identifier is the unique identifier of the call.
+	 * @param identifier is the unique identifier of the call; if <code>null</code>
+	 * a new identifier is created on the first call to {@link #getIdentifier()}.
 	 * @param input are the input data required to execute this capacity
 	 */
 	public CapacityContext(
@@ -116,7 +119,7 @@ public abstract class CapacityContext {
 			CapacityImplementationType type,
 			UUID identifier, 
 			Object... input) {
-		this.identifier = UUID.randomUUID();
+		this.identifier = identifier;
 		this.invokedCapacity = invokedCapacity;
 		this.type = type;
 		this.caller = new SoftReference<CapacityCaller>(caller);
@@ -132,7 +135,17 @@ public abstract class CapacityContext {
 	 * @return the identifier of this capacity call.
 	 */
 	public UUID getIdentifier() {
-		return this.identifier;
+		UUID id = this.identifier;
+		if (id==null) {
+			synchronized(this) {
+				id = this.identifier;
+				if (id==null) {
+					id = Identifiers.newIdentifier();
+					this.identifier = id;
+				}
+			}
+		}
+		return id;
 	}
 
 	/**
@@ -0,0 +1,45 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.crio.capacity;
+
+/**
+ * This interface describes a function applied to the result
+ * of an asynchronous capacity call.
+ * 
+ * @param <R> is the type of the value replied by the function.
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ * @see CapacityFuture
+ */
+public interface CapacityFunction<R> {
+
+	/** Invoked when the capacity call is done.
+	 * 
+	 * @param context is the context of the capacity call.
+	 * @return the value computed from the capacity call.
+	 * @throws Exception
+	 */
+	public R apply(CapacityContext context) throws Exception;
+
+}
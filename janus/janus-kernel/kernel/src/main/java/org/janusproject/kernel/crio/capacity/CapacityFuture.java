@@ -0,0 +1,69 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.crio.capacity;
+
+import java.util.UUID;
+import java.util.concurrent.Future;
+
+/**
+ * This interface describes the pending result of an asynchronous
+ * capacity call.
+ * <p>
+ * The continuations registered with {@link #thenAccept(CapacityContinuation)}
+ * and {@link #thenApply(CapacityFunction)} are not run by the thread which
+ * has executed the capacity. They are run by the role which has submitted
+ * the call, at the beginning of its next activation after the call
+ * is done. If the role was released before, the continuations are
+ * never run.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public interface CapacityFuture extends Future<CapacityContext> {
+
+	/** Replies the identifier of the capacity call.
+	 * 
+	 * @return the identifier of the capacity call.
+	 */
+	public UUID getIdentifier();
+	
+	/** Register a continuation which will receive the context
+	 * of the capacity call when it is done.
+	 * 
+	 * @param continuation is the continuation to run.
+	 * @return this future.
+	 */
+	public CapacityFuture thenAccept(CapacityContinuation continuation);
+
+	/** Register a function which will be applied to the context
+	 * of the capacity call when it is done.
+	 * 
+	 * @param <R> is the type of the value replied by the function.
+	 * @param function is the function to apply.
+	 * @return the future value replied by the function. It is
+	 * canceled if the role is released before the function is applied.
+	 */
+	public <R> Future<R> thenApply(CapacityFunction<R> function);
+
+}
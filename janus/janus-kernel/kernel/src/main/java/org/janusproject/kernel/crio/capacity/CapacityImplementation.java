@@ -78,6 +78,40 @@ public abstract class CapacityImplementation {
 		return collection;
 	}
 	
+	/** Replies if this implementation is stateless.
+	 * <p>
+	 * A stateless implementation does not keep any reference to the
+	 * capacity context after the call, and does not need to know the
+	 * group nor the role of the call. The direct calls to a stateless
+	 * implementation are done with a lightweight context.
+	 * <p>
+	 * By default, an implementation is not stateless.
+	 * 
+	 * @return <code>true</code> if this implementation is stateless,
+	 * otherwise <code>false</code>.
+	 * @since 1.1
+	 */
+	public boolean isStateless() {
+		return false;
+	}
+	
+	/** Replies if the calls to this implementation are latency-sensitive.
+	 * <p>
+	 * The asynchronous calls to a latency-sensitive implementation are
+	 * run by a dedicated pool of threads, when this pool is enabled by
+	 * the property <code>janus.capacity.priorityPool.size</code>.
+	 * The implementations should be short-running to be latency-sensitive.
+	 * <p>
+	 * By default, an implementation is not latency-sensitive.
+	 * 
+	 * @return <code>true</code> if this implementation is latency-sensitive,
+	 * otherwise <code>false</code>.
+	 * @since 1.1
+	 */
+	public boolean isLatencySensitive() {
+		return false;
+	}
+	
 	/**
      * Computes a result or makes a border effect, or throws an exception if unable to do so.
      *
@@ -66,7 +66,12 @@ extends AbstractCapacityContainer {
 	@Override
 	public void removeCapacity(Class<? extends Capacity> capacity) {
 		assert(capacity!=null);
-		this.content.remove(capacity);
+		Collection<CapacityImplementation> implementations = this.content.remove(capacity);
+		if (implementations!=null) {
+			for(CapacityImplementation implementation : implementations) {
+				fireRepositoryRemoval(implementation);
+			}
+		}
 	}
 
 	/**
@@ -76,15 +81,19 @@ extends AbstractCapacityContainer {
 	public void removeCapacity(CapacityImplementation capacity) {
 		assert(capacity!=null);
 		Collection<CapacityImplementation> implementations;
+		boolean removed = false;
 		for(Class<? extends Capacity> type : capacity.getCapacities()) {
 			implementations = this.content.get(type);
 			if (implementations!=null) {
-				implementations.remove(capacity);
+				removed |= implementations.remove(capacity);
 				if (implementations.isEmpty()) {
 					this.content.remove(type);
 				}
 			}
 		}
+		if (removed) {
+			fireRepositoryRemoval(capacity);
+		}
 	}
 
 	/**
@@ -94,13 +103,17 @@ extends AbstractCapacityContainer {
 	public void addCapacity(CapacityImplementation capacity) {
 		assert(capacity!=null);
 		Collection<CapacityImplementation> implementations;
+		boolean added = false;
 		for(Class<? extends Capacity> type : capacity.getCapacities()) {
 			implementations = this.content.get(type);
 			if (implementations==null) {
 				implementations = new TreeSet<CapacityImplementation>(CapacityImplementationComparator.SINGLETON);
 				this.content.put(type, implementations);
 			}
-			implementations.add(capacity);
+			added |= implementations.add(capacity);
+		}
+		if (added) {
+			fireRepositoryAddition(capacity);
 		}
 	}
 
@@ -117,7 +130,11 @@ extends AbstractCapacityContainer {
 				implementations = new TreeSet<CapacityImplementation>(CapacityImplementationComparator.SINGLETON);
 				this.content.put(capacity, implementations);
 			}
-			implementations.addAll(container.get(capacity));
+			for(CapacityImplementation implementation : container.get(capacity)) {
+				if (implementations.add(implementation)) {
+					fireRepositoryAddition(implementation);
+				}
+			}
 		}
 	}
 
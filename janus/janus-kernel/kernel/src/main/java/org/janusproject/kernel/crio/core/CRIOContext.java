@@ -29,11 +29,13 @@ import org.janusproject.kernel.address.Address;
 import org.janusproject.kernel.address.AgentAddress;
 import org.janusproject.kernel.condition.TimeConditionParameterProvider;
 import org.janusproject.kernel.configuration.JanusProperties;
+import org.janusproject.kernel.configuration.JanusProperty;
 import org.janusproject.kernel.crio.interaction.PrivilegedMessageTransportService;
 import org.janusproject.kernel.crio.organization.PrivilegedPersistentGroupCleanerService;
 import org.janusproject.kernel.message.Message;
 import org.janusproject.kernel.time.KernelTimeManager;
 import org.janusproject.kernel.time.VMKernelTimeManager;
+import org.janusproject.kernel.util.identifier.Identifiers;
 
 /**
  * This class represents an execution context for CRIO
@@ -48,8 +50,9 @@ public class CRIOContext {
 
 	private final UUID contextId;
 	private final OrganizationRepository or = new OrganizationRepository();
-	private final CapacityExecutor ce = new CapacityExecutor();
+	private final CapacityExecutor ce;
 	private final GroupRepository gr = new GroupRepository();
+	private final PlayerGroupIndex pgi = new PlayerGroupIndex();
 	private final KernelTimeManager tm;
 	private final TimeConditionParameterProvider tcpp;
 	private final DistantCRIOContextHandler distantPlatformHandler;
@@ -89,6 +92,13 @@ public class CRIOContext {
 		else {
 			this.properties = new JanusProperties(this.contextId);
 		}
+		this.ce = new CapacityExecutor(this.properties);
+		// The generator is shared by the kernels; it is replaced only when
+		// it is explicitly configured for this context.
+		String generator = this.properties.getProperty(JanusProperty.JANUS_IDENTIFIER_GENERATOR, null);
+		if (generator!=null && !generator.isEmpty()) {
+			Identifiers.setGenerator(generator);
+		}
 	}
 	
 	/** Replies the identifier associated to this context.
@@ -105,6 +115,7 @@ public class CRIOContext {
 		this.ce.shutdown();
 		this.or.clear();
 		this.gr.clear();
+		this.pgi.clear();
 		this.properties.reset();
 	}
 	
@@ -131,6 +142,15 @@ public class CRIOContext {
 	final GroupRepository getGroupRepository() {
 		return this.gr;
 	}
+
+	/** Replies the index of the groups per player.
+	 *
+	 * @return the index of the groups per player.
+	 * @since 1.1
+	 */
+	final PlayerGroupIndex getPlayerGroupIndex() {
+		return this.pgi;
+	}
 	
 	/** Replies the time manager embedded in this CRIO context.
 	 * 
@@ -0,0 +1,369 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.crio.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.janusproject.kernel.address.AgentAddress;
+import org.janusproject.kernel.crio.capacity.CapacityContext;
+import org.janusproject.kernel.crio.capacity.CapacityContinuation;
+import org.janusproject.kernel.crio.capacity.CapacityFunction;
+import org.janusproject.kernel.crio.capacity.CapacityFuture;
+
+/**
+ * Pending result of a capacity call submitted to the {@link CapacityExecutor}.
+ * <p>
+ * When the call is done, the registered continuations are posted
+ * to the role which has submitted the call. The role runs them
+ * at the beginning of its next activation.
+ * <p>
+ * The results of the functions applied on the call are canceled
+ * when the role is released before they are run.
+ * <p>
+ * When the call was canceled or forced to terminate, the context
+ * of the call is replied instead of throwing a
+ * {@link CancellationException}. The context is replied only
+ * when it is up-to-date and the continuations were posted.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+class CapacityCallFuture extends FutureTask<CapacityContext> implements CapacityFuture {
+
+	private final GroupCapacityContext context;
+	private final AgentAddress owner;
+	
+	/** Continuations to post when the call is done,
+	 * or <code>null</code> if the call is done and the
+	 * continuations were posted.
+	 */
+	private List<Runnable> continuations = new ArrayList<Runnable>(1);
+	
+	/** Indicates if the continuations must not be posted when the
+	 * call is done, because the context is not yet up-to-date.
+	 */
+	private volatile boolean deferContinuations = false;
+	
+	/**
+	 * @param context is the context of the call.
+	 * @param task is the task to run.
+	 * @param owner is the address of the entity which has submitted the call.
+	 */
+	public CapacityCallFuture(GroupCapacityContext context, Callable<CapacityContext> task, AgentAddress owner) {
+		super(task);
+		this.context = context;
+		this.owner = owner;
+	}
+	
+	/** Replies the owner of this invocation.
+	 * 
+	 *  @return the owner of this invocation.
+	 */
+	public AgentAddress getOwner() {
+		return this.owner;
+	}
+
+	/** Replies the context of this invocation.
+	 * 
+	 *  @return the context of this invocation.
+	 */
+	public GroupCapacityContext getContext() {
+		return this.context;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public UUID getIdentifier() {
+		return this.context.getIdentifier();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public CapacityContext get() throws InterruptedException, ExecutionException {
+		try {
+			super.get();
+		}
+		catch(CancellationException _) {
+			// The context is replied
+		}
+		waitContinuationPosting();
+		return this.context;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public CapacityContext get(long timeout, TimeUnit unit)
+			throws InterruptedException, ExecutionException, TimeoutException {
+		try {
+			super.get(timeout, unit);
+		}
+		catch(CancellationException _) {
+			// The context is replied
+		}
+		waitContinuationPosting();
+		return this.context;
+	}
+	
+	/** Wait until the continuations were posted.
+	 * <p>
+	 * The continuations are posted after the context of
+	 * the call is up-to-date, and just after the call is done.
+	 * 
+	 * @throws InterruptedException
+	 */
+	private synchronized void waitContinuationPosting() throws InterruptedException {
+		while (this.continuations!=null) {
+			wait();
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		return terminate(mayInterruptIfRunning, false, false, null, null);
+	}
+	
+	/** Stop the capacity call and force it to fail.
+	 * 
+	 * @param exception is the exception which causes the failure,
+	 * or <code>null</code> if none.
+	 * @return <code>true</code> if the running call was canceled,
+	 * <code>false</code> if the call was already done.
+	 */
+	boolean fail(Throwable exception) {
+		return terminate(true, false, true, exception, null);
+	}
+
+	/** Stop the capacity call and force it to succeed.
+	 * 
+	 * @param results are the values to put back as capacity results.
+	 * @return <code>true</code> if the running call was canceled,
+	 * <code>false</code> if the call was already done.
+	 */
+	boolean succeed(Object[] results) {
+		return terminate(true, true, false, null, results);
+	}
+	
+	/** Cancel the capacity call and update its context.
+	 * <p>
+	 * The context is updated after the cancelation to avoid to
+	 * be overridden by the canceled capacity, and the continuations
+	 * are posted after the context update.
+	 * 
+	 * @param mayInterruptIfRunning
+	 * @param forceSuccess indicates if the call must succeed.
+	 * @param forceFailure indicates if the call must fail.
+	 * @param exception is the exception which causes the failure.
+	 * @param results are the values to put back as capacity results.
+	 * @return <code>true</code> if the running call was canceled,
+	 * <code>false</code> if the call was already done.
+	 */
+	private boolean terminate(boolean mayInterruptIfRunning, boolean forceSuccess,
+			boolean forceFailure, Throwable exception, Object[] results) {
+		this.deferContinuations = true;
+		try {
+			boolean canceled = super.cancel(mayInterruptIfRunning);
+			if (forceSuccess) {
+				this.context.success();
+				this.context.setOutputValues(results);
+			}
+			else if (forceFailure) {
+				this.context.fail(exception);
+			}
+			else if (canceled && !this.context.isResultAvailable()) {
+				this.context.fail();
+			}
+			return canceled;
+		}
+		finally {
+			this.deferContinuations = false;
+			if (isDone()) postContinuations();
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public CapacityFuture thenAccept(CapacityContinuation continuation) {
+		assert(continuation!=null);
+		post(new Continuation(continuation));
+		return this;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <R> Future<R> thenApply(CapacityFunction<R> function) {
+		assert(function!=null);
+		FutureTask<R> result = new FutureTask<R>(new Application<R>(function));
+		post(result);
+		return result;
+	}
+	
+	/** Post the given continuation to the role if the call is done,
+	 * or keep it until the call is done.
+	 * 
+	 * @param continuation
+	 */
+	private void post(Runnable continuation) {
+		synchronized(this) {
+			if (this.continuations!=null) {
+				this.continuations.add(continuation);
+				return;
+			}
+		}
+		post(this.context.getRole(), continuation);
+	}
+	
+	/** Post the given continuation to the given role. If there is
+	 * no more role, the continuation is canceled.
+	 * 
+	 * @param role
+	 * @param continuation
+	 */
+	private static void post(Role role, Runnable continuation) {
+		if (role!=null) {
+			role.postCapacityContinuation(continuation);
+		}
+		else if (continuation instanceof Future<?>) {
+			((Future<?>)continuation).cancel(false);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void done() {
+		if (!this.deferContinuations) {
+			postContinuations();
+		}
+	}
+	
+	/** Post the continuations to the role which has
+	 * submitted the call.
+	 * <p>
+	 * The waiting threads are notified only when all the
+	 * continuations, including the ones registered while
+	 * posting, are posted.
+	 */
+	private void postContinuations() {
+		Role role = this.context.getRole();
+		List<Runnable> toPost;
+		while (true) {
+			synchronized(this) {
+				toPost = this.continuations;
+				if (toPost==null) return;
+				if (toPost.isEmpty()) {
+					this.continuations = null;
+					notifyAll();
+					return;
+				}
+				this.continuations = new ArrayList<Runnable>(1);
+			}
+			for(Runnable continuation : toPost) {
+				post(role, continuation);
+			}
+		}
+	}
+	
+	/**
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	private class Continuation implements Runnable {
+
+		private final CapacityContinuation continuation;
+		
+		/**
+		 * @param continuation
+		 */
+		public Continuation(CapacityContinuation continuation) {
+			this.continuation = continuation;
+		}
+		
+		/**
+		 * {@inheritDoc}
+		 */
+		@SuppressWarnings("synthetic-access")
+		@Override
+		public void run() {
+			this.continuation.capacityCallDone(CapacityCallFuture.this.context);
+		}
+		
+	} // class Continuation
+
+	/**
+	 * @param <R> is the type of the value replied by the function.
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	private class Application<R> implements Callable<R> {
+
+		private final CapacityFunction<R> function;
+		
+		/**
+		 * @param function
+		 */
+		public Application(CapacityFunction<R> function) {
+			this.function = function;
+		}
+		
+		/**
+		 * {@inheritDoc}
+		 */
+		@SuppressWarnings("synthetic-access")
+		@Override
+		public R call() throws Exception {
+			return this.function.apply(CapacityCallFuture.this.context);
+		}
+		
+	} // class Application
+
+}
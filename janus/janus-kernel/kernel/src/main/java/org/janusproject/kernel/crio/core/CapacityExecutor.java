@@ -20,29 +20,33 @@
  */
 package org.janusproject.kernel.crio.core;
 
+import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.TreeMap;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
-import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.arakhne.afc.vmutil.locale.Locale;
 import org.janusproject.kernel.address.AgentAddress;
+import org.janusproject.kernel.configuration.JanusProperties;
+import org.janusproject.kernel.configuration.JanusProperty;
 import org.janusproject.kernel.crio.capacity.Capacity;
 import org.janusproject.kernel.crio.capacity.CapacityCaller;
 import org.janusproject.kernel.crio.capacity.CapacityContext;
+import org.janusproject.kernel.crio.capacity.CapacityFuture;
 import org.janusproject.kernel.crio.capacity.CapacityImplementation;
 import org.janusproject.kernel.crio.capacity.CapacityPrototypeValidator;
+import org.janusproject.kernel.util.concurrent.ThreadPoolQueueType;
+import org.janusproject.kernel.util.concurrent.ThreadPoolRejectionPolicy;
+import org.janusproject.kernel.util.concurrent.ThreadPools;
 
 /**
  * Execute capacities in a pool of threads.
@@ -58,6 +62,18 @@ import org.janusproject.kernel.crio.capacity.CapacityPrototypeValidator;
  * not been used for sixty seconds are terminated and removed from
  * the cache. Thus, a pool that remains idle for long enough will
  * not consume any resources.
+ * <p>
+ * The sizes, the queue and the rejection policy of the pool are given
+ * by the <code>janus.capacity.pool.*</code> properties. The calls to
+ * the {@link CapacityImplementation#isLatencySensitive() latency-sensitive}
+ * implementations are run by a second pool, named the priority lane,
+ * so that they are not waiting behind long-running capacities.
+ * The priority lane has a fixed size and an unbounded queue.
+ * <p>
+ * The asynchronous calls are replied as {@link CapacityFuture}.
+ * The calls submitted with an identifier-based API are additionally
+ * registered in a concurrent table, which is used by the functions
+ * taking the identifier of the call as parameter.
  * 
  * @author $Author: sgalland$
  * @version $FullVersion$
@@ -69,52 +85,87 @@ import org.janusproject.kernel.crio.capacity.CapacityPrototypeValidator;
 public final class CapacityExecutor {
 	
 	/** Maximal count of threads allowed for capacity execution, by default <code>50</code>.
+	 * @deprecated see {@link JanusProperty#JANUS_CAPACITY_POOL_MAX_SIZE}
 	 */
-	public static final int THREAD_POOL_MAX_SIZE = 50;
+	@Deprecated
+	public static final int THREAD_POOL_MAX_SIZE = JanusProperties.DEFAULT_CAPACITY_POOL_MAX_SIZE;
 	
 	/** Minimal count of threads for capacity execution, by default <code>0</code>.
+	 * @deprecated see {@link JanusProperty#JANUS_CAPACITY_POOL_CORE_SIZE}
 	 */
-	public static final int THREAD_POOL_MIN_SIZE = 0;
+	@Deprecated
+	public static final int THREAD_POOL_MIN_SIZE = JanusProperties.DEFAULT_CAPACITY_POOL_CORE_SIZE;
 
 	/** Allowed iddle duration in seconds.
 	 */
 	public static final int THREAD_IDDLE_DURATION = 60;
 	
-	private ExecutorService executionService = null;
+	private final JanusProperties configuration;
+	
+	private ThreadPoolExecutor executionService = null;
 	
-	private final Map<UUID,DifferedCapacityInvocation> results = new TreeMap<UUID,DifferedCapacityInvocation>();
+	/** Pool of the latency-sensitive calls, or <code>null</code>
+	 * if these calls are run by {@link #executionService}.
+	 */
+	private ThreadPoolExecutor priorityExecutionService = null;
+	
+	private final ConcurrentMap<UUID,CapacityCallFuture> results = new ConcurrentHashMap<UUID,CapacityCallFuture>();
 	
 	/**
+	 * @param configuration is the configuration from which the pools are configured.
 	 */
-	CapacityExecutor() {
-		//
+	CapacityExecutor(JanusProperties configuration) {
+		assert(configuration!=null);
+		this.configuration = configuration;
 	}
 
 	/** Shutdown this executor.
 	 * <p>
-	 * It causes to stop all capacity executions.
+	 * It causes to stop all capacity executions. The calls which
+	 * are waiting in the queues of the pools are failed.
 	 */
 	void shutdown() {
-		if (this.executionService!=null) {
-			this.executionService.shutdownNow();
+		List<Runnable> waitingTasks = new ArrayList<Runnable>();
+		synchronized(this) {
+			if (this.executionService!=null) {
+				waitingTasks.addAll(this.executionService.shutdownNow());
+			}
+			if (this.priorityExecutionService!=null) {
+				waitingTasks.addAll(this.priorityExecutionService.shutdownNow());
+			}
 		}
-		for(DifferedCapacityInvocation task : this.results.values()) {
-			try {
-				task.cancel(true);
-
-				GroupCapacityContext context = task.get();
-				if (context!=null && !context.isResultAvailable()) {
-					context.fail(new InterruptedException());
-				}
+		for(Runnable task : waitingTasks) {
+			if (task instanceof CapacityCallFuture) {
+				terminate((CapacityCallFuture)task);
 			}
-			catch(AssertionError e) {
-				throw e;
+		}
+		for(CapacityCallFuture task : this.results.values()) {
+			if (!task.isDone()) {
+				terminate(task);
 			}
-			catch(Throwable e) {
-				Logger.getLogger(CapacityExecutor.class.getCanonicalName()).
-					log(Level.SEVERE, e.getLocalizedMessage(), e);
+		}
+	}
+	
+	/** Stop the given call because the executor is shut down.
+	 * 
+	 * @param task
+	 */
+	private static void terminate(CapacityCallFuture task) {
+		try {
+			if (task.getContext().isResultAvailable()) {
+				task.cancel(true);
+			}
+			else {
+				task.fail(new InterruptedException());
 			}
 		}
+		catch(AssertionError e) {
+			throw e;
+		}
+		catch(Throwable e) {
+			Logger.getLogger(CapacityExecutor.class.getCanonicalName()).
+				log(Level.SEVERE, e.getLocalizedMessage(), e);
+		}
 	}
 	
 	/** Replies if a capacity is running.
@@ -122,8 +173,87 @@ public final class CapacityExecutor {
 	 * @return <code>true</code> if at least one capacty is running,
 	 * otherwise <code>false</code>
 	 */
-	public boolean hasCapacityExecution() {
-		return this.executionService!=null && !this.executionService.isTerminated();
+	public synchronized boolean hasCapacityExecution() {
+		return (this.executionService!=null && !this.executionService.isTerminated())
+			|| (this.priorityExecutionService!=null && !this.priorityExecutionService.isTerminated());
+	}
+	
+	/** Replies the approximate number of threads that are running capacities.
+	 * 
+	 * @param priorityLane indicates if the priority lane must be considered.
+	 * @return the number of threads running capacities in the lane.
+	 * @since 1.1
+	 */
+	public synchronized int getActiveCount(boolean priorityLane) {
+		ThreadPoolExecutor pool = priorityLane ? this.priorityExecutionService : this.executionService;
+		return (pool==null) ? 0 : pool.getActiveCount();
+	}
+
+	/** Replies the number of capacity calls which are waiting for a thread.
+	 * 
+	 * @param priorityLane indicates if the priority lane must be considered.
+	 * @return the number of waiting calls in the lane.
+	 * @since 1.1
+	 */
+	public synchronized int getQueueSize(boolean priorityLane) {
+		ThreadPoolExecutor pool = priorityLane ? this.priorityExecutionService : this.executionService;
+		return (pool==null) ? 0 : pool.getQueue().size();
+	}
+
+	/** Replies the current number of threads in the pool of capacities.
+	 * 
+	 * @param priorityLane indicates if the priority lane must be considered.
+	 * @return the number of threads in the lane.
+	 * @since 1.1
+	 */
+	public synchronized int getPoolSize(boolean priorityLane) {
+		ThreadPoolExecutor pool = priorityLane ? this.priorityExecutionService : this.executionService;
+		return (pool==null) ? 0 : pool.getPoolSize();
+	}
+	
+	/** Replies the pool which must run the given implementation.
+	 * The pools are created if necessary.
+	 * 
+	 * @param capacityImplementation
+	 * @return the pool.
+	 */
+	private synchronized ThreadPoolExecutor getExecutionService(CapacityImplementation capacityImplementation) {
+		if (this.executionService==null) {
+			Logger logger = Logger.getLogger(CapacityExecutor.class.getCanonicalName());
+			this.executionService = ThreadPools.newThreadPool(
+					this.configuration,
+					JanusProperty.JANUS_CAPACITY_POOL_CORE_SIZE,
+					JanusProperty.JANUS_CAPACITY_POOL_MAX_SIZE,
+					JanusProperty.JANUS_CAPACITY_POOL_QUEUE_TYPE,
+					JanusProperty.JANUS_CAPACITY_POOL_QUEUE_CAPACITY,
+					JanusProperty.JANUS_CAPACITY_POOL_REJECTION_POLICY,
+					THREAD_IDDLE_DURATION, TimeUnit.SECONDS,
+					logger);
+			this.executionService.setRejectedExecutionHandler(new RejectionHandler(
+					ThreadPools.getRejectionPolicy(
+							this.configuration,
+							JanusProperty.JANUS_CAPACITY_POOL_REJECTION_POLICY,
+							logger)));
+			int prioritySize = this.configuration.getInt(JanusProperty.JANUS_CAPACITY_PRIORITY_POOL_SIZE);
+			if (prioritySize>0) {
+				// The priority lane has a fixed number of threads: with the
+				// configured queue of the main pool (synchronous or bounded),
+				// the latency-sensitive calls would be rejected as soon as
+				// all its threads are busy. Its queue is unbounded so that
+				// these calls are never rejected while the executor is running.
+				this.priorityExecutionService = ThreadPools.newThreadPool(
+						prioritySize, prioritySize,
+						THREAD_IDDLE_DURATION, TimeUnit.SECONDS,
+						ThreadPoolQueueType.LINKED, 0,
+						ThreadPoolRejectionPolicy.ABORT);
+				this.priorityExecutionService.setRejectedExecutionHandler(
+						new RejectionHandler(ThreadPoolRejectionPolicy.ABORT));
+			}
+		}
+		if (this.priorityExecutionService!=null && capacityImplementation.isLatencySensitive()) {
+			return this.priorityExecutionService;
+		}
+		return this.executionService;
 	}
 	
 	//------------------------------------------------
@@ -131,6 +261,8 @@ public final class CapacityExecutor {
 	//------------------------------------------------
 		
 	/** Execute immediately the given capacity implementation.
+	 * When the implementation is stateless, the context of the call
+	 * does not reference the group nor the role.
 	 * For asynchronous execution, see {@link #submit(Class, CapacityImplementation, CapacityCaller, KernelScopeGroup, Role, Object...)}.
 	 * 
 	 * @param capacity is the invoked capacity.
@@ -158,11 +290,21 @@ public final class CapacityExecutor {
 					capacity.getCanonicalName());
 		assert(CapacityPrototypeValidator.validateInputParameters(capacity, parameters));
 		
-		GroupCapacityContext context = new GroupCapacityContext(
-				caller, group, role, 
-				capacity,
-				capacityImplementation.getImplementationType(),
-				parameters);
+		CapacityContext context;
+		if (capacityImplementation.isStateless()) {
+			context = new DirectCapacityContext(
+					caller,
+					capacity,
+					capacityImplementation.getImplementationType(),
+					parameters);
+		}
+		else {
+			context = new GroupCapacityContext(
+					caller, group, role, 
+					capacity,
+					capacityImplementation.getImplementationType(),
+					parameters);
+		}
 		capacityImplementation.call(context);
 		
 		assert(context.isFailed() || CapacityPrototypeValidator.validateOutputParameters(capacity, context.getOutputValues()));
@@ -193,6 +335,68 @@ public final class CapacityExecutor {
 			KernelScopeGroup group,
 			Role role,
 			Object... parameters) {
+		CapacityCallFuture future = createFuture(
+				capacity, capacityImplementation,
+				caller, group, role, parameters);
+		UUID id = future.getIdentifier();
+		// Registered before its execution, so that the call may
+		// be terminated with its identifier as soon as it is running.
+		this.results.put(id, future);
+		execute(capacityImplementation, future);
+		return id;
+	}
+
+	/** Put the given capacity implementation inside the execution
+	 * queue, and reply the future result of the call.
+	 * <p>
+	 * The replied future is not registered in this executor: it is
+	 * not available from the functions taking the identifier of the
+	 * call as parameter.
+	 * <p>
+	 * If the call is rejected by the thread pool, the replied future
+	 * is failed with a {@link RejectedExecutionException}, whatever
+	 * the rejection policy.
+	 * 
+	 * @param capacity is the invoked capacity.
+	 * @param capacityImplementation is the capacity to run.
+	 * @param caller is the capacity caller.
+	 * @param group is the group inside which the capacity is invoked.
+	 * @param role is the role which has invoked the capacity.
+	 * @param parameters are the values to pass to the capacity implementation.
+	 * @return the future result of the call.
+	 * @since 1.1
+	 */
+	CapacityCallFuture submitFuture(
+			Class<? extends Capacity> capacity,
+			CapacityImplementation capacityImplementation,
+			CapacityCaller caller,
+			KernelScopeGroup group,
+			Role role,
+			Object... parameters) {
+		CapacityCallFuture future = createFuture(
+				capacity, capacityImplementation,
+				caller, group, role, parameters);
+		execute(capacityImplementation, future);
+		return future;
+	}
+	
+	/** Create the future result of a call of the given capacity implementation.
+	 * 
+	 * @param capacity is the invoked capacity.
+	 * @param capacityImplementation is the capacity to run.
+	 * @param caller is the capacity caller.
+	 * @param group is the group inside which the capacity is invoked.
+	 * @param role is the role which has invoked the capacity.
+	 * @param parameters are the values to pass to the capacity implementation.
+	 * @return the future result of the call, not yet submitted.
+	 */
+	private CapacityCallFuture createFuture(
+			Class<? extends Capacity> capacity,
+			CapacityImplementation capacityImplementation,
+			CapacityCaller caller,
+			KernelScopeGroup group,
+			Role role,
+			Object... parameters) {
 		assert(capacity!=null);
 		assert(capacityImplementation!=null);
 		assert(capacity.isInstance(capacityImplementation)) : 
@@ -208,25 +412,29 @@ public final class CapacityExecutor {
 				capacityImplementation.getImplementationType(),
 				parameters);
 		
-		synchronized(this) {
-			if (this.executionService==null) {
-				this.executionService = new ThreadPoolExecutor(
-						THREAD_POOL_MIN_SIZE,
-						THREAD_POOL_MAX_SIZE,
-                        THREAD_IDDLE_DURATION,
-                        TimeUnit.SECONDS,
-                        new SynchronousQueue<Runnable>());
-			}
+		return new CapacityCallFuture(
+				context,
+				new Task(context, capacityImplementation),
+				caller.getAddress());
+	}
+	
+	/** Put the given call in the execution queue of the given
+	 * capacity implementation.
+	 * <p>
+	 * The rejected calls are failed, as for the discarding
+	 * rejection policies.
+	 * 
+	 * @param capacityImplementation is the capacity to run.
+	 * @param future is the call to execute.
+	 */
+	private void execute(CapacityImplementation capacityImplementation, CapacityCallFuture future) {
+		ThreadPoolExecutor service = getExecutionService(capacityImplementation);
+		try {
+			service.execute(future);
 		}
-		
-		UUID id = context.getIdentifier();
-		
-		synchronized(this.results) {
-			Future<GroupCapacityContext> future = this.executionService.submit(new Task(context, capacityImplementation));
-			this.results.put(id, new DifferedCapacityInvocation(context, future, caller.getAddress()));
+		catch(RejectedExecutionException e) {
+			future.fail(e);
 		}
-		
-		return id;
 	}
 	
 	/**
@@ -274,18 +482,13 @@ public final class CapacityExecutor {
 		assert(invoker!=null);
 		assert(taskIdentifier!=null);
 		
-		DifferedCapacityInvocation task;
-		synchronized(this.results) {
-			task = this.results.remove(taskIdentifier);
-		}
+		CapacityCallFuture task = this.results.remove(taskIdentifier);
 		
 		if (task==null)
 			return null;
 		
 		if (!invoker.equals(task.getOwner())) {
-			synchronized(this.results) {
-				this.results.put(taskIdentifier, task);
-			}
+			this.results.put(taskIdentifier, task);
 			return null;
 		}
 		
@@ -296,9 +499,7 @@ public final class CapacityExecutor {
 			throw ae;
 		}
 		catch(Exception e) {
-			synchronized(this.results) {
-				this.results.put(taskIdentifier, task);
-			}
+			this.results.put(taskIdentifier, task);
 			return null;
 		}
 	}
@@ -315,10 +516,7 @@ public final class CapacityExecutor {
 		assert(invoker!=null);
 		assert(taskIdentifier!=null);
 		
-		DifferedCapacityInvocation task;
-		synchronized(this.results) {
-			task = this.results.get(taskIdentifier);
-		}
+		CapacityCallFuture task = this.results.get(taskIdentifier);
 		
 		return (task!=null
 				&& invoker.equals(task.getOwner())
@@ -339,25 +537,13 @@ public final class CapacityExecutor {
 		assert(invoker!=null);
 		assert(taskIdentifier!=null);
 		
-		DifferedCapacityInvocation task;
-		synchronized(this.results) {
-			task = this.results.get(taskIdentifier);
-		}
-		
-		if (task==null)
-			return null;
+		CapacityCallFuture task = this.results.get(taskIdentifier);
 		
-		if (!invoker.equals(task.getOwner())) {
-			synchronized(this.results) {
-				this.results.put(taskIdentifier, task);
-			}
+		if (task==null || !invoker.equals(task.getOwner()))
 			return null;
-		}
 		
 		if (task.isDone()) {
-			synchronized(this.results) {
-				this.results.remove(taskIdentifier);
-			}
+			this.results.remove(taskIdentifier, task);
 			try {
 				return task.get();
 			}
@@ -386,23 +572,15 @@ public final class CapacityExecutor {
 		assert(terminator!=null);
 		assert(taskIdentifier!=null);
 		
-		DifferedCapacityInvocation task;
-		synchronized(this.results) {
-			task = this.results.get(taskIdentifier);
-		}
+		CapacityCallFuture task = this.results.get(taskIdentifier);
 		
 		if (task==null ||
 			!terminator.equals(task.getOwner()))
 			return false;
 		
 		try {
-			task.cancel(true);
-			GroupCapacityContext context = task.get();
-			if (context!=null) {
-				context.success();
-				context.setOutputValues(results);
-				return true;
-			}
+			task.succeed(results);
+			return true;
 		}
 		catch(AssertionError e) {
 			throw e;
@@ -446,23 +624,15 @@ public final class CapacityExecutor {
 		assert(canceler!=null);
 		assert(taskIdentifier!=null);
 		
-		DifferedCapacityInvocation task;
-		synchronized(this.results) {
-			task = this.results.get(taskIdentifier);
-		}
+		CapacityCallFuture task = this.results.get(taskIdentifier);
 		
 		if (task==null ||
 			!canceler.equals(task.getOwner()))
 				return false;
 				
 		try {
-			task.cancel(true);
-			GroupCapacityContext context = task.get();
-			if (context!=null) {
-				if (exception!=null) context.fail(exception);
-				else context.fail();
-				return true;
-			}
+			task.fail(exception);
+			return true;
 		}
 		catch(AssertionError e) {
 			throw e;
@@ -490,24 +660,16 @@ public final class CapacityExecutor {
 	public boolean clear(AgentAddress owner) {
 		boolean changed = false;
 		assert(owner!=null);
-		synchronized(this.results) {
-			Iterator<Entry<UUID,DifferedCapacityInvocation>> iterator;
-			Entry<UUID,DifferedCapacityInvocation> entry;
-			DifferedCapacityInvocation invocation;
-			
-			iterator = this.results.entrySet().iterator();
-			
-			while (iterator.hasNext()) {
-				entry = iterator.next();
-				assert(entry!=null);
-				invocation = entry.getValue();
-				assert(invocation!=null);
-				if (owner.equals(invocation.getOwner())) {
-					if (!invocation.isDone())
-						invocation.cancel(true);
-					iterator.remove();
-					changed = true;
-				}
+		Iterator<CapacityCallFuture> iterator = this.results.values().iterator();
+		CapacityCallFuture invocation;
+		while (iterator.hasNext()) {
+			invocation = iterator.next();
+			assert(invocation!=null);
+			if (owner.equals(invocation.getOwner())) {
+				if (!invocation.isDone())
+					invocation.cancel(true);
+				iterator.remove();
+				changed = true;
 			}
 		}
 		return changed;
@@ -526,18 +688,13 @@ public final class CapacityExecutor {
 		assert(invoker!=null);
 		assert(taskIdentifier!=null);
 		
-		DifferedCapacityInvocation task;
-		synchronized(this.results) {
-			task = this.results.remove(taskIdentifier);
-		}
+		CapacityCallFuture task = this.results.remove(taskIdentifier);
 		
 		if (task==null)
 			return null;
 		
 		if (!invoker.equals(task.getOwner())) {
-			synchronized(this.results) {
-				this.results.put(taskIdentifier, task);
-			}
+			this.results.put(taskIdentifier, task);
 			return null;
 		}
 		
@@ -555,7 +712,7 @@ public final class CapacityExecutor {
 	 * @mavengroupid $GroupId$
 	 * @mavenartifactid $ArtifactId$
 	 */
-	private static class Task implements Callable<GroupCapacityContext> {
+	private static class Task implements Callable<CapacityContext> {
 
 		private GroupCapacityContext context;
 		private CapacityImplementation capacity;
@@ -573,7 +730,7 @@ public final class CapacityExecutor {
 		 * {@inheritDoc}
 		 */
 		@Override
-		public GroupCapacityContext call() {
+		public CapacityContext call() {
 			GroupCapacityContext currentContext = this.context;
 			CapacityImplementation currentCapacity = this.capacity;
 			this.context = null;
@@ -603,88 +760,67 @@ public final class CapacityExecutor {
 	}
 	
 	/**
+	 * Handler of the capacity calls which cannot be accepted by a pool.
+	 * <p>
+	 * Unlike the handlers of {@link ThreadPoolExecutor}, the discarded
+	 * calls are failed, so that their callers are not waiting forever.
+	 * 
 	 * @author $Author: sgalland$
 	 * @version $FullVersion$
 	 * @mavengroupid $GroupId$
 	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
 	 */
-	private static class DifferedCapacityInvocation implements Future<GroupCapacityContext> {
+	private static class RejectionHandler implements RejectedExecutionHandler {
 
-		private Future<GroupCapacityContext> future;
-		private GroupCapacityContext context;
-		private final AgentAddress owner;
+		private final ThreadPoolRejectionPolicy policy;
 		
 		/**
-		 * @param context
-		 * @param future
-		 * @param owner
+		 * @param policy
 		 */
-		public DifferedCapacityInvocation(
-				GroupCapacityContext context,
-				Future<GroupCapacityContext> future,
-				AgentAddress owner) {
-			this.future = future;
-			this.context = context;
-			this.owner = owner;
+		public RejectionHandler(ThreadPoolRejectionPolicy policy) {
+			this.policy = policy;
 		}
 		
-		/** Replies the owner of this invocation.
-		 * 
-		 *  @return the owner of this invocation.
-		 */
-		public AgentAddress getOwner() {
-			return this.owner;
-		}
-
 		/**
 		 * {@inheritDoc}
 		 */
 		@Override
-		public boolean cancel(boolean mayInterruptIfRunning) {
-			if (this.future!=null
-				&& this.future.cancel(mayInterruptIfRunning)) {
-				this.future = null;
-				return true;
+		public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+			switch(this.policy) {
+			case CALLER_RUNS:
+				if (executor.isShutdown()) discard(r);
+				else r.run();
+				break;
+			case DISCARD:
+				discard(r);
+				break;
+			case DISCARD_OLDEST:
+				if (executor.isShutdown()) {
+					discard(r);
+				}
+				else {
+					Runnable oldest = executor.getQueue().poll();
+					if (oldest!=null) discard(oldest);
+					executor.execute(r);
+				}
+				break;
+			case ABORT:
+			default:
+				throw new RejectedExecutionException();
 			}
-			return false;
-		}
-
-		/**
-		 * {@inheritDoc}
-		 */
-		@Override
-		public GroupCapacityContext get() throws InterruptedException, ExecutionException {
-			if (this.future==null) return this.context;
-			return this.future.get();
 		}
-
-		/**
-		 * {@inheritDoc}
-		 */
-		@Override
-		public GroupCapacityContext get(long timeout, TimeUnit unit)
-				throws InterruptedException, ExecutionException,
-				TimeoutException {
-			if (this.future==null) return this.context;
-			return this.future.get(timeout, unit);
-		}
-
-		/**
-		 * {@inheritDoc}
-		 */
-		@Override
-		public boolean isCancelled() {
-			return (this.future==null) || this.future.isCancelled();
-		}
-
-		/**
-		 * {@inheritDoc}
+		
+		/** Force the given call to fail.
+		 * 
+		 * @param r
 		 */
-		@Override
-		public boolean isDone() {
-			return (this.future==null) || this.future.isDone();
+		private static void discard(Runnable r) {
+			if (r instanceof CapacityCallFuture) {
+				((CapacityCallFuture)r).fail(new RejectedExecutionException());
+			}
 		}
 		
-	}
-	
+	} // class RejectionHandler
+
 }
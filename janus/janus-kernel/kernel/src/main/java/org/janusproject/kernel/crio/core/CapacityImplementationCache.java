@@ -0,0 +1,148 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.crio.core;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.janusproject.kernel.crio.capacity.AbstractCapacityContainer;
+import org.janusproject.kernel.crio.capacity.Capacity;
+import org.janusproject.kernel.crio.capacity.CapacityContainer;
+import org.janusproject.kernel.crio.capacity.CapacityImplementation;
+import org.janusproject.kernel.crio.capacity.CapacityImplementationSelectionPolicy;
+import org.janusproject.kernel.crio.capacity.FirstCapacityImplementationSelectionPolicy;
+import org.janusproject.kernel.repository.RepositoryChangeEvent;
+import org.janusproject.kernel.repository.RepositoryChangeListener;
+import org.janusproject.kernel.repository.RepositoryOverlooker;
+
+/**
+ * Cache of the capacity implementations selected
+ * in the capacity container of a role player.
+ * <p>
+ * The cache is invalidated each time the overlooker of the
+ * container notifies a change. Only the containers which are
+ * notifying their changes and using a deterministic selection
+ * policy are cached; the selection in the other containers is
+ * done at each call.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+class CapacityImplementationCache implements RepositoryChangeListener {
+
+	private final ConcurrentMap<Class<? extends Capacity>,CapacityImplementation> implementations
+		= new ConcurrentHashMap<Class<? extends Capacity>,CapacityImplementation>();
+	
+	/** Version of the cache, incremented on each invalidation.
+	 */
+	private final AtomicInteger version = new AtomicInteger();
+	
+	private CapacityContainer container = null;
+	private RepositoryOverlooker<Class<? extends Capacity>> overlooker = null;
+	
+	/**
+	 */
+	public CapacityImplementationCache() {
+		//
+	}
+	
+	/** Replies the implementation of the given capacity in the given container.
+	 * 
+	 * @param container is the container in which the implementation must be selected.
+	 * @param capacity is the capacity to select.
+	 * @return the implementation or <code>null</code> if none.
+	 */
+	public CapacityImplementation selectImplementation(CapacityContainer container, Class<? extends Capacity> capacity) {
+		assert(container!=null);
+		assert(capacity!=null);
+		int currentVersion;
+		synchronized(this) {
+			if (this.container!=container) {
+				bind(container);
+			}
+			currentVersion = this.version.get();
+		}
+		CapacityImplementation implementation = this.implementations.get(capacity);
+		if (implementation==null) {
+			Capacity selected = container.selectImplementation(capacity);
+			if (!(selected instanceof CapacityImplementation)) return null;
+			implementation = (CapacityImplementation)selected;
+			if (isCacheable(container)) {
+				this.implementations.put(capacity, implementation);
+				if (this.version.get()!=currentVersion) {
+					// The container has changed during the selection
+					this.implementations.remove(capacity, implementation);
+				}
+			}
+		}
+		return implementation;
+	}
+	
+	/** Listen on the given container.
+	 * 
+	 * @param newContainer
+	 */
+	private void bind(CapacityContainer newContainer) {
+		if (this.overlooker!=null) {
+			this.overlooker.removeRepositoryChangeListener(this);
+		}
+		this.container = newContainer;
+		this.overlooker = newContainer.getOverlooker();
+		this.overlooker.addRepositoryChangeListener(this);
+		invalidate();
+	}
+	
+	/** Remove all the cached implementations.
+	 */
+	private void invalidate() {
+		this.version.incrementAndGet();
+		this.implementations.clear();
+	}
+	
+	/** Replies if the implementations selected in the given container
+	 * may be cached.
+	 * 
+	 * @param container
+	 * @return <code>true</code> if the container is notifying its changes and
+	 * is using a deterministic selection policy, otherwise <code>false</code>.
+	 */
+	private static boolean isCacheable(CapacityContainer container) {
+		if (container instanceof AbstractCapacityContainer) {
+			CapacityImplementationSelectionPolicy policy = 
+				((AbstractCapacityContainer)container).getCapacityImplementationSelectionPolicy();
+			return policy==null || policy.getClass()==FirstCapacityImplementationSelectionPolicy.class;
+		}
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void repositoryChanged(RepositoryChangeEvent evt) {
+		invalidate();
+	}
+	
+}
@@ -0,0 +1,60 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.crio.core;
+
+import org.janusproject.kernel.crio.capacity.Capacity;
+import org.janusproject.kernel.crio.capacity.CapacityCaller;
+import org.janusproject.kernel.crio.capacity.CapacityContext;
+import org.janusproject.kernel.crio.capacity.CapacityImplementation;
+import org.janusproject.kernel.crio.capacity.CapacityImplementationType;
+
+/**
+ * This class stores the informations relative to a direct call
+ * to a stateless capacity implementation.
+ * <p>
+ * Unlike {@link GroupCapacityContext}, this context does not
+ * reference the group and the role of the call.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ * @see CapacityImplementation#isStateless()
+ */
+class DirectCapacityContext 
+extends CapacityContext {
+
+	/**
+	 * @param caller is the caller of this capacity
+	 * @param invokedCapacity is the invoked capacity in this context.
+	 * @param type is the type of the invoked capacity implementation.
+	 * @param input are the input data required to execute this capacity
+	 */
+	public DirectCapacityContext(
+			CapacityCaller caller,
+			Class<? extends Capacity> invokedCapacity,
+			CapacityImplementationType type,
+			Object... input) {
+		super(caller, invokedCapacity, type, input);
+	}
+
+}
@@ -39,7 +39,8 @@ import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.TreeSet;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -60,6 +61,10 @@ import org.janusproject.kernel.crio.role.RolePlayingEvent;
 import org.janusproject.kernel.crio.role.RolePlayingListener;
 import org.janusproject.kernel.crio.role.UndefinedRoleException;
 import org.janusproject.kernel.logger.LoggerUtil;
+import org.janusproject.kernel.mailbox.BoundedMailbox;
+import org.janusproject.kernel.mailbox.Mailbox;
+import org.janusproject.kernel.mailbox.MailboxOverflowPolicy;
+import org.janusproject.kernel.mailbox.MessageRejectedSignal;
 import org.janusproject.kernel.message.Message;
 import org.janusproject.kernel.message.MessageReceiverSelectionPolicy;
 import org.janusproject.kernel.status.Status;
@@ -131,10 +136,21 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 	 */
 	private final Map<AgentAddress, Collection<Class<? extends Role>>> rolesPerPlayer = new TreeMap<AgentAddress, Collection<Class<? extends Role>>>();
 
+	/**
+	 * Local players of this group, updated with {@link #rolesPerPlayer}.
+	 * It may be read without owning the lock when the role playing
+	 * notifications are fired.
+	 */
+	private final Map<AgentAddress, RolePlayer> localMembers = new ConcurrentHashMap<AgentAddress, RolePlayer>();
+
 	/**
 	 * Use to synchronize internal data structures.
+	 * <p>
+	 * The lookups on the players and the message routing only take the
+	 * read lock, and may run concurrently. The role requests and releases
+	 * take the write lock, and are serialized.
 	 */
-	protected final ReentrantLock internalStructureLock = new ReentrantLock();
+	protected final ReentrantReadWriteLock internalStructureLock = new ReentrantReadWriteLock();
 	
 	/** Indicates the last date when this group was marked as used.
 	 * If the value is <code>null</code>, the date is unknown.
@@ -329,7 +345,8 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 	 */
 	public boolean leaveAllRoles(RolePlayer player) {
 		assert (player != null);
-		this.internalStructureLock.lock();
+		List<RolePlayingNotification> notifications = new ArrayList<RolePlayingNotification>();
+		this.internalStructureLock.writeLock().lock();
 		try {
 			Collection<Class<? extends Role>> roles = this.rolesPerPlayer
 					.get(player.getAddress());
@@ -339,7 +356,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 						roles);
 				boolean released = false;
 				for (Class<? extends Role> role : copy) {
-					if (leaveRole(player, role)) {
+					if (leaveRole(player, role, notifications)) {
 						released = true;
 					}
 				}
@@ -348,7 +365,11 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 			return false;
 		}
 		finally {
-			this.internalStructureLock.unlock();
+			this.internalStructureLock.writeLock().unlock();
+			// The notifications are fired outside the lock
+			for(RolePlayingNotification notification : notifications) {
+				notification.fire();
+			}
 		}
 	}
 
@@ -366,110 +387,120 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 	public boolean leaveRole(RolePlayer player, Class<? extends Role> role) {
 		assert (player != null);
 		assert (role != null);
-		this.internalStructureLock.lock();
+		List<RolePlayingNotification> notifications = new ArrayList<RolePlayingNotification>(1);
+		this.internalStructureLock.writeLock().lock();
 		try {
-			RoleDescriptor roleDescriptor = this.playersPerRole.get(role);
-	
-			if (roleDescriptor != null) {
-				AgentAddress adr = player.getAddress();
-				assert (adr != null);
-				Role roleToRemove = roleDescriptor.getLocalRole(adr);
-				if (roleToRemove != null) {
-					ConditionFailure failedCondition = verifiesLeaveConditions(
-							player, roleToRemove);
-					if (failedCondition == null) {
+			return leaveRole(player, role, notifications);
+		}
+		finally {
+			this.internalStructureLock.writeLock().unlock();
+			// The notifications are fired outside the lock
+			for(RolePlayingNotification notification : notifications) {
+				notification.fire();
+			}
+		}
+	}
 	
-						RoleAddress roleAddress = roleToRemove.getAddress();
-						roleAddress.unbind();
+	/**
+	 * Release a role. The caller must own the write lock on the internal structures.
+	 * 
+	 * @param player
+	 *            is the reference to the requester player.
+	 * @param role
+	 *            is the class of the role to leave.
+	 * @param notifications
+	 *            is the list of the role playing notifications to fire
+	 *            when the lock is released.
+	 * @return <code>true</code> if the request was accepted, <code>false</code>
+	 *         else.
+	 */
+	private boolean leaveRole(RolePlayer player, Class<? extends Role> role,
+			List<RolePlayingNotification> notifications) {
+		assert(this.internalStructureLock.isWriteLockedByCurrentThread());
+		RoleDescriptor roleDescriptor = this.playersPerRole.get(role);
+
+		if (roleDescriptor != null) {
+			AgentAddress adr = player.getAddress();
+			assert (adr != null);
+			Role roleToRemove = roleDescriptor.getLocalRole(adr);
+			if (roleToRemove != null) {
+				ConditionFailure failedCondition = verifiesLeaveConditions(
+						player, roleToRemove);
+				if (failedCondition == null) {
 
-						if (!roleDescriptor.unregisterAddress(adr)) {
-							return false;
-						}
-						
-						GroupAddress myAdr = getAddress(); 
-						
-						ChannelInteractable ci = (roleToRemove instanceof ChannelInteractable)
-									? (ChannelInteractable)roleToRemove : null;
-	
-						RolePlayingEvent event = new RolePlayingEvent(roleAddress, toGroup(true), ci);
+					RoleAddress roleAddress = roleToRemove.getAddress();
+					roleAddress.unbind();
 
-						// Notify player about role releasing to avoid role
-						// scheduling
-						player.roleReleasing(roleToRemove);
-	
-						if (roleDescriptor.isEmpty()) {
-							this.playersPerRole.remove(role);
-						}
-	
-						Collection<Class<? extends Role>> playedRoles = this.rolesPerPlayer
-								.get(adr);
-						if (playedRoles != null) {
-							playedRoles.remove(role);
-							if (playedRoles.isEmpty()) {
-								this.rolesPerPlayer.remove(adr);
-							}
-						}
-	
-						Status status = roleToRemove.proceedPrivateDestruction();
-	
-						if (status!=null && status.isLoggable()) {
-							status.logOn(player.getLogger());
-						}
-	
-						if (!this.isPersistent && this.playersPerRole.isEmpty()) {
-							getOrganization().getCRIOContext().getGroupRepository()
-									.removeGroup(myAdr);
-						}
-						
-						// Notify player about role releasing
-						player.fireLeaveRole(event);
-
-						// Notifies the other members of the group that a role was released
-						for(RoleDescriptor rDesc : this.playersPerRole.values()) {
-							for(Role playedRole : rDesc.getLocalRoles()) {
-								RolePlayer playerInstance = playedRole.getPlayerInstance();
-								if (!adr.equals(playerInstance.getAddress())) {
-									playerInstance.fireLeaveRole(event);
-								}
-							}
-						}
-						
-						// Notifies the listeners on the group
-						fireLeaveRole(new RolePlayingEvent(roleAddress, toGroup(false), ci));
-
-						if (isDistributed()) {
-							DistantCRIOContextHandler distantKernel = getDistantCRIOContextHandler();
-							if (distantKernel!=null)
-								distantKernel.informLocalRoleReleased(
-									this.address, role, player.getAddress());
+					if (!roleDescriptor.unregisterAddress(adr)) {
+						return false;
+					}
+					
+					GroupAddress myAdr = getAddress(); 
+					
+					ChannelInteractable ci = (roleToRemove instanceof ChannelInteractable)
+								? (ChannelInteractable)roleToRemove : null;
+
+					RolePlayingEvent event = new RolePlayingEvent(roleAddress, toGroup(true), ci);
+
+					// Notify player about role releasing to avoid role
+					// scheduling
+					player.roleReleasing(roleToRemove);
+
+					if (roleDescriptor.isEmpty()) {
+						this.playersPerRole.remove(role);
+					}
+
+					Collection<Class<? extends Role>> playedRoles = this.rolesPerPlayer
+							.get(adr);
+					if (playedRoles != null) {
+						playedRoles.remove(role);
+						if (playedRoles.isEmpty()) {
+							this.rolesPerPlayer.remove(adr);
+							this.localMembers.remove(adr);
 						}
-	
-						return status==null || status.isSuccess();
 					}
-					player.getLogger().severe(
-							Locale.getString(
-									KernelScopeGroup.class,
-									"INVALID_LEAVE_CONDITIONS", //$NON-NLS-1$
-									player.getAddress().toString(),
-									role.toString(), failedCondition.toString()));
-				} else {
-					player.getLogger()
-							.warning(
-									Locale.getString(
-											KernelScopeGroup.class,
-											"ROLE_ALREADY_LEAVED", //$NON-NLS-1$
-											player.getAddress().toString(),
-											role.toString()));
+					getOrganization().getCRIOContext().getPlayerGroupIndex()
+							.remove(adr, myAdr, role);
+
+					Status status = roleToRemove.proceedPrivateDestruction();
+
+					if (status!=null && status.isLoggable()) {
+						status.logOn(player.getLogger());
+					}
+
+					if (!this.isPersistent && this.playersPerRole.isEmpty()) {
+						getOrganization().getCRIOContext().getGroupRepository()
+								.removeGroup(myAdr);
+					}
+					
+					// Notify the player, the other members of the group,
+					// and the listeners on the group about role releasing
+					notifications.add(new RolePlayingNotification(false,
+							player, role, event,
+							new RolePlayingEvent(roleAddress, toGroup(false), ci)));
+
+					return status==null || status.isSuccess();
 				}
+				player.getLogger().severe(
+						Locale.getString(
+								KernelScopeGroup.class,
+								"INVALID_LEAVE_CONDITIONS", //$NON-NLS-1$
+								player.getAddress().toString(),
+								role.toString(), failedCondition.toString()));
+			} else {
+				player.getLogger()
+						.warning(
+								Locale.getString(
+										KernelScopeGroup.class,
+										"ROLE_ALREADY_LEAVED", //$NON-NLS-1$
+										player.getAddress().toString(),
+										role.toString()));
 			}
-	
-			return false;
-		}
-		finally {
-			this.internalStructureLock.unlock();
 		}
+
+		return false;
 	}
-	
+
 	/** Replies the membership.
 	 * 
 	 * @return the membership.
@@ -505,18 +536,35 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 		}
 
 		// Test the obtain conditions from the group
+		cf = verifiesGroupObtainConditions(player, role.getClass());
+		if (cf!=null) return cf;
+
+		// Test the obtain conditions from the role itself
+		return role.getObtainFailure(player);
+	}
+
+	/**
+	 * Verifies if the obtain contraints of the group for the specified role
+	 * are respected by the specified entity.
+	 * 
+	 * @param player
+	 *            - entity requesting the role
+	 * @param roleType
+	 *            - type of the reqeuested role
+	 * @return <code>null</code> if all conditions are matching, otherwise the
+	 *         first failed condition.
+	 */
+	private ConditionFailure verifiesGroupObtainConditions(RolePlayer player, Class<? extends Role> roleType) {
+		ConditionFailure cf;
 		Collection<GroupCondition> conditions = getObtainConditions();
 		if (!conditions.isEmpty()) {
 			Group grp = toGroup(false);
-			Class<? extends Role> roleType = role.getClass();
 			for (GroupCondition c : conditions) {
 				cf = c.evaluateFailureOnGroup(player, roleType, grp);
 				if (cf!=null) return cf;
 			}
 		}
-
-		// Test the obtain conditions from the role itself
-		return role.getObtainFailure(player);
+		return null;
 	}
 
 	/**
@@ -575,129 +623,150 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 			Object... initObjects) {
 		assert (player != null);
 		assert (role != null);
-		this.internalStructureLock.lock();
+
+		// Check if role is defined in organization
+		Organization organization = getOrganization();
+		assert (organization != null);
+		if (!organization.contains(role)) {
+			player.getLogger().warning(
+					Locale.getString(KernelScopeGroup.class, "ROLE_NOT_DEFINED", //$NON-NLS-1$
+							role.getCanonicalName(), organization.getClass()
+									.getCanonicalName()));
+			return null;
+		}
+
+		// The role is created and initialized outside the lock
+		// because these stages are running the code of the role.
+		Role roleToTake = null;
 		try {
-			// Check if role is defined in organization
-			Organization organization = getOrganization();
-			assert (organization != null);
-			if (!organization.contains(role)) {
-				player.getLogger().warning(
-						Locale.getString(KernelScopeGroup.class, "ROLE_NOT_DEFINED", //$NON-NLS-1$
-								role.getCanonicalName(), organization.getClass()
-										.getCanonicalName()));
-				return null;
+			roleToTake = AccessController.doPrivileged(new RoleInstanciator(role,
+					factory), accessContext);
+		}
+		catch(AssertionError ae) {
+			throw ae;
+		}
+		catch (PrivilegedActionException e) {
+			Throwable t = e;
+			while (t.getCause() != null) {
+				t = t.getCause();
 			}
-	
-			boolean assigned = false;
-			Role roleToTake = null;
-			GroupAddress myAdr = getAddress();
-			AgentAddress adr = player.getAddress();			
-	
-			try {
-				roleToTake = AccessController.doPrivileged(new RoleInstanciator(role,
-						factory), accessContext);
+			player.getLogger().log(
+					Level.SEVERE, t.getLocalizedMessage(),
+					t);
+		}
+
+		if (roleToTake == null) {
+			return null;
+		}
+		
+		ConditionFailure failedCondition;
+		this.internalStructureLock.readLock().lock();
+		try {
+			failedCondition = verifiesObtainConditions(player, roleToTake);
+		}
+		finally {
+			this.internalStructureLock.readLock().unlock();
+		}
+		if (failedCondition != null) {
+			logObtainFailure(player, role, failedCondition);
+			return null;
+		}
+
+		Status s = roleToTake.proceedPrivateInitialization(
+				organization.getCRIOContext(), this, player,
+				initObjects);
+		if (s!=null) {
+			if (s.isFailure()) {
+				throw new RoleNotInitializedException(s);
 			}
-			catch(AssertionError ae) {
-				throw ae;
+			else if (s.isLoggable()) {
+				s.logOn(roleToTake.getLogger());
 			}
-			catch (PrivilegedActionException e) {
-				Throwable t = e;
-				while (t.getCause() != null) {
-					t = t.getCause();
-				}
-				player.getLogger().log(
-						Level.SEVERE, t.getLocalizedMessage(),
-						t);
+		}
+		
+		boolean assigned = false;
+		RolePlayingNotification notification = null;
+		this.internalStructureLock.writeLock().lock();
+		try {
+			GroupAddress myAdr = getAddress();
+			AgentAddress adr = player.getAddress();
+			RoleDescriptor roleDescriptor = getRoleDescriptor(role);
+
+			// The members of the group may have changed
+			// since the first verification of the conditions.
+			failedCondition = verifiesGroupObtainConditions(player, role);
+			if (failedCondition != null) {
+				logObtainFailure(player, role, failedCondition);
 			}
-	
-			if (roleToTake != null) {
-				ConditionFailure failedCondition = verifiesObtainConditions(player,
-						roleToTake);
-				if (failedCondition == null) {
-	
-					Status s = roleToTake.proceedPrivateInitialization(
-							organization.getCRIOContext(), this, player,
-							initObjects);
-					if (s!=null) {
-						if (s.isFailure()) {
-							throw new RoleNotInitializedException(s);
-						}
-						else if (s.isLoggable()) {
-							s.logOn(roleToTake.getLogger());
-						}
+			else if (roleDescriptor.containsLocalPlayer(adr)) {
+				player.getLogger().warning(
+						Locale.getString(KernelScopeGroup.class,
+								"INVALID_DOUBLE_ROLE_TAKING", //$NON-NLS-1$
+								role,
+								myAdr,
+								adr));
+			} else {
+				assigned = roleDescriptor.playLocalRole(adr, roleToTake);
+				if (assigned) {
+					Collection<Class<? extends Role>> playedRoles = this.rolesPerPlayer
+							.get(adr);
+					if (playedRoles == null) {
+						playedRoles = new TreeSet<Class<? extends Role>>(
+								GenericComparator.SINGLETON);
+						this.rolesPerPlayer.put(adr, playedRoles);
+						this.localMembers.put(adr, player);
 					}
-	
-					RoleDescriptor roleDescriptor = getRoleDescriptor(role);
-	
-					if (roleDescriptor.containsLocalPlayer(adr)) {
-						player.getLogger().warning(
-								Locale.getString(KernelScopeGroup.class,
-										"INVALID_DOUBLE_ROLE_TAKING", //$NON-NLS-1$
-										role,
-										myAdr,
-										adr));
-					} else {
-						assigned = roleDescriptor.playLocalRole(adr, roleToTake);
-						if (assigned) {
-							Collection<Class<? extends Role>> playedRoles = this.rolesPerPlayer
-									.get(adr);
-							if (playedRoles == null) {
-								playedRoles = new TreeSet<Class<? extends Role>>(
-										GenericComparator.SINGLETON);
-								this.rolesPerPlayer.put(adr, playedRoles);
-							}
-							playedRoles.add(role);
-							
-							ChannelInteractable ci = (roleToTake instanceof ChannelInteractable)
-									? (ChannelInteractable)roleToTake : null;
-
-							RolePlayingEvent event = new RolePlayingEvent(roleToTake.getAddress(), toGroup(true), ci);
-							
-							// Notify player about role taking
-							player.roleTaken(roleToTake, event);
-
-							// Notifies the other members of the group that a role was taken
-							RolePlayer playerInstance;
-							for(RoleDescriptor rDesc : this.playersPerRole.values()) {
-								for(Role playedRole : rDesc.getLocalRoles()) {
-									playerInstance = playedRole.getPlayerInstance();
-									assert(playerInstance!=null);
-									if (!adr.equals(playerInstance.getAddress()))
-										playerInstance.firePlayRole(event);
-								}
-							}
+					playedRoles.add(role);
+					organization.getCRIOContext().getPlayerGroupIndex()
+							.add(adr, myAdr, role);
+					
+					ChannelInteractable ci = (roleToTake instanceof ChannelInteractable)
+							? (ChannelInteractable)roleToTake : null;
 
-							// Notifies the listeners on the group
-							firePlayRole(new RolePlayingEvent(roleToTake.getAddress(), toGroup(false), ci));
-						}
-					}
-	
-				} else {
-					player.getLogger().warning(
-							Locale.getString(
-									KernelScopeGroup.class,
-									"INVALID_OBTAIN_CONDITIONS", //$NON-NLS-1$
-									player.getAddress().toString(),
-									role.toString(), failedCondition.toString()));
+					RolePlayingEvent event = new RolePlayingEvent(roleToTake.getAddress(), toGroup(true), ci);
+					
+					// Notify player about role taking
+					player.roleTaken(roleToTake);
+
+					// Notify the player, the other members of the group,
+					// and the listeners on the group about role taking
+					notification = new RolePlayingNotification(true,
+							player, role, event,
+							new RolePlayingEvent(roleToTake.getAddress(), toGroup(false), ci));
 				}
 			}
-	
-			if (assigned && isDistributed()) {
-				DistantCRIOContextHandler distantKernel = getDistantCRIOContextHandler();
-				if (distantKernel!=null)
-					distantKernel.informLocalRoleTaken(myAdr,
-						role, adr);
-			}
-	
-			if (assigned) {
-				assert(roleToTake!=null);
-				return roleToTake.getAddress();
+			
+			if (!assigned && roleDescriptor.isEmpty()) {
+				this.playersPerRole.remove(role);
 			}
-			return null;
 		}
 		finally {
-			this.internalStructureLock.unlock();
+			this.internalStructureLock.writeLock().unlock();
+			// The notifications are fired outside the lock
+			if (notification!=null) {
+				notification.fire();
+			}
+		}
+
+		if (assigned) {
+			return roleToTake.getAddress();
 		}
+		
+		// The initialized role is not played
+		s = roleToTake.proceedPrivateDestruction();
+		if (s!=null && s.isLoggable()) {
+			s.logOn(player.getLogger());
+		}
+		return null;
+	}
+	
+	private static void logObtainFailure(RolePlayer player, Class<? extends Role> role, ConditionFailure failedCondition) {
+		player.getLogger().warning(
+				Locale.getString(
+						KernelScopeGroup.class,
+						"INVALID_OBTAIN_CONDITIONS", //$NON-NLS-1$
+						player.getAddress().toString(),
+						role.toString(), failedCondition.toString()));
 	}
 
 	/**
@@ -709,7 +778,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 	 * @return
 	 */
 	private RoleDescriptor getRoleDescriptor(Class<? extends Role> role) {
-		this.internalStructureLock.lock();
+		this.internalStructureLock.writeLock().lock();
 		try {
 			RoleDescriptor roleDescriptor;
 			roleDescriptor = this.playersPerRole.get(role);
@@ -720,7 +789,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 			return roleDescriptor;
 		}
 		finally {
-			this.internalStructureLock.unlock();
+			this.internalStructureLock.writeLock().unlock();
 		}
 	}
 
@@ -756,7 +825,8 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 	 *            indicates if the message sender may also receive the message.
 	 */
 	public void broadcastMessage(Message message, boolean includeSender) {
-		this.internalStructureLock.lock();
+		List<MessageRejection> rejections = null;
+		this.internalStructureLock.readLock().lock();
 		try {
 			assert (message != null);
 			assert (message.getSender() instanceof RoleAddress);
@@ -792,14 +862,14 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 					// local broadcast
 					if (includeSender) {
 						for (Role r : roleDescriptor.getLocalRoles()) {
-							r.getMailbox().add(message);
+							rejections = deliverMessage(r, senderAddress, message, rejections);
 						}
 					}
 					else {
 						for (Role r : roleDescriptor.getLocalRoles()) {
 							if ((!senderAddress.getPlayer().equals(r.getPlayer()))
 								|| (!senderAddress.getRole().equals(r.getClass()))) {
-								r.getMailbox().add(message);
+								rejections = deliverMessage(r, senderAddress, message, rejections);
 							}
 						}
 					}
@@ -828,7 +898,9 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 			}
 		}
 		finally {
-			this.internalStructureLock.unlock();
+			this.internalStructureLock.readLock().unlock();
+			// The rejection signals are fired outside the lock
+			fireRejections(rejections);
 		}
 	}
 
@@ -843,7 +915,8 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 	 *         was found, <code>null</code> else.
 	 */
 	public RoleAddress sendMessage(Message message, boolean includeSender) {
-		this.internalStructureLock.lock();
+		List<MessageRejection> rejections = null;
+		this.internalStructureLock.readLock().lock();
 		try {
 			assert (message != null);
 			assert (message.getSender() instanceof RoleAddress);
@@ -903,14 +976,72 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 				//
 				// MESSAGE IS ENQUEUED
 				//
-				receivingRole.getMailbox().add(message);
+				rejections = deliverMessage(receivingRole, senderAddress, message, rejections);
 				return receivingRole.getAddress();
 			}
 
 			throw new ReceiverNotFoundException(message);
 		}
 		finally {
-			this.internalStructureLock.unlock();
+			this.internalStructureLock.readLock().unlock();
+			// The rejection signal is fired outside the lock
+			fireRejections(rejections);
+		}
+	}
+
+	/**
+	 * Put the given message in the mailbox of the given role.
+	 * <p>
+	 * If the message is rejected by the mailbox of the receiver,
+	 * a {@link MessageRejectedSignal} must be fired in the context of the
+	 * local sender role. This signal is added to the replied list, and
+	 * must be fired with {@link #fireRejections(List)} when the lock
+	 * is released because the signal listeners may change the group.
+	 * <p>
+	 * This function must be invoked when the internal structure lock is owned.
+	 * 
+	 * @param receiver is the role which is receiving the message.
+	 * @param senderAddress is the address of the sender of the message.
+	 * @param message is the message to deliver.
+	 * @param rejections is the list of the rejections to fill, or <code>null</code>.
+	 * @return the list of the rejections, or <code>null</code> if there is none.
+	 * @see MailboxOverflowPolicy#REJECT
+	 */
+	private List<MessageRejection> deliverMessage(Role receiver, RoleAddress senderAddress, Message message,
+			List<MessageRejection> rejections) {
+		Mailbox mailbox = receiver.getMailbox();
+		if (mailbox.add(message)) return rejections;
+		if (mailbox instanceof BoundedMailbox
+			&& ((BoundedMailbox)mailbox).getOverflowPolicy()==MailboxOverflowPolicy.REJECT) {
+			// Notify the emitter about the full mailbox of the receiver
+			Role sender = senderAddress.getRoleObject();
+			if (sender==null || sender.isReleased()) {
+				RoleDescriptor senderDescriptor = this.playersPerRole.get(senderAddress.getRole());
+				sender = (senderDescriptor==null) ? null
+						: senderDescriptor.getLocalRole(senderAddress.getPlayer());
+			}
+			if (sender!=null) {
+				List<MessageRejection> list = rejections;
+				if (list==null) list = new ArrayList<MessageRejection>(1);
+				list.add(new MessageRejection(sender, new MessageRejectedSignal(receiver.getAddress(), message)));
+				return list;
+			}
+		}
+		return rejections;
+	}
+	
+	/**
+	 * Fire the signals about the rejected messages.
+	 * <p>
+	 * This function must be invoked when the internal structure lock is not owned.
+	 * 
+	 * @param rejections are the rejections to notify, or <code>null</code>.
+	 */
+	private static void fireRejections(List<MessageRejection> rejections) {
+		if (rejections!=null) {
+			for(MessageRejection rejection : rejections) {
+				rejection.sender.fireSignal(rejection.signal);
+			}
 		}
 	}
 
@@ -956,7 +1087,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 	 * @since 0.5
 	 */
 	public RoleAddress getRoleAddress(Class<? extends Role> role, AgentAddress player) {
-		this.internalStructureLock.lock();
+		this.internalStructureLock.readLock().lock();
 		try {
 			RoleDescriptor roleDescriptor = this.playersPerRole.get(role);
 			if (roleDescriptor != null) {
@@ -968,7 +1099,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 			return null;
 		}
 		finally {
-			this.internalStructureLock.unlock();
+			this.internalStructureLock.readLock().unlock();
 		}
 	}
 
@@ -980,7 +1111,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 	 * @since 0.5
 	 */
 	public SizedIterator<RoleAddress> getRoleAddresses(Class<? extends Role> role) {
-		this.internalStructureLock.lock();
+		this.internalStructureLock.readLock().lock();
 		try {
 			RoleDescriptor roleDescriptor = this.playersPerRole.get(role);
 			if (roleDescriptor != null) {
@@ -989,7 +1120,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 			return EmptyIterator.singleton();
 		}
 		finally {
-			this.internalStructureLock.unlock();
+			this.internalStructureLock.readLock().unlock();
 		}
 	}
 
@@ -1000,7 +1131,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 	 * @since 0.5
 	 */
 	public SizedIterator<RoleAddress> getRoleAddresses() {
-		this.internalStructureLock.lock();
+		this.internalStructureLock.readLock().lock();
 		try {
 			MultiSizedIterator<RoleAddress> iterators = new MultiSizedIterator<RoleAddress>();
 			for(RoleDescriptor desc : this.playersPerRole.values()) {
@@ -1009,7 +1140,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 			return iterators;
 		}
 		finally {
-			this.internalStructureLock.unlock();
+			this.internalStructureLock.readLock().unlock();
 		}
 	}
 
@@ -1023,7 +1154,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 	 *         role.
 	 */
 	public SizedIterator<AgentAddress> getRolePlayers(Class<? extends Role> role) {
-		this.internalStructureLock.lock();
+		this.internalStructureLock.readLock().lock();
 		try {
 			RoleDescriptor roleDescriptor = this.playersPerRole.get(role);
 			if (roleDescriptor != null) {
@@ -1032,7 +1163,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 			return EmptyIterator.singleton();
 		}
 		finally {
-			this.internalStructureLock.unlock();
+			this.internalStructureLock.readLock().unlock();
 		}
 	}
 
@@ -1044,7 +1175,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 	 * @since 0.5
 	 */
 	public int getPlayerCount(Class<? extends Role> role) {
-		this.internalStructureLock.lock();
+		this.internalStructureLock.readLock().lock();
 		try {
 			RoleDescriptor roleDescriptor = this.playersPerRole.get(role);
 			if (roleDescriptor != null) {
@@ -1053,7 +1184,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 			return 0;
 		}
 		finally {
-			this.internalStructureLock.unlock();
+			this.internalStructureLock.readLock().unlock();
 		}
 	}
 
@@ -1064,12 +1195,12 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 	 * @since 0.5
 	 */
 	public int getPlayerCount() {
-		this.internalStructureLock.lock();
+		this.internalStructureLock.readLock().lock();
 		try {
 			return this.rolesPerPlayer.size();
 		}
 		finally {
-			this.internalStructureLock.unlock();
+			this.internalStructureLock.readLock().unlock();
 		}
 	}
 
@@ -1084,7 +1215,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 	 */
 	public DirectAccessCollection<AgentAddress> getRolePlayerCollection(
 			Class<? extends Role> role) {
-		this.internalStructureLock.lock();
+		this.internalStructureLock.readLock().lock();
 		try {
 			RoleDescriptor roleDescriptor = this.playersPerRole.get(role);
 			if (roleDescriptor != null) {
@@ -1093,7 +1224,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 			return UnmodifiableDirectAccessCollection.empty();
 		}
 		finally {
-			this.internalStructureLock.unlock();
+			this.internalStructureLock.readLock().unlock();
 		}
 	}
 	
@@ -1109,7 +1240,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 	 * @since 0.5
 	 */
 	public AgentAddress selectRolePlayer(Class<? extends Role> role, AgentAddress exceptFor, MessageReceiverSelectionPolicy policy) {
-		this.internalStructureLock.lock();
+		this.internalStructureLock.readLock().lock();
 		try {
 			RoleDescriptor roleDescriptor = this.playersPerRole.get(role);
 			if (roleDescriptor != null) {
@@ -1118,7 +1249,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 			return null;
 		}
 		finally {
-			this.internalStructureLock.unlock();
+			this.internalStructureLock.readLock().unlock();
 		}
 	}
 
@@ -1128,13 +1259,13 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 	 * @return the played roles.
 	 */
 	public SizedIterator<Class<? extends Role>> getPlayedRoles() {
-		this.internalStructureLock.lock();
+		this.internalStructureLock.readLock().lock();
 		try {
 			return new UnmodifiableMapKeySizedIterator<Class<? extends Role>>(
 					this.playersPerRole);
 		}
 		finally {
-			this.internalStructureLock.unlock();
+			this.internalStructureLock.readLock().unlock();
 		}
 	}
 
@@ -1145,12 +1276,12 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 	 * @return the played roles.
 	 */
 	Collection<Class<? extends Role>> getPlayedRolesAsCollection() {
-		this.internalStructureLock.lock();
+		this.internalStructureLock.readLock().lock();
 		try {
 			return Collections.unmodifiableCollection(this.playersPerRole.keySet());
 		}
 		finally {
-			this.internalStructureLock.unlock();
+			this.internalStructureLock.readLock().unlock();
 		}
 	}
 
@@ -1161,7 +1292,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 	 * @return the played roles.
 	 */
 	SizedIterator<Role> getRoles(AgentAddress player) {
-		this.internalStructureLock.lock();
+		this.internalStructureLock.readLock().lock();
 		try {
 			Collection<Class<? extends Role>> roles = this.rolesPerPlayer.get(player);
 			if (roles!=null) {
@@ -1170,7 +1301,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 			return EmptyIterator.singleton();
 		}
 		finally {
-			this.internalStructureLock.unlock();
+			this.internalStructureLock.readLock().unlock();
 		}
 	}
 
@@ -1193,7 +1324,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 	 * @return the played roles.
 	 */
 	public Collection<Class<? extends Role>> getPlayedRoles(AgentAddress player) {
-		this.internalStructureLock.lock();
+		this.internalStructureLock.readLock().lock();
 		try {
 			Collection<Class<? extends Role>> collection = this.rolesPerPlayer
 					.get(player);
@@ -1202,7 +1333,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 			return Collections.unmodifiableCollection(collection);
 		}
 		finally {
-			this.internalStructureLock.unlock();
+			this.internalStructureLock.readLock().unlock();
 		}
 	}
 
@@ -1221,7 +1352,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 	public <R extends Role> R getPlayedRole(AgentAddress player, Class<R> role) {
 		assert (role != null);
 		assert (player != null);
-		this.internalStructureLock.lock();
+		this.internalStructureLock.readLock().lock();
 		try {
 			RoleDescriptor descriptor = this.playersPerRole.get(role);
 			if (descriptor != null) {
@@ -1232,7 +1363,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 			return null;
 		}
 		finally {
-			this.internalStructureLock.unlock();
+			this.internalStructureLock.readLock().unlock();
 		}
 	}
 
@@ -1246,12 +1377,12 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 	 */
 	public boolean isPlayedRole(Class<? extends Role> role) {
 		assert (role != null);
-		this.internalStructureLock.lock();
+		this.internalStructureLock.readLock().lock();
 		try {
 			return this.playersPerRole.containsKey(role);
 		}
 		finally {
-			this.internalStructureLock.unlock();
+			this.internalStructureLock.readLock().unlock();
 		}
 	}
 
@@ -1267,14 +1398,14 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 	 */
 	public boolean isPlayedRole(AgentAddress player, Class<? extends Role> role) {
 		assert (role != null);
-		this.internalStructureLock.lock();
+		this.internalStructureLock.readLock().lock();
 		try {
 			Collection<Class<? extends Role>> roles = this.rolesPerPlayer
 					.get(player);
 			return roles != null && roles.contains(role);
 		}
 		finally {
-			this.internalStructureLock.unlock();
+			this.internalStructureLock.readLock().unlock();
 		}
 	}
 
@@ -1288,12 +1419,12 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 	 */
 	public boolean isPlayedRole(AgentAddress player) {
 		assert (player != null);
-		this.internalStructureLock.lock();
+		this.internalStructureLock.readLock().lock();
 		try {
 			return this.rolesPerPlayer.containsKey(player);
 		}
 		finally {
-			this.internalStructureLock.unlock();
+			this.internalStructureLock.readLock().unlock();
 		}
 	}
 	
@@ -1304,13 +1435,13 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 	 * @since 0.5
 	 */
 	public Object getPublicUserData(String key) {
-		this.internalStructureLock.lock();
+		this.internalStructureLock.readLock().lock();
 		try {
 			if (this.publicUserData==null) return null;
 			return this.publicUserData.get(key);
 		}
 		finally {
-			this.internalStructureLock.unlock();
+			this.internalStructureLock.readLock().unlock();
 		}
 	}
 
@@ -1322,7 +1453,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 	 * @since 0.5
 	 */
 	public Object setPublicUserData(String key, Object userData) {
-		this.internalStructureLock.lock();
+		this.internalStructureLock.writeLock().lock();
 		try {
 			if (this.publicUserData==null) {
 				this.publicUserData = new TreeMap<String,Object>();
@@ -1330,7 +1461,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 			return this.publicUserData.put(key, userData);
 		}
 		finally {
-			this.internalStructureLock.unlock();
+			this.internalStructureLock.writeLock().unlock();
 		}
 	}
 
@@ -1340,12 +1471,12 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 	 * @since 0.5
 	 */
 	public Object getPrivateUserData() {
-		this.internalStructureLock.lock();
+		this.internalStructureLock.readLock().lock();
 		try {
 			return this.privateUserData;
 		}
 		finally {
-			this.internalStructureLock.unlock();
+			this.internalStructureLock.readLock().unlock();
 		}
 	}
 
@@ -1356,14 +1487,14 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 	 * @since 0.5
 	 */
 	public Object setPrivateUserData(Object userData) {
-		this.internalStructureLock.lock();
+		this.internalStructureLock.writeLock().lock();
 		try {
 			Object old = this.privateUserData;
 			this.privateUserData = userData;
 			return old;
 		}
 		finally {
-			this.internalStructureLock.unlock();
+			this.internalStructureLock.writeLock().unlock();
 		}
 	}
 
@@ -1396,7 +1527,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 		 * @return the list of local roles.
 		 */
 		public Collection<Role> getLocalRoles() {
-			KernelScopeGroup.this.internalStructureLock.lock();
+			KernelScopeGroup.this.internalStructureLock.readLock().lock();
 			try {
 				if (this.localEntities == null)
 					return Collections.emptyList();
@@ -1404,7 +1535,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 						.values());
 			}
 			finally {
-				KernelScopeGroup.this.internalStructureLock.unlock();
+				KernelScopeGroup.this.internalStructureLock.readLock().unlock();
 			}
 		}
 		
@@ -1414,7 +1545,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 		 * @return the addresses.
 		 */
 		public SizedIterator<AgentAddress> getAddresses() {
-			KernelScopeGroup.this.internalStructureLock.lock();
+			KernelScopeGroup.this.internalStructureLock.readLock().lock();
 			try {
 				boolean noLocal = (this.localEntities == null || this.localEntities
 						.isEmpty());
@@ -1432,7 +1563,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 						this.localEntities.keySet(), this.remoteEntities);
 			}
 			finally {
-				KernelScopeGroup.this.internalStructureLock.unlock();
+				KernelScopeGroup.this.internalStructureLock.readLock().unlock();
 			}
 		}
 
@@ -1443,12 +1574,12 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 		 * @since 0.5
 		 */
 		public SizedIterator<RoleAddress> getRoleAddresses() {
-			KernelScopeGroup.this.internalStructureLock.lock();
+			KernelScopeGroup.this.internalStructureLock.readLock().lock();
 			try {
 				return new RoleAddressIterator(this.localEntities.values());
 			}
 			finally {
-				KernelScopeGroup.this.internalStructureLock.unlock();
+				KernelScopeGroup.this.internalStructureLock.readLock().unlock();
 			}
 		}
 
@@ -1458,7 +1589,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 		 * @return the addresses.
 		 */
 		public DirectAccessCollection<AgentAddress> getAddressCollection() {
-			KernelScopeGroup.this.internalStructureLock.lock();
+			KernelScopeGroup.this.internalStructureLock.readLock().lock();
 			try {
 				boolean noLocal = (this.localEntities == null || this.localEntities
 						.isEmpty());
@@ -1476,7 +1607,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 						this.localEntities.keySet(), this.remoteEntities);
 			}
 			finally {
-				KernelScopeGroup.this.internalStructureLock.unlock();
+				KernelScopeGroup.this.internalStructureLock.readLock().unlock();
 			}
 		}
 
@@ -1492,7 +1623,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 		 * @since 0.5
 		 */
 		public AgentAddress selectRolePlayer(Class<? extends Role> role, AgentAddress exceptFor, MessageReceiverSelectionPolicy policy) {
-			KernelScopeGroup.this.internalStructureLock.lock();
+			KernelScopeGroup.this.internalStructureLock.readLock().lock();
 			try {
 				return policy.selectEntity(
 						exceptFor,
@@ -1500,7 +1631,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 								this.localEntities.keySet(), this.remoteEntities));	
 			}
 			finally {
-				KernelScopeGroup.this.internalStructureLock.unlock();
+				KernelScopeGroup.this.internalStructureLock.readLock().unlock();
 			}
 		}
 
@@ -1513,14 +1644,14 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 		 * the given player is not playing role locally.
 		 */
 		public Role getLocalRole(AgentAddress entity) {
-			KernelScopeGroup.this.internalStructureLock.lock();
+			KernelScopeGroup.this.internalStructureLock.readLock().lock();
 			try {
 				if (this.localEntities == null)
 					return null;
 				return this.localEntities.get(entity);
 			}
 			finally {
-				KernelScopeGroup.this.internalStructureLock.unlock();
+				KernelScopeGroup.this.internalStructureLock.readLock().unlock();
 			}
 		}
 
@@ -1531,14 +1662,14 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 		 *         otherwise <code>false</code>
 		 */
 		public boolean isEmpty() {
-			KernelScopeGroup.this.internalStructureLock.lock();
+			KernelScopeGroup.this.internalStructureLock.readLock().lock();
 			try {
 				return (this.localEntities == null || this.localEntities.isEmpty())
 						&& (this.remoteEntities == null || this.remoteEntities
 								.isEmpty());
 			}
 			finally {
-				KernelScopeGroup.this.internalStructureLock.unlock();
+				KernelScopeGroup.this.internalStructureLock.readLock().unlock();
 			}
 		}
 
@@ -1553,13 +1684,13 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 		 */
 		public boolean containsLocalPlayer(AgentAddress entity) {
 			assert (entity != null);
-			KernelScopeGroup.this.internalStructureLock.lock();
+			KernelScopeGroup.this.internalStructureLock.readLock().lock();
 			try {
 				return (this.localEntities != null && this.localEntities
 						.containsKey(entity));
 			}
 			finally {
-				KernelScopeGroup.this.internalStructureLock.unlock();
+				KernelScopeGroup.this.internalStructureLock.readLock().unlock();
 			}
 		}
 
@@ -1574,7 +1705,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 		 *         otherwise <code>false</code>
 		 */
 		public boolean playLocalRole(AgentAddress entity, Role role) {
-			KernelScopeGroup.this.internalStructureLock.lock();
+			KernelScopeGroup.this.internalStructureLock.writeLock().lock();
 			try {
 				if (this.localEntities == null)
 					this.localEntities = new TreeMap<AgentAddress,Role>();
@@ -1582,7 +1713,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 				return true;
 			}
 			finally {
-				KernelScopeGroup.this.internalStructureLock.unlock();
+				KernelScopeGroup.this.internalStructureLock.writeLock().unlock();
 			}
 		}
 
@@ -1595,7 +1726,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 		 *         otherwise <code>false</code>
 		 */
 		public boolean unregisterAddress(AgentAddress entity) {
-			KernelScopeGroup.this.internalStructureLock.lock();
+			KernelScopeGroup.this.internalStructureLock.writeLock().lock();
 			try {
 				boolean removed = false;
 				if (this.localEntities != null) {
@@ -1612,12 +1743,42 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 				return removed;
 			}
 			finally {
-				KernelScopeGroup.this.internalStructureLock.unlock();
+				KernelScopeGroup.this.internalStructureLock.writeLock().unlock();
 			}
 		}
 
 	} /* class RoleDescriptor */
 
+	/**
+	 * Message rejected by the mailbox of a role.
+	 * 
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	private static class MessageRejection {
+
+		/** Role which has sent the message.
+		 */
+		public final Role sender;
+		
+		/** Signal to fire in the context of the sender.
+		 */
+		public final MessageRejectedSignal signal;
+
+		/**
+		 * @param sender is the role which has sent the message.
+		 * @param signal is the signal to fire in the context of the sender.
+		 */
+		public MessageRejection(Role sender, MessageRejectedSignal signal) {
+			this.sender = sender;
+			this.signal = signal;
+		}
+
+	} // class MessageRejection
+
 	/**
 	 * Priviligied instanciator of role.
 	 * 
@@ -1686,6 +1847,86 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 
 	} // class StatusConditionFailure
 	
+	/**
+	 * Notification about a role taken or released in the group.
+	 * It is built when the write lock on the internal structures is owned,
+	 * and fired when this lock was released.
+	 * 
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	private class RolePlayingNotification {
+
+		private final boolean isTaken;
+		private final RolePlayer player;
+		private final Class<? extends Role> role;
+		private final RolePlayingEvent memberEvent;
+		private final RolePlayingEvent groupEvent;
+		
+		/**
+		 * @param isTaken indicates if the role was taken or released.
+		 * @param player is the player of the role.
+		 * @param role is the taken or released role.
+		 * @param memberEvent is the event for the members of the group.
+		 * @param groupEvent is the event for the listeners on the group.
+		 */
+		public RolePlayingNotification(boolean isTaken, RolePlayer player,
+				Class<? extends Role> role, RolePlayingEvent memberEvent,
+				RolePlayingEvent groupEvent) {
+			this.isTaken = isTaken;
+			this.player = player;
+			this.role = role;
+			this.memberEvent = memberEvent;
+			this.groupEvent = groupEvent;
+		}
+		
+		/** Notify the player immediately, the other members
+		 * at their next synchronization, the listeners on the group, and
+		 * the distant kernels.
+		 * <p>
+		 * The other members are the local members of the group
+		 * when this function is invoked.
+		 */
+		@SuppressWarnings("synthetic-access")
+		public void fire() {
+			if (this.isTaken) {
+				this.player.firePlayRole(this.memberEvent);
+				for(RolePlayer member : KernelScopeGroup.this.localMembers.values()) {
+					if (member!=this.player && member.isMembershipNotificationEnabled()) {
+						member.postPlayRole(this.memberEvent);
+					}
+				}
+				firePlayRole(this.groupEvent);
+			}
+			else {
+				this.player.fireLeaveRole(this.memberEvent);
+				for(RolePlayer member : KernelScopeGroup.this.localMembers.values()) {
+					if (member!=this.player && member.isMembershipNotificationEnabled()) {
+						member.postLeaveRole(this.memberEvent);
+					}
+				}
+				fireLeaveRole(this.groupEvent);
+			}
+			if (isDistributed()) {
+				DistantCRIOContextHandler distantKernel = getDistantCRIOContextHandler();
+				if (distantKernel!=null) {
+					if (this.isTaken) {
+						distantKernel.informLocalRoleTaken(KernelScopeGroup.this.address,
+								this.role, this.player.getAddress());
+					}
+					else {
+						distantKernel.informLocalRoleReleased(KernelScopeGroup.this.address,
+								this.role, this.player.getAddress());
+					}
+				}
+			}
+		}
+		
+	} // class RolePlayingNotification
+	
 	/**
 	 * Private implementation of the group description.
 	 * 
@@ -1955,7 +2196,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 		
 		@SuppressWarnings("synthetic-access")
 		private void searchNext() {
-			KernelScopeGroup.this.internalStructureLock.lock();
+			KernelScopeGroup.this.internalStructureLock.readLock().lock();
 			try {
 				this.next = null;
 				while (this.next==null && this.roleTypes.hasNext()) {
@@ -1967,7 +2208,7 @@ final class KernelScopeGroup extends ConditionnedObject<RolePlayer, GroupConditi
 				}
 			}
 			finally {
-				KernelScopeGroup.this.internalStructureLock.unlock();
+				KernelScopeGroup.this.internalStructureLock.readLock().unlock();
 			}
 		}
 
@@ -0,0 +1,209 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.crio.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.janusproject.kernel.address.AgentAddress;
+import org.janusproject.kernel.util.comparator.GenericComparator;
+
+/**
+ * This index stores the groups and the roles played by each local
+ * player: it is the reverse index of the group repository.
+ * <p>
+ * The index is updated by the groups when a role is taken or
+ * released. The entry of a player is an immutable snapshot, which
+ * is replaced on each update. The queries are not blocking.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+final class PlayerGroupIndex {
+
+	private final ConcurrentMap<AgentAddress, Map<GroupAddress, Set<Class<? extends Role>>>> index =
+		new ConcurrentHashMap<AgentAddress, Map<GroupAddress, Set<Class<? extends Role>>>>();
+	
+	/**
+	 */
+	public PlayerGroupIndex() {
+		//
+	}
+	
+	/** Register a role played by a player in a group.
+	 * 
+	 * @param player is the address of the player.
+	 * @param group is the address of the group.
+	 * @param role is the played role.
+	 */
+	public void add(AgentAddress player, GroupAddress group, Class<? extends Role> role) {
+		assert(player!=null);
+		assert(group!=null);
+		assert(role!=null);
+		Map<GroupAddress, Set<Class<? extends Role>>> oldEntry, newEntry;
+		Set<Class<? extends Role>> roles;
+		for(;;) {
+			oldEntry = this.index.get(player);
+			if (oldEntry==null) {
+				roles = new TreeSet<Class<? extends Role>>(GenericComparator.SINGLETON);
+				roles.add(role);
+				newEntry = Collections.singletonMap(group, Collections.unmodifiableSet(roles));
+				if (this.index.putIfAbsent(player, newEntry)==null) return;
+			}
+			else {
+				Set<Class<? extends Role>> oldRoles = oldEntry.get(group);
+				if (oldRoles!=null && oldRoles.contains(role)) return;
+				roles = new TreeSet<Class<? extends Role>>(GenericComparator.SINGLETON);
+				if (oldRoles!=null) roles.addAll(oldRoles);
+				roles.add(role);
+				newEntry = new HashMap<GroupAddress, Set<Class<? extends Role>>>(oldEntry);
+				newEntry.put(group, Collections.unmodifiableSet(roles));
+				if (this.index.replace(player, oldEntry, Collections.unmodifiableMap(newEntry))) return;
+			}
+		}
+	}
+
+	/** Unregister a role played by a player in a group.
+	 * 
+	 * @param player is the address of the player.
+	 * @param group is the address of the group.
+	 * @param role is the released role.
+	 */
+	public void remove(AgentAddress player, GroupAddress group, Class<? extends Role> role) {
+		assert(player!=null);
+		assert(group!=null);
+		assert(role!=null);
+		Map<GroupAddress, Set<Class<? extends Role>>> oldEntry, newEntry;
+		Set<Class<? extends Role>> oldRoles, roles;
+		boolean changed;
+		do {
+			oldEntry = this.index.get(player);
+			if (oldEntry==null) return;
+			oldRoles = oldEntry.get(group);
+			if (oldRoles==null || !oldRoles.contains(role)) return;
+			newEntry = new HashMap<GroupAddress, Set<Class<? extends Role>>>(oldEntry);
+			if (oldRoles.size()==1) {
+				newEntry.remove(group);
+			}
+			else {
+				roles = new TreeSet<Class<? extends Role>>(GenericComparator.SINGLETON);
+				roles.addAll(oldRoles);
+				roles.remove(role);
+				newEntry.put(group, Collections.unmodifiableSet(roles));
+			}
+			if (newEntry.isEmpty()) {
+				changed = this.index.remove(player, oldEntry);
+			}
+			else {
+				changed = this.index.replace(player, oldEntry, Collections.unmodifiableMap(newEntry));
+			}
+		}
+		while (!changed);
+	}
+	
+	/** Remove all the entries of this index.
+	 */
+	public void clear() {
+		this.index.clear();
+	}
+
+	/** Replies the groups in which the given player is playing a role.
+	 * 
+	 * @param player is the address of the player.
+	 * @return the groups of the player.
+	 */
+	public Collection<GroupAddress> getGroups(AgentAddress player) {
+		Map<GroupAddress, Set<Class<? extends Role>>> entry = this.index.get(player);
+		if (entry==null) return Collections.emptyList();
+		return new ArrayList<GroupAddress>(entry.keySet());
+	}
+
+	/** Replies the roles played by the given player in all its groups.
+	 * A role which is played in several groups is replied several times.
+	 * 
+	 * @param player is the address of the player.
+	 * @return the roles of the player.
+	 */
+	public Collection<Class<? extends Role>> getRoles(AgentAddress player) {
+		Map<GroupAddress, Set<Class<? extends Role>>> entry = this.index.get(player);
+		if (entry==null) return Collections.emptyList();
+		List<Class<? extends Role>> roles = new ArrayList<Class<? extends Role>>();
+		for(Set<Class<? extends Role>> groupRoles : entry.values()) {
+			roles.addAll(groupRoles);
+		}
+		return roles;
+	}
+
+	/** Replies if the given player is playing the given role in any group.
+	 * 
+	 * @param player is the address of the player.
+	 * @param role is the role to search for.
+	 * @return <code>true</code> if the role is played, otherwise <code>false</code>.
+	 */
+	public boolean isPlayingRole(AgentAddress player, Class<? extends Role> role) {
+		Map<GroupAddress, Set<Class<? extends Role>>> entry = this.index.get(player);
+		if (entry!=null) {
+			for(Set<Class<? extends Role>> groupRoles : entry.values()) {
+				if (groupRoles.contains(role)) return true;
+			}
+		}
+		return false;
+	}
+
+	/** Replies if the given player is playing the given role in the given group.
+	 * 
+	 * @param player is the address of the player.
+	 * @param group is the address of the group.
+	 * @param role is the role to search for.
+	 * @return <code>true</code> if the role is played, otherwise <code>false</code>.
+	 */
+	public boolean isPlayingRole(AgentAddress player, GroupAddress group, Class<? extends Role> role) {
+		Map<GroupAddress, Set<Class<? extends Role>>> entry = this.index.get(player);
+		if (entry!=null) {
+			Set<Class<? extends Role>> groupRoles = entry.get(group);
+			return groupRoles!=null && groupRoles.contains(role);
+		}
+		return false;
+	}
+
+	/** Replies if the given player is playing a role in the given group.
+	 * 
+	 * @param player is the address of the player.
+	 * @param group is the address of the group.
+	 * @return <code>true</code> if the player is member of the group, otherwise <code>false</code>.
+	 */
+	public boolean isMemberOf(AgentAddress player, GroupAddress group) {
+		Map<GroupAddress, Set<Class<? extends Role>>> entry = this.index.get(player);
+		return entry!=null && entry.containsKey(group);
+	}
+
+}
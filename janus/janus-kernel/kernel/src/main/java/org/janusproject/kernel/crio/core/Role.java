@@ -28,7 +28,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
@@ -46,8 +49,8 @@ import org.janusproject.kernel.condition.Condition;
 import org.janusproject.kernel.condition.ConditionnedObject;
 import org.janusproject.kernel.condition.TimeCondition;
 import org.janusproject.kernel.crio.capacity.Capacity;
-import org.janusproject.kernel.crio.capacity.CapacityContainer;
 import org.janusproject.kernel.crio.capacity.CapacityContext;
+import org.janusproject.kernel.crio.capacity.CapacityFuture;
 import org.janusproject.kernel.crio.capacity.CapacityImplementation;
 import org.janusproject.kernel.crio.capacity.CapacityImplementationNotFoundException;
 import org.janusproject.kernel.crio.interaction.MailboxUtil;
@@ -68,7 +71,6 @@ import org.janusproject.kernel.message.Message;
 import org.janusproject.kernel.message.MessageException;
 import org.janusproject.kernel.message.MessageReceiverSelectionPolicy;
 import org.janusproject.kernel.schedule.Activable;
-import org.janusproject.kernel.status.MultipleStatus;
 import org.janusproject.kernel.status.Status;
 import org.janusproject.kernel.status.StatusFactory;
 import org.janusproject.kernel.time.KernelTimeManager;
@@ -151,6 +153,12 @@ public abstract class Role extends
 
 	private RepositoryGroupWrapper groupEventWrapper = null;
 	
+	/** Continuations of the capacity calls, which are run
+	 * at the beginning of the next activation.
+	 * @since 1.1
+	 */
+	private final Queue<Runnable> capacityContinuations = new ConcurrentLinkedQueue<Runnable>();
+	
 	/**
 	 * Create a role outside a group, without owner and mailbox.
 	 */
@@ -669,21 +677,64 @@ public abstract class Role extends
 
 		if (this.signalManager != null)
 			this.signalManager.sync();
+		
+		Status continuationStatus = runCapacityContinuations();
 
-		MultipleStatus ms = new MultipleStatus(live());
+		Status status = live();
+		if (continuationStatus!=null) {
+			status = StatusFactory.merge(status, continuationStatus);
+		}
 		
 		if (this.leaveMe) {
 			if (releaseRole(getClass(), getGroupAddress())) {
-				ms.addStatus(StatusFactory.ok(this));
+				status = StatusFactory.merge(status, StatusFactory.ok());
 			}
 			else {
-				ms.addStatus(StatusFactory.error(this, Locale.getString(
+				status = StatusFactory.merge(status, StatusFactory.error(this, Locale.getString(
 						Role.class, "CANNOT_RELEASE_ROLE", //$NON-NLS-1$
 						getClass().getCanonicalName(), getPlayer()
 								.toString())));
 			}
 		}
-		return ms.pack(this);
+		return (status==null) ? StatusFactory.ok() : status;
+	}
+
+	/** Run the continuations of the capacity calls. A failing
+	 * continuation does not prevent the other ones to be run.
+	 * 
+	 * @return the status of the failing continuations, or
+	 * <code>null</code> if none has failed.
+	 */
+	private Status runCapacityContinuations() {
+		Status status = null;
+		Runnable continuation;
+		while ((continuation = this.capacityContinuations.poll())!=null) {
+			try {
+				continuation.run();
+			}
+			catch(AssertionError ae) {
+				throw ae;
+			}
+			catch(Throwable e) {
+				Status error = StatusFactory.error(this, Locale.getString(
+						Role.class, "CAPACITY_CONTINUATION_ERROR", //$NON-NLS-1$
+						getAddress(), e), e);
+				status = (status==null) ? error : StatusFactory.merge(status, error);
+			}
+		}
+		return status;
+	}
+
+	/** Cancel the continuations of the capacity calls that
+	 * were not run.
+	 */
+	private void cancelCapacityContinuations() {
+		Runnable continuation;
+		while ((continuation = this.capacityContinuations.poll())!=null) {
+			if (continuation instanceof Future<?>) {
+				((Future<?>)continuation).cancel(false);
+			}
+		}
 	}
 
 	/**
@@ -722,6 +773,7 @@ public abstract class Role extends
 			this.groupEventWrapper = null;
 		}
 		this.owner = null;
+		cancelCapacityContinuations();
 		this.group = null;
 		this.address.unbind();
 		return s;
@@ -1347,17 +1399,13 @@ public abstract class Role extends
 		RolePlayer player = this.owner.get();
 		assert (player != null);
 
-		CapacityContainer capacityContainer = player.getCapacityContainer();
-		assert (capacityContainer != null);
-
-		Capacity implementation = capacityContainer
-				.selectImplementation(capacity);
-		if (implementation == null || !(implementation instanceof CapacityImplementation))
+		CapacityImplementation implementation = player.selectCapacityImplementation(capacity);
+		if (implementation == null)
 			throw new CapacityImplementationNotFoundException(capacity);
 
 		return CapacityExecutor
 				.executeImmediately(
-						capacity, (CapacityImplementation)implementation, player, this.group.get(),
+						capacity, implementation, player, this.group.get(),
 						this, parameters);
 	}
 
@@ -1382,21 +1430,67 @@ public abstract class Role extends
 		RolePlayer player = this.owner.get();
 		assert (player != null);
 
-		CapacityContainer capacityContainer = player.getCapacityContainer();
-		assert (capacityContainer != null);
+		CapacityImplementation implementation = player.selectCapacityImplementation(capacity);
+		if (implementation == null)
+			throw new CapacityImplementationNotFoundException(capacity);
 
-		Capacity implementation = capacityContainer
-				.selectImplementation(capacity);
-		if (implementation == null || !(implementation instanceof CapacityImplementation))
+		// Do not pass by the role player to preserve computation time
+		return this.crioContext
+				.get()
+				.getCapacityExecutor()
+				.submit(capacity, implementation, player, this.group.get(),
+						this, parameters);
+	}
+
+	/**
+	 * Put the given capacity inside the execution queue, and reply
+	 * the future result of the call.
+	 * <p>
+	 * The continuations registered on the replied future are run
+	 * by this role at the beginning of its next activation after
+	 * the call is done. The call is not available from the functions
+	 * taking the identifier of the call as parameter.
+	 * 
+	 * @param capacity
+	 *            is the invoked capacity.
+	 * @param parameters
+	 *            are the values to pass to the capacity implementation.
+	 * @return the future result of the call.
+	 * @CAPACITYAPI
+	 * @since 1.1
+	 */
+	protected final CapacityFuture submitCapacityCallFuture(Class<? extends Capacity> capacity,
+			Object... parameters) {
+		assert (capacity != null);
+
+		RolePlayer player = this.owner.get();
+		assert (player != null);
+
+		CapacityImplementation implementation = player.selectCapacityImplementation(capacity);
+		if (implementation == null)
 			throw new CapacityImplementationNotFoundException(capacity);
 
 		// Do not pass by the role player to preserve computation time
 		return this.crioContext
 				.get()
 				.getCapacityExecutor()
-				.submit(capacity, (CapacityImplementation)implementation, player, this.group.get(),
+				.submitFuture(capacity, implementation, player, this.group.get(),
 						this, parameters);
 	}
+	
+	/** Post a continuation of a capacity call, which will be run
+	 * at the beginning of the next activation of this role.
+	 * If the role is released, the continuation is canceled.
+	 * 
+	 * @param continuation
+	 * @since 1.1
+	 */
+	void postCapacityContinuation(Runnable continuation) {
+		this.capacityContinuations.offer(continuation);
+		if (isReleased()) {
+			cancelCapacityContinuations();
+		}
+	}
 
 	/**
 	 * Retrieves the result of the call with the specified identifier, waiting
@@ -2357,10 +2451,7 @@ public abstract class Role extends
 			GroupAddress group) {
 		assert (role != null);
 		assert (group != null);
-		GroupRepository repo = this.crioContext.get().getGroupRepository();
-		assert (repo != null);
-		KernelScopeGroup grp = repo.get(group);
-		return (grp != null) && (grp.isPlayedRole(getPlayer(), role));
+		return this.crioContext.get().getPlayerGroupIndex().isPlayingRole(getPlayer(), group, role);
 	}
 
 	/**
@@ -2407,10 +2498,7 @@ public abstract class Role extends
 	 */
 	protected boolean isMemberOf(AgentAddress player, GroupAddress group) {
 		assert (group != null);
-		GroupRepository repo = this.crioContext.get().getGroupRepository();
-		assert (repo != null);
-		KernelScopeGroup grp = repo.get(group);
-		return (grp != null) && (grp.isPlayedRole(player));
+		return this.crioContext.get().getPlayerGroupIndex().isMemberOf(player, group);
 	}
 
 	/**
@@ -26,7 +26,6 @@ import java.util.Iterator;
 import org.janusproject.kernel.schedule.AbstractActivator;
 import org.janusproject.kernel.schedule.ActivationStage;
 import org.janusproject.kernel.status.ExceptionStatus;
-import org.janusproject.kernel.status.MultipleStatus;
 import org.janusproject.kernel.status.Status;
 import org.janusproject.kernel.status.StatusFactory;
 import org.janusproject.kernel.util.directaccess.DirectAccessCollection;
@@ -68,7 +67,7 @@ extends AbstractActivator<Role> {
 	protected Status executeInit(Iterator<? extends Role> roles, Object... parameters) {
 		// Role are initialized when instanciated
 		// See Group and Role.proceedPrivateInitialization() source codes
-		return StatusFactory.ok(this);
+		return StatusFactory.ok();
 	}
 
 	/**
@@ -76,24 +75,24 @@ extends AbstractActivator<Role> {
 	 */
 	@Override
 	protected Status executeBehaviour(Iterator<? extends Role> roles) {
-		MultipleStatus ms = new MultipleStatus();
+		Status status = null;
 		Role r;
 		while (roles.hasNext()) {
 			r = roles.next();
 			try {
 				if (!r.wakeUpIfSleeping()) {
-					ms.addStatus(r.proceedPrivateBehaviour());
+					status = StatusFactory.merge(status, r.proceedPrivateBehaviour());
 				}
 			}
 			catch(AssertionError e) {
 				throw e;
 			}
 			catch(Throwable e) {
-				ms.addStatus(new ExceptionStatus(e));
+				status = StatusFactory.merge(status, new ExceptionStatus(e));
 			}
 			Thread.yield();
 		}
-		return ms.pack(this);
+		return (status==null) ? StatusFactory.ok() : status;
 	}
 
 	/**
@@ -101,21 +100,21 @@ extends AbstractActivator<Role> {
 	 */
 	@Override
 	protected Status executeDestroy(Iterator<? extends Role> roles) {
-		MultipleStatus ms = new MultipleStatus();
+		Status status = null;
 		Role r;
 		while (roles.hasNext()) {
 			r = roles.next();
 			try {
-				ms.addStatus(r.proceedPrivateDestruction());
+				status = StatusFactory.merge(status, r.proceedPrivateDestruction());
 			}
 			catch(AssertionError e) {
 				throw e;
 			}
 			catch(Throwable e) {
-				ms.addStatus(new ExceptionStatus(e));
+				status = StatusFactory.merge(status, new ExceptionStatus(e));
 			}
 		}
-		return ms.pack(this);
+		return (status==null) ? StatusFactory.ok() : status;
 	}
 
 	/**
@@ -23,7 +23,6 @@ package org.janusproject.kernel.crio.core;
 import java.lang.ref.SoftReference;
 import java.lang.reflect.Array;
 import java.security.AccessControlContext;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EventListener;
@@ -34,7 +33,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 import org.janusproject.kernel.address.AgentAddress;
-import org.janusproject.kernel.agentmemory.BlackBoardMemory;
+import org.janusproject.kernel.agentmemory.ConcurrentBlackBoardMemory;
 import org.janusproject.kernel.agentmemory.Memory;
 import org.janusproject.kernel.agentsignal.InstantSignalManager;
 import org.janusproject.kernel.agentsignal.Signal;
@@ -48,6 +47,7 @@ import org.janusproject.kernel.crio.capacity.CapacityCallException;
 import org.janusproject.kernel.crio.capacity.CapacityCaller;
 import org.janusproject.kernel.crio.capacity.CapacityContainer;
 import org.janusproject.kernel.crio.capacity.CapacityContext;
+import org.janusproject.kernel.crio.capacity.CapacityFuture;
 import org.janusproject.kernel.crio.capacity.CapacityImplementation;
 import org.janusproject.kernel.crio.capacity.CapacityImplementationNotFoundException;
 import org.janusproject.kernel.crio.capacity.TreeCapacityContainer;
@@ -93,6 +93,11 @@ public abstract class RolePlayer implements CapacityCaller, LoggerProvider {
 
 	private CapacityContainer capacities = null;
 
+	/**
+	 * Cache of the implementations selected in the capacity container.
+	 */
+	private final CapacityImplementationCache capacityImplementations = new CapacityImplementationCache();
+
 	private RoleActivator roleActivator = new RoleActivator();
 
 	private RepositoryGroupWrapper groupEventWrapper = null;
@@ -102,6 +107,16 @@ public abstract class RolePlayer implements CapacityCaller, LoggerProvider {
 	 */
 	private ListenerCollection<? extends EventListener> listeners = null;
 
+	/**
+	 * Buffered role playing events about the other members of the groups.
+	 */
+	private transient RolePlayingEventBuffer membershipEvents = null;
+
+	/**
+	 * Indicates if this player is notified about the other members of its groups.
+	 */
+	private volatile boolean membershipNotification = true;
+
 	/**
 	 * Logger for this role player.
 	 */
@@ -193,14 +208,12 @@ public abstract class RolePlayer implements CapacityCaller, LoggerProvider {
 	}
 
 	/**
-	 * Invoked when a role was leaved.
+	 * Invoked when a role was taken.
 	 * 
 	 * @param role
-	 * @param event
 	 */
-	void roleTaken(Role role, RolePlayingEvent event) {
+	void roleTaken(Role role) {
 		this.roleActivator.addRole(role);
-		firePlayRole(event);
 	}
 
 	/**
@@ -380,8 +393,8 @@ public abstract class RolePlayer implements CapacityCaller, LoggerProvider {
 	 * Replies the memory associated to the role player, or create one if a
 	 * memory was never created.
 	 * <p>
-	 * If the memory was never set before, a {@link BlackBoardMemory} is
-	 * automatically created.
+	 * If the memory was never set before, a {@link ConcurrentBlackBoardMemory} is
+	 * automatically created because it may be shared by the roles.
 	 * 
 	 * @return the memory associated to the role player or <code>null</code>.
 	 * @see #setMemory(Memory)
@@ -389,7 +402,7 @@ public abstract class RolePlayer implements CapacityCaller, LoggerProvider {
 	 */
 	protected final Memory getMemory() {
 		if (this.memory == null)
-			this.memory = new BlackBoardMemory();
+			this.memory = new ConcurrentBlackBoardMemory();
 		return this.memory;
 	}
 
@@ -588,6 +601,24 @@ public abstract class RolePlayer implements CapacityCaller, LoggerProvider {
 		return this.capacities;
 	}
 
+	/**
+	 * Replies the implementation of the given capacity which is
+	 * selected in the capacity container of this role player.
+	 * <p>
+	 * The selected implementations are cached until the
+	 * content of the container changes.
+	 * 
+	 * @param capacity
+	 *            is the capacity to select.
+	 * @return the implementation of the capacity or <code>null</code> if none.
+	 * @since 1.1
+	 */
+	final CapacityImplementation selectCapacityImplementation(Class<? extends Capacity> capacity) {
+		CapacityContainer container = getCapacityContainer();
+		assert (container != null);
+		return this.capacityImplementations.selectImplementation(container, capacity);
+	}
+
 	/**
 	 * Set the capacity container used by this role player.
 	 * 
@@ -680,12 +711,17 @@ public abstract class RolePlayer implements CapacityCaller, LoggerProvider {
 	 */
 	protected final SizedIterator<RoleAddress> getRoleAddresses() {
 		MultiSizedIterator<RoleAddress> iterators = new MultiSizedIterator<RoleAddress>();
-		GroupRepository repo = getCRIOContext().getGroupRepository();
+		CRIOContext context = getCRIOContext();
+		GroupRepository repo = context.getGroupRepository();
 		assert (repo != null);
 		AgentAddress adr = getAddress();
 		assert (adr != null);
-		for (KernelScopeGroup grp : repo.values()) {
-			iterators.addIterator(grp.getRoleAddresses(getAddress()));
+		KernelScopeGroup grp;
+		for (GroupAddress group : context.getPlayerGroupIndex().getGroups(adr)) {
+			grp = repo.get(group);
+			if (grp!=null) {
+				iterators.addIterator(grp.getRoleAddresses(adr));
+			}
 		}
 		return iterators;
 	}
@@ -715,15 +751,9 @@ public abstract class RolePlayer implements CapacityCaller, LoggerProvider {
 	 * @GROUPAPI
 	 */
 	public final Collection<Class<? extends Role>> getRoles() {
-		MultiCollection<Class<? extends Role>> roles = new MultiCollection<Class<? extends Role>>();
-		GroupRepository repo = getCRIOContext().getGroupRepository();
-		assert (repo != null);
 		AgentAddress adr = getAddress();
 		assert (adr != null);
-		for (KernelScopeGroup grp : repo.values()) {
-			roles.addCollection(grp.getPlayedRoles(adr));
-		}
-		return roles;
+		return getCRIOContext().getPlayerGroupIndex().getRoles(adr);
 	}
 
 	/**
@@ -750,10 +780,7 @@ public abstract class RolePlayer implements CapacityCaller, LoggerProvider {
 	 */
 	public boolean isPlayingRole(Class<? extends Role> role, GroupAddress group) {
 		assert (role != null);
-		GroupRepository repo = getCRIOContext().getGroupRepository();
-		assert (repo != null);
-		KernelScopeGroup grp = repo.get(group);
-		return (grp != null) && (grp.isPlayedRole(getAddress(), role));
+		return getCRIOContext().getPlayerGroupIndex().isPlayingRole(getAddress(), group, role);
 	}
 
 	/**
@@ -766,13 +793,7 @@ public abstract class RolePlayer implements CapacityCaller, LoggerProvider {
 	 */
 	public boolean isPlayingRole(Class<? extends Role> role) {
 		assert (role != null);
-		GroupRepository repo = getCRIOContext().getGroupRepository();
-		assert (repo != null);
-		for (KernelScopeGroup grp : repo.values()) {
-			if ((grp != null) && (grp.isPlayedRole(getAddress(), role)))
-				return true;
-		}
-		return false;
+		return getCRIOContext().getPlayerGroupIndex().isPlayingRole(getAddress(), role);
 	}
 
 	/**
@@ -818,10 +839,7 @@ public abstract class RolePlayer implements CapacityCaller, LoggerProvider {
 	 */
 	public final boolean isMemberOf(AgentAddress entity, GroupAddress group) {
 		assert (group != null);
-		GroupRepository repo = getCRIOContext().getGroupRepository();
-		assert (repo != null);
-		KernelScopeGroup grp = repo.get(group);
-		return (grp != null) && (grp.isPlayedRole(entity));
+		return getCRIOContext().getPlayerGroupIndex().isMemberOf(entity, group);
 	}
 
 	/**
@@ -1162,16 +1180,9 @@ public abstract class RolePlayer implements CapacityCaller, LoggerProvider {
 	 * @GROUPAPI
 	 */
 	public final Collection<GroupAddress> getGroups() {
-		Collection<GroupAddress> myGroups = new ArrayList<GroupAddress>();
-		GroupRepository repo = getCRIOContext().getGroupRepository();
-		assert (repo != null);
 		AgentAddress adr = getAddress();
 		assert (adr != null);
-		for (KernelScopeGroup grp : repo.values()) {
-			if (grp.isPlayedRole(adr))
-				myGroups.add(grp.getAddress());
-		}
-		return myGroups;
+		return getCRIOContext().getPlayerGroupIndex().getGroups(adr);
 	}
 
 	/**
@@ -1388,10 +1399,8 @@ public abstract class RolePlayer implements CapacityCaller, LoggerProvider {
 	 * @GROUPAPI
 	 */
 	protected final boolean leaveAllRoles() {
-		GroupRepository repos = getCRIOContext().getGroupRepository();
-		assert (repos != null);
 		boolean released = false;
-		for (GroupAddress adr : repos) {
+		for (GroupAddress adr : getGroups()) {
 			if (leaveAllRoles(adr))
 				released = true;
 		}
@@ -1946,16 +1955,12 @@ public abstract class RolePlayer implements CapacityCaller, LoggerProvider {
 		if (r == null)
 			throw new CapacityCallException();
 
-		CapacityContainer capacityContainer = getCapacityContainer();
-		assert (capacityContainer != null);
-
-		Capacity implementation = capacityContainer
-				.selectImplementation(capacity);
-		if (implementation == null || !(implementation instanceof CapacityImplementation))
+		CapacityImplementation implementation = selectCapacityImplementation(capacity);
+		if (implementation == null)
 			throw new CapacityImplementationNotFoundException(capacity);
 
 		return CapacityExecutor.executeImmediately(capacity,
-				(CapacityImplementation)implementation, this, r.getKernelScopeGroup(), r,
+				implementation, this, r.getKernelScopeGroup(), r,
 				parameters);
 	}
 
@@ -1988,17 +1993,53 @@ public abstract class RolePlayer implements CapacityCaller, LoggerProvider {
 		if (r == null)
 			throw new CapacityCallException();
 
-		CapacityContainer capacityContainer = getCapacityContainer();
-		assert (capacityContainer != null);
-
-		Capacity implementation = capacityContainer
-				.selectImplementation(capacity);
-		if (implementation == null || !(implementation instanceof CapacityImplementation))
+		CapacityImplementation implementation = selectCapacityImplementation(capacity);
+		if (implementation == null)
 			throw new CapacityImplementationNotFoundException(capacity);
 
 		// Do not pass by the role player to preserve computation time
 		return getCRIOContext().getCapacityExecutor().submit(capacity,
-				(CapacityImplementation)implementation, this, r.getKernelScopeGroup(), r,
+				implementation, this, r.getKernelScopeGroup(), r,
+				parameters);
+	}
+
+	/**
+	 * Put the given capacity inside the execution queue, and reply
+	 * the future result of the call.
+	 * <p>
+	 * The continuations registered on the replied future are run
+	 * by the given role at the beginning of its next activation after
+	 * the call is done.
+	 * 
+	 * @param capacity
+	 *            is the invoked capacity.
+	 * @param role
+	 *            is the role which may invoke the capacity.
+	 * @param group
+	 *            is the group of the role.
+	 * @param parameters
+	 *            are the values to pass to the capacity implementation.
+	 * @return the future result of the call.
+	 * @CAPACITYAPI
+	 * @since 1.1
+	 */
+	protected final CapacityFuture submitCapacityCallFuture(Class<? extends Capacity> capacity,
+			Class<? extends Role> role, GroupAddress group,
+			Object... parameters) {
+		assert (capacity != null);
+		assert (role != null);
+		assert (group != null);
+
+		Role r = getRole(group, role);
+		if (r == null)
+			throw new CapacityCallException();
+
+		CapacityImplementation implementation = selectCapacityImplementation(capacity);
+		if (implementation == null)
+			throw new CapacityImplementationNotFoundException(capacity);
+
+		return getCRIOContext().getCapacityExecutor().submitFuture(capacity,
+				implementation, this, r.getKernelScopeGroup(), r,
 				parameters);
 	}
 
@@ -2267,6 +2308,108 @@ public abstract class RolePlayer implements CapacityCaller, LoggerProvider {
 			listener.roleReleased(event);
 		}
 	}
+
+	/**
+	 * Buffer a play role event about another member of a group.
+	 * The event is fired by {@link #syncRolePlayingEvents()}.
+	 * 
+	 * @param event describes the role taking event.
+	 * @since 1.1
+	 */
+	synchronized void postPlayRole(RolePlayingEvent event) {
+		if (this.membershipNotification
+			&& this.listeners!=null
+			&& this.listeners.getListenerCount(RolePlayingListener.class)>0) {
+			if (this.membershipEvents==null) {
+				this.membershipEvents = new RolePlayingEventBuffer();
+			}
+			this.membershipEvents.roleTaken(event);
+		}
+	}
+
+	/**
+	 * Buffer a leave role event about another member of a group.
+	 * The event is fired by {@link #syncRolePlayingEvents()}.
+	 * 
+	 * @param event describes the role releasing event.
+	 * @since 1.1
+	 */
+	synchronized void postLeaveRole(RolePlayingEvent event) {
+		if (this.membershipNotification
+			&& this.listeners!=null
+			&& this.listeners.getListenerCount(RolePlayingListener.class)>0) {
+			if (this.membershipEvents==null) {
+				this.membershipEvents = new RolePlayingEventBuffer();
+			}
+			this.membershipEvents.roleReleased(event);
+		}
+	}
+
+	/**
+	 * Fire the buffered role playing events about the other members
+	 * of the groups of this player.
+	 * <p>
+	 * The events are coalesced: a role taken and released
+	 * since the last invocation of this function is not notified.
+	 * 
+	 * @since 1.1
+	 */
+	protected final void syncRolePlayingEvents() {
+		RolePlayingEventBuffer buffer;
+		RolePlayingListener[] listeners;
+		synchronized(this) {
+			buffer = this.membershipEvents;
+			if (buffer==null || buffer.isEmpty()) return;
+			this.membershipEvents = null;
+			listeners = getEventListeners(RolePlayingListener.class);
+		}
+		buffer.sync(listeners);
+	}
+
+	/**
+	 * Fire the memory events buffered by the memory of this player.
+	 * It is invoked at the end of each step of the agents.
+	 * 
+	 * @since 1.1
+	 * @see ConcurrentBlackBoardMemory#setBufferedEvents(boolean)
+	 */
+	protected final void syncMemoryEvents() {
+		Memory m = this.memory;
+		if (m instanceof ConcurrentBlackBoardMemory) {
+			ConcurrentBlackBoardMemory bb = (ConcurrentBlackBoardMemory)m;
+			if (bb.isBufferedEvents()) bb.fireBufferedEvents();
+		}
+	}
+
+	/**
+	 * Enable or disable the notifications about the roles taken
+	 * and released by the other members of the groups of this player.
+	 * <p>
+	 * The notifications about the roles of this player
+	 * are not concerned by this flag.
+	 * 
+	 * @param enable is <code>true</code> to notify this player
+	 * about the other members, <code>false</code> otherwise.
+	 * @since 1.1
+	 */
+	protected final synchronized void setMembershipNotificationEnabled(boolean enable) {
+		this.membershipNotification = enable;
+		if (!enable) {
+			this.membershipEvents = null;
+		}
+	}
+
+	/**
+	 * Replies if this player is notified about the roles taken
+	 * and released by the other members of its groups.
+	 * 
+	 * @return <code>true</code> if this player is notified about
+	 * the other members, <code>false</code> otherwise.
+	 * @since 1.1
+	 */
+	public final boolean isMembershipNotificationEnabled() {
+		return this.membershipNotification;
+	}
 	
 	/**
 	 * Add listener on creation or disappearing
@@ -0,0 +1,151 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.crio.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.janusproject.kernel.crio.role.RolePlayingEvent;
+import org.janusproject.kernel.crio.role.RolePlayingListener;
+
+/**
+ * Buffer of the role playing events which are notified to
+ * a member of a group about the other members.
+ * <p>
+ * The events are buffered until the function {@link #sync(RolePlayingListener[])}
+ * is invoked. At this time, the events are coalesced: the duplicate
+ * events are removed, and a role which was taken and released
+ * since the last synchronization is not notified.
+ * <p>
+ * This buffer is not thread-safe.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+class RolePlayingEventBuffer {
+
+	private final List<BufferedEvent> events = new ArrayList<BufferedEvent>();
+	
+	/**
+	 */
+	public RolePlayingEventBuffer() {
+		//
+	}
+	
+	/** Add a role taking event in the buffer.
+	 * 
+	 * @param event
+	 */
+	public void roleTaken(RolePlayingEvent event) {
+		this.events.add(new BufferedEvent(event, true));
+	}
+
+	/** Add a role releasing event in the buffer.
+	 * 
+	 * @param event
+	 */
+	public void roleReleased(RolePlayingEvent event) {
+		this.events.add(new BufferedEvent(event, false));
+	}
+	
+	/** Replies if the buffer is empty.
+	 * 
+	 * @return <code>true</code> if the buffer is empty.
+	 */
+	public boolean isEmpty() {
+		return this.events.isEmpty();
+	}
+	
+	/** Fire the buffered events in the given listeners,
+	 * and clear the buffer.
+	 * 
+	 * @param listeners
+	 */
+	public void sync(RolePlayingListener[] listeners) {
+		if (this.events.isEmpty()) return;
+		Collection<BufferedEvent> batch = coalesce();
+		this.events.clear();
+		for(BufferedEvent e : batch) {
+			for(RolePlayingListener listener : listeners) {
+				if (e.isTaken) {
+					listener.roleTaken(e.event);
+				}
+				else {
+					listener.roleReleased(e.event);
+				}
+			}
+		}
+	}
+	
+	private Collection<BufferedEvent> coalesce() {
+		Map<RoleAddress,BufferedEvent> batch = new LinkedHashMap<RoleAddress,BufferedEvent>();
+		BufferedEvent previous;
+		RoleAddress key;
+		for(BufferedEvent e : this.events) {
+			key = e.event.getRoleAddress();
+			previous = batch.get(key);
+			if (previous==null) {
+				batch.put(key, e);
+			}
+			else if (previous.isTaken!=e.isTaken) {
+				batch.remove(key);
+			}
+		}
+		return batch.values();
+	}
+	
+	/**
+	 * Buffered event.
+	 * 
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	private static class BufferedEvent {
+		
+		/** Event.
+		 */
+		public final RolePlayingEvent event;
+		
+		/** Indicates if the role was taken or released.
+		 */
+		public final boolean isTaken;
+		
+		/**
+		 * @param event
+		 * @param isTaken
+		 */
+		public BufferedEvent(RolePlayingEvent event, boolean isTaken) {
+			this.event = event;
+			this.isTaken = isTaken;
+		}
+		
+	}
+
+}
@@ -26,8 +26,10 @@ import java.util.logging.Logger;
 import org.janusproject.kernel.configuration.JanusProperties;
 import org.janusproject.kernel.configuration.JanusProperty;
 import org.janusproject.kernel.crio.core.Role;
+import org.janusproject.kernel.mailbox.BoundedMailbox;
 import org.janusproject.kernel.mailbox.BufferedTreeSetMailbox;
 import org.janusproject.kernel.mailbox.Mailbox;
+import org.janusproject.kernel.mailbox.MailboxOverflowPolicy;
 
 /**
  * Utilities on mailboxes.
@@ -42,6 +44,9 @@ import org.janusproject.kernel.mailbox.Mailbox;
 public class MailboxUtil {
 
 	/** Create a mailbox from the default configuration.
+	 * <p>
+	 * If a mailbox capacity is given in the configuration,
+	 * the replied mailbox is a {@link BoundedMailbox}.
 	 * 
 	 * @param callerType is the type of the caller.
 	 * @param configuration is the configuration of the caller.
@@ -49,6 +54,30 @@ public class MailboxUtil {
 	 * @return the mailbox.
 	 */
 	public static Mailbox createDefaultMailbox(Class<?> callerType, JanusProperties configuration, Logger logger) {
+		Mailbox mailbox = createUnboundedMailbox(callerType, configuration, logger);
+		if (configuration!=null) {
+			int capacity = configuration.getInt(JanusProperty.JANUS_AGENT_MAILBOX_CAPACITY);
+			if (capacity>0) {
+				MailboxOverflowPolicy policy = MailboxOverflowPolicy.REJECT;
+				String policyName = configuration.getProperty(JanusProperty.JANUS_AGENT_MAILBOX_OVERFLOW_POLICY);
+				if (policyName!=null) {
+					try {
+						policy = MailboxOverflowPolicy.valueOf(policyName);
+					}
+					catch(Throwable e) {
+						if (logger!=null)
+							logger.log(Level.SEVERE, e.toString(), e);
+					}
+				}
+				return new BoundedMailbox(mailbox, capacity, policy);
+			}
+		}
+		return mailbox;
+	}
+
+	/** Create a mailbox with the type given in the configuration.
+	 */
+	private static Mailbox createUnboundedMailbox(Class<?> callerType, JanusProperties configuration, Logger logger) {
 		if (configuration!=null) {
 			String className = null;
 			if (Role.class.isAssignableFrom(callerType)) {
@@ -21,6 +21,12 @@
 package org.janusproject.kernel.mailbox;
 
 import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
 import org.janusproject.kernel.message.Message;
 import org.janusproject.kernel.util.selector.Selector;
@@ -41,6 +47,14 @@ public abstract class AbstractMailbox implements Mailbox {
 
 	private static final long serialVersionUID = -5713042336297958425L;
 
+	/** Threads which are waiting for a message.
+	 */
+	private transient volatile Queue<MessageWaiter> waiters = null;
+
+	/** Listeners on the arrival of messages.
+	 */
+	private transient volatile CopyOnWriteArrayList<MailboxListener> listeners = null;
+
 	/**
 	 * Create mailbox manager.
 	 */
@@ -53,18 +67,7 @@ public abstract class AbstractMailbox implements Mailbox {
 	 */
 	@Override
 	public final Message getFirst(long timeout) {
-		Message msg = null;
-
-		long timeoutDate = System.currentTimeMillis() + timeout; 
-		
-		msg = getFirst();
-			
-		while (msg==null && System.currentTimeMillis() < timeoutDate) {
-			Thread.yield();
-			msg = getFirst();
-		}
-		
-		return msg;
+		return waitMessage(null, timeout, false);
 	}
 
 	/**
@@ -72,18 +75,8 @@ public abstract class AbstractMailbox implements Mailbox {
 	 */
 	@Override
 	public final <T extends Message> T getFirst(Selector<T> selector, long timeout) {
-		T msg = null;
-
-		long timeoutDate = System.currentTimeMillis() + timeout; 
-		
-		msg = getFirst(selector);
-			
-		while (msg==null && System.currentTimeMillis() < timeoutDate) {
-			Thread.yield();
-			msg = getFirst(selector);
-		}
-		
-		return msg;
+		assert(selector!=null);
+		return selector.getSupportedClass().cast(waitMessage(selector, timeout, false));
 	}
 
 	/**
@@ -91,18 +84,7 @@ public abstract class AbstractMailbox implements Mailbox {
 	 */
 	@Override
 	public final Message removeFirst(long timeout) {
-		Message msg = null;
-
-		long timeoutDate = System.currentTimeMillis() + timeout; 
-		
-		msg = removeFirst();
-			
-		while (msg==null && System.currentTimeMillis() < timeoutDate) {
-			Thread.yield();
-			msg = removeFirst();
-		}
-		
-		return msg;
+		return waitMessage(null, timeout, true);
 	}
 
 	/**
@@ -110,18 +92,157 @@ public abstract class AbstractMailbox implements Mailbox {
 	 */
 	@Override
 	public final <T extends Message> T removeFirst(Selector<T> selector, long timeout) {
-		T msg = null;
+		assert(selector!=null);
+		return selector.getSupportedClass().cast(waitMessage(selector, timeout, true));
+	}
+	
+	/** Replies the first available message without waiting.
+	 * 
+	 * @param selector is the selector of the message, or <code>null</code> for any message.
+	 * @param consume indicates if the message must be removed from the mailbox.
+	 * @return the message or <code>null</code>.
+	 */
+	private Message pollMessage(Selector<? extends Message> selector, boolean consume) {
+		if (selector==null) {
+			return consume ? removeFirst() : getFirst();
+		}
+		return consume ? removeFirst(selector) : getFirst(selector);
+	}
 
-		long timeoutDate = System.currentTimeMillis() + timeout; 
+	/** Wait until a message is available or a timeout is reached.
+	 * <p>
+	 * The current thread is parked until {@link #fireMessageArrival(Message)}
+	 * is invoked with a message matching the given selector.
+	 * 
+	 * @param selector is the selector of the message, or <code>null</code> for any message.
+	 * @param timeout is the time to wait in milliseconds.
+	 * @param consume indicates if the message must be removed from the mailbox.
+	 * @return the message or <code>null</code>.
+	 */
+	private Message waitMessage(Selector<? extends Message> selector, long timeout, boolean consume) {
+		Message msg = pollMessage(selector, consume);
+		if (msg!=null || timeout<=0) return msg;
 		
-		msg = removeFirst(selector);
-			
-		while (msg==null && System.currentTimeMillis() < timeoutDate) {
-			Thread.yield();
-			msg = removeFirst(selector);
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		Queue<MessageWaiter> queue = getWaiters();
+		MessageWaiter waiter = new MessageWaiter(Thread.currentThread(), selector, consume);
+		// Register before the next poll to avoid lost wake-up
+		queue.add(waiter);
+		try {
+			long remaining;
+			while (true) {
+				// Accept a new wake-up before polling, the pending ones
+				// are consumed by this poll.
+				waiter.clearSignal();
+				msg = pollMessage(selector, consume);
+				if (msg!=null) return msg;
+				remaining = deadline - System.nanoTime();
+				if (remaining<=0 || waiter.thread.isInterrupted()) return null;
+				LockSupport.parkNanos(this, remaining);
+			}
+		}
+		finally {
+			queue.remove(waiter);
+			if (consume && waiter.isSignaled()) {
+				// This waiter has received a wake-up after its last poll
+				// that it does not consume, give the chance to the other
+				// waiters to receive it.
+				wakeUpWaiters(null);
+			}
+		}
+	}
+	
+	private Queue<MessageWaiter> getWaiters() {
+		Queue<MessageWaiter> q = this.waiters;
+		if (q==null) {
+			synchronized(this) {
+				q = this.waiters;
+				if (q==null) {
+					q = new ConcurrentLinkedQueue<MessageWaiter>();
+					this.waiters = q;
+				}
+			}
+		}
+		return q;
+	}
+	
+	/** Add a listener on the arrival of messages in this mailbox.
+	 * 
+	 * @param listener
+	 * @since 1.1
+	 */
+	public final void addMailboxListener(MailboxListener listener) {
+		assert(listener!=null);
+		synchronized(this) {
+			if (this.listeners==null) {
+				this.listeners = new CopyOnWriteArrayList<MailboxListener>();
+			}
+			this.listeners.add(listener);
+		}
+	}
+
+	/** Remove a listener on the arrival of messages in this mailbox.
+	 * 
+	 * @param listener
+	 * @since 1.1
+	 */
+	public final void removeMailboxListener(MailboxListener listener) {
+		synchronized(this) {
+			if (this.listeners!=null) {
+				this.listeners.remove(listener);
+				if (this.listeners.isEmpty()) {
+					this.listeners = null;
+				}
+			}
+		}
+	}
+
+	/** Wake up the threads which are waiting for the given message,
+	 * and notify the {@link MailboxListener mailbox listeners}.
+	 * <p>
+	 * All the threads that are waiting for a message without removing it,
+	 * and the first thread that is waiting for removing a message and
+	 * that was not already waken up, are waken up if their selectors
+	 * are matching the given message. In this way, each
+	 * new message gives a wake-up to a different consumer.
+	 * <p>
+	 * This function must be invoked by the implementations of
+	 * the mailbox each time a message becomes available in the mailbox.
+	 * 
+	 * @param msg is the new available message, or <code>null</code> to wake up all the threads.
+	 * @since 1.1
+	 */
+	protected final void fireMessageArrival(Message msg) {
+		wakeUpWaiters(msg);
+		CopyOnWriteArrayList<MailboxListener> l = this.listeners;
+		if (l!=null) {
+			for(MailboxListener listener : l) {
+				listener.messageArrived(this, msg);
+			}
+		}
+	}
+	
+	/** Wake up the threads which are waiting for the given message.
+	 * 
+	 * @param msg is the new available message, or <code>null</code> to wake up all the threads.
+	 */
+	private void wakeUpWaiters(Message msg) {
+		Queue<MessageWaiter> q = this.waiters;
+		if (q==null || q.isEmpty()) return;
+		boolean consumed = false;
+		for(MessageWaiter waiter : q) {
+			if (msg==null) {
+				waiter.wakeUp();
+			}
+			else if (waiter.isSelected(msg)) {
+				if (!waiter.consume) {
+					waiter.wakeUp();
+				}
+				else if (!consumed && waiter.wakeUpIfNotSignaled()) {
+					consumed = true;
+				}
+			}
 		}
-		
-		return msg;
 	}
 
 	/**
@@ -195,4 +316,84 @@ public abstract class AbstractMailbox implements Mailbox {
 			}
 		};
 	}
+
+	/**
+	 * Describes a thread which is waiting for a message.
+	 * 
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	private static class MessageWaiter {
+
+		/** Waiting thread.
+		 */
+		public final Thread thread;
+		
+		/** Indicates if the waiting thread will remove the message.
+		 */
+		public final boolean consume;
+		
+		private final Selector<? extends Message> selector;
+		private final AtomicBoolean signaled = new AtomicBoolean(false);
+
+		/**
+		 * @param thread is the waiting thread.
+		 * @param selector is the selector of the message, or <code>null</code>.
+		 * @param consume indicates if the waiting thread will remove the message.
+		 */
+		public MessageWaiter(Thread thread, Selector<? extends Message> selector, boolean consume) {
+			this.thread = thread;
+			this.selector = selector;
+			this.consume = consume;
+		}
+
+		/** Replies if the given message is matching the selector of this waiter.
+		 * 
+		 * @param msg
+		 * @return <code>true</code> if the message is selected.
+		 */
+		public boolean isSelected(Message msg) {
+			return this.selector==null || this.selector.isSelected(msg);
+		}
+		
+		/** Replies if this waiter was waken up.
+		 * 
+		 * @return <code>true</code> if this waiter was waken up.
+		 */
+		public boolean isSignaled() {
+			return this.signaled.get();
+		}
+		
+		/** Forget the previous wake-ups of this waiter.
+		 */
+		public void clearSignal() {
+			this.signaled.set(false);
+		}
+
+		/** Wake up the waiting thread.
+		 */
+		public void wakeUp() {
+			this.signaled.set(true);
+			LockSupport.unpark(this.thread);
+		}
+
+		/** Wake up the waiting thread if it was not already
+		 * waken up since its last poll.
+		 * 
+		 * @return <code>true</code> if the thread was waken up by this call,
+		 * <code>false</code> if it was already signaled.
+		 */
+		public boolean wakeUpIfNotSignaled() {
+			if (this.signaled.compareAndSet(false, true)) {
+				LockSupport.unpark(this.thread);
+				return true;
+			}
+			return false;
+		}
+
+	}
+
 }
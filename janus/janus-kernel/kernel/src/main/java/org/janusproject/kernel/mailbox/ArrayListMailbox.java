@@ -94,9 +94,13 @@ public class ArrayListMailbox extends AbstractMailbox {
 	 */
 	@Override
 	public boolean add(Message msg) {
-		return ListUtil.dichotomicAdd(
+		if (ListUtil.dichotomicAdd(
 				this.inbox, this.messageComparator, msg,
-				true);
+				true)) {
+			fireMessageArrival(msg);
+			return true;
+		}
+		return false;
 	}
 
 	/**
@@ -111,6 +115,7 @@ public class ArrayListMailbox extends AbstractMailbox {
 					this.inbox, this.messageComparator, msg,
 					true);
 		}
+		fireMessageArrival(null);
 	}
 
 	/**
@@ -0,0 +1,408 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.mailbox;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+
+import org.janusproject.kernel.message.Message;
+import org.janusproject.kernel.util.selector.Selector;
+
+/**
+ * This class provides a {@link Mailbox} which is limiting
+ * the number of messages stored in another mailbox.
+ * <p>
+ * When a message is added and the mailbox is full, the
+ * {@link MailboxOverflowPolicy overflow policy} is applied.
+ * When the decorated mailbox is a {@link BufferedMailbox},
+ * the buffered messages are counted, but only the messages
+ * which are already synchronized may be discarded by
+ * the {@link MailboxOverflowPolicy#DROP_OLDEST} and
+ * {@link MailboxOverflowPolicy#COALESCE} policies; when
+ * there is no such message, the new message is discarded.
+ * <p>
+ * This mailbox is also maintaining the highest number of
+ * messages it has contained (high-water mark), and the number of
+ * discarded messages.
+ * <p>
+ * This implementation is thread-safe if the decorated mailbox is.
+ *
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public class BoundedMailbox extends AbstractMailbox implements BufferedMailbox {
+
+	private static final long serialVersionUID = 1729658013453658604L;
+
+	/** Decorated mailbox.
+	 */
+	protected final Mailbox mailbox;
+	
+	private final int capacity;
+	private final MailboxOverflowPolicy policy;
+	
+	private volatile int highWaterMark = 0;
+	private volatile long overflowCount = 0;
+	
+	/**
+	 * @param mailbox is the mailbox to bound.
+	 * @param capacity is the maximal number of messages in the mailbox.
+	 * @param policy is the policy to apply when the mailbox is full.
+	 */
+	public BoundedMailbox(Mailbox mailbox, int capacity, MailboxOverflowPolicy policy) {
+		assert(mailbox!=null);
+		assert(capacity>0);
+		assert(policy!=null);
+		this.mailbox = mailbox;
+		this.capacity = capacity;
+		this.policy = policy;
+	}
+	
+	/** Replies the maximal number of messages in this mailbox.
+	 * 
+	 * @return the capacity of this mailbox.
+	 */
+	public int getCapacity() {
+		return this.capacity;
+	}
+	
+	/** Replies the policy applied when this mailbox is full.
+	 * 
+	 * @return the overflow policy.
+	 */
+	public MailboxOverflowPolicy getOverflowPolicy() {
+		return this.policy;
+	}
+	
+	/** Replies the highest number of messages that were
+	 * stored in this mailbox.
+	 * 
+	 * @return the high-water mark.
+	 */
+	public int getHighWaterMark() {
+		return this.highWaterMark;
+	}
+
+	/** Replies the number of messages that were discarded
+	 * or rejected because this mailbox was full.
+	 * 
+	 * @return the number of discarded messages.
+	 */
+	public long getOverflowCount() {
+		return this.overflowCount;
+	}
+	
+	/** Replies the decorated mailbox.
+	 * 
+	 * @return the decorated mailbox.
+	 */
+	public Mailbox getDecoratedMailbox() {
+		return this.mailbox;
+	}
+	
+	/** Replies the number of messages, including the buffered messages.
+	 * 
+	 * @return the number of messages.
+	 */
+	private int getMessageCount() {
+		int count = this.mailbox.size();
+		if (this.mailbox instanceof BufferedMailbox) {
+			count += ((BufferedMailbox)this.mailbox).getBufferSize();
+		}
+		return count;
+	}
+
+	/** Replies the key used to coalesce the messages with
+	 * the {@link MailboxOverflowPolicy#COALESCE} policy.
+	 * Two messages with equal keys are considered as
+	 * carrying the same information, and only the newest is kept.
+	 * <p>
+	 * By default, the key is composed by the type and the sender of the message.
+	 * 
+	 * @param msg
+	 * @return the coalescing key of the message.
+	 */
+	protected Object getCoalescingKey(Message msg) {
+		return Arrays.<Object>asList(msg.getClass(), msg.getSender());
+	}
+	
+	/** Remove the message with the same coalescing key as
+	 * the given message.
+	 * 
+	 * @param msg
+	 * @return <code>true</code> if a message was removed.
+	 */
+	private boolean removeCoalescedMessage(Message msg) {
+		Object key = getCoalescingKey(msg);
+		Iterator<Message> iterator = this.mailbox.iterator(false);
+		Message m;
+		while (iterator.hasNext()) {
+			m = iterator.next();
+			if (key.equals(getCoalescingKey(m))) {
+				return this.mailbox.remove(m);
+			}
+		}
+		return false;
+	}
+
+	/** Remove the first message of the decorated mailbox.
+	 * 
+	 * @return <code>true</code> if a message was removed.
+	 */
+	private boolean removeOldestMessage() {
+		Message m = this.mailbox.getFirst();
+		return m!=null && this.mailbox.remove(m);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * When this mailbox is full, this function replies <code>false</code>
+	 * if the message was discarded according to the overflow policy.
+	 */
+	@Override
+	public boolean add(Message msg) {
+		assert(msg!=null);
+		boolean added;
+		synchronized(this) {
+			int count = getMessageCount();
+			if (count>=this.capacity) {
+				boolean canAdd;
+				switch(this.policy) {
+				case COALESCE:
+					canAdd = removeCoalescedMessage(msg) || removeOldestMessage();
+					break;
+				case DROP_OLDEST:
+					canAdd = removeOldestMessage();
+					break;
+				case DROP_NEWEST:
+				case REJECT:
+				default:
+					canAdd = false;
+				}
+				++this.overflowCount;
+				if (!canAdd) return false;
+				--count;
+			}
+			added = this.mailbox.add(msg);
+			if (added && count>=this.highWaterMark) {
+				this.highWaterMark = count + 1;
+			}
+		}
+		if (added && !(this.mailbox instanceof BufferedMailbox)) {
+			fireMessageArrival(msg);
+		}
+		return added;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isBufferEmpty() {
+		if (this.mailbox instanceof BufferedMailbox)
+			return ((BufferedMailbox)this.mailbox).isBufferEmpty();
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void clearBuffer() {
+		if (this.mailbox instanceof BufferedMailbox)
+			((BufferedMailbox)this.mailbox).clearBuffer();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getBufferSize() {
+		if (this.mailbox instanceof BufferedMailbox)
+			return ((BufferedMailbox)this.mailbox).getBufferSize();
+		return 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void synchronizeMessages() {
+		if (this.mailbox instanceof BufferedMailbox) {
+			BufferedMailbox bm = (BufferedMailbox)this.mailbox;
+			if (!bm.isBufferEmpty()) {
+				bm.synchronizeMessages();
+				fireMessageArrival(null);
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void synchronize(Mailbox mailbox) {
+		this.mailbox.synchronize(mailbox);
+		fireMessageArrival(null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean remove(Message msg) {
+		return this.mailbox.remove(msg);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean removeAll(Selector<? extends Message> selector) {
+		return this.mailbox.removeAll(selector);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean contains(Message msg) {
+		return this.mailbox.contains(msg);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean contains(Selector<? extends Message> selector) {
+		return this.mailbox.contains(selector);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isEmpty() {
+		return this.mailbox.isEmpty();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int size() {
+		return this.mailbox.size();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void clear() {
+		this.mailbox.clear();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Message removeFirst() {
+		return this.mailbox.removeFirst();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Message getFirst() {
+		return this.mailbox.getFirst();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <T extends Message> T removeFirst(Selector<T> selector) {
+		return this.mailbox.removeFirst(selector);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <T extends Message> T getFirst(Selector<T> selector) {
+		return this.mailbox.getFirst(selector);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Message remove(int index) {
+		return this.mailbox.remove(index);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Message get(int index) {
+		return this.mailbox.get(index);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<Message> iterator(boolean consumeMails) {
+		return this.mailbox.iterator(consumeMails);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <T extends Message> Iterator<T> iterator(Selector<T> selector, boolean consumeMails) {
+		return this.mailbox.iterator(selector, consumeMails);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Comparator<? super Message> comparator() {
+		return this.mailbox.comparator();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return this.mailbox.toString();
+	}
+
+}
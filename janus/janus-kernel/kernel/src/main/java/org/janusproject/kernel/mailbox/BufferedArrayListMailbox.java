@@ -103,13 +103,16 @@ public class BufferedArrayListMailbox extends ArrayListMailbox implements Buffer
 	 */
 	@Override
 	public void synchronizeMessages() {
+		boolean changed;
 		synchronized(this.buffer) {
+			changed = !this.buffer.isEmpty();
 			Comparator<? super Message> cmp = comparator();
 			for(Message msg : this.buffer) {
 				ListUtil.dichotomicAdd(this.inbox, cmp, msg, true);
 			}
 			this.buffer.clear();
 		}
+		if (changed) fireMessageArrival(null);
 	}
 
 }
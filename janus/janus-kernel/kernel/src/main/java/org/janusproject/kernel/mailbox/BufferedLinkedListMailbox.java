@@ -102,13 +102,16 @@ public class BufferedLinkedListMailbox extends LinkedListMailbox implements Buff
 	 */
 	@Override
 	public void synchronizeMessages() {
+		boolean changed;
 		synchronized(this.buffer) {
+			changed = !this.buffer.isEmpty();
 			Comparator<? super Message> cmp = comparator();
 			for(Message msg : this.buffer) {
 				ListUtil.dichotomicAdd(this.inbox, cmp, msg, true);
 			}
 			this.buffer.clear();
 		}
+		if (changed) fireMessageArrival(null);
 	}
 
 }
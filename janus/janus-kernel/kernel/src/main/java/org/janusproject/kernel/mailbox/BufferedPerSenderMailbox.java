@@ -103,7 +103,9 @@ public class BufferedPerSenderMailbox extends PerSenderMailbox implements Buffer
 	 */
 	@Override
 	public void synchronizeMessages() {
+		boolean changed;
 		synchronized(this.buffer) {
+			changed = !this.buffer.isEmpty();
 			Address sender;
 			for(Message msg : this.buffer) {
 				sender = msg.getSender();
@@ -112,6 +114,7 @@ public class BufferedPerSenderMailbox extends PerSenderMailbox implements Buffer
 			}
 			this.buffer.clear();
 		}
+		if (changed) fireMessageArrival(null);
 	}
 
 }
@@ -101,12 +101,15 @@ public class BufferedTreeSetMailbox extends TreeSetMailbox implements BufferedMa
 	 */
 	@Override
 	public void synchronizeMessages() {
+		boolean changed;
 		synchronized(this.buffer) {
+			changed = !this.buffer.isEmpty();
 			for(Message msg : this.buffer) {
 				this.inbox.add(msg);
 			}
 			this.buffer.clear();
 		}
+		if (changed) fireMessageArrival(null);
 	}
 
 }
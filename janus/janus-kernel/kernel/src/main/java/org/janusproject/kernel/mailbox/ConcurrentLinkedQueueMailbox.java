@@ -0,0 +1,280 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.mailbox;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.janusproject.kernel.message.FirstArrivedMessageComparator;
+import org.janusproject.kernel.message.Message;
+import org.janusproject.kernel.util.autoremove.AutoremoveIterator;
+import org.janusproject.kernel.util.selector.AutoremoveSelectorIterator;
+import org.janusproject.kernel.util.selector.Selector;
+import org.janusproject.kernel.util.selector.SelectorIterator;
+
+/**
+ * This class provides a lock-free implementation of a {@link Mailbox}
+ * which is based on a {@link ConcurrentLinkedQueue}.
+ * <p>
+ * This mailbox is dedicated to the fan-in communication schemes, where
+ * many senders are posting messages to a single reader.
+ * The insertion of a message and the retreiving of the first message
+ * are done in constant time, without locking the mailbox.
+ * <p>
+ * The messages are not sorted by their creation date: they are
+ * replied in the order of their arrival in the mailbox
+ * (see {@link FirstArrivedMessageComparator}).
+ * <p>
+ * This implementation is thread-safe. The iterators are weakly consistent:
+ * they never throw {@link java.util.ConcurrentModificationException}.
+ * The {@link #size()} function is not a constant-time operation.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ * @see LinkedListMailbox
+ */
+public class ConcurrentLinkedQueueMailbox extends AbstractMailbox {
+
+	private static final long serialVersionUID = 3174698016429917375L;
+
+	/** Lock-free queue.
+	 */
+	protected final Queue<Message> inbox;
+	
+	/**
+	 * Create mailbox manager that sorts the messages by their arrival date.
+	 */
+	public ConcurrentLinkedQueueMailbox() {
+		this.inbox = new ConcurrentLinkedQueue<Message>();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final Comparator<? super Message> comparator() {
+		return FirstArrivedMessageComparator.SINGLETON;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean add(Message msg) {
+		assert(msg!=null);
+		if (this.inbox.offer(msg)) {
+			fireMessageArrival(msg);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void synchronize(Mailbox mailbox) {
+		assert(mailbox!=null);
+		this.inbox.clear();
+		for(Message msg : mailbox) {
+			this.inbox.offer(msg);
+		}
+		fireMessageArrival(null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void clear() {
+		this.inbox.clear();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean contains(Message msg) {
+		assert(msg!=null);
+		return this.inbox.contains(msg);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean contains(Selector<? extends Message> selector) {
+		assert(selector!=null);
+		for(Message msg : this.inbox) {
+			if (selector.isSelected(msg)) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Message get(int index) {
+		if (index<0) return null;
+		int i = 0;
+		for(Message msg : this.inbox) {
+			if (i==index) return msg;
+			++i;
+		}
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Message getFirst() {
+		return this.inbox.peek();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <T extends Message> T getFirst(Selector<T> selector) {
+		assert(selector!=null);
+		for(Message msg : this.inbox) {
+			if (selector.isSelected(msg))
+				return selector.getSupportedClass().cast(msg);
+		}
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isEmpty() {
+		return this.inbox.isEmpty();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean remove(Message msg) {
+		return this.inbox.remove(msg);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Message remove(int index) {
+		if (index<0) return null;
+		int i = 0;
+		for(Message msg : this.inbox) {
+			if (i==index) {
+				return this.inbox.remove(msg) ? msg : null;
+			}
+			++i;
+		}
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean removeAll(Selector<? extends Message> selector) {
+		assert(selector!=null);
+		boolean changed = false;
+		for(Message m : this.inbox) {
+			if (selector.isSelected(m) && this.inbox.remove(m)) {
+				changed = true;
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Message removeFirst() {
+		return this.inbox.poll();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <T extends Message> T removeFirst(Selector<T> selector) {
+		assert(selector!=null);
+		for(Message m : this.inbox) {
+			// The removal may fail if another thread has consumed the message.
+			if (selector.isSelected(m) && this.inbox.remove(m)) {
+				return selector.getSupportedClass().cast(m);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int size() {
+		return this.inbox.size();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<Message> iterator(boolean consumeMails) {
+		if (consumeMails)
+			return new AutoremoveIterator<Message>(this.inbox.iterator());
+		return this.inbox.iterator();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <T extends Message> Iterator<T> iterator(Selector<T> selector, boolean consumeMails) {
+		if (consumeMails)
+			return new AutoremoveSelectorIterator<T>(
+					selector, this.inbox.iterator());
+		return new SelectorIterator<T>(
+				selector, this.inbox.iterator());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return this.inbox.toString();
+	}
+
+}
@@ -0,0 +1,557 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.mailbox;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeSet;
+
+import org.janusproject.kernel.address.Address;
+import org.janusproject.kernel.message.CreationDateMessageComparator;
+import org.janusproject.kernel.message.Message;
+import org.janusproject.kernel.util.autoremove.AutoremoveIterator;
+import org.janusproject.kernel.util.selector.AutoremoveSelectorIterator;
+import org.janusproject.kernel.util.selector.Selector;
+import org.janusproject.kernel.util.selector.SelectorIterator;
+import org.janusproject.kernel.util.selector.TypeSelector;
+
+/**
+ * This class provides a {@link TreeSet}-based implementation of a {@link Mailbox}
+ * which is indexing the messages by type and by sender.
+ * <p>
+ * The reading and the removal of the messages with a {@link TypeSelector}
+ * or a {@link SenderSelector} are not traversing all the messages in the mailbox:
+ * only the messages of the selected types, or from the selected sender, are
+ * considered. The other selectors are applied on all the messages.
+ * <p>
+ * The messages of each index are sorted with the comparator of the mailbox,
+ * so that the order of the replied messages is the same as for
+ * {@link TreeSetMailbox}.
+ * <p>
+ * Each operation on this mailbox is synchronized on the set of the messages,
+ * and keeps the indexes consistent with it. The iterators are not
+ * synchronized: the mailbox must not be changed by another thread
+ * during an iteration.
+ * <p>
+ * All the mailbox implementations must ensure that, when a message should be added,
+ * the comparator is invoked as: <code>comparator(newMessage, messageAlreadyInMailbox)</code>.
+ * It means that the first parameter given to the comparator is always the
+ * parameter of the addition function.
+ *
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ * @see TreeSetMailbox
+ */
+public class IndexedMailbox extends AbstractMailbox {
+
+	private static final long serialVersionUID = -2466403990180467962L;
+	
+	/** All the messages.
+	 */
+	protected final TreeSet<Message> inbox;
+	
+	/** Messages per concrete type.
+	 */
+	private final Map<Class<?>,TreeSet<Message>> typeIndex = new HashMap<Class<?>,TreeSet<Message>>();
+
+	/** Messages per sender.
+	 */
+	private final Map<Address,TreeSet<Message>> senderIndex = new HashMap<Address,TreeSet<Message>>();
+	
+	/** Type indexes which are matching a selected type.
+	 */
+	private transient Map<Class<?>,List<TreeSet<Message>>> typeResolution = null;
+
+	/**
+	 * Create mailbox manager that sorts the message by their creation date.
+	 */
+	public IndexedMailbox() {
+		this(null);
+	}
+
+	/**
+	 * Create mailbox manager.
+	 * 
+	 * @param comparator is the comparator that is used to sort the messages in the mailbox.
+	 */
+	public IndexedMailbox(Comparator<? super Message> comparator) {
+		Comparator<? super Message> c;
+		if (comparator==null) c = CreationDateMessageComparator.SINGLETON;
+		else c = comparator;
+		this.inbox = new TreeSet<Message>(c);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final Comparator<? super Message> comparator() {
+		return this.inbox.comparator();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean add(Message msg) {
+		assert(msg!=null);
+		boolean added;
+		synchronized(this.inbox) {
+			added = insertMessage(msg);
+		}
+		if (added) fireMessageArrival(msg);
+		return added;
+	}
+	
+	/** Add the given message inside the inbox and the indexes,
+	 * without notifying the waiting threads.
+	 * 
+	 * @param msg
+	 * @return <code>true</code> if the message was added, otherwise <code>false</code>.
+	 */
+	protected final boolean insertMessage(Message msg) {
+		if (!this.inbox.add(msg)) return false;
+		Class<?> type = msg.getClass();
+		TreeSet<Message> index = this.typeIndex.get(type);
+		if (index==null) {
+			index = new TreeSet<Message>(this.inbox.comparator());
+			this.typeIndex.put(type, index);
+			// A new type may be matched by the previously resolved selectors
+			this.typeResolution = null;
+		}
+		index.add(msg);
+		Address sender = msg.getSender();
+		if (sender!=null) {
+			index = this.senderIndex.get(sender);
+			if (index==null) {
+				index = new TreeSet<Message>(this.inbox.comparator());
+				this.senderIndex.put(sender, index);
+			}
+			index.add(msg);
+		}
+		return true;
+	}
+	
+	/** Remove the given message from the inbox and from the indexes.
+	 * 
+	 * @param msg
+	 * @return <code>true</code> if the message was removed from the inbox,
+	 * otherwise <code>false</code>.
+	 */
+	private boolean discardMessage(Message msg) {
+		boolean removed = this.inbox.remove(msg);
+		// The message may be already removed from an index by an iterator
+		// on this index, so that the emptiness is tested in all cases.
+		Class<?> type = msg.getClass();
+		TreeSet<Message> index = this.typeIndex.get(type);
+		if (index!=null) {
+			index.remove(msg);
+			if (index.isEmpty()) {
+				this.typeIndex.remove(type);
+				discardTypeResolution(index);
+			}
+		}
+		Address sender = msg.getSender();
+		if (sender!=null) {
+			index = this.senderIndex.get(sender);
+			if (index!=null) {
+				index.remove(msg);
+				if (index.isEmpty()) {
+					this.senderIndex.remove(sender);
+				}
+			}
+		}
+		return removed;
+	}
+	
+	/** Remove the given type index from the resolved type indexes.
+	 * 
+	 * @param index is the removed type index.
+	 */
+	private void discardTypeResolution(TreeSet<Message> index) {
+		Map<Class<?>,List<TreeSet<Message>>> resolution = this.typeResolution;
+		if (resolution!=null) {
+			Iterator<TreeSet<Message>> iterator;
+			for(List<TreeSet<Message>> indexes : resolution.values()) {
+				// Empty sets are equal, so that the index is searched by reference.
+				iterator = indexes.iterator();
+				while (iterator.hasNext()) {
+					if (iterator.next()==index) {
+						iterator.remove();
+						break;
+					}
+				}
+			}
+		}
+	}
+	
+	/** Replies the type indexes which are containing the messages
+	 * of the given type.
+	 * 
+	 * @param type
+	 * @return the type indexes.
+	 */
+	private List<TreeSet<Message>> getTypeIndexes(Class<?> type) {
+		Map<Class<?>,List<TreeSet<Message>>> resolution = this.typeResolution;
+		if (resolution==null) {
+			resolution = new HashMap<Class<?>,List<TreeSet<Message>>>();
+			this.typeResolution = resolution;
+		}
+		List<TreeSet<Message>> indexes = resolution.get(type);
+		if (indexes==null) {
+			indexes = new ArrayList<TreeSet<Message>>();
+			for(Entry<Class<?>,TreeSet<Message>> entry : this.typeIndex.entrySet()) {
+				if (type.isAssignableFrom(entry.getKey())) {
+					indexes.add(entry.getValue());
+				}
+			}
+			resolution.put(type, indexes);
+		}
+		return indexes;
+	}
+	
+	/** Replies the messages which may be matched by the given selector.
+	 * 
+	 * @param selector
+	 * @return the candidate messages, sorted with the mailbox comparator.
+	 */
+	private Collection<Message> getCandidates(Selector<?> selector) {
+		if (selector instanceof SenderSelector<?>) {
+			Collection<Message> index = this.senderIndex.get(((SenderSelector<?>)selector).getSender());
+			if (index==null) return Collections.emptySet();
+			return index;
+		}
+		if (selector.getClass()==TypeSelector.class) {
+			List<TreeSet<Message>> indexes = getTypeIndexes(selector.getSupportedClass());
+			if (indexes.size()==1) return indexes.get(0);
+			if (indexes.isEmpty()) return Collections.emptySet();
+		}
+		return this.inbox;
+	}
+
+	/** Replies the first message matching the given selector.
+	 * 
+	 * @param selector
+	 * @return the message or <code>null</code>.
+	 */
+	private Message findFirst(Selector<?> selector) {
+		if (selector.getClass()==TypeSelector.class) {
+			// All the messages in the type indexes are matching the selector.
+			Comparator<? super Message> c = this.inbox.comparator();
+			Message first = null;
+			Message m;
+			for(TreeSet<Message> index : getTypeIndexes(selector.getSupportedClass())) {
+				if (!index.isEmpty()) {
+					m = index.first();
+					if (first==null || c.compare(m, first)<0) {
+						first = m;
+					}
+				}
+			}
+			return first;
+		}
+		for(Message msg : getCandidates(selector)) {
+			if (selector.isSelected(msg)) return msg;
+		}
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void synchronize(Mailbox mailbox) {
+		assert(mailbox!=null);
+		synchronized(this.inbox) {
+			clear();
+			for(Message msg : mailbox) {
+				insertMessage(msg);
+			}
+		}
+		fireMessageArrival(null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void clear() {
+		synchronized(this.inbox) {
+			this.inbox.clear();
+			this.typeIndex.clear();
+			this.senderIndex.clear();
+			this.typeResolution = null;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean contains(Message msg) {
+		assert(msg!=null);
+		return this.inbox.contains(msg);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean contains(Selector<? extends Message> selector) {
+		assert(selector!=null);
+		return findFirst(selector)!=null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Message get(int index) {
+		if (index<0 || index>=this.inbox.size()) return null;
+		int i=0;
+		for(Message msg : this.inbox) {
+			if (i==index) return msg;
+			++i;
+		}
+		return null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Message getFirst() {
+		if (this.inbox.isEmpty()) return null;
+		return this.inbox.first();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <T extends Message> T getFirst(Selector<T> selector) {
+		assert(selector!=null);
+		return selector.getSupportedClass().cast(findFirst(selector));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isEmpty() {
+		return this.inbox.isEmpty();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean remove(Message msg) {
+		assert(msg!=null);
+		synchronized(this.inbox) {
+			return discardMessage(msg);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Message remove(int index) {
+		Message m = get(index);
+		if (m!=null) {
+			remove(m);
+		}
+		return m;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean removeAll(Selector<? extends Message> selector) {
+		assert(selector!=null);
+		synchronized(this.inbox) {
+			List<Message> selected = new ArrayList<Message>();
+			for(Message m : getCandidates(selector)) {
+				if (selector.isSelected(m)) {
+					selected.add(m);
+				}
+			}
+			for(Message m : selected) {
+				discardMessage(m);
+			}
+			return !selected.isEmpty();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Message removeFirst() {
+		synchronized(this.inbox) {
+			if (this.inbox.isEmpty()) return null;
+			Message m = this.inbox.first();
+			discardMessage(m);
+			return m;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <T extends Message> T removeFirst(Selector<T> selector) {
+		assert(selector!=null);
+		synchronized(this.inbox) {
+			Message m = findFirst(selector);
+			if (m!=null) {
+				discardMessage(m);
+			}
+			return selector.getSupportedClass().cast(m);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int size() {
+		return this.inbox.size();
+	}
+
+	/** Replies the number of type indexes.
+	 * 
+	 * @return the number of type indexes.
+	 */
+	int getTypeIndexCount() {
+		synchronized(this.inbox) {
+			return this.typeIndex.size();
+		}
+	}
+
+	/** Replies the number of sender indexes.
+	 * 
+	 * @return the number of sender indexes.
+	 */
+	int getSenderIndexCount() {
+		synchronized(this.inbox) {
+			return this.senderIndex.size();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Iterator<Message> iterator(boolean consumeMails) {
+		Iterator<Message> iterator = new IndexedIterator(this.inbox.iterator());
+		if (consumeMails)
+			return new AutoremoveIterator<Message>(iterator);
+		return iterator;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public <T extends Message> Iterator<T> iterator(Selector<T> selector, boolean consumeMails) {
+		Iterator<Message> iterator = new IndexedIterator(getCandidates(selector).iterator());
+		if (consumeMails)
+			return new AutoremoveSelectorIterator<T>(selector, iterator);
+		return new SelectorIterator<T>(selector, iterator);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return this.inbox.toString();
+	}
+
+	/**
+	 * Iterator on the inbox or on an index which is
+	 * updating the inbox and the indexes on removal.
+	 * 
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	private class IndexedIterator implements Iterator<Message> {
+		
+		private final Iterator<Message> iterator;
+		private Message last = null;
+		
+		/**
+		 * @param iterator is the iterator on the inbox or on an index.
+		 */
+		public IndexedIterator(Iterator<Message> iterator) {
+			this.iterator = iterator;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean hasNext() {
+			return this.iterator.hasNext();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Message next() {
+			this.last = this.iterator.next();
+			return this.last;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@SuppressWarnings("synthetic-access")
+		@Override
+		public void remove() {
+			if (this.last==null) throw new IllegalStateException();
+			this.iterator.remove();
+			synchronized(IndexedMailbox.this.inbox) {
+				discardMessage(this.last);
+			}
+			this.last = null;
+		}
+		
+	}
+
+}
@@ -94,7 +94,11 @@ public class LinkedListMailbox extends AbstractMailbox {
 	 */
 	@Override
 	public boolean add(Message msg) {
-		return ListUtil.dichotomicAdd(this.inbox, this.messageComparator, msg, true);
+		if (ListUtil.dichotomicAdd(this.inbox, this.messageComparator, msg, true)) {
+			fireMessageArrival(msg);
+			return true;
+		}
+		return false;
 	}
 
 	/**
@@ -107,6 +111,7 @@ public class LinkedListMailbox extends AbstractMailbox {
 		for(Message msg : mailbox) {
 			ListUtil.dichotomicAdd(this.inbox, this.messageComparator, msg, true);
 		}
+		fireMessageArrival(null);
 	}
 
 	/**
@@ -0,0 +1,51 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.mailbox;
+
+import java.util.EventListener;
+
+import org.janusproject.kernel.message.Message;
+
+/**
+ * Listener on the arrival of messages in a {@link AbstractMailbox}.
+ * <p>
+ * The listener is invoked by the thread which has put the message
+ * in the mailbox, possibly while the mailbox is locked: it must
+ * not block and it must not change the mailbox.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public interface MailboxListener extends EventListener {
+
+	/** Invoked when a message becomes available in the mailbox.
+	 * 
+	 * @param mailbox is the mailbox which has received the message.
+	 * @param message is the new message, or <code>null</code> if
+	 * the content of the mailbox has changed in bulk, eg. when
+	 * buffered messages are flushed or the mailbox is synchronized.
+	 */
+	public void messageArrived(Mailbox mailbox, Message message);
+
+}
@@ -0,0 +1,57 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.mailbox;
+
+/**
+ * Describes the behavior of a {@link BoundedMailbox} when
+ * a message is added and the mailbox is full.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public enum MailboxOverflowPolicy {
+	
+	/** The first message of the mailbox is removed
+	 * to make room for the new message.
+	 */
+	DROP_OLDEST,
+	
+	/** The new message is silently discarded.
+	 */
+	DROP_NEWEST,
+	
+	/** The new message is discarded, and the sender
+	 * is notified with a {@link MessageRejectedSignal}.
+	 */
+	REJECT,
+	
+	/** The new message replaces the message in the mailbox
+	 * with the same coalescing key (by default, the same
+	 * type and the same sender). If there is no such message,
+	 * the first message of the mailbox is removed as for
+	 * {@link #DROP_OLDEST}.
+	 */
+	COALESCE;
+
+}
@@ -0,0 +1,72 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.mailbox;
+
+import org.janusproject.kernel.address.Address;
+import org.janusproject.kernel.agentsignal.Signal;
+import org.janusproject.kernel.message.Message;
+
+/**
+ * Signal fired in the context of the sender of a message
+ * when the message was rejected by the {@link BoundedMailbox}
+ * of the receiver.
+ * <p>
+ * The source of the signal is the address of the receiver.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ * @see MailboxOverflowPolicy#REJECT
+ */
+public class MessageRejectedSignal extends Signal {
+
+	private static final long serialVersionUID = 2620963306414391571L;
+
+	private final Message message;
+	
+	/**
+	 * @param receiver is the address of the receiver which has rejected the message.
+	 * @param message is the rejected message.
+	 */
+	public MessageRejectedSignal(Address receiver, Message message) {
+		super(receiver);
+		this.message = message;
+	}
+	
+	/** Replies the address of the receiver which has rejected the message.
+	 * 
+	 * @return the address of the receiver.
+	 */
+	public Address getReceiver() {
+		return (Address)getSource();
+	}
+
+	/** Replies the rejected message.
+	 * 
+	 * @return the rejected message.
+	 */
+	public Message getMessage() {
+		return this.message;
+	}
+
+}
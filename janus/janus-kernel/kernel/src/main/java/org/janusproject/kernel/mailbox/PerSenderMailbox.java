@@ -98,10 +98,13 @@ public class PerSenderMailbox extends AbstractMailbox {
 			Message old = this.inbox.get(sender);
 			if (old==null || this.comparator.compare(old, msg)<0) {
 				this.inbox.put(sender,msg);
-				return true;
 			}
-			return false;
+			else {
+				return false;
+			}
 		}
+		fireMessageArrival(msg);
+		return true;
 	}
 
 	/**
@@ -119,6 +122,7 @@ public class PerSenderMailbox extends AbstractMailbox {
 				this.inbox.put(sender,msg);
 			}
 		}
+		fireMessageArrival(null);
 	}
 
 	/**
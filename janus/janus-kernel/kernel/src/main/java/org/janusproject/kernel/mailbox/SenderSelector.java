@@ -0,0 +1,82 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.mailbox;
+
+import org.janusproject.kernel.address.Address;
+import org.janusproject.kernel.message.Message;
+import org.janusproject.kernel.util.selector.Selector;
+
+/**
+ * This class selects the messages according to their sender and their types.
+ * <p>
+ * The {@link IndexedMailbox} is able to reply the messages matching
+ * this selector without traversing all the mailbox.
+ * 
+ * @param <M> is the type of message supported by the selector.
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public class SenderSelector<M extends Message>
+implements Selector<M> {
+
+	private final Address sender;
+	private final Class<M> type;
+	
+	/**
+	 * @param sender is the sender of the messages to select.
+	 * @param type is the type of the messages to select.
+	 */
+	public SenderSelector(Address sender, Class<M> type) {
+		assert(sender!=null);
+		assert(type!=null);
+		this.sender = sender;
+		this.type = type;
+	}
+	
+	/** Replies the sender of the selected messages.
+	 * 
+	 * @return the sender of the selected messages.
+	 */
+	public Address getSender() {
+		return this.sender;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isSelected(Object msg) {
+		return this.type.isInstance(msg)
+			&& this.sender.equals(((Message)msg).getSender());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Class<M> getSupportedClass() {
+		return this.type;
+	}
+
+}
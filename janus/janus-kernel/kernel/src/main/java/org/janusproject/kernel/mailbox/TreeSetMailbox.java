@@ -90,9 +90,12 @@ public class TreeSetMailbox extends AbstractMailbox {
 	@Override
 	public boolean add(Message msg) {
 		assert(msg!=null);
+		boolean added;
 		synchronized(this.inbox) {
-			return this.inbox.add(msg);
+			added = this.inbox.add(msg);
 		}
+		if (added) fireMessageArrival(msg);
+		return added;
 	}
 
 	/**
@@ -105,6 +108,7 @@ public class TreeSetMailbox extends AbstractMailbox {
 		for(Message msg : mailbox) {
 			this.inbox.add(msg);
 		}
+		fireMessageArrival(null);
 	}
 
 	/**
@@ -20,6 +20,8 @@
  */
 package org.janusproject.kernel.message;
 
+import java.util.UUID;
+
 import org.janusproject.kernel.address.Address;
 
 /**
@@ -33,6 +35,22 @@ import org.janusproject.kernel.address.Address;
  */
 public abstract class MessageFactory {
 	
+	/**
+	 * Set the identifier of the given message.
+	 * <p>
+	 * This function should be used only to rebuild a message
+	 * received from a distant kernel.
+	 * 
+	 * @param message is the message to update.
+	 * @param id is the identifier of the message.
+	 * @since 1.1
+	 */
+	protected static void setIdentifier(Message message, UUID id) {
+		assert(message!=null);
+		assert(id!=null);
+		message.id = id;
+	}
+
 	/**
 	 * Set the receiver in the given message context.
 	 * 
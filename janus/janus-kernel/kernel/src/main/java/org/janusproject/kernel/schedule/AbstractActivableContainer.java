@@ -207,7 +207,7 @@ implements Activator<A> {
 			}
 		}
 		else {
-			s = StatusFactory.ok(this);
+			s = StatusFactory.ok();
 		}
 		
 		this.isInit = true;
@@ -245,7 +245,7 @@ implements Activator<A> {
 			}
 		}
 		else {
-			s = StatusFactory.ok(this);
+			s = StatusFactory.ok();
 		}
 
 		return s;
@@ -280,7 +280,7 @@ implements Activator<A> {
 			}
 		}
 		else {
-			s = StatusFactory.ok(this);
+			s = StatusFactory.ok();
 		}
 		
 		this.activeObjects.clear();
@@ -24,8 +24,8 @@ import java.util.Collection;
 import java.util.Iterator;
 
 import org.janusproject.kernel.status.ExceptionStatus;
-import org.janusproject.kernel.status.MultipleStatus;
 import org.janusproject.kernel.status.Status;
+import org.janusproject.kernel.status.StatusFactory;
 import org.janusproject.kernel.util.directaccess.DirectAccessCollection;
 import org.janusproject.kernel.util.directaccess.SafeIterator;
 
@@ -61,19 +61,19 @@ extends AbstractActivator<A> {
 	 */
 	@Override
 	protected Status executeInit(Iterator<? extends A> objects, Object... parameters) {
-		MultipleStatus ms = new MultipleStatus();
+		Status status = null;
 		while (objects.hasNext()) {
 			try {
-				ms.addStatus(objects.next().activate(parameters));
+				status = StatusFactory.merge(status, objects.next().activate(parameters));
 			}
 			catch(AssertionError e) {
 				throw e;
 			}
 			catch(Throwable e) {
-				ms.addStatus(new ExceptionStatus(e));
+				status = StatusFactory.merge(status, new ExceptionStatus(e));
 			}
 		}
-		return ms.pack(this);
+		return (status==null) ? StatusFactory.ok() : status;
 	}
 
 	/**
@@ -81,19 +81,19 @@ extends AbstractActivator<A> {
 	 */
 	@Override
 	protected Status executeBehaviour(Iterator<? extends A> objects) {
-		MultipleStatus ms = new MultipleStatus();
+		Status status = null;
 		while (objects.hasNext()) {
 			try {
-				ms.addStatus(objects.next().live());
+				status = StatusFactory.merge(status, objects.next().live());
 			}
 			catch(AssertionError e) {
 				throw e;
 			}
 			catch(Throwable e) {
-				ms.addStatus(new ExceptionStatus(e));
+				status = StatusFactory.merge(status, new ExceptionStatus(e));
 			}
 		}
-		return ms.pack(this);
+		return (status==null) ? StatusFactory.ok() : status;
 	}
 
 	/**
@@ -101,19 +101,19 @@ extends AbstractActivator<A> {
 	 */
 	@Override
 	protected Status executeDestroy(Iterator<? extends A> objects) {
-		MultipleStatus ms = new MultipleStatus();
+		Status status = null;
 		while (objects.hasNext()) {
 			try {
-				ms.addStatus(objects.next().end());
+				status = StatusFactory.merge(status, objects.next().end());
 			}
 			catch(AssertionError e) {
 				throw e;
 			}
 			catch(Throwable e) {
-				ms.addStatus(new ExceptionStatus(e));
+				status = StatusFactory.merge(status, new ExceptionStatus(e));
 			}
 		}
-		return ms.pack(this);
+		return (status==null) ? StatusFactory.ok() : status;
 	}
 
 	/**
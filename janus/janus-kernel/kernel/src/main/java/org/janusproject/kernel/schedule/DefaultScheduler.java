@@ -24,8 +24,8 @@ import java.util.Collection;
 import java.util.Iterator;
 
 import org.janusproject.kernel.status.ExceptionStatus;
-import org.janusproject.kernel.status.MultipleStatus;
 import org.janusproject.kernel.status.Status;
+import org.janusproject.kernel.status.StatusFactory;
 import org.janusproject.kernel.util.directaccess.DirectAccessCollection;
 import org.janusproject.kernel.util.directaccess.SafeIterator;
 
@@ -61,22 +61,22 @@ extends AbstractScheduler<A> {
 	 */
 	@Override
 	protected Status executeInit(Iterator<? extends A> objects, Object... parameters) {
-		MultipleStatus ms = new MultipleStatus();
+		Status status = null;
 		A obj;
 		while (objects.hasNext()) {
 			try {
 				obj = objects.next();
 				obj.sync();
-				ms.addStatus(obj.activate(parameters));
+				status = StatusFactory.merge(status, obj.activate(parameters));
 			}
 			catch(AssertionError e) {
 				throw e;
 			}
 			catch(Throwable e) {
-				ms.addStatus(new ExceptionStatus(e));
+				status = StatusFactory.merge(status, new ExceptionStatus(e));
 			}
 		}
-		return ms.pack(this);
+		return (status==null) ? StatusFactory.ok() : status;
 	}
 
 	/**
@@ -84,22 +84,22 @@ extends AbstractScheduler<A> {
 	 */
 	@Override
 	protected Status executeBehaviour(Iterator<? extends A> objects) {
-		MultipleStatus ms = new MultipleStatus();
+		Status status = null;
 		A obj;
 		while (objects.hasNext()) {
 			try {
 				obj = objects.next();
 				obj.sync();
-				ms.addStatus(obj.live());
+				status = StatusFactory.merge(status, obj.live());
 			}
 			catch(AssertionError e) {
 				throw e;
 			}
 			catch(Throwable e) {
-				ms.addStatus(new ExceptionStatus(e));
+				status = StatusFactory.merge(status, new ExceptionStatus(e));
 			}
 		}
-		return ms.pack(this);
+		return (status==null) ? StatusFactory.ok() : status;
 	}
 
 	/**
@@ -107,22 +107,22 @@ extends AbstractScheduler<A> {
 	 */
 	@Override
 	protected Status executeDestroy(Iterator<? extends A> objects) {
-		MultipleStatus ms = new MultipleStatus();
+		Status status = null;
 		A obj;
 		while (objects.hasNext()) {
 			try {
 				obj = objects.next();
 				obj.sync();
-				ms.addStatus(obj.end());
+				status = StatusFactory.merge(status, obj.end());
 			}
 			catch(AssertionError e) {
 				throw e;
 			}
 			catch(Throwable e) {
-				ms.addStatus(new ExceptionStatus(e));
+				status = StatusFactory.merge(status, new ExceptionStatus(e));
 			}
 		}
-		return ms.pack(this);
+		return (status==null) ? StatusFactory.ok() : status;
 	}
 
 	/**
@@ -0,0 +1,189 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.status;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.arakhne.afc.vmutil.locale.Locale;
+
+/**
+ * Immutable OK status, shared by all the providers.
+ * <p>
+ * This status is replied by {@link StatusFactory#ok()}; it avoids
+ * to allocate a status on the execution paths that are run at
+ * each simulation step.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+final class OkStatus implements Status {
+
+	private static final long serialVersionUID = -3328947116405620537L;
+
+	/** Identifier of the provider of the shared OK status.
+	 */
+	static final String PROVIDER = StatusFactory.class.getCanonicalName();
+
+	/** Shared instance.
+	 */
+	static final OkStatus SINGLETON = new OkStatus();
+	
+	/**
+	 */
+	private OkStatus() {
+		//
+	}
+	
+	/** Replies the shared instance after deserialization.
+	 * 
+	 * @return the shared instance.
+	 */
+	private Object readResolve() {
+		return SINGLETON;
+	}
+
+	/** {@inheritDoc}
+	 */
+	@Override
+	public StatusSeverity getSeverity() {
+		return StatusSeverity.OK;
+	}
+
+	/** {@inheritDoc}
+	 */
+	@Override
+	public int getCode() {
+		return KernelStatusConstants.SUCCESS;
+	}
+
+	/** {@inheritDoc}
+	 */
+	@Override
+	public Throwable getException() {
+		return null;
+	}
+
+	/** {@inheritDoc}
+	 */
+	@Override
+	public String getMessage() {
+		return null;
+	}
+
+	/** {@inheritDoc}
+	 */
+	@Override
+	public String getProviderID() {
+		return PROVIDER;
+	}
+
+	/** {@inheritDoc}
+	 */
+	@Override
+	public boolean isSuccess() {
+		return true;
+	}
+
+	/** {@inheritDoc}
+	 */
+	@Override
+	public boolean isFailure() {
+		return false;
+	}
+
+	/** {@inheritDoc}
+	 */
+	@Override
+	public boolean isLoggable() {
+		return StatusSeverity.OK.toLevel()!=Level.OFF;
+	}
+
+	/** {@inheritDoc}
+	 * <p>
+	 * The shared OK status is immutable: this function does nothing.
+	 */
+	@Override
+	public void setLoggable(boolean loggable) {
+		//
+	}
+
+	/** {@inheritDoc}
+	 */
+	@Override
+	public void logOn(Logger logger) {
+		// OK status is never logged
+	}
+
+	/** {@inheritDoc}
+	 */
+	@Override
+	public boolean matches(StatusSeverity severity) {
+		assert(severity!=null);
+		return matches(severity.getMask());
+	}
+
+	/** {@inheritDoc}
+	 */
+	@Override
+	public boolean matches(int severityMask) {
+		return (StatusSeverity.OK.getMask() & severityMask) != 0;
+	}
+
+	/** {@inheritDoc}
+	 */
+	@Override
+	public Status pack(String provider) {
+		return this;
+	}
+
+	/** {@inheritDoc}
+	 */
+	@Override
+	public Status pack(Class<?> provider) {
+		return this;
+	}
+
+	/** {@inheritDoc}
+	 */
+	@Override
+	public Status pack(Object provider) {
+		return this;
+	}
+
+	/**
+	 * Returns a string representation of the status, suitable 
+	 * for logging purposes.
+	 */
+	@Override
+	public String toString() {
+		return Locale.getString(SingleStatus.class, "TO_STRING", //$NON-NLS-1$
+				StatusSeverity.OK.name(),
+				PROVIDER,
+				Integer.toString(KernelStatusConstants.SUCCESS),
+				null,
+				null);
+	}
+
+}
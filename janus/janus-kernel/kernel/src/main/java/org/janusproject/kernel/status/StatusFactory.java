@@ -20,6 +20,8 @@
  */
 package org.janusproject.kernel.status;
 
+import java.util.Collection;
+
 /**
  * Factory of status.
  * 
@@ -30,6 +32,80 @@ package org.janusproject.kernel.status;
  */
 public class StatusFactory {
 
+	/** Replies the shared OK status.
+	 * <p>
+	 * The replied status is immutable and shared by all the callers,
+	 * so that this function never allocates a status.
+	 * 
+	 * @return the shared OK status.
+	 * @since 1.1
+	 */
+	public static Status ok() {
+		return OkStatus.SINGLETON;
+	}
+
+	/** Merge a status into another status.
+	 * <p>
+	 * This function has the same behavior as adding the two statuses
+	 * into a {@link MultipleStatus} and packing it, except that the
+	 * aggregation of the statuses is allocated only when two failures
+	 * or warnings must be merged. The successful statuses
+	 * ({@link StatusSeverity#OK} or {@link StatusSeverity#INFO})
+	 * are replaced by any other status; and the first successful status
+	 * is kept when all the merged statuses are successful.
+	 * <p>
+	 * The aggregation that is allocated by this function is changed by
+	 * the next invocations that receive it as <var>status</var>.
+	 * When an aggregation replied by another sequence of merges is
+	 * received as <var>newStatus</var>, it is copied instead of being
+	 * replied, so that the statuses of the other callers are never changed.
+	 * <p>
+	 * The typical usage is:
+	 * <pre><code>
+	 * Status s = null;
+	 * for(Activable a : objects) {
+	 *     s = StatusFactory.merge(s, a.live());
+	 * }
+	 * return (s==null) ? StatusFactory.ok() : s;
+	 * </code></pre>
+	 * 
+	 * @param status is the status in which the new status must be merged,
+	 * or <code>null</code> if none.
+	 * @param newStatus is the status to merge, or <code>null</code> if none.
+	 * @return the merged status, or <code>null</code> if the two statuses
+	 * are <code>null</code>.
+	 * @since 1.1
+	 */
+	public static Status merge(Status status, Status newStatus) {
+		if (newStatus==null
+			|| (newStatus instanceof MultipleStatus && ((MultipleStatus)newStatus).isEmpty())) {
+			return status;
+		}
+		if (status==null || isSuccessful(status)) {
+			if (status!=null && isSuccessful(newStatus)) {
+				return status;
+			}
+			if (newStatus instanceof MergedStatus) {
+				// The aggregation belongs to another caller
+				return new MergedStatus(((MergedStatus)newStatus).getInnerStatus());
+			}
+			return newStatus;
+		}
+		if (isSuccessful(newStatus)) {
+			return status;
+		}
+		if (status instanceof MergedStatus) {
+			((MergedStatus)status).addStatus(newStatus);
+			return status;
+		}
+		return new MergedStatus(status, newStatus);
+	}
+	
+	private static boolean isSuccessful(Status status) {
+		StatusSeverity severity = status.getSeverity();
+		return severity==StatusSeverity.OK || severity==StatusSeverity.INFO;
+	}
+
 	/** Create a OK status.
 	 * 
 	 * @param provider is the provider of the status flag, eg the caller of this function.
@@ -324,4 +400,34 @@ public class StatusFactory {
 				KernelStatusConstants.WARNING, message, cause);
 	}
 
+	/**
+	 * Multiple status created by {@link StatusFactory#merge(Status, Status)},
+	 * and in which the next merged statuses are added.
+	 * 
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	private static class MergedStatus extends MultipleStatus {
+		
+		private static final long serialVersionUID = 6150402513398453734L;
+
+		/**
+		 * @param status
+		 */
+		public MergedStatus(Status... status) {
+			super(status);
+		}
+		
+		/**
+		 * @param status
+		 */
+		public MergedStatus(Collection<? extends Status> status) {
+			super(status);
+		}
+		
+	}
+
 }
@@ -0,0 +1,89 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.util.concurrent;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+
+/**
+ * Describes the type of the queue in which the tasks
+ * are waiting for a thread of a pool.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ * @see ThreadPools
+ */
+public enum ThreadPoolQueueType {
+
+	/** The tasks are directly handed off to the threads.
+	 * A new thread is created when no thread is available,
+	 * and the task is rejected when the maximal number of
+	 * threads is reached. The capacity of the queue is ignored.
+	 */
+	SYNCHRONOUS,
+	
+	/** The tasks are waiting in a linked list. The queue
+	 * is unbounded if its capacity is negative or zero.
+	 */
+	LINKED,
+	
+	/** The tasks are waiting in a bounded array.
+	 * If the capacity of the queue is negative or zero,
+	 * a capacity of one is assumed.
+	 */
+	ARRAY;
+	
+	/** Create a queue of this type.
+	 * 
+	 * @param capacity is the capacity of the queue.
+	 * @return the queue.
+	 */
+	public BlockingQueue<Runnable> createQueue(int capacity) {
+		switch(this) {
+		case LINKED:
+			return (capacity>0)
+					? new LinkedBlockingQueue<Runnable>(capacity)
+					: new LinkedBlockingQueue<Runnable>();
+		case ARRAY:
+			return new ArrayBlockingQueue<Runnable>(Math.max(1, capacity));
+		case SYNCHRONOUS:
+		default:
+		}
+		return new SynchronousQueue<Runnable>();
+	}
+	
+	/** Replies if a queue of this type, and with the given
+	 * capacity, is unbounded.
+	 * 
+	 * @param capacity is the capacity of the queue.
+	 * @return <code>true</code> if the queue is unbounded,
+	 * otherwise <code>false</code>.
+	 */
+	public boolean isUnbounded(int capacity) {
+		return this==LINKED && capacity<=0;
+	}
+	
+}
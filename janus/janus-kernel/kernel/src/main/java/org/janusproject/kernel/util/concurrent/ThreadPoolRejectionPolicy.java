@@ -0,0 +1,79 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.util.concurrent;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Describes the behavior of a pool of threads when
+ * a task cannot be accepted, ie. when the queue is
+ * full and the maximal number of threads is reached.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ * @see ThreadPools
+ */
+public enum ThreadPoolRejectionPolicy {
+
+	/** A {@link java.util.concurrent.RejectedExecutionException}
+	 * is thrown to the submitter of the task.
+	 */
+	ABORT,
+	
+	/** The task is run by the thread of the submitter.
+	 * It slows down the submitter until the pool is able
+	 * to accept new tasks.
+	 */
+	CALLER_RUNS,
+	
+	/** The task is silently discarded.
+	 */
+	DISCARD,
+	
+	/** The oldest waiting task is discarded, and the
+	 * submission of the new task is retried.
+	 */
+	DISCARD_OLDEST;
+	
+	/** Create the handler of rejected tasks which
+	 * is corresponding to this policy.
+	 * 
+	 * @return the handler.
+	 */
+	public RejectedExecutionHandler createHandler() {
+		switch(this) {
+		case CALLER_RUNS:
+			return new ThreadPoolExecutor.CallerRunsPolicy();
+		case DISCARD:
+			return new ThreadPoolExecutor.DiscardPolicy();
+		case DISCARD_OLDEST:
+			return new ThreadPoolExecutor.DiscardOldestPolicy();
+		case ABORT:
+		default:
+		}
+		return new ThreadPoolExecutor.AbortPolicy();
+	}
+	
+}
@@ -0,0 +1,163 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.util.concurrent;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.janusproject.kernel.configuration.JanusProperties;
+import org.janusproject.kernel.configuration.JanusProperty;
+
+/**
+ * Utilities to create pools of threads.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public class ThreadPools {
+
+	/** Create a pool of threads.
+	 * <p>
+	 * The number of threads are normalized: the maximal
+	 * number of threads is at least one, and the minimal
+	 * number of threads is between zero and the maximal number
+	 * of threads. Because a pool with an unbounded queue never
+	 * creates more threads than its minimal number of threads,
+	 * the minimal number of threads is set to the maximal
+	 * number of threads for the unbounded queues; and the idle
+	 * threads are allowed to time out.
+	 * 
+	 * @param coreSize is the minimal number of threads in the pool.
+	 * @param maxSize is the maximal number of threads in the pool.
+	 * @param keepAlive is the time during which an idle thread is kept alive.
+	 * @param unit is the unit of <var>keepAlive</var>.
+	 * @param queueType is the type of the queue of the waiting tasks.
+	 * @param queueCapacity is the capacity of the queue of the waiting tasks.
+	 * @param rejectionPolicy is the behavior of the pool when a task cannot be accepted.
+	 * @return the pool of threads.
+	 */
+	public static ThreadPoolExecutor newThreadPool(
+			int coreSize, int maxSize,
+			long keepAlive, TimeUnit unit,
+			ThreadPoolQueueType queueType, int queueCapacity,
+			ThreadPoolRejectionPolicy rejectionPolicy) {
+		assert(unit!=null);
+		assert(queueType!=null);
+		assert(rejectionPolicy!=null);
+		int max = Math.max(1, maxSize);
+		int core;
+		boolean unbounded = queueType.isUnbounded(queueCapacity);
+		if (unbounded) {
+			core = max;
+		}
+		else {
+			core = Math.max(0, Math.min(max, coreSize));
+		}
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(
+				core, max,
+				keepAlive, unit,
+				queueType.createQueue(queueCapacity),
+				rejectionPolicy.createHandler());
+		if (unbounded) {
+			pool.allowCoreThreadTimeOut(true);
+		}
+		return pool;
+	}
+
+	/** Create a pool of threads from the given configuration.
+	 * 
+	 * @param configuration is the configuration to read.
+	 * @param coreSize is the property which is containing the minimal number of threads in the pool.
+	 * @param maxSize is the property which is containing the maximal number of threads in the pool.
+	 * @param queueType is the property which is containing the name of a constant of {@link ThreadPoolQueueType}.
+	 * @param queueCapacity is the property which is containing the capacity of the queue.
+	 * @param rejectionPolicy is the property which is containing the name of a constant of {@link ThreadPoolRejectionPolicy}.
+	 * @param keepAlive is the time during which an idle thread is kept alive.
+	 * @param unit is the unit of <var>keepAlive</var>.
+	 * @param logger is the logger to use to log any error, or <code>null</code>.
+	 * @return the pool of threads.
+	 * @see #newThreadPool(int, int, long, TimeUnit, ThreadPoolQueueType, int, ThreadPoolRejectionPolicy)
+	 */
+	public static ThreadPoolExecutor newThreadPool(
+			JanusProperties configuration,
+			JanusProperty coreSize, JanusProperty maxSize,
+			JanusProperty queueType, JanusProperty queueCapacity,
+			JanusProperty rejectionPolicy,
+			long keepAlive, TimeUnit unit,
+			Logger logger) {
+		assert(configuration!=null);
+		return newThreadPool(
+				configuration.getInt(coreSize),
+				configuration.getInt(maxSize),
+				keepAlive, unit,
+				getQueueType(configuration, queueType, logger),
+				configuration.getInt(queueCapacity),
+				getRejectionPolicy(configuration, rejectionPolicy, logger));
+	}
+	
+	/** Replies the type of queue given in the configuration.
+	 * 
+	 * @param configuration is the configuration to read.
+	 * @param property is the property which is containing the name of a constant of {@link ThreadPoolQueueType}.
+	 * @param logger is the logger to use to log any error, or <code>null</code>.
+	 * @return the type of queue, never <code>null</code>.
+	 */
+	public static ThreadPoolQueueType getQueueType(JanusProperties configuration, JanusProperty property, Logger logger) {
+		String name = configuration.getProperty(property);
+		if (name!=null) {
+			try {
+				return ThreadPoolQueueType.valueOf(name);
+			}
+			catch(Throwable e) {
+				if (logger!=null)
+					logger.log(Level.SEVERE, e.toString(), e);
+			}
+		}
+		return ThreadPoolQueueType.SYNCHRONOUS;
+	}
+
+	/** Replies the rejection policy given in the configuration.
+	 * 
+	 * @param configuration is the configuration to read.
+	 * @param property is the property which is containing the name of a constant of {@link ThreadPoolRejectionPolicy}.
+	 * @param logger is the logger to use to log any error, or <code>null</code>.
+	 * @return the rejection policy, never <code>null</code>.
+	 */
+	public static ThreadPoolRejectionPolicy getRejectionPolicy(JanusProperties configuration, JanusProperty property, Logger logger) {
+		String name = configuration.getProperty(property);
+		if (name!=null) {
+			try {
+				return ThreadPoolRejectionPolicy.valueOf(name);
+			}
+			catch(Throwable e) {
+				if (logger!=null)
+					logger.log(Level.SEVERE, e.toString(), e);
+			}
+		}
+		return ThreadPoolRejectionPolicy.ABORT;
+	}
+
+}
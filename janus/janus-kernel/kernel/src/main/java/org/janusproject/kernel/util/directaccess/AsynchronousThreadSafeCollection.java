@@ -24,9 +24,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.NoSuchElementException;
 
 import org.janusproject.kernel.util.comparator.ComparableComparator;
 import org.janusproject.kernel.util.comparator.GenericComparator;
@@ -37,9 +37,16 @@ import org.janusproject.kernel.util.event.ListenerCollection;
  * iterator one the collection and to modify the collection
  * at same time.
  * <p>
- * This implementation uses synchronization and
- * ensure that iterators use a internal list which is
- * not modified by additions and removal functions.
+ * This implementation uses synchronization for the
+ * modifications, and ensure that iterators use a internal
+ * list which is not modified by additions and removal functions.
+ * The current content is a growable sorted array which is
+ * updated in place. When an iterator is allocated, the array
+ * is shared with it and the next modification works on a copy:
+ * the iterators are not locking the collection, and the array
+ * is copied at most once between two iterator allocations.
+ * The registered changes are applied by batch, by merging
+ * the sorted changes with the current content.
  * <p>
  * User of this collection may invoke {@link #applyChanges(boolean)}
  * to be sure that additions and removals are applied.
@@ -58,15 +65,39 @@ import org.janusproject.kernel.util.event.ListenerCollection;
 public class AsynchronousThreadSafeCollection<E>
 implements DirectAccessCollection<E> {
 
+	private static final Object[] EMPTY = new Object[0];
+	
 	private final Class<E> elementType;
-	private final List<E> currentElements;
+	
+	/** Current content, sorted according to the comparator.
+	 * Only the first {@link #elementCount} cells are used.
+	 */
+	private Object[] currentElements;
+	
+	/** Number of elements in {@link #currentElements}.
+	 */
+	private int elementCount = 0;
+	
+	/** Indicates if {@link #currentElements} is shared with
+	 * an iterator, and must be copied before any modification.
+	 */
+	private boolean sharedElements = false;
+	
 	private final List<E> addedElements = new ArrayList<E>();
 	private final List<E> removedElements = new ArrayList<E>();
 	private boolean clearedListFlag = false;
 	private boolean autoApply = true;
 	private boolean isSet = false;
 	
-	private final Set<SafeIterator<E>> iterators = new TreeSet<SafeIterator<E>>(GenericComparator.SINGLETON);
+	/** Number of iterators registered in the current iterator epoch.
+	 */
+	private int iteratorCount = 0;
+	
+	/** Epoch of the iterators. It is incremented when the changes
+	 * are forced, so that the iterators of the previous epochs
+	 * are ignored when they are released.
+	 */
+	private int iteratorEpoch = 0;
 	
 	private final Comparator<? super E> elementComparator;
 	
@@ -87,7 +118,7 @@ implements DirectAccessCollection<E> {
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public AsynchronousThreadSafeCollection(Class<E> type, Comparator<? super E> comparator) {
 		assert(type!=null);
-		this.currentElements = new ArrayList<E>();
+		this.currentElements = EMPTY;
 		this.elementType = type;
 		if (comparator==null) {
 			if (Comparable.class.isAssignableFrom(type)) {
@@ -119,10 +150,12 @@ implements DirectAccessCollection<E> {
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public AsynchronousThreadSafeCollection(Class<E> type, E element, Comparator<? super E> comparator) {
 		this.elementType = type;
-		if (element!=null)
-			this.currentElements = new ArrayList<E>(Collections.singleton(element));
+		if (element!=null) {
+			this.currentElements = new Object[] {element};
+			this.elementCount = 1;
+		}
 		else
-			this.currentElements = new ArrayList<E>();
+			this.currentElements = EMPTY;
 		if (comparator==null) {
 			if (Comparable.class.isAssignableFrom(type)) {
 				this.elementComparator = new ComparableComparator();
@@ -142,10 +175,12 @@ implements DirectAccessCollection<E> {
 	 */
 	public AsynchronousThreadSafeCollection(Class<E> type, Collection<? extends E> collection) {
 		this.elementType = type;
-		if (collection==null)
-			this.currentElements = new ArrayList<E>();
-		else
-			this.currentElements = new ArrayList<E>(collection);
+		if (collection==null || collection.isEmpty())
+			this.currentElements = EMPTY;
+		else {
+			this.currentElements = collection.toArray();
+			this.elementCount = this.currentElements.length;
+		}
 		this.elementComparator = null;
 	}
 	
@@ -181,53 +216,34 @@ implements DirectAccessCollection<E> {
 		}
 	}
 
-	/** Fire addition event.
-	 * 
-	 * @param added are the added elements.
-	 */
-	@SuppressWarnings("unchecked")
-	private void fireAddition(Collection<? extends E> added) {
-		assert(added!=null && !added.isEmpty());
-		if (this.listeners!=null) {
-			AsynchronousThreadSafeCollectionListener<E>[] listeners = 
-				this.listeners.getListeners(AsynchronousThreadSafeCollectionListener.class);
-			for(AsynchronousThreadSafeCollectionListener<E> l : listeners) {
-				l.asynchronouslyAdded(added);
-			}
-		}
-	}
-
-	/** Fire removal event.
+	/** Replies the listeners to notify.
+	 * <p>
+	 * This function must be invoked inside a synchronized block;
+	 * and the listeners must be notified outside this block.
 	 * 
-	 * @param removed are the removed elements.
+	 * @return the listeners, or <code>null</code> if none.
 	 */
 	@SuppressWarnings("unchecked")
-	private void fireRemoval(Collection<? extends E> removed) {
-		assert(removed!=null && !removed.isEmpty());
-		if (this.listeners!=null) {
-			AsynchronousThreadSafeCollectionListener<E>[] listeners = 
-				this.listeners.getListeners(AsynchronousThreadSafeCollectionListener.class);
-			for(AsynchronousThreadSafeCollectionListener<E> l : listeners) {
-				l.asynchronouslyRemoved(removed);
-			}
-		}
+	private AsynchronousThreadSafeCollectionListener<E>[] getListeners() {
+		assert(Thread.holdsLock(this));
+		if (this.listeners==null) return null;
+		return this.listeners.getListeners(AsynchronousThreadSafeCollectionListener.class);
 	}
-
+	
 	/** Fire addition and removal events.
 	 * 
-	 * @param added are the added elements.
-	 * @param removed are the removed elements.
+	 * @param listeners are the listeners to notify, or <code>null</code>.
+	 * @param added are the added elements, or <code>null</code>.
+	 * @param removed are the removed elements, or <code>null</code>.
 	 */
-	@SuppressWarnings("unchecked")
-	private void fireAdditionRemoval(Collection<? extends E> added, Collection<? extends E> removed) {
-		assert(added!=null && !added.isEmpty());
-		assert(removed!=null && !removed.isEmpty());
-		if (this.listeners!=null) {
-			AsynchronousThreadSafeCollectionListener<E>[] listeners = 
-				this.listeners.getListeners(AsynchronousThreadSafeCollectionListener.class);
+	private static <E> void fireChanges(AsynchronousThreadSafeCollectionListener<E>[] listeners,
+			Collection<? extends E> added, Collection<? extends E> removed) {
+		if (listeners!=null) {
+			boolean hasAdded = added!=null && !added.isEmpty();
+			boolean hasRemoved = removed!=null && !removed.isEmpty();
 			for(AsynchronousThreadSafeCollectionListener<E> l : listeners) {
-				l.asynchronouslyAdded(added);
-				l.asynchronouslyRemoved(removed);
+				if (hasAdded) l.asynchronouslyAdded(added);
+				if (hasRemoved) l.asynchronouslyRemoved(removed);
 			}
 		}
 	}
@@ -247,7 +263,7 @@ implements DirectAccessCollection<E> {
 	 * on this collection, otherwise <code>false</code>
 	 */
 	public synchronized boolean isIterated() {
-		return !this.iterators.isEmpty();
+		return this.iteratorCount>0;
 	}
 
     /**
@@ -287,23 +303,27 @@ implements DirectAccessCollection<E> {
 		return innerAdd(e);
 	}
 	
-	private synchronized boolean innerAdd(E e) {
-		if (!this.autoApply || isIterated()) {
-			ListUtil.dichotomicRemove(this.removedElements, this.elementComparator, e);
-			return ListUtil.dichotomicAdd(
-					this.addedElements,
-					this.elementComparator, e,
-					!isSetBehaviorEnabled());
-		}
-		else if (ListUtil.dichotomicAdd(
-				this.currentElements, 
-				this.elementComparator,
-				e,
-				!isSetBehaviorEnabled())) {
-			fireAddition(Collections.singleton(e));
-			return true;
+	private boolean innerAdd(E e) {
+		AsynchronousThreadSafeCollectionListener<E>[] listeners;
+		synchronized(this) {
+			if (!this.autoApply || isIterated()) {
+				ListUtil.dichotomicRemove(this.removedElements, this.elementComparator, e);
+				return ListUtil.dichotomicAdd(
+						this.addedElements,
+						this.elementComparator, e,
+						!this.isSet);
+			}
+			int index = insertionIndex(e);
+			if (index<0) return false;
+			ensureWritable(this.elementCount+1);
+			Object[] current = this.currentElements;
+			System.arraycopy(current, index, current, index+1, this.elementCount-index);
+			current[index] = e;
+			++this.elementCount;
+			listeners = getListeners();
 		}
-		return false;
+		fireChanges(listeners, Collections.singleton(e), null);
+		return true;
 	}
 
     /**
@@ -349,26 +369,32 @@ implements DirectAccessCollection<E> {
 		innerClear();
 	}
 
-	private synchronized boolean innerClear() {
-		boolean changed = false;
-		if (!this.autoApply || isIterated()) {
-			if (!this.addedElements.isEmpty()) {
-				this.addedElements.clear();
-				changed = true;
-			}
-			if (!this.removedElements.isEmpty()) {
-				this.removedElements.clear();
-				changed = true;
+	private boolean innerClear() {
+		AsynchronousThreadSafeCollectionListener<E>[] listeners;
+		List<E> removed;
+		synchronized(this) {
+			if (!this.autoApply || isIterated()) {
+				boolean changed = false;
+				if (!this.addedElements.isEmpty()) {
+					this.addedElements.clear();
+					changed = true;
+				}
+				if (!this.removedElements.isEmpty()) {
+					this.removedElements.clear();
+					changed = true;
+				}
+				this.clearedListFlag = true;
+				return changed;
 			}
-			this.clearedListFlag = true;
+			if (this.elementCount==0) return false;
+			removed = asList(this.currentElements, this.elementCount);
+			this.currentElements = EMPTY;
+			this.elementCount = 0;
+			this.sharedElements = false;
+			listeners = getListeners();
 		}
-		else if (!this.currentElements.isEmpty()) {
-			List<E> removed = new ArrayList<E>(this.currentElements);
-			this.currentElements.clear();
-			changed = true;
-			fireRemoval(removed);
-		}
-		return changed;
+		fireChanges(listeners, null, removed);
+		return true;
 	}
 
 	/**
@@ -377,7 +403,7 @@ implements DirectAccessCollection<E> {
 	@Override
 	public synchronized boolean contains(Object o) {
 		if (this.elementType.isInstance(o))
-			return ListUtil.dichotomicContains(this.currentElements, this.elementComparator, this.elementType.cast(o));
+			return indexOf(this.elementType.cast(o), null)>=0;
 		return false;
 	}
 
@@ -397,7 +423,7 @@ implements DirectAccessCollection<E> {
 	 */
 	@Override
 	public synchronized boolean isEmpty() {
-		return this.currentElements.isEmpty();
+		return this.elementCount==0;
 	}
 
     /**
@@ -476,39 +502,41 @@ implements DirectAccessCollection<E> {
      * @throws UnsupportedOperationException if the <tt>remove</tt> operation
      *         is not supported by this collection
      */
-	public synchronized boolean remove(Object o) {
+	public boolean remove(Object o) {
 		if (o==null || !this.elementType.isInstance(o))
 			return false;
 		
-		if (!this.autoApply || isIterated()) {
-			E elt = this.elementType.cast(o);
-			if (ListUtil.dichotomicRemove(this.addedElements, this.elementComparator, elt)) {
-				return true;
-			}
-			
-			if (ListUtil.dichotomicAdd(
-					this.removedElements, 
-					this.elementComparator, 
-					this.elementType.cast(o),
-					!isSetBehaviorEnabled())) {
-				if (this.autoApply) {
-					applyChanges(false);
+		E elt = this.elementType.cast(o);
+		AsynchronousThreadSafeCollectionListener<E>[] listeners;
+		synchronized(this) {
+			if (!this.autoApply || isIterated()) {
+				if (ListUtil.dichotomicRemove(this.addedElements, this.elementComparator, elt)) {
+					return true;
 				}
-				return true;
+				if (!ListUtil.dichotomicAdd(
+						this.removedElements, 
+						this.elementComparator, 
+						elt,
+						!this.isSet)) {
+					return false;
+				}
+				listeners = null;
 			}
-		}
-		else {
-			E elt = this.elementType.cast(o);
-			if (ListUtil.dichotomicRemove(
-					this.currentElements,
-					this.elementComparator,
-					elt)) {
-				fireRemoval(Collections.singleton(elt));
-				return true;
+			else {
+				int index = indexOf(elt, null);
+				if (index<0) return false;
+				elt = this.elementType.cast(this.currentElements[index]);
+				removeIndex(index);
+				listeners = getListeners();
 			}
 		}
-		
-		return false;
+		if (listeners!=null) {
+			fireChanges(listeners, null, Collections.singleton(elt));
+		}
+		else if (this.autoApply) {
+			applyChanges(false);
+		}
+		return true;
 	}
 
     /**
@@ -524,26 +552,32 @@ implements DirectAccessCollection<E> {
      * @throws IndexOutOfBoundsException if the index is out of range
      *         (<tt>index &lt; 0 || index &gt;= size()</tt>)
      */
-	public synchronized E remove(int index) {
-		if (!this.autoApply || isIterated()) {
-			E e = this.currentElements.get(index);
+	public E remove(int index) {
+		E e;
+		synchronized(this) {
+			if (index<0 || index>=this.elementCount)
+				throw new IndexOutOfBoundsException();
+			e = this.elementType.cast(this.currentElements[index]);
 			assert(e!=null); 
+			
+			if (this.autoApply && !isIterated()) {
+				removeIndex(index);
+				return e;
+			}
 		
 			ListUtil.dichotomicRemove(this.addedElements, this.elementComparator, e);
 			ListUtil.dichotomicAdd(
 					this.removedElements,
 					this.elementComparator,
 					e,
-					!isSetBehaviorEnabled());
-			
-			if (this.autoApply) {
-				applyChanges(false);
-			}
-			
-			return e;
+					!this.isSet);
 		}
 		
-		return this.currentElements.remove(index);
+		if (this.autoApply) {
+			applyChanges(false);
+		}
+			
+		return e;
 	}
 
 	/**
@@ -579,7 +613,7 @@ implements DirectAccessCollection<E> {
 	 */
 	@Override
 	public synchronized int size() {
-		return this.currentElements.size();
+		return this.elementCount;
 	}
 
 	/**
@@ -587,7 +621,9 @@ implements DirectAccessCollection<E> {
 	 */
 	@Override
 	public synchronized E get(int position) {
-		return this.currentElements.get(position);
+		if (position<0 || position>=this.elementCount)
+			throw new IndexOutOfBoundsException();
+		return this.elementType.cast(this.currentElements[position]);
 	}
 
 	/**
@@ -643,7 +679,7 @@ implements DirectAccessCollection<E> {
 	 */
 	@Override
 	public SafeIterator<E> iterator() {
-		return new SafeIterator<E>(this, this.currentElements.iterator());
+		return new SafeIterator<E>(this);
 	}
 		
 	/** Apply registered changes in the current content.
@@ -664,82 +700,257 @@ implements DirectAccessCollection<E> {
 	 * @return <code>true</code> if something changed in the
 	 * collection, otherwise <code>false</code>
 	 */
-	public synchronized boolean applyChanges(boolean force) {
-		boolean changed = false;
+	public boolean applyChanges(boolean force) {
+		AsynchronousThreadSafeCollectionListener<E>[] listeners;
+		List<E> addition = null;
+		List<E> removal = null;
 		
-		if (force || !isIterated()) {
-
-			List<E> addition = new ArrayList<E>();
-			List<E> removal = new ArrayList<E>();
+		synchronized(this) {
+			if (!force && isIterated()) return false;
+			
+			if (force) {
+				++this.iteratorEpoch;
+				this.iteratorCount = 0;
+			}
+			
+			if (!this.clearedListFlag && this.removedElements.isEmpty()
+				&& this.addedElements.isEmpty()) {
+				return false;
+			}
+			
+			Object[] current = this.currentElements;
+			int count = this.elementCount;
 			
 			if (this.clearedListFlag) {
-				removal.addAll(this.currentElements);
-				this.currentElements.clear();
+				removal = asList(current, count);
+				current = EMPTY;
+				count = 0;
 				this.clearedListFlag = false;
-				changed = true;
 			}
 
+			// Mark the removed elements
+			boolean[] removedFlags = null;
+			int removedCount = 0;
 			if (!this.removedElements.isEmpty()) {
+				int index;
 				for(E e : this.removedElements) {
-					if (ListUtil.dichotomicRemove(this.currentElements, this.elementComparator, e)) {
-						removal.add(e);
-						changed = true;
+					index = indexOf(current, count, e, removedFlags);
+					if (index>=0) {
+						if (removedFlags==null) removedFlags = new boolean[count];
+						removedFlags[index] = true;
+						++removedCount;
+						if (removal==null) removal = new ArrayList<E>();
+						removal.add(this.elementType.cast(current[index]));
 					}
 				}
 				this.removedElements.clear();
 			}
-			if (!this.addedElements.isEmpty()) {
-				for(E e : this.addedElements) {
-					if (ListUtil.dichotomicAdd(
-							this.currentElements,
-							this.elementComparator,
-							e,
-							!isSetBehaviorEnabled())) {
-						addition.add(e);
-						changed = true;
-					}
-				}
-				this.addedElements.clear();
-			}
 			
-			if (!addition.isEmpty()) {
-				if (removal.isEmpty()) {
-					fireAddition(addition);
+			// Merge the sorted additions with the remaining elements
+			Object[] merged = new Object[count - removedCount + this.addedElements.size()];
+			int m = 0;
+			int i = 0;
+			Object lastCurrent = null;
+			for(E e : this.addedElements) {
+				while (i<count && this.elementComparator.compare(e, this.elementType.cast(current[i]))>=0) {
+					if (removedFlags==null || !removedFlags[i]) {
+						lastCurrent = current[i];
+						merged[m++] = lastCurrent;
+					}
+					++i;
 				}
-				else {
-					fireAdditionRemoval(addition, removal);
+				if (this.isSet && lastCurrent!=null
+					&& this.elementComparator.compare(e, this.elementType.cast(lastCurrent))==0) {
+					continue;
 				}
+				merged[m++] = e;
+				if (addition==null) addition = new ArrayList<E>();
+				addition.add(e);
 			}
-			else if (!removal.isEmpty()) {
-				fireRemoval(removal);
+			this.addedElements.clear();
+			for(; i<count; ++i) {
+				if (removedFlags==null || !removedFlags[i]) {
+					merged[m++] = current[i];
+				}
 			}
 			
-			this.iterators.clear();
+			if (removal==null && addition==null) return false;
+			
+			this.currentElements = merged;
+			this.elementCount = m;
+			this.sharedElements = false;
+			listeners = getListeners();
 		}
 		
-		return changed;
+		fireChanges(listeners, addition, removal);
+		
+		return true;
 	}
 	
 	/** Register the given iterator to avoid concurrent modification exceptions.
 	 * 
 	 * @param iterator is the new iterator.
+	 * @return the iterator on the current content of this collection.
 	 */
-	synchronized void allocateIterator(SafeIterator<E> iterator) {
+	Iterator<E> allocateIterator(SafeIterator<E> iterator) {
 		assert(iterator!=null);
 		if (this.autoApply) applyChanges(false);
-		this.iterators.add(iterator);
+		synchronized(this) {
+			if (iterator.epoch!=this.iteratorEpoch) {
+				iterator.epoch = this.iteratorEpoch;
+				++this.iteratorCount;
+			}
+			this.sharedElements = true;
+			return new ArrayIterator<E>(this.elementType, this.currentElements, this.elementCount);
+		}
 	}
 		
 	/** Unregister the given iterator.
 	 * 
 	 * @param iterator is the released iterator.
 	 */
-	synchronized void releaseIterator(SafeIterator<E> iterator) {
+	void releaseIterator(SafeIterator<E> iterator) {
 		assert(iterator!=null);
-		this.iterators.remove(iterator);
+		synchronized(this) {
+			if (iterator.epoch==this.iteratorEpoch) {
+				iterator.epoch = SafeIterator.NO_EPOCH;
+				--this.iteratorCount;
+			}
+		}
 		if (this.autoApply) applyChanges(false);
 	}
 	
+	/** Replies the index where the given element must be inserted
+	 * in the current content.
+	 * 
+	 * @param e is the element to insert.
+	 * @return the insertion index, or <code>-1</code> if the element
+	 * is already inside the array and this collection is a set.
+	 */
+	private int insertionIndex(E e) {
+		Object[] elements = this.currentElements;
+		int f = 0;
+		int l = this.elementCount-1;
+		int c;
+		int cmpR;
+		while (l>=f) {
+			c = (f+l)/2;
+			cmpR = this.elementComparator.compare(e, this.elementType.cast(elements[c]));
+			if (cmpR==0 && this.isSet) return -1;
+			if (cmpR<0) {
+				l = c-1;
+			}
+			else {
+				f = c+1;
+			}
+		}
+		return f;
+	}
+
+	/** Replies the index of the given element in the current content.
+	 * 
+	 * @param e is the element to search for.
+	 * @param ignored indicates the indexes to ignore, or <code>null</code>.
+	 * @return the index of the element, or <code>-1</code> if not found.
+	 */
+	private int indexOf(E e, boolean[] ignored) {
+		return indexOf(this.currentElements, this.elementCount, e, ignored);
+	}
+	
+	/** Replies the index of the given element in the given sorted array.
+	 * <p>
+	 * When several elements are equal to the given element according to
+	 * the comparator, the given element itself is preferred.
+	 * 
+	 * @param elements is the sorted array.
+	 * @param count is the number of elements in the array.
+	 * @param e is the element to search for.
+	 * @param ignored indicates the indexes to ignore, or <code>null</code>.
+	 * @return the index of the element, or <code>-1</code> if not found.
+	 */
+	private int indexOf(Object[] elements, int count, E e, boolean[] ignored) {
+		int f = 0;
+		int l = count-1;
+		int c;
+		int cmpR;
+		while (l>=f) {
+			c = (f+l)/2;
+			cmpR = this.elementComparator.compare(e, this.elementType.cast(elements[c]));
+			if (cmpR==0) {
+				// Search for the first element equal to e
+				f = c;
+				while (f>0 && this.elementComparator.compare(e, this.elementType.cast(elements[f-1]))==0) {
+					--f;
+				}
+				int candidate = -1;
+				for(int i=f; i<count
+					&& this.elementComparator.compare(e, this.elementType.cast(elements[i]))==0; ++i) {
+					if (ignored==null || !ignored[i]) {
+						if (elements[i]==e) return i;
+						if (candidate<0) candidate = i;
+					}
+				}
+				return candidate;
+			}
+			else if (cmpR<0) {
+				l = c-1;
+			}
+			else {
+				f = c+1;
+			}
+		}
+		return -1;
+	}
+	
+	/** Ensure that the current content may be modified in place
+	 * and may contain the given number of elements.
+	 * <p>
+	 * The array is copied only if it is shared with an iterator
+	 * or if it is too small. In the last case, the capacity grows
+	 * by half of its size to amortize the copies.
+	 * 
+	 * @param minCapacity is the minimal capacity of the array.
+	 */
+	private void ensureWritable(int minCapacity) {
+		Object[] current = this.currentElements;
+		if (this.sharedElements || minCapacity>current.length) {
+			int capacity = current.length;
+			if (minCapacity>capacity) {
+				capacity = Math.max(minCapacity, capacity + (capacity>>1) + 1);
+			}
+			Object[] newElements = new Object[capacity];
+			System.arraycopy(current, 0, newElements, 0, this.elementCount);
+			this.currentElements = newElements;
+			this.sharedElements = false;
+		}
+	}
+	
+	/** Remove the element at the given index from the current content.
+	 * 
+	 * @param index
+	 */
+	private void removeIndex(int index) {
+		ensureWritable(this.elementCount);
+		Object[] current = this.currentElements;
+		--this.elementCount;
+		System.arraycopy(current, index+1, current, index, this.elementCount-index);
+		current[this.elementCount] = null;
+	}
+	
+	/** Replies a list which is containing the elements of the given array.
+	 * 
+	 * @param elements
+	 * @param count is the number of elements in the array.
+	 * @return the list.
+	 */
+	private List<E> asList(Object[] elements, int count) {
+		List<E> list = new ArrayList<E>(count);
+		for(int i=0; i<count; ++i) {
+			list.add(this.elementType.cast(elements[i]));
+		}
+		return list;
+	}
+	
 	/** Replies if this collection tries to apply the changes as soon a possible.
 	 * <p>
 	 * By default the collection does not automatically apply the changes.
@@ -815,4 +1026,61 @@ implements DirectAccessCollection<E> {
 		return b.toString();
 	}
 	
+	/**
+	 * Iterator on the first elements of an array which is
+	 * not modified while it is shared with the iterator.
+	 * 
+	 * @param <E> is the type of elements in the collections.
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	private static class ArrayIterator<E> implements Iterator<E> {
+
+		private final Class<E> type;
+		private final Object[] elements;
+		private final int count;
+		private int index = 0;
+		
+		/**
+		 * @param type
+		 * @param elements
+		 * @param count is the number of elements to iterate on.
+		 */
+		public ArrayIterator(Class<E> type, Object[] elements, int count) {
+			this.type = type;
+			this.elements = elements;
+			this.count = count;
+		}
+		
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean hasNext() {
+			return this.index<this.count;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public E next() {
+			if (this.index>=this.count)
+				throw new NoSuchElementException();
+			return this.type.cast(this.elements[this.index++]);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+		
+	}
+	
 }
@@ -39,10 +39,29 @@ import org.janusproject.kernel.util.sizediterator.SizedIterator;
 public class SafeIterator<E>
 implements SizedIterator<E> {
 
+	/** Epoch value of an iterator which is not registered in a collection.
+	 */
+	static final int NO_EPOCH = -1;
+
 	private AsynchronousThreadSafeCollection<E> collection;
 	private Iterator<E> iterator;
 	private E returnedElement = null;
 	private int iterated = 0;
+	
+	/** Iterator epoch in which this iterator was registered in the collection.
+	 * This field is accessed only when the lock on the collection is owned.
+	 */
+	int epoch = NO_EPOCH;
+
+	/**
+	 * @param col is the collection on which this iterator is iterating.
+	 * @since 1.1
+	 */
+	SafeIterator(AsynchronousThreadSafeCollection<E> col) {
+		assert(col!=null);
+		this.collection = col;
+		this.iterator = this.collection.allocateIterator(this);
+	}
 
 	/**
 	 * @param col
@@ -0,0 +1,104 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.util.identifier;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generator of identifiers based on a counter.
+ * <p>
+ * The most significant bits of the identifiers are a node prefix
+ * which is randomly selected when the generator is created.
+ * The least significant bits are the values of a counter.
+ * To avoid contention between the threads, each thread
+ * reserves a block of counter values and increments it without
+ * synchronization.
+ * <p>
+ * The identifiers are unique in the virtual machine. They are
+ * unique among the distributed kernels as soon as the 64-bits
+ * node prefixes are different, which is highly probable.
+ * The identifiers are predictable: they must not be used
+ * for security purpose.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public class CounterIdentifierGenerator implements IdentifierGenerator {
+
+	/** Singleton of the generator.
+	 */
+	public static final CounterIdentifierGenerator SINGLETON = new CounterIdentifierGenerator();
+	
+	/** Number of counter values reserved by a thread at once.
+	 */
+	private static final long BLOCK_SIZE = 1024;
+	
+	private final long nodePrefix;
+	private final AtomicLong nextBlock = new AtomicLong(0);
+	private final ThreadLocal<long[]> counters = new ThreadLocal<long[]>() {
+		@Override
+		protected long[] initialValue() {
+			// index 0: next value, index 1: end of the block.
+			return new long[] {0, 0};
+		}
+	};
+	
+	/**
+	 */
+	protected CounterIdentifierGenerator() {
+		this(new SecureRandom().nextLong());
+	}
+
+	/**
+	 * @param nodePrefix is the prefix to put in all the identifiers.
+	 */
+	protected CounterIdentifierGenerator(long nodePrefix) {
+		this.nodePrefix = nodePrefix;
+	}
+
+	/** Replies the prefix put in the identifiers.
+	 * 
+	 * @return the node prefix.
+	 */
+	public long getNodePrefix() {
+		return this.nodePrefix;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public UUID newIdentifier() {
+		long[] counter = this.counters.get();
+		if (counter[0]>=counter[1]) {
+			counter[0] = this.nextBlock.getAndAdd(BLOCK_SIZE);
+			counter[1] = counter[0] + BLOCK_SIZE;
+		}
+		long value = counter[0]++;
+		return new UUID(this.nodePrefix, value);
+	}
+	
+}
@@ -0,0 +1,47 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.util.identifier;
+
+import java.util.UUID;
+
+/**
+ * Generator of the identifiers of the messages and of the addresses.
+ * <p>
+ * The identifiers replied by a generator must be unique in the
+ * current virtual machine, and they should be unique among all the
+ * kernels that are communicating together.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ * @see Identifiers
+ */
+public interface IdentifierGenerator {
+
+	/** Create a new identifier.
+	 * 
+	 * @return a new identifier, never <code>null</code>.
+	 */
+	public UUID newIdentifier();
+	
+}
@@ -0,0 +1,155 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.util.identifier;
+
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Utility class which is providing the identifiers of the messages
+ * and of the addresses.
+ * <p>
+ * The generator is shared by all the kernels of the virtual machine.
+ * It may be selected with {@link #setGenerator(String)}, or with the
+ * system property <code>janus.identifier.generator</code>
+ * (see {@link org.janusproject.kernel.configuration.JanusProperty#JANUS_IDENTIFIER_GENERATOR}).
+ * The accepted values are:
+ * <ul>
+ * <li><code>RANDOM</code>: {@link RandomIdentifierGenerator} (default);</li>
+ * <li><code>COUNTER</code>: {@link CounterIdentifierGenerator};</li>
+ * <li><code>TIME</code>: {@link TimeBasedIdentifierGenerator};</li>
+ * <li>the fully qualified name of a class implementing
+ * {@link IdentifierGenerator} and having a public default constructor.</li>
+ * </ul>
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public class Identifiers {
+
+	/** Name of the system property which is containing the
+	 * type of the generator.
+	 */
+	public static final String GENERATOR_PROPERTY = "janus.identifier.generator"; //$NON-NLS-1$
+	
+	/** Name of the random generator.
+	 */
+	public static final String RANDOM = "RANDOM"; //$NON-NLS-1$
+
+	/** Name of the counter generator.
+	 */
+	public static final String COUNTER = "COUNTER"; //$NON-NLS-1$
+
+	/** Name of the time-based generator.
+	 */
+	public static final String TIME = "TIME"; //$NON-NLS-1$
+
+	private static volatile IdentifierGenerator generator = null;
+	
+	/** Create a new identifier with the current generator.
+	 * 
+	 * @return a new identifier.
+	 */
+	public static UUID newIdentifier() {
+		IdentifierGenerator g = generator;
+		if (g==null) {
+			g = getGenerator();
+		}
+		return g.newIdentifier();
+	}
+	
+	/** Replies the current generator of identifiers.
+	 * 
+	 * @return the generator, never <code>null</code>.
+	 */
+	public static IdentifierGenerator getGenerator() {
+		IdentifierGenerator g = generator;
+		if (g==null) {
+			synchronized(Identifiers.class) {
+				g = generator;
+				if (g==null) {
+					String name = null;
+					try {
+						name = System.getProperty(GENERATOR_PROPERTY);
+					}
+					catch(Throwable _) {
+						//
+					}
+					g = createGenerator(name);
+					generator = g;
+				}
+			}
+		}
+		return g;
+	}
+
+	/** Set the current generator of identifiers.
+	 * 
+	 * @param newGenerator is the new generator; if <code>null</code>
+	 * the default generator is used.
+	 */
+	public static void setGenerator(IdentifierGenerator newGenerator) {
+		generator = (newGenerator==null) ? RandomIdentifierGenerator.SINGLETON : newGenerator;
+	}
+
+	/** Set the current generator of identifiers.
+	 * 
+	 * @param name is the name of the generator, or the fully qualified
+	 * name of the generator class. If <code>null</code>, empty,
+	 * or invalid, the default generator is used.
+	 */
+	public static void setGenerator(String name) {
+		generator = createGenerator(name);
+	}
+
+	/** Create the generator with the given name.
+	 * 
+	 * @param name is the name of the generator, or the fully qualified
+	 * name of the generator class.
+	 * @return the generator, never <code>null</code>.
+	 */
+	private static IdentifierGenerator createGenerator(String name) {
+		if (name!=null && !name.isEmpty()) {
+			if (RANDOM.equalsIgnoreCase(name)) {
+				return RandomIdentifierGenerator.SINGLETON;
+			}
+			if (COUNTER.equalsIgnoreCase(name)) {
+				return CounterIdentifierGenerator.SINGLETON;
+			}
+			if (TIME.equalsIgnoreCase(name)) {
+				return TimeBasedIdentifierGenerator.SINGLETON;
+			}
+			try {
+				Class<?> type = Class.forName(name);
+				return (IdentifierGenerator)type.newInstance();
+			}
+			catch(Throwable e) {
+				Logger.getAnonymousLogger().log(Level.SEVERE, e.toString(), e);
+			}
+		}
+		return RandomIdentifierGenerator.SINGLETON;
+	}
+
+}
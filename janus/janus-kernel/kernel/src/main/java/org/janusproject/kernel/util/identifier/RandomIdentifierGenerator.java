@@ -0,0 +1,58 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.util.identifier;
+
+import java.util.UUID;
+
+/**
+ * Generator of random identifiers.
+ * <p>
+ * This generator is based on {@link UUID#randomUUID()} which is
+ * using a cryptographically strong random number generator.
+ * It is the safest but the slowest generator.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public class RandomIdentifierGenerator implements IdentifierGenerator {
+
+	/** Singleton of the generator.
+	 */
+	public static final RandomIdentifierGenerator SINGLETON = new RandomIdentifierGenerator();
+	
+	/**
+	 */
+	protected RandomIdentifierGenerator() {
+		//
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public UUID newIdentifier() {
+		return UUID.randomUUID();
+	}
+	
+}
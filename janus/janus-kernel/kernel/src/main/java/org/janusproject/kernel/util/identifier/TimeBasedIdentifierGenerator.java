@@ -0,0 +1,111 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.util.identifier;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generator of time-based identifiers.
+ * <p>
+ * The identifiers are version 1 UUIDs as defined in the RFC 4122.
+ * The timestamp is strictly increasing in the virtual machine:
+ * if several identifiers are created in the same clock tick,
+ * the timestamp is artificially incremented.
+ * The clock sequence and the node are randomly selected when the
+ * generator is created; the node has its multicast bit set to avoid
+ * any conflict with the identifiers based on a network card address.
+ * <p>
+ * The identifiers are unique among the distributed kernels as soon as
+ * the 62 random bits of the clock sequence and the node are different,
+ * which is highly probable.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public class TimeBasedIdentifierGenerator implements IdentifierGenerator {
+
+	/** Singleton of the generator.
+	 */
+	public static final TimeBasedIdentifierGenerator SINGLETON = new TimeBasedIdentifierGenerator();
+	
+	/** Number of 100-nanosecond intervals between the UUID epoch
+	 * (1582-10-15) and the Unix epoch (1970-01-01).
+	 */
+	private static final long UUID_EPOCH_OFFSET = 0x01B21DD213814000L;
+
+	private final long leastSignificantBits;
+	private final AtomicLong lastTimestamp = new AtomicLong(0);
+	
+	/**
+	 */
+	protected TimeBasedIdentifierGenerator() {
+		this(new SecureRandom().nextLong());
+	}
+
+	/**
+	 * @param seed is the random value from which the clock sequence
+	 * and the node are extracted.
+	 */
+	protected TimeBasedIdentifierGenerator(long seed) {
+		long lsb = seed;
+		// Multicast bit of the node
+		lsb |= 0x0000010000000000L;
+		// Variant (IETF)
+		lsb &= 0x3FFFFFFFFFFFFFFFL;
+		lsb |= 0x8000000000000000L;
+		this.leastSignificantBits = lsb;
+	}
+
+	/** Replies a timestamp that is strictly greater than
+	 * the previously replied timestamp.
+	 * 
+	 * @return the timestamp in 100-nanosecond intervals since the UUID epoch.
+	 */
+	private long nextTimestamp() {
+		long now = System.currentTimeMillis() * 10000 + UUID_EPOCH_OFFSET;
+		long last, next;
+		do {
+			last = this.lastTimestamp.get();
+			next = (now>last) ? now : last + 1;
+		}
+		while (!this.lastTimestamp.compareAndSet(last, next));
+		return next;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public UUID newIdentifier() {
+		long timestamp = nextTimestamp();
+		long msb = (timestamp << 32) // time_low
+				| ((timestamp & 0x0000FFFF00000000L) >>> 16) // time_mid
+				| 0x1000L // version
+				| ((timestamp >>> 48) & 0x0FFFL); // time_hi
+		return new UUID(msb, this.leastSignificantBits);
+	}
+	
+}
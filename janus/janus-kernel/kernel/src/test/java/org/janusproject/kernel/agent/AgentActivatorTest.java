@@ -24,7 +24,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.logging.Level;
 
 import junit.framework.TestCase;
@@ -33,6 +35,7 @@ import org.janusproject.kernel.agent.Agent;
 import org.janusproject.kernel.agent.AgentActivator;
 import org.janusproject.kernel.agent.KernelAgent;
 import org.janusproject.kernel.schedule.Activable;
+import org.janusproject.kernel.status.Status;
 import org.janusproject.kernel.logger.LoggerUtil;
 
 /**
@@ -239,4 +242,79 @@ public class AgentActivatorTest extends TestCase {
 		assertTrue(this.activator.isUsed());
 	}
 
+	/**
+	 */
+	public void testParallelBehaviour() {
+		int nbAgents = AgentActivator.MIN_CHUNK_SIZE * AgentActivator.CHUNKS_PER_WORKER * 4;
+		Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+		List<CountingAgent> agents = new ArrayList<CountingAgent>();
+		AgentActivator act = new AgentActivator();
+		act.setParallelism(4);
+		assertEquals(4, act.getParallelism());
+		for(int i=0; i<nbAgents; ++i) {
+			CountingAgent a = new CountingAgent(threads);
+			agents.add(a);
+			this.kernel.launchLightAgent(a, act);
+		}
+		act.sync();
+		act.activate();
+		for(int i=0; i<3; ++i) {
+			act.sync();
+			act.live();
+		}
+		for(CountingAgent a : agents) {
+			assertTrue(a.isAlive());
+			assertEquals(3, a.count);
+		}
+		assertTrue(threads.size()>1);
+		
+		act.setParallelism(1);
+		assertEquals(1, act.getParallelism());
+		threads.clear();
+		act.sync();
+		act.live();
+		for(CountingAgent a : agents) {
+			assertEquals(4, a.count);
+		}
+		assertEquals(Collections.singleton(Thread.currentThread()), threads);
+		
+		act.sync();
+		act.end();
+	}
+
+	/**
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 */
+	private static class CountingAgent extends Agent {
+
+		private static final long serialVersionUID = -4296637427447652880L;
+		
+		private final Set<Thread> threads;
+		
+		/** Number of executions of the behaviour.
+		 */
+		public int count = 0;
+
+		/**
+		 * @param threads
+		 */
+		public CountingAgent(Set<Thread> threads) {
+			this.threads = threads;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Status live() {
+			++this.count;
+			this.threads.add(Thread.currentThread());
+			return null;
+		}
+
+	}
+
 }
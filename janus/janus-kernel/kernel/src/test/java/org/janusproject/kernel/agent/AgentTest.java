@@ -34,6 +34,9 @@ import org.janusproject.kernel.address.AgentAddress;
 import org.janusproject.kernel.agent.Agent;
 import org.janusproject.kernel.agent.AgentLifeState;
 import org.janusproject.kernel.agent.KernelAgent;
+import org.janusproject.kernel.agentmemory.ConcurrentBlackBoardMemory;
+import org.janusproject.kernel.agentmemory.MemoryEvent;
+import org.janusproject.kernel.agentmemory.MemoryListener;
 import org.janusproject.kernel.agentsignal.Signal;
 import org.janusproject.kernel.agentsignal.SignalListener;
 import org.janusproject.kernel.configuration.JanusProperty;
@@ -49,6 +52,7 @@ import org.janusproject.kernel.message.Message;
 import org.janusproject.kernel.message.MessageReceiverSelectionPolicy;
 import org.janusproject.kernel.message.StringMessage;
 import org.janusproject.kernel.status.Status;
+import org.janusproject.kernel.status.StatusFactory;
 import org.janusproject.kernel.status.StatusSeverity;
 import org.janusproject.kernel.util.directaccess.DirectAccessCollection;
 import org.janusproject.kernel.logger.LoggerUtil;
@@ -1667,6 +1671,31 @@ public class AgentTest extends TestCase {
 		assertTrue(ag.isSelfKillableNow());
 	}
 	
+	/**
+	 */
+	public void testBufferedMemoryEvents() {
+		MemoryAgentStub a = new MemoryAgentStub();
+		
+		bindToKernel(a);
+
+		a.proceedPrivateInitialization();
+
+		// Simulate the life of the agent
+		while (a.state<3) {
+			int events = a.events.size();
+			Status s = a.proceedPrivateBehaviour();
+			assertTrue(s.isSuccess());
+			assertEquals(events+1, a.events.size());
+		}
+		
+		assertEquals(3, a.events.size());
+		for(int i=0; i<3; ++i) {
+			MemoryEvent e = a.events.get(i);
+			assertEquals("knowledge", e.getKnowledgeIdentifier()); //$NON-NLS-1$
+			assertEquals(Integer.valueOf(i*2+1), e.getNewValue());
+		}
+	}
+
 	/**
 	 */
 	public void testSignalReception_MonoListener() {
@@ -1861,6 +1890,59 @@ public class AgentTest extends TestCase {
 
 	} // class SelectionPolicy
 
+	/**
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 */
+	private class MemoryAgentStub extends Agent implements MemoryListener {
+
+		private static final long serialVersionUID = -3395180402926233706L;
+
+		/** */
+		public int state = 0;
+		
+		/** */
+		public final List<MemoryEvent> events = new ArrayList<MemoryEvent>();
+
+		/**
+		 */
+		public MemoryAgentStub() {
+			ConcurrentBlackBoardMemory memory = new ConcurrentBlackBoardMemory();
+			memory.setBufferedEvents(true);
+			memory.addMemoryListener(this);
+			setMemory(memory);
+		}
+		
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Status live() {
+			Status s = super.live();
+			if (s.isSuccess()) {
+				// Only the last change of the step is notified at the end of the step
+				putMemorizedData("knowledge", Integer.valueOf(this.state*2)); //$NON-NLS-1$
+				putMemorizedData("knowledge", Integer.valueOf(this.state*2+1)); //$NON-NLS-1$
+				if (this.events.size()!=this.state) {
+					return StatusFactory.cancel(this);
+				}
+				this.state++;
+			}
+			return s;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void onKnownledgeChanged(MemoryEvent event) {
+			this.events.add(event);
+		}
+		
+	} // class MemoryAgentStub
+
 	/**
 	 * @author $Author: sgalland$
 	 * @version $FullVersion$
@@ -0,0 +1,140 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.agent;
+
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.Level;
+
+import org.janusproject.kernel.logger.LoggerUtil;
+
+import junit.framework.TestCase;
+
+/**
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public class ExecutorProbeTest extends TestCase {
+
+	private KernelContext context;
+	private ExecutorProbe probe;
+
+	/**
+	 * @throws Exception
+	 */
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		LoggerUtil.setGlobalLevel(Level.OFF);
+		this.context = new KernelContext(new AgentAddressStub(), null, null);
+		this.probe = new ExecutorProbe(this.context, new AgentAddressStub());
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	@Override
+	public void tearDown() throws Exception {
+		this.probe = null;
+		this.context.destroy();
+		this.context = null;
+		super.tearDown();
+	}
+
+	/**
+	 */
+	public void testGetProbedValueNames() {
+		Set<String> names = this.probe.getProbedValueNames();
+		assertEquals(8, names.size());
+		assertTrue(names.contains(ExecutorProbe.AGENT_ACTIVE_COUNT));
+		assertTrue(names.contains(ExecutorProbe.AGENT_POOL_SIZE));
+		assertTrue(names.contains(ExecutorProbe.AGENT_QUEUE_SIZE));
+		assertTrue(names.contains(ExecutorProbe.CAPACITY_ACTIVE_COUNT));
+		assertTrue(names.contains(ExecutorProbe.CAPACITY_POOL_SIZE));
+		assertTrue(names.contains(ExecutorProbe.CAPACITY_QUEUE_SIZE));
+		assertTrue(names.contains(ExecutorProbe.PRIORITY_ACTIVE_COUNT));
+		assertTrue(names.contains(ExecutorProbe.PRIORITY_QUEUE_SIZE));
+		assertTrue(this.probe.hasProbeValues());
+		assertTrue(this.probe.hasProbeValue(ExecutorProbe.CAPACITY_QUEUE_SIZE));
+		assertFalse(this.probe.hasProbeValue("something")); //$NON-NLS-1$
+	}
+
+	/**
+	 */
+	public void testGetProbeValue_capacities() {
+		for(String name : new String[] {
+				ExecutorProbe.CAPACITY_ACTIVE_COUNT,
+				ExecutorProbe.CAPACITY_POOL_SIZE,
+				ExecutorProbe.CAPACITY_QUEUE_SIZE,
+				ExecutorProbe.PRIORITY_ACTIVE_COUNT,
+				ExecutorProbe.PRIORITY_QUEUE_SIZE}) {
+			assertEquals(Integer.valueOf(0), this.probe.getProbeValue(name));
+		}
+		assertNull(this.probe.getProbeValue("something")); //$NON-NLS-1$
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testGetProbeValue_agents() throws Exception {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch stop = new CountDownLatch(1);
+		this.context.getExecutorService().execute(new Runnable() {
+			@Override
+			public void run() {
+				started.countDown();
+				try {
+					stop.await();
+				}
+				catch (InterruptedException e) {
+					//
+				}
+			}
+		});
+		try {
+			started.await();
+			assertEquals(Integer.valueOf(1), this.probe.getProbeValue(ExecutorProbe.AGENT_ACTIVE_COUNT, Integer.class));
+			assertEquals(Integer.valueOf(1), this.probe.getProbeValue(ExecutorProbe.AGENT_POOL_SIZE, Integer.class));
+			assertEquals(Integer.valueOf(0), this.probe.getProbeValue(ExecutorProbe.AGENT_QUEUE_SIZE, Integer.class));
+			Integer[] values = this.probe.getProbeArray(ExecutorProbe.AGENT_ACTIVE_COUNT, Integer.class);
+			assertEquals(1, values.length);
+			assertEquals(Integer.valueOf(1), values[0]);
+			assertNull(this.probe.getProbeValue(ExecutorProbe.AGENT_ACTIVE_COUNT, String.class));
+		}
+		finally {
+			stop.countDown();
+		}
+	}
+
+	/**
+	 */
+	public void testReleaseProbe() {
+		this.probe.releaseProbe();
+		assertFalse(this.probe.hasProbeValues());
+		assertTrue(this.probe.getProbedValueNames().isEmpty());
+		assertNull(this.probe.getProbeValue(ExecutorProbe.CAPACITY_POOL_SIZE));
+		assertEquals(0, this.probe.getProbeArray(ExecutorProbe.CAPACITY_POOL_SIZE, Integer.class).length);
+	}
+
+}
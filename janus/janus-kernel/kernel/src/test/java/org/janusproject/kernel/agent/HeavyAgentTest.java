@@ -30,6 +30,8 @@ import org.janusproject.kernel.Kernel;
 import org.janusproject.kernel.KernelAdapter;
 import org.janusproject.kernel.address.AgentAddress;
 import org.janusproject.kernel.agent.Agent;
+import org.janusproject.kernel.configuration.JanusProperties;
+import org.janusproject.kernel.configuration.JanusProperty;
 import org.janusproject.kernel.crio.core.GroupAddress;
 import org.janusproject.kernel.status.Status;
 import org.janusproject.kernel.logger.LoggerUtil;
@@ -54,6 +56,11 @@ public class HeavyAgentTest extends TestCase {
 	
 	private static final long TIMEOUT = 5000;
 
+	/** Idle timeout of the reactive heavy agents, long enough
+	 * to distinguish a parked agent from a polling agent.
+	 */
+	private static final long IDLE_TIMEOUT = 10000;
+
 	/**
 	 * @throws Exception
 	 */
@@ -107,6 +114,70 @@ public class HeavyAgentTest extends TestCase {
 		assertEquals(sAgent.getSentMessages(), rAgent.getReceivedMessages());
 	}
 
+	/**
+	 * @throws Throwable
+	 */
+	public static void testReactiveMessageSending() throws Throwable {
+		SendingAgent sAgent = new SendingAgent();
+		ReceivingAgent rAgent = new ReceivingAgent();
+
+		sAgent.getAddress().setName("Sending Agent"); //$NON-NLS-1$
+		rAgent.getAddress().setName("Receiving Agent"); //$NON-NLS-1$
+
+		Kernel k = Kernels.get();
+		JanusProperties props = k.getKernelContext().getProperties();
+		props.setProperty(JanusProperty.JANUS_AGENT_HEAVY_REACTIVE, true);
+		props.setProperty(JanusProperty.JANUS_AGENT_HEAVY_IDLE_TIMEOUT, IDLE_TIMEOUT);
+		try {
+			KernelEventListener listener = new KernelEventListener();
+			k.addKernelListener(listener);
+
+			k.launchHeavyAgent(rAgent);
+
+			// Without stimulus, the receiver is parked
+			long deadline = System.currentTimeMillis() + TIMEOUT;
+			while (rAgent.getLiveInvocations()==0 && System.currentTimeMillis()<deadline) {
+				Thread.sleep(10);
+			}
+			Thread.sleep(200);
+			int invocations = rAgent.getLiveInvocations();
+			assertTrue(invocations>0);
+			Thread.sleep(500);
+			assertTrue(rAgent.getLiveInvocations()-invocations<=1);
+			assertEquals(0, rAgent.getReceivedMessages());
+
+			// The first message wakes up the receiver
+			long start = System.currentTimeMillis();
+			k.launchHeavyAgent(sAgent, rAgent.getAddress());
+			deadline = start + TIMEOUT;
+			while (rAgent.getReceivedMessages()==0 && System.currentTimeMillis()<deadline) {
+				Thread.sleep(10);
+			}
+			assertTrue(rAgent.getReceivedMessages()>0);
+			assertTrue(System.currentTimeMillis()-start<IDLE_TIMEOUT/2);
+
+			Thread.sleep(SLEEP_DURATION);
+
+			sAgent.stopTest();
+			rAgent.stopTest();
+
+			sAgent.waitUntilTermination();
+			rAgent.waitUntilTermination();
+			k.waitUntilTermination();
+
+			listener.throwsErrors();
+
+			assertTrue(listener.errors.isEmpty());
+
+			assertTrue(sAgent.getSentMessages()>0);
+			assertEquals(sAgent.getSentMessages(), rAgent.getReceivedMessages());
+		}
+		finally {
+			props.setProperty(JanusProperty.JANUS_AGENT_HEAVY_REACTIVE, false);
+			props.setProperty(JanusProperty.JANUS_AGENT_HEAVY_IDLE_TIMEOUT, JanusProperties.DEFAULT_AGENT_HEAVY_IDLE_TIMEOUT);
+		}
+	}
+
 	/**
 	 * @throws Throwable
 	 */
@@ -226,6 +297,15 @@ public class HeavyAgentTest extends TestCase {
 			return null;
 		}
 		
+		/** The sender is working without external stimulus.
+		 * 
+		 * @return <code>false</code>
+		 */
+		@Override
+		protected boolean isIdle() {
+			return false;
+		}
+		
 		/**
 		 */
 		public void stopTest() {
@@ -253,6 +333,7 @@ public class HeavyAgentTest extends TestCase {
 		
 		private final AtomicBoolean stop = new AtomicBoolean(false);
 		private final AtomicInteger nbMessages = new AtomicInteger(0);
+		private final AtomicInteger nbInvocations = new AtomicInteger(0);
 		
 		/**
 		 */
@@ -265,6 +346,7 @@ public class HeavyAgentTest extends TestCase {
 		 */
 		@Override
 		public Status live() {
+			this.nbInvocations.incrementAndGet();
 			Message m = getMessage();
 			if (m!=null) {
 				this.nbMessages.incrementAndGet();
@@ -275,10 +357,21 @@ public class HeavyAgentTest extends TestCase {
 			return null;
 		}
 		
+		/** The receiver is not idle when it must stop.
+		 * 
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected boolean isIdle() {
+			return !this.stop.get() && super.isIdle();
+		}
+		
 		/**
 		 */
 		public void stopTest() {
 			this.stop.set(true);
+			// The agent may be parked in reactive mode
+			wakeUp();
 		}
 		
 		/**
@@ -288,6 +381,13 @@ public class HeavyAgentTest extends TestCase {
 			return this.nbMessages.get();
 		}
 
+		/**
+		 * @return the number of invocations of {@link #live()}.
+		 */
+		public int getLiveInvocations() {
+			return this.nbInvocations.get();
+		}
+
 	}
 	
 	/**
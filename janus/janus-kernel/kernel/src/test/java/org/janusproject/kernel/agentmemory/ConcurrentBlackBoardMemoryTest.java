@@ -0,0 +1,254 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.agentmemory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.Level;
+
+import org.janusproject.kernel.logger.LoggerUtil;
+
+import junit.framework.TestCase;
+
+/**
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public class ConcurrentBlackBoardMemoryTest extends TestCase {
+
+	private static final String A1 = "A1"; //$NON-NLS-1$
+
+	private ConcurrentBlackBoardMemory memory;
+	private MemoryListenerStub listener;
+	
+	/**
+	 * @throws Exception
+	 */
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		LoggerUtil.setGlobalLevel(Level.OFF);
+		this.memory = new ConcurrentBlackBoardMemory();
+		this.listener = new MemoryListenerStub();
+		this.memory.addMemoryListener(this.listener);
+	}
+	
+	/**
+	 * @throws Exception
+	 */
+	@Override
+	public void tearDown() throws Exception {
+		this.memory.removeMemoryListener(this.listener);
+		this.listener = null;
+		this.memory = null;
+		super.tearDown();
+	}	
+
+	/**
+	 */
+	public void testGetMemorizedDataString() {
+		assertNull(this.memory.getMemorizedData(A1));
+	}
+	
+	/**
+	 */
+	public void testPutMemorizedDataStringObject() {
+		this.listener.assertEquals(null);
+
+		String id1 = UUID.randomUUID().toString();
+		Object v1 = new Object();
+		assertNull(this.memory.getMemorizedData(id1));
+		assertTrue(this.memory.putMemorizedData(id1, v1));
+		assertNotNull(this.memory.getMemorizedData(id1));
+		assertSame(v1, this.memory.getMemorizedData(id1));
+
+		this.listener.assertEquals(id1);
+		
+		String id2 = UUID.randomUUID().toString();
+		Object v2 = new Object();
+		assertNull(this.memory.getMemorizedData(id2));
+		assertTrue(this.memory.putMemorizedData(id2, v2));
+		assertNotNull(this.memory.getMemorizedData(id2));
+		assertSame(v2, this.memory.getMemorizedData(id2));
+
+		this.listener.assertEquals(id2);
+
+		assertTrue(this.memory.putMemorizedData(id2, v1));
+		assertNotNull(this.memory.getMemorizedData(id2));
+		assertSame(v1, this.memory.getMemorizedData(id2));
+
+		this.listener.assertEquals(id2);
+	}
+
+	/**
+	 */
+	public void testHasMemorizedDataString() {
+		String id1 = UUID.randomUUID().toString();
+		Object v1 = new Object();
+		String id2 = UUID.randomUUID().toString();
+		Object v2 = new Object();
+
+		assertFalse(this.memory.hasMemorizedData(id1));
+		assertFalse(this.memory.hasMemorizedData(id2));
+		assertFalse(this.memory.hasMemorizedData(A1));
+		
+		this.listener.assertEquals(null);
+
+		this.memory.putMemorizedData(id1, v1);
+
+		this.listener.assertEquals(id1);
+
+		assertTrue(this.memory.hasMemorizedData(id1));
+		assertFalse(this.memory.hasMemorizedData(id2));
+		assertFalse(this.memory.hasMemorizedData(A1));
+
+		this.memory.putMemorizedData(id2, v2);
+		
+		this.listener.assertEquals(id2);
+
+		assertTrue(this.memory.hasMemorizedData(id1));
+		assertTrue(this.memory.hasMemorizedData(id2));		
+		assertFalse(this.memory.hasMemorizedData(A1));
+	}
+
+	/**
+	 */
+	public void testRemoveMemorizedDataString() {
+		String id1 = UUID.randomUUID().toString();
+		Object v1 = new Object();
+		String id2 = UUID.randomUUID().toString();
+		Object v2 = new Object();
+
+		this.memory.putMemorizedData(id1, v1);
+		this.memory.putMemorizedData(id2, v2);
+		
+		this.memory.removeMemorizedData(A1);
+		
+		assertTrue(this.memory.hasMemorizedData(id1));
+		assertTrue(this.memory.hasMemorizedData(id2));		
+		assertFalse(this.memory.hasMemorizedData(A1));
+
+		this.memory.removeMemorizedData(id1);
+		
+		assertFalse(this.memory.hasMemorizedData(id1));
+		assertTrue(this.memory.hasMemorizedData(id2));		
+		assertFalse(this.memory.hasMemorizedData(A1));
+	}
+
+	/**
+	 */
+	public void testFireBufferedEvents() {
+		String id1 = UUID.randomUUID().toString();
+		Object v1 = new Object();
+		String id2 = UUID.randomUUID().toString();
+		Object v2 = new Object();
+
+		assertFalse(this.memory.isBufferedEvents());
+		this.memory.setBufferedEvents(true);
+		assertTrue(this.memory.isBufferedEvents());
+		
+		this.memory.putMemorizedData(id1, v1);
+		this.memory.putMemorizedData(id1, v2);
+		this.listener.assertEquals(null);
+		assertSame(v2, this.memory.getMemorizedData(id1));
+		
+		this.memory.fireBufferedEvents();
+		this.listener.assertEquals(id1);
+		this.memory.fireBufferedEvents();
+		this.listener.assertEquals(null);
+
+		this.memory.putMemorizedData(id2, v1);
+		this.memory.removeMemorizedData(id2);
+		this.memory.fireBufferedEvents();
+		this.listener.assertEquals(null);
+		
+		this.memory.removeMemorizedData(id1);
+		this.listener.assertEquals(null);
+		this.memory.setBufferedEvents(false);
+		this.listener.assertEquals(id1);
+		assertFalse(this.memory.hasMemorizedData(id1));
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testFireBufferedEvents_concurrentChanges() throws Exception {
+		final List<MemoryEvent> events = new ArrayList<MemoryEvent>();
+		MemoryListener recorder = new MemoryListener() {
+			@Override
+			public void onKnownledgeChanged(MemoryEvent event) {
+				events.add(event);
+			}
+		};
+		this.memory.addMemoryListener(recorder);
+		this.memory.setBufferedEvents(true);
+		try {
+			for(int round=0; round<500; ++round) {
+				final String id = UUID.randomUUID().toString();
+				final CountDownLatch start = new CountDownLatch(1);
+				Thread[] writers = new Thread[8];
+				for(int i=0; i<writers.length; ++i) {
+					writers[i] = new Thread() {
+						@SuppressWarnings("synthetic-access")
+						@Override
+						public void run() {
+							try {
+								start.await();
+							}
+							catch (InterruptedException _) {
+								return;
+							}
+							for(int j=0; j<1000; ++j) {
+								ConcurrentBlackBoardMemoryTest.this.memory.putMemorizedData(id, new Object());
+							}
+						}
+					};
+					writers[i].start();
+				}
+				start.countDown();
+				for(Thread writer : writers) {
+					writer.join();
+				}
+
+				// The buffered event is describing the change from the
+				// absent knowledge to the last value in the memory
+				events.clear();
+				this.memory.fireBufferedEvents();
+				assertEquals(1, events.size());
+				MemoryEvent event = events.get(0);
+				assertEquals(id, event.getKnowledgeIdentifier());
+				assertNull(event.getOldValue());
+				assertSame(this.memory.getMemorizedData(id), event.getNewValue());
+			}
+		}
+		finally {
+			this.memory.setBufferedEvents(false);
+			this.memory.removeMemoryListener(recorder);
+		}
+	}
+
+
+}
@@ -93,6 +93,27 @@ public class JavaReflectionMemoryTest extends TestCase {
 		assertNull(meth);
 	}
 
+	/**
+	 */
+	public void testGetGetter_cached() {
+		JavaReflectionMemory<ReflectionStub> memory2 = new JavaReflectionMemory<ReflectionStub>(new ReflectionStub());
+		
+		Method meth = this.memory.getGetter(A1);
+		assertNotNull(meth);
+		assertSame(meth, this.memory.getGetter(A1));
+		assertSame(meth, memory2.getGetter(A1));
+
+		meth = this.memory.getSetter(A1);
+		assertNotNull(meth);
+		assertSame(meth, this.memory.getSetter(A1));
+		assertSame(meth, memory2.getSetter(A1));
+
+		assertNull(this.memory.getGetter(A2));
+		assertNull(this.memory.getGetter(A2));
+		assertNull(memory2.getSetter(A2));
+		assertNull(memory2.getSetter(A2));
+	}
+
 	/**
 	 */
 	public void testGetMemorizedDataString() {
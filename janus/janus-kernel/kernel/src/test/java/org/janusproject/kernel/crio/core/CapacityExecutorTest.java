@@ -21,13 +21,24 @@
 package org.janusproject.kernel.crio.core;
 
 import java.util.UUID;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
+import org.janusproject.kernel.configuration.JanusProperties;
+import org.janusproject.kernel.configuration.JanusProperty;
 import org.janusproject.kernel.crio.capacity.CapacityContext;
+import org.janusproject.kernel.crio.capacity.CapacityContinuation;
+import org.janusproject.kernel.crio.capacity.CapacityFunction;
+import org.janusproject.kernel.crio.capacity.CapacityFuture;
 import org.janusproject.kernel.crio.capacity.CapacityImplementation;
 import org.janusproject.kernel.crio.capacity.CapacityImplementationType;
 import org.janusproject.kernel.crio.organization.MembershipService;
 import org.janusproject.kernel.logger.LoggerUtil;
+import org.janusproject.kernel.status.Status;
+import org.janusproject.kernel.util.concurrent.ThreadPoolQueueType;
+import org.janusproject.kernel.util.concurrent.ThreadPoolRejectionPolicy;
 import org.janusproject.kernel.util.random.RandomNumber;
 
 import junit.framework.TestCase;
@@ -118,6 +129,35 @@ public class CapacityExecutorTest extends TestCase {
 		assertNull(context.getOutputValueAt(3));
 	}
 
+	/**
+	 * @throws Exception
+	 */
+	public void testExecute_stateless() throws Exception {
+		CapacityContext context = CapacityExecutor.executeImmediately(
+				CapacityStub.class,
+				new CapacityImplementationStub(true, 0) {
+					@Override
+					public boolean isStateless() {
+						return true;
+					}
+				},
+				this.player,
+				this.group,
+				this.group.getPlayedRole(this.player.getAddress(), RoleStub.class),
+				'a','b','c');
+		assertNotNull(context);
+		assertFalse(context instanceof GroupCapacityContext);
+		assertNotNull(context.getIdentifier());
+		assertSame(context.getIdentifier(), context.getIdentifier());
+		assertSame(this.player, context.getCaller());
+		assertFalse(context.isFailed());
+		assertTrue(context.isResultAvailable());
+		assertEquals(3, context.getOutputValueCount());
+		assertEquals(1, context.getOutputValueAt(0));
+		assertEquals(2, context.getOutputValueAt(1));
+		assertEquals(3, context.getOutputValueAt(2));
+	}
+
 	/**
 	 * @throws Exception
 	 */
@@ -196,6 +236,161 @@ public class CapacityExecutorTest extends TestCase {
 		assertNull(context.getOutputValueAt(3));
 	}
 
+	/**
+	 * @throws Exception
+	 */
+	public void testSubmitFuture_success() throws Exception {
+		Role role = this.group.getPlayedRole(this.player.getAddress(), RoleStub.class);
+		CapacityFuture future = this.executor.submitFuture(
+				CapacityStub.class,
+				new CapacityImplementationStub(true, 500),
+				this.player,
+				this.group,
+				role,
+				'a','b','c');
+		assertNotNull(future);
+		assertNotNull(future.getIdentifier());
+		assertFalse(this.executor.hasResult(this.player.getAddress(), future.getIdentifier()));
+
+		final CapacityContext[] accepted = new CapacityContext[1];
+		future.thenAccept(new CapacityContinuation() {
+			@Override
+			public void capacityCallDone(CapacityContext ctx) {
+				accepted[0] = ctx;
+			}
+		});
+		Future<Integer> applied = future.thenApply(new CapacityFunction<Integer>() {
+			@Override
+			public Integer apply(CapacityContext ctx) {
+				return ctx.getOutputValueCount();
+			}
+		});
+
+		CapacityContext context = future.get();
+		assertNotNull(context);
+		assertFalse(context.isFailed());
+		assertTrue(context.isResultAvailable());
+		assertEquals(3, context.getOutputValueCount());
+
+		// Continuations are run by the role
+		assertNull(accepted[0]);
+		assertFalse(applied.isDone());
+		role.proceedPrivateBehaviour();
+		assertSame(context, accepted[0]);
+		assertTrue(applied.isDone());
+		assertEquals(Integer.valueOf(3), applied.get());
+
+		// Continuation registered after the call
+		accepted[0] = null;
+		future.thenAccept(new CapacityContinuation() {
+			@Override
+			public void capacityCallDone(CapacityContext ctx) {
+				accepted[0] = ctx;
+			}
+		});
+		assertNull(accepted[0]);
+		role.proceedPrivateBehaviour();
+		assertSame(context, accepted[0]);
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testSubmitFuture_cancel() throws Exception {
+		Role role = this.group.getPlayedRole(this.player.getAddress(), RoleStub.class);
+		CapacityFuture future = this.executor.submitFuture(
+				CapacityStub.class,
+				new CapacityImplementationStub(true, 5000),
+				this.player,
+				this.group,
+				role,
+				'a','b','c');
+		final CapacityContext[] accepted = new CapacityContext[1];
+		future.thenAccept(new CapacityContinuation() {
+			@Override
+			public void capacityCallDone(CapacityContext ctx) {
+				accepted[0] = ctx;
+			}
+		});
+
+		assertTrue(future.cancel(true));
+		assertTrue(future.isCancelled());
+		CapacityContext context = future.get();
+		assertNotNull(context);
+		assertTrue(context.isFailed());
+		assertFalse(context.isResultAvailable());
+
+		role.proceedPrivateBehaviour();
+		assertSame(context, accepted[0]);
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testSubmitFuture_failingContinuation() throws Exception {
+		RoleStub role = (RoleStub)this.group.getPlayedRole(this.player.getAddress(), RoleStub.class);
+		CapacityFuture future = this.executor.submitFuture(
+				CapacityStub.class,
+				new CapacityImplementationStub(true, 0),
+				this.player,
+				this.group,
+				role,
+				'a','b','c');
+		final CapacityContext[] accepted = new CapacityContext[1];
+		future.thenAccept(new CapacityContinuation() {
+			@Override
+			public void capacityCallDone(CapacityContext ctx) {
+				throw new IllegalStateException();
+			}
+		});
+		future.thenAccept(new CapacityContinuation() {
+			@Override
+			public void capacityCallDone(CapacityContext ctx) {
+				accepted[0] = ctx;
+			}
+		});
+		CapacityContext context = future.get();
+
+		Status status = role.proceedPrivateBehaviour();
+		assertTrue(status.isFailure());
+		assertSame(context, accepted[0]);
+		assertTrue(role.isRun);
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testSubmitFuture_releasedRole() throws Exception {
+		Role role = this.group.getPlayedRole(this.player.getAddress(), RoleStub.class);
+		CapacityFuture future = this.executor.submitFuture(
+				CapacityStub.class,
+				new CapacityImplementationStub(true, 0),
+				this.player,
+				this.group,
+				role,
+				'a','b','c');
+		Future<Integer> applied = future.thenApply(new CapacityFunction<Integer>() {
+			@Override
+			public Integer apply(CapacityContext ctx) {
+				return ctx.getOutputValueCount();
+			}
+		});
+		future.get();
+		assertFalse(applied.isDone());
+
+		assertTrue(this.group.leaveRole(this.player, RoleStub.class));
+		assertTrue(applied.isCancelled());
+
+		// Function registered after the release
+		applied = future.thenApply(new CapacityFunction<Integer>() {
+			@Override
+			public Integer apply(CapacityContext ctx) {
+				return ctx.getOutputValueCount();
+			}
+		});
+		assertTrue(applied.isCancelled());
+	}
+
 	/**
 	 */
 	public void testWaitResultAgentAddressUUIDLongTimeUnit_timeout() {
@@ -395,6 +590,152 @@ public class CapacityExecutorTest extends TestCase {
 		assertEquals(0, context.getOutputValueCount());
 	}
 
+	/**
+	 * @throws Exception
+	 */
+	public void testSubmitFuture_priorityLane() throws Exception {
+		Role role = this.group.getPlayedRole(this.player.getAddress(), RoleStub.class);
+		CapacityFuture future = this.executor.submitFuture(
+				CapacityStub.class,
+				new LatencySensitiveCapacityImplementationStub(),
+				this.player,
+				this.group,
+				role,
+				'a','b','c');
+		assertEquals(1, this.executor.getPoolSize(true));
+		assertEquals(0, this.executor.getPoolSize(false));
+		assertTrue(this.executor.hasCapacityExecution());
+		CapacityContext context = future.get();
+		assertFalse(context.isFailed());
+		assertEquals(3, context.getOutputValueCount());
+		
+		future = this.executor.submitFuture(
+				CapacityStub.class,
+				new CapacityImplementationStub(true, 0),
+				this.player,
+				this.group,
+				role,
+				'a','b','c');
+		assertEquals(1, this.executor.getPoolSize(false));
+		assertFalse(future.get().isFailed());
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testSubmitFuture_discarded() throws Exception {
+		JanusProperties properties = this.context.getProperties();
+		properties.setProperty(JanusProperty.JANUS_CAPACITY_POOL_MAX_SIZE, 1);
+		properties.setProperty(JanusProperty.JANUS_CAPACITY_POOL_REJECTION_POLICY,
+				ThreadPoolRejectionPolicy.DISCARD.name());
+		Role role = this.group.getPlayedRole(this.player.getAddress(), RoleStub.class);
+		CapacityFuture running = this.executor.submitFuture(
+				CapacityStub.class,
+				new CapacityImplementationStub(true, 1000),
+				this.player,
+				this.group,
+				role,
+				'a','b','c');
+		CapacityFuture discarded = this.executor.submitFuture(
+				CapacityStub.class,
+				new CapacityImplementationStub(true, 0),
+				this.player,
+				this.group,
+				role,
+				'a','b','c');
+		assertTrue(discarded.isDone());
+		assertTrue(discarded.get().isFailed());
+		assertFalse(running.get().isFailed());
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testSubmitFuture_aborted() throws Exception {
+		JanusProperties properties = this.context.getProperties();
+		properties.setProperty(JanusProperty.JANUS_CAPACITY_POOL_MAX_SIZE, 1);
+		properties.setProperty(JanusProperty.JANUS_CAPACITY_POOL_REJECTION_POLICY,
+				ThreadPoolRejectionPolicy.ABORT.name());
+		Role role = this.group.getPlayedRole(this.player.getAddress(), RoleStub.class);
+		CapacityFuture running = this.executor.submitFuture(
+				CapacityStub.class,
+				new CapacityImplementationStub(true, 1000),
+				this.player,
+				this.group,
+				role,
+				'a','b','c');
+		// The rejection is not thrown to the caller
+		CapacityFuture aborted = this.executor.submitFuture(
+				CapacityStub.class,
+				new CapacityImplementationStub(true, 0),
+				this.player,
+				this.group,
+				role,
+				'a','b','c');
+		assertTrue(aborted.isDone());
+		CapacityContext context = aborted.get();
+		assertTrue(context.isFailed());
+		assertTrue(context.getFailureException() instanceof RejectedExecutionException);
+
+		// The rejected call is available from its identifier
+		UUID id = this.executor.submit(
+				CapacityStub.class,
+				new CapacityImplementationStub(true, 0),
+				this.player,
+				this.group,
+				role,
+				'a','b','c');
+		assertTrue(this.executor.hasResult(this.player.getAddress(), id));
+		context = this.executor.waitResult(this.player.getAddress(), id, 1000);
+		assertNotNull(context);
+		assertTrue(context.isFailed());
+		assertTrue(context.getFailureException() instanceof RejectedExecutionException);
+
+		assertFalse(running.get().isFailed());
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testShutdown_fullQueue() throws Exception {
+		JanusProperties properties = this.context.getProperties();
+		properties.setProperty(JanusProperty.JANUS_CAPACITY_POOL_CORE_SIZE, 0);
+		properties.setProperty(JanusProperty.JANUS_CAPACITY_POOL_MAX_SIZE, 1);
+		properties.setProperty(JanusProperty.JANUS_CAPACITY_POOL_QUEUE_TYPE,
+				ThreadPoolQueueType.ARRAY.name());
+		properties.setProperty(JanusProperty.JANUS_CAPACITY_POOL_QUEUE_CAPACITY, 2);
+		Role role = this.group.getPlayedRole(this.player.getAddress(), RoleStub.class);
+		CapacityFuture running = this.executor.submitFuture(
+				CapacityStub.class,
+				new CapacityImplementationStub(true, 1000),
+				this.player,
+				this.group,
+				role,
+				'a','b','c');
+		while (this.executor.getQueueSize(false)>0 || this.executor.getActiveCount(false)==0) {
+			Thread.sleep(10);
+		}
+		CapacityFuture[] waiting = new CapacityFuture[2];
+		for(int i=0; i<waiting.length; ++i) {
+			waiting[i] = this.executor.submitFuture(
+					CapacityStub.class,
+					new CapacityImplementationStub(true, 0),
+					this.player,
+					this.group,
+					role,
+					'a','b','c');
+		}
+		assertEquals(2, this.executor.getQueueSize(false));
+		
+		this.executor.shutdown();
+		
+		for(CapacityFuture future : waiting) {
+			assertTrue(future.isDone());
+			assertTrue(future.get(1, TimeUnit.SECONDS).isFailed());
+		}
+		assertTrue(running.get(5, TimeUnit.SECONDS).isFailed());
+	}
+
 	/**
 	 * @author $Author: sgalland$
 	 * @version $FullVersion$
@@ -432,4 +773,25 @@ public class CapacityExecutorTest extends TestCase {
 		
 	}
 
+	/**
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 */
+	public static class LatencySensitiveCapacityImplementationStub extends CapacityImplementationStub {
+
+		/**
+		 */
+		public LatencySensitiveCapacityImplementationStub() {
+			super(true, 200);
+		}
+
+		@Override
+		public boolean isLatencySensitive() {
+			return true;
+		}
+		
+	}
+
 }
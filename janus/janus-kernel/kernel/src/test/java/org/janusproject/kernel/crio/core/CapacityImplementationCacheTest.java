@@ -0,0 +1,221 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.crio.core;
+
+import java.util.Collection;
+
+import junit.framework.TestCase;
+
+import org.janusproject.kernel.crio.capacity.Capacity;
+import org.janusproject.kernel.crio.capacity.CapacityContext;
+import org.janusproject.kernel.crio.capacity.CapacityImplementation;
+import org.janusproject.kernel.crio.capacity.CapacityImplementationSelectionPolicy;
+import org.janusproject.kernel.crio.capacity.FirstCapacityImplementationSelectionPolicy;
+import org.janusproject.kernel.crio.capacity.HashCapacityContainer;
+import org.janusproject.kernel.crio.capacity.TreeCapacityContainer;
+
+/**
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public class CapacityImplementationCacheTest extends TestCase {
+
+	private CapacityImplementationCache cache;
+	private ContainerStub container;
+	private PolicyStub policy;
+	private CapacityImplementationStub implementation;
+	
+	/**
+	 * @throws Exception
+	 */
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		this.cache = new CapacityImplementationCache();
+		this.policy = new PolicyStub();
+		this.implementation = new CapacityImplementationStub();
+		this.container = new ContainerStub();
+		this.container.addCapacity(this.implementation);
+	}
+	
+	/**
+	 * @throws Exception
+	 */
+	@Override
+	public void tearDown() throws Exception {
+		this.implementation = null;
+		this.policy = null;
+		this.container = null;
+		this.cache = null;
+		super.tearDown();
+	}
+	
+	/**
+	 */
+	public void testSelectImplementation_noImplementation() {
+		assertNull(this.cache.selectImplementation(this.container, Capacity2Stub.class));
+		assertNull(this.cache.selectImplementation(new HashCapacityContainer(), CapacityStub.class));
+	}
+	
+	/**
+	 */
+	public void testSelectImplementation_cached() {
+		assertSame(this.implementation, this.cache.selectImplementation(this.container, CapacityStub.class));
+		assertEquals(1, this.container.selections);
+		assertSame(this.implementation, this.cache.selectImplementation(this.container, CapacityStub.class));
+		assertEquals(1, this.container.selections);
+	}
+
+	/**
+	 */
+	public void testSelectImplementation_notCacheable() {
+		this.container.setCapacityImplementationSelectionPolicy(this.policy);
+		
+		assertSame(this.implementation, this.cache.selectImplementation(this.container, CapacityStub.class));
+		assertEquals(1, this.policy.calls);
+		assertSame(this.implementation, this.cache.selectImplementation(this.container, CapacityStub.class));
+		assertEquals(2, this.policy.calls);
+	}
+
+	/**
+	 */
+	public void testSelectImplementation_containerChange() {
+		assertSame(this.implementation, this.cache.selectImplementation(this.container, CapacityStub.class));
+
+		CapacityImplementationStub impl = new CapacityImplementationStub();
+		this.container.removeCapacity(this.implementation);
+		this.container.addCapacity(impl);
+		assertSame(impl, this.cache.selectImplementation(this.container, CapacityStub.class));
+		
+		this.container.removeCapacity(CapacityStub.class);
+		assertNull(this.cache.selectImplementation(this.container, CapacityStub.class));
+
+		this.container.addCapacity(this.implementation);
+		assertSame(this.implementation, this.cache.selectImplementation(this.container, CapacityStub.class));
+		
+		// Switch to a non-cacheable policy
+		this.container.setCapacityImplementationSelectionPolicy(this.policy);
+		this.cache.selectImplementation(this.container, CapacityStub.class);
+		this.cache.selectImplementation(this.container, CapacityStub.class);
+		assertEquals(2, this.policy.calls);
+	}
+
+	/**
+	 */
+	public void testSelectImplementation_newContainer() {
+		assertSame(this.implementation, this.cache.selectImplementation(this.container, CapacityStub.class));
+
+		CapacityImplementationStub impl = new CapacityImplementationStub();
+		HashCapacityContainer newContainer = new HashCapacityContainer();
+		newContainer.addCapacity(impl);
+		assertSame(impl, this.cache.selectImplementation(newContainer, CapacityStub.class));
+		
+		// The cache is no more listening the old container
+		this.container.removeCapacity(this.implementation);
+		assertSame(impl, this.cache.selectImplementation(newContainer, CapacityStub.class));
+	}
+
+	/**
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 */
+	private static class CapacityImplementationStub extends CapacityImplementation implements CapacityStub {
+
+		/**
+		 */
+		public CapacityImplementationStub() {
+			//
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void call(CapacityContext call) throws Exception {
+			//
+		}
+		
+	}
+
+	/**
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 */
+	private static class ContainerStub extends TreeCapacityContainer {
+
+		/** Number of implementation selections in this container.
+		 */
+		public int selections = 0;
+		
+		/**
+		 */
+		public ContainerStub() {
+			//
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Collection<CapacityImplementation> get(Class<? extends Capacity> id) {
+			++this.selections;
+			return super.get(id);
+		}
+		
+	}
+
+	/**
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 */
+	private static class PolicyStub implements CapacityImplementationSelectionPolicy {
+
+		/** Number of calls to the policy.
+		 */
+		public int calls = 0;
+		
+		/**
+		 */
+		public PolicyStub() {
+			//
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public CapacityImplementation selectImplementation(Collection<? extends CapacityImplementation> capacities) {
+			++this.calls;
+			return FirstCapacityImplementationSelectionPolicy.DEFAULT.selectImplementation(capacities);
+		}
+		
+	}
+
+}
@@ -20,18 +20,27 @@
  */
 package org.janusproject.kernel.crio.core;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.UUID;
 import java.util.logging.Level;
 
 import junit.framework.TestCase;
 
 import org.janusproject.kernel.address.AgentAddress;
+import org.janusproject.kernel.agentsignal.Signal;
+import org.janusproject.kernel.agentsignal.SignalListener;
 import org.janusproject.kernel.crio.organization.MembershipService;
 import org.janusproject.kernel.crio.role.RoleActivationPrototype;
+import org.janusproject.kernel.crio.role.RoleFactory;
+import org.janusproject.kernel.mailbox.BoundedMailbox;
 import org.janusproject.kernel.mailbox.BufferedMailbox;
+import org.janusproject.kernel.mailbox.LinkedListMailbox;
 import org.janusproject.kernel.mailbox.Mailbox;
+import org.janusproject.kernel.mailbox.MailboxOverflowPolicy;
+import org.janusproject.kernel.mailbox.MessageRejectedSignal;
 import org.janusproject.kernel.message.Message;
 import org.janusproject.kernel.message.StringMessage;
 import org.janusproject.kernel.status.Status;
@@ -455,6 +464,28 @@ public class KernelScopeGroupTest extends TestCase {
 		assertNull(this.group.getPlayedRole(player2.getAddress(), Role2Stub.class));
 	}
 
+	/**
+	 */
+	public void testRequestRoleRolePlayerClass_outsideLock() {
+		RolePlayer player1 = new RolePlayerStub(this.context);
+		final boolean[] locked = new boolean[] { true };
+		RoleFactory factory = new RoleFactory() {
+			@SuppressWarnings("synthetic-access")
+			@Override
+			public Role newInstance(Class<? extends Role> type) throws Exception {
+				locked[0] = KernelScopeGroupTest.this.group.internalStructureLock.isWriteLockedByCurrentThread()
+						|| KernelScopeGroupTest.this.group.internalStructureLock.getReadHoldCount()>0;
+				return new RoleStub();
+			}
+		};
+		
+		assertNotNull(this.group.requestRole(player1, RoleStub.class, factory, null));
+		assertFalse(locked[0]);
+		RoleStub role = (RoleStub)this.group.getPlayedRole(player1.getAddress(), RoleStub.class);
+		assertNotNull(role);
+		assertTrue(role.isInit);
+	}
+
 	/**
 	 */
 	public void testLeaveRoleRolePlayerClass() {
@@ -492,7 +523,56 @@ public class KernelScopeGroupTest extends TestCase {
 		assertNull(this.group.getPlayedRole(player.getAddress(), Role2Stub.class));
 		assertNull(this.group.getPlayedRole(player.getAddress(), Role3Stub.class));
 	}
-	
+
+	/**
+	 * @throws Exception
+	 */
+	public void testInternalStructureLock() throws Exception {
+		final RolePlayer player1 = new RolePlayerStub(this.context);
+		final RolePlayer player2 = new RolePlayerStub(this.context);
+		final int[] count = new int[] {-1};
+		assertNotNull(this.group.requestRole(player1, RoleStub.class, null, null));
+
+		this.group.internalStructureLock.readLock().lock();
+		try {
+			// Lookups are not blocked by another reader
+			Thread reader = new Thread() {
+				@SuppressWarnings("synthetic-access")
+				@Override
+				public void run() {
+					count[0] = KernelScopeGroupTest.this.group.getPlayerCount(RoleStub.class);
+				}
+			};
+			reader.start();
+			reader.join(5000);
+			assertFalse(reader.isAlive());
+			assertEquals(1, count[0]);
+
+			// Role requests wait for the readers
+			Thread writer = new Thread() {
+				@SuppressWarnings("synthetic-access")
+				@Override
+				public void run() {
+					KernelScopeGroupTest.this.group.requestRole(player2, RoleStub.class, null, null);
+				}
+			};
+			writer.start();
+			writer.join(500);
+			assertTrue(writer.isAlive());
+			assertFalse(this.group.isPlayedRole(player2.getAddress()));
+
+			this.group.internalStructureLock.readLock().unlock();
+			writer.join(5000);
+			assertFalse(writer.isAlive());
+			assertTrue(this.group.isPlayedRole(player2.getAddress()));
+		}
+		finally {
+			if (this.group.internalStructureLock.getReadHoldCount()>0) {
+				this.group.internalStructureLock.readLock().unlock();
+			}
+		}
+	}
+
 	/**
 	 */
 	public void testSendMessageMessageBoolean_discartSender() {
@@ -725,6 +805,62 @@ public class KernelScopeGroupTest extends TestCase {
 		assertTrue(mb.isEmpty());
 	}
 
+	/**
+	 * @throws Exception
+	 */
+	public void testSendMessageMessageBoolean_rejectedLeaveRole() throws Exception {
+		final RolePlayer player1 = new RolePlayerStub(this.context);
+		RolePlayer player2 = new RolePlayerStub(this.context);
+
+		this.group.requestRole(player1, RoleStub.class, null, null);
+		this.group.requestRole(player2, RoleStub.class, null, null);
+		
+		Role receiver = this.group.getPlayedRole(player2.getAddress(), RoleStub.class);
+		receiver.setMailbox(new BoundedMailbox(new LinkedListMailbox(), 1, MailboxOverflowPolicy.REJECT));
+		
+		final List<Signal> signals = new ArrayList<Signal>();
+		player1.addSignalListener(new SignalListener() {
+			@SuppressWarnings("synthetic-access")
+			@Override
+			public void onSignal(Signal signal) {
+				signals.add(signal);
+				// The listener changes the group on the sending thread
+				KernelScopeGroupTest.this.group.leaveRole(player1, RoleStub.class);
+			}
+		});
+		
+		final Message msg1 = new StringMessage("toto"); //$NON-NLS-1$
+		InteractionUtilStub.updateContext(
+				msg1,
+				new RoleAddress(this.group.getAddress(), RoleStub.class, player1.getAddress()),
+				new RoleAddress(this.group.getAddress(), RoleStub.class, player2.getAddress()),
+				1024);
+		final Message msg2 = new StringMessage("titi"); //$NON-NLS-1$
+		InteractionUtilStub.updateContext(
+				msg2,
+				new RoleAddress(this.group.getAddress(), RoleStub.class, player1.getAddress()),
+				new RoleAddress(this.group.getAddress(), RoleStub.class, player2.getAddress()),
+				1024);
+
+		Thread sender = new Thread() {
+			@SuppressWarnings("synthetic-access")
+			@Override
+			public void run() {
+				KernelScopeGroupTest.this.group.sendMessage(msg1, false);
+				KernelScopeGroupTest.this.group.sendMessage(msg2, false);
+			}
+		};
+		sender.setDaemon(true);
+		sender.start();
+		sender.join(5000);
+		assertFalse("dead lock when the signal listener leaves the role", sender.isAlive()); //$NON-NLS-1$
+		
+		assertEquals(1, signals.size());
+		assertTrue(signals.get(0) instanceof MessageRejectedSignal);
+		assertSame(msg2, ((MessageRejectedSignal)signals.get(0)).getMessage());
+		assertNull(this.group.getPlayedRole(player1.getAddress(), RoleStub.class));
+	}
+
 	/**
 	 * @throws Exception
 	 */
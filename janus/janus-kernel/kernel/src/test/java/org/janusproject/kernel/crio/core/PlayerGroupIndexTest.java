@@ -0,0 +1,147 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.crio.core;
+
+import java.util.Collection;
+import java.util.UUID;
+
+import junit.framework.TestCase;
+
+import org.janusproject.kernel.address.AgentAddress;
+
+/**
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ */
+public class PlayerGroupIndexTest extends TestCase {
+
+	private PlayerGroupIndex index;
+	private AgentAddress player1, player2;
+	private GroupAddress group1, group2;
+	
+	/**
+	 * @throws Exception
+	 */
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		this.index = new PlayerGroupIndex();
+		this.player1 = new AgentAddressStub();
+		this.player2 = new AgentAddressStub();
+		this.group1 = new GroupAddress(UUID.randomUUID(), Organization1Stub.class);
+		this.group2 = new GroupAddress(UUID.randomUUID(), Organization2Stub.class);
+	}
+	
+	/**
+	 * @throws Exception
+	 */
+	@Override
+	public void tearDown() throws Exception {
+		this.index = null;
+		this.player1 = this.player2 = null;
+		this.group1 = this.group2 = null;
+		super.tearDown();
+	}
+
+	/**
+	 */
+	public void testAddRemove() {
+		this.index.add(this.player1, this.group1, RoleStub.class);
+		this.index.add(this.player1, this.group1, Role2Stub.class);
+		this.index.add(this.player1, this.group2, RoleStub.class);
+
+		assertTrue(this.index.isMemberOf(this.player1, this.group1));
+		assertTrue(this.index.isMemberOf(this.player1, this.group2));
+		assertFalse(this.index.isMemberOf(this.player2, this.group1));
+
+		this.index.remove(this.player1, this.group1, RoleStub.class);
+		assertTrue(this.index.isMemberOf(this.player1, this.group1));
+		assertTrue(this.index.isPlayingRole(this.player1, this.group1, Role2Stub.class));
+		assertFalse(this.index.isPlayingRole(this.player1, this.group1, RoleStub.class));
+
+		this.index.remove(this.player1, this.group1, Role2Stub.class);
+		assertFalse(this.index.isMemberOf(this.player1, this.group1));
+		assertTrue(this.index.isMemberOf(this.player1, this.group2));
+
+		this.index.remove(this.player1, this.group2, RoleStub.class);
+		assertTrue(this.index.getGroups(this.player1).isEmpty());
+		assertTrue(this.index.getRoles(this.player1).isEmpty());
+	}
+
+	/**
+	 */
+	public void testGetGroups() {
+		assertTrue(this.index.getGroups(this.player1).isEmpty());
+		this.index.add(this.player1, this.group1, RoleStub.class);
+		this.index.add(this.player1, this.group1, Role2Stub.class);
+		this.index.add(this.player1, this.group2, RoleStub.class);
+		this.index.add(this.player2, this.group2, Role3Stub.class);
+
+		Collection<GroupAddress> groups = this.index.getGroups(this.player1);
+		assertEquals(2, groups.size());
+		assertTrue(groups.contains(this.group1));
+		assertTrue(groups.contains(this.group2));
+
+		groups = this.index.getGroups(this.player2);
+		assertEquals(1, groups.size());
+		assertTrue(groups.contains(this.group2));
+	}
+
+	/**
+	 */
+	public void testGetRoles() {
+		this.index.add(this.player1, this.group1, RoleStub.class);
+		this.index.add(this.player1, this.group1, RoleStub.class);
+		this.index.add(this.player1, this.group1, Role2Stub.class);
+		this.index.add(this.player1, this.group2, RoleStub.class);
+
+		Collection<Class<? extends Role>> roles = this.index.getRoles(this.player1);
+		assertEquals(3, roles.size());
+		assertTrue(roles.contains(RoleStub.class));
+		assertTrue(roles.contains(Role2Stub.class));
+		assertFalse(roles.contains(Role3Stub.class));
+	}
+
+	/**
+	 */
+	public void testIsPlayingRole() {
+		assertFalse(this.index.isPlayingRole(this.player1, RoleStub.class));
+		this.index.add(this.player1, this.group2, RoleStub.class);
+		assertTrue(this.index.isPlayingRole(this.player1, RoleStub.class));
+		assertFalse(this.index.isPlayingRole(this.player1, Role2Stub.class));
+		assertFalse(this.index.isPlayingRole(this.player2, RoleStub.class));
+		assertTrue(this.index.isPlayingRole(this.player1, this.group2, RoleStub.class));
+		assertFalse(this.index.isPlayingRole(this.player1, this.group1, RoleStub.class));
+	}
+
+	/**
+	 */
+	public void testClear() {
+		this.index.add(this.player1, this.group1, RoleStub.class);
+		this.index.add(this.player2, this.group2, RoleStub.class);
+		this.index.clear();
+		assertFalse(this.index.isMemberOf(this.player1, this.group1));
+		assertFalse(this.index.isMemberOf(this.player2, this.group2));
+	}
+
+}
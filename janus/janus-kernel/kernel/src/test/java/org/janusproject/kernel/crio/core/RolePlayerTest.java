@@ -1488,6 +1488,60 @@ public class RolePlayerTest extends TestCase {
 		listener.assertNull();
 	}
 
+	/**
+	 */
+	public void testSyncRolePlayingEvents() {
+		RolePlayingListenerStub listener = new RolePlayingListenerStub();
+		this.player1.addRolePlayingListener(listener);
+		GroupAddress adr = this.group1.getAddress();
+		
+		assertNotNull(this.group1.requestRole(this.player2, Role3Stub.class, null, null));
+		listener.assertNull();
+		this.player1.syncRolePlayingEvents();
+		listener.assertTaken(Role3Stub.class, adr, this.address2);
+		listener.assertNull();
+		
+		assertTrue(this.group1.leaveRole(this.player2, Role3Stub.class));
+		listener.assertNull();
+		this.player1.syncRolePlayingEvents();
+		listener.assertReleased(Role3Stub.class, adr, this.address2);
+		listener.assertNull();
+		
+		// Coalesced events
+		assertNotNull(this.group1.requestRole(this.player2, Role3Stub.class, null, null));
+		assertTrue(this.group1.leaveRole(this.player2, Role3Stub.class));
+		this.player1.syncRolePlayingEvents();
+		listener.assertNull();
+	}
+
+	/**
+	 */
+	public void testSetMembershipNotificationEnabled() {
+		RolePlayingListenerStub listener = new RolePlayingListenerStub();
+		this.player1.addRolePlayingListener(listener);
+		GroupAddress adr = this.group1.getAddress();
+		
+		assertTrue(this.player1.isMembershipNotificationEnabled());
+		this.player1.setMembershipNotificationEnabled(false);
+		assertFalse(this.player1.isMembershipNotificationEnabled());
+		
+		assertNotNull(this.group1.requestRole(this.player2, Role3Stub.class, null, null));
+		this.player1.syncRolePlayingEvents();
+		listener.assertNull();
+		
+		this.player1.setMembershipNotificationEnabled(true);
+		assertTrue(this.group1.leaveRole(this.player2, Role3Stub.class));
+		this.player1.syncRolePlayingEvents();
+		listener.assertReleased(Role3Stub.class, adr, this.address2);
+		listener.assertNull();
+
+		// The events about the roles of the player are always fired
+		this.player1.setMembershipNotificationEnabled(false);
+		assertTrue(this.player1.leaveRole(RoleStub.class, adr));
+		listener.assertReleased(RoleStub.class, adr, this.address1);
+		listener.assertNull();
+	}
+
 	/**
 	 */
 	public void testGetRoleAddresses() {
@@ -20,10 +20,12 @@
  */
 package org.janusproject.kernel.mailbox;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.logging.Level;
 
 import junit.framework.TestCase;
@@ -94,6 +96,161 @@ public class AbstractMailboxTest extends TestCase {
 		assertSame(this.m1, this.mailbox.removeFirst(new TypeSelector<MessageStub>(MessageStub.class), 500));
 	}
 
+	/** Add the given messages into the mailbox after the given delay.
+	 * 
+	 * @param mb
+	 * @param delay
+	 * @param messages
+	 * @return the thread which is adding the messages.
+	 */
+	private static Thread addLater(final Mailbox mb, final long delay, final Message... messages) {
+		Thread t = new Thread() {
+			@Override
+			public void run() {
+				try {
+					for(Message m : messages) {
+						Thread.sleep(delay);
+						mb.add(m);
+					}
+				}
+				catch (InterruptedException _) {
+					//
+				}
+			}
+		};
+		t.start();
+		return t;
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testRemoveFirstLong_blocking() throws Exception {
+		LinkedListMailbox mb = new LinkedListMailbox();
+		long start = System.currentTimeMillis();
+		Thread t = addLater(mb, 200, this.m1);
+		assertSame(this.m1, mb.removeFirst(5000));
+		assertTrue(System.currentTimeMillis()-start<5000);
+		assertTrue(mb.isEmpty());
+		t.join();
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testRemoveFirstLong_timeout() throws Exception {
+		LinkedListMailbox mb = new LinkedListMailbox();
+		long start = System.currentTimeMillis();
+		assertNull(mb.removeFirst(200));
+		assertTrue(System.currentTimeMillis()-start>=200);
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testGetFirstSelectorLong_blocking() throws Exception {
+		LinkedListMailbox mb = new LinkedListMailbox();
+		MessageStub2 m2 = new MessageStub2(512f, "m2"); //$NON-NLS-1$
+		long start = System.currentTimeMillis();
+		Thread t = addLater(mb, 100, m2, this.m1);
+		assertSame(this.m1, mb.getFirst(new TypeSelector<MessageStub>(MessageStub.class), 5000));
+		assertTrue(System.currentTimeMillis()-start<5000);
+		assertEquals(2, mb.size());
+		t.join();
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testRemoveFirstSelectorLong_bufferedBlocking() throws Exception {
+		final BufferedLinkedListMailbox mb = new BufferedLinkedListMailbox();
+		Thread t = new Thread() {
+			@SuppressWarnings("synthetic-access")
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(200);
+					mb.add(AbstractMailboxTest.this.m1);
+					Thread.sleep(100);
+					mb.synchronizeMessages();
+				}
+				catch (InterruptedException _) {
+					//
+				}
+			}
+		};
+		long start = System.currentTimeMillis();
+		t.start();
+		assertSame(this.m1, mb.removeFirst(new TypeSelector<MessageStub>(MessageStub.class), 5000));
+		assertTrue(System.currentTimeMillis()-start<5000);
+		t.join();
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testRemoveFirstLong_twoConsumers() throws Exception {
+		final LinkedListMailbox mb = new LinkedListMailbox();
+		final Message[] received = new Message[2];
+		Thread[] consumers = new Thread[received.length];
+		for(int i=0; i<consumers.length; ++i) {
+			final int idx = i;
+			consumers[i] = new Thread() {
+				@Override
+				public void run() {
+					received[idx] = mb.removeFirst(5000);
+				}
+			};
+			consumers[i].start();
+		}
+		// Let the consumers park
+		Thread.sleep(200);
+		MessageStub2 m2 = new MessageStub2(512f, "m2"); //$NON-NLS-1$
+		long start = System.currentTimeMillis();
+		mb.add(this.m1);
+		mb.add(m2);
+		for(Thread t : consumers) {
+			t.join();
+		}
+		assertTrue(System.currentTimeMillis()-start<2000);
+		assertNotNull(received[0]);
+		assertNotNull(received[1]);
+		assertNotSame(received[0], received[1]);
+		assertTrue(mb.isEmpty());
+	}
+
+	/**
+	 */
+	public void testAddMailboxListener() {
+		final List<Message> arrivals = new ArrayList<Message>();
+		MailboxListener listener = new MailboxListener() {
+			@Override
+			public void messageArrived(Mailbox source, Message message) {
+				arrivals.add(message);
+			}
+		};
+		BufferedLinkedListMailbox mb = new BufferedLinkedListMailbox();
+		mb.addMailboxListener(listener);
+		MessageStub2 m2 = new MessageStub2(512f, "m2"); //$NON-NLS-1$
+
+		// The buffered messages are notified in bulk
+		mb.add(this.m1);
+		assertTrue(arrivals.isEmpty());
+		mb.synchronizeMessages();
+		assertEquals(Collections.singletonList(null), arrivals);
+
+		arrivals.clear();
+		LinkedListMailbox mb2 = new LinkedListMailbox();
+		mb2.addMailboxListener(listener);
+		mb2.add(m2);
+		assertEquals(Collections.singletonList(m2), arrivals);
+
+		arrivals.clear();
+		mb2.removeMailboxListener(listener);
+		mb2.add(this.m1);
+		assertTrue(arrivals.isEmpty());
+	}
+
 	/**
 	 * @author $Author: sgalland$
 	 * @version $FullVersion$
@@ -0,0 +1,157 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.mailbox;
+
+import java.util.logging.Level;
+
+import junit.framework.TestCase;
+
+import org.janusproject.kernel.address.AgentAddress;
+import org.janusproject.kernel.logger.LoggerUtil;
+import org.janusproject.kernel.message.MessageStub;
+import org.janusproject.kernel.message.MessageStub2;
+
+
+/**
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ * @see BoundedMailbox
+ */
+public class BoundedMailboxTest extends TestCase {
+
+	private MessageStub m1;
+	private MessageStub m2;
+	private MessageStub m3;
+	private MessageStub2 m4;
+	
+	/**
+	 * @throws Exception
+	 */
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		LoggerUtil.setGlobalLevel(Level.OFF);
+		AgentAddress a1 = new AgentAddressStub("a1"); //$NON-NLS-1$
+		AgentAddress a2 = new AgentAddressStub("a2"); //$NON-NLS-1$
+		this.m1 = new MessageStub(1024f, "m1", a1); //$NON-NLS-1$
+		this.m2 = new MessageStub(2047f, "m2", a2); //$NON-NLS-1$
+		this.m3 = new MessageStub(4096f, "m3", a1); //$NON-NLS-1$
+		this.m4 = new MessageStub2(4096f, "m4", a1); //$NON-NLS-1$
+	}
+	
+	/**
+	 * @throws Exception
+	 */
+	@Override
+	public void tearDown() throws Exception {
+		this.m1 = this.m2 = this.m3 = null;
+		this.m4 = null;
+		super.tearDown();
+	}
+	
+	private BoundedMailbox createMailbox(MailboxOverflowPolicy policy) {
+		BoundedMailbox mailbox = new BoundedMailbox(new LinkedListMailbox(), 2, policy);
+		assertTrue(mailbox.add(this.m1));
+		assertTrue(mailbox.add(this.m2));
+		assertEquals(2, mailbox.getHighWaterMark());
+		assertEquals(0, mailbox.getOverflowCount());
+		return mailbox;
+	}
+
+	/**
+	 */
+	public void testAdd_dropOldest() {
+		BoundedMailbox mailbox = createMailbox(MailboxOverflowPolicy.DROP_OLDEST);
+		assertTrue(mailbox.add(this.m3));
+		assertEquals(2, mailbox.size());
+		assertFalse(mailbox.contains(this.m1));
+		assertTrue(mailbox.contains(this.m2));
+		assertTrue(mailbox.contains(this.m3));
+		assertEquals(2, mailbox.getHighWaterMark());
+		assertEquals(1, mailbox.getOverflowCount());
+	}
+
+	/**
+	 */
+	public void testAdd_dropNewest() {
+		BoundedMailbox mailbox = createMailbox(MailboxOverflowPolicy.DROP_NEWEST);
+		assertFalse(mailbox.add(this.m3));
+		assertEquals(2, mailbox.size());
+		assertTrue(mailbox.contains(this.m1));
+		assertTrue(mailbox.contains(this.m2));
+		assertFalse(mailbox.contains(this.m3));
+		assertEquals(1, mailbox.getOverflowCount());
+	}
+
+	/**
+	 */
+	public void testAdd_reject() {
+		BoundedMailbox mailbox = createMailbox(MailboxOverflowPolicy.REJECT);
+		assertFalse(mailbox.add(this.m3));
+		assertFalse(mailbox.contains(this.m3));
+		assertEquals(1, mailbox.getOverflowCount());
+		assertSame(this.m1, mailbox.removeFirst());
+		assertTrue(mailbox.add(this.m3));
+		assertEquals(2, mailbox.size());
+		assertEquals(2, mailbox.getHighWaterMark());
+	}
+
+	/**
+	 */
+	public void testAdd_coalesce() {
+		BoundedMailbox mailbox = createMailbox(MailboxOverflowPolicy.COALESCE);
+		// Same type and sender as m1
+		assertTrue(mailbox.add(this.m3));
+		assertFalse(mailbox.contains(this.m1));
+		assertTrue(mailbox.contains(this.m2));
+		assertTrue(mailbox.contains(this.m3));
+		// No message with the same key: drop the oldest
+		assertTrue(mailbox.add(this.m4));
+		assertFalse(mailbox.contains(this.m2));
+		assertTrue(mailbox.contains(this.m3));
+		assertTrue(mailbox.contains(this.m4));
+		assertEquals(2, mailbox.getOverflowCount());
+	}
+
+	/**
+	 */
+	public void testAdd_buffered() {
+		BoundedMailbox mailbox = new BoundedMailbox(new BufferedLinkedListMailbox(), 2, MailboxOverflowPolicy.DROP_OLDEST);
+		assertTrue(mailbox.add(this.m1));
+		assertTrue(mailbox.add(this.m2));
+		assertEquals(0, mailbox.size());
+		assertEquals(2, mailbox.getBufferSize());
+		// Buffered messages cannot be dropped
+		assertFalse(mailbox.add(this.m3));
+		mailbox.synchronizeMessages();
+		assertEquals(2, mailbox.size());
+		assertTrue(mailbox.isBufferEmpty());
+		assertTrue(mailbox.add(this.m3));
+		assertEquals(1, mailbox.getBufferSize());
+		assertEquals(1, mailbox.size());
+		assertFalse(mailbox.contains(this.m1));
+		assertEquals(2, mailbox.getOverflowCount());
+	}
+
+}
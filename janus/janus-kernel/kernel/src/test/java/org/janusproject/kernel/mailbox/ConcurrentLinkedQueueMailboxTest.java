@@ -0,0 +1,408 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.mailbox;
+
+import java.util.Iterator;
+import java.util.logging.Level;
+
+import junit.framework.TestCase;
+
+import org.janusproject.kernel.logger.LoggerUtil;
+import org.janusproject.kernel.message.Message;
+import org.janusproject.kernel.message.MessageStub;
+import org.janusproject.kernel.message.MessageStub2;
+import org.janusproject.kernel.util.selector.TypeSelector;
+
+
+/**
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public class ConcurrentLinkedQueueMailboxTest extends TestCase {
+
+	private ConcurrentLinkedQueueMailbox mailbox;
+	private MessageStub m1;
+	private MessageStub m2;
+	private MessageStub m3;
+	private MessageStub2 m4;
+	
+	/**
+	 * @throws Exception
+	 */
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		LoggerUtil.setGlobalLevel(Level.OFF);
+		this.mailbox = new ConcurrentLinkedQueueMailbox();
+		this.m1 = new MessageStub(1024f, "m1"); //$NON-NLS-1$
+		this.m2 = new MessageStub(2047f, "m2"); //$NON-NLS-1$
+		this.m3 = new MessageStub(4096f, "m3"); //$NON-NLS-1$
+		this.m4 = new MessageStub2(4096f, "m4"); //$NON-NLS-1$
+		this.mailbox.add(this.m1);
+		this.mailbox.add(this.m2);
+	}
+	
+	/**
+	 * @throws Exception
+	 */
+	@Override
+	public void tearDown() throws Exception {
+		this.mailbox = null;
+		this.m1 = this.m2 = this.m3 = null;
+		this.m4 = null;
+		super.tearDown();
+	}
+
+	/**
+	 */
+	public void testClear() {
+		assertFalse(this.mailbox.inbox.isEmpty());
+		this.mailbox.clear();
+		assertTrue(this.mailbox.inbox.isEmpty());
+	}
+
+	/**
+	 */
+	public void testContainsMail() {
+		assertTrue(this.mailbox.contains(this.m1));
+		assertTrue(this.mailbox.contains(this.m2));
+		assertFalse(this.mailbox.contains(this.m3));
+		assertFalse(this.mailbox.contains(this.m4));
+	}
+
+	/**
+	 */
+	public void testContainsSelector() {
+		assertTrue(this.mailbox.contains(new TypeSelector<MessageStub>(MessageStub.class)));
+		assertFalse(this.mailbox.contains(new TypeSelector<MessageStub2>(MessageStub2.class)));
+	}
+
+	/**
+	 */
+	public void testGetInt() {
+		assertNull(this.mailbox.get(-1));
+		assertSame(this.m1, this.mailbox.get(0));
+		assertSame(this.m2, this.mailbox.get(1));
+		assertNull(this.mailbox.get(2));
+	}
+
+	/**
+	 */
+	public void testGetFirst() {
+		assertSame(this.m1, this.mailbox.getFirst());
+	}
+
+	/**
+	 */
+	public void testGetFirstSelector() {
+		assertSame(this.m1, this.mailbox.getFirst(new TypeSelector<MessageStub>(MessageStub.class)));
+		assertNull(this.mailbox.getFirst(new TypeSelector<MessageStub2>(MessageStub2.class)));
+	}
+
+	/**
+	 */
+	public void testIsEmpty() {
+		assertFalse(this.mailbox.isEmpty());
+	}
+
+	/**
+	 */
+	public void testSize() {
+		assertEquals(2, this.mailbox.size());
+	}
+
+	/**
+	 */
+	public void testIterator() {
+		Iterator<Message> iterator = this.mailbox.iterator();
+		
+		assertTrue(iterator.hasNext());
+		assertSame(this.m1, iterator.next());
+		assertTrue(iterator.hasNext());
+		assertSame(this.m2, iterator.next());
+		assertFalse(iterator.hasNext());
+		
+		assertTrue(this.mailbox.isEmpty());
+	}
+
+	/**
+	 */
+	public void testIteratorBoolean_true() {
+		Iterator<Message> iterator = this.mailbox.iterator(true);
+		
+		assertTrue(iterator.hasNext());
+		assertSame(this.m1, iterator.next());
+		assertTrue(iterator.hasNext());
+		assertSame(this.m2, iterator.next());
+		assertFalse(iterator.hasNext());
+		
+		assertTrue(this.mailbox.isEmpty());
+	}
+
+	/**
+	 */
+	public void testIteratorBoolean_false() {
+		Iterator<Message> iterator = this.mailbox.iterator(false);
+		
+		assertTrue(iterator.hasNext());
+		assertSame(this.m1, iterator.next());
+		assertTrue(iterator.hasNext());
+		assertSame(this.m2, iterator.next());
+		assertFalse(iterator.hasNext());
+		
+		assertEquals(2, this.mailbox.size());
+	}
+
+	/**
+	 */
+	public void testIteratorSelector() {
+		Iterator<? extends Message> iterator;
+		
+		iterator = this.mailbox.iterator(new TypeSelector<MessageStub2>(MessageStub2.class));
+		assertFalse(iterator.hasNext());
+		
+		assertEquals(2, this.mailbox.size());
+
+		iterator = this.mailbox.iterator(new OddDateSelector());
+		assertTrue(iterator.hasNext());
+		assertSame(this.m2, iterator.next());
+		assertFalse(iterator.hasNext());
+		
+		assertEquals(1, this.mailbox.size());
+		assertTrue(this.mailbox.contains(this.m1));
+	}
+
+	/**
+	 */
+	public void testIteratorSelectorBoolean_true() {
+		Iterator<? extends Message> iterator;
+		
+		iterator = this.mailbox.iterator(new TypeSelector<MessageStub2>(MessageStub2.class), true);
+		assertFalse(iterator.hasNext());
+		
+		assertEquals(2, this.mailbox.size());
+
+		iterator = this.mailbox.iterator(new OddDateSelector(), true);
+		assertTrue(iterator.hasNext());
+		assertSame(this.m2, iterator.next());
+		assertFalse(iterator.hasNext());
+		
+		assertEquals(1, this.mailbox.size());
+		assertTrue(this.mailbox.contains(this.m1));
+	}
+
+	/**
+	 */
+	public void testIteratorSelectorBoolean_false() {
+		Iterator<? extends Message> iterator;
+		
+		iterator = this.mailbox.iterator(new TypeSelector<MessageStub2>(MessageStub2.class), false);
+		assertFalse(iterator.hasNext());
+		
+		assertEquals(2, this.mailbox.size());
+
+		iterator = this.mailbox.iterator(new OddDateSelector(), false);
+		assertTrue(iterator.hasNext());
+		assertSame(this.m2, iterator.next());
+		assertFalse(iterator.hasNext());
+		
+		assertEquals(2, this.mailbox.size());
+	}
+
+	/**
+	 */
+	public void testAddMail() {
+		Iterator<Message> iterator;
+		
+		MessageStub m5 = new MessageStub(1f, "m5"); //$NON-NLS-1$
+		assertTrue(this.mailbox.add(m5));
+		
+		iterator = this.mailbox.iterator(false);
+		
+		assertTrue(iterator.hasNext());
+		assertSame(this.m1, iterator.next());
+		assertTrue(iterator.hasNext());
+		assertSame(this.m2, iterator.next());
+		assertTrue(iterator.hasNext());
+		assertSame(m5, iterator.next());
+		assertFalse(iterator.hasNext());
+	}
+	
+	/**
+	 * @throws Exception
+	 */
+	public void testAddMail_concurrent() throws Exception {
+		final int nbSenders = 4;
+		final int nbMessages = 1000;
+		this.mailbox.clear();
+		Thread[] senders = new Thread[nbSenders];
+		for(int i=0; i<nbSenders; ++i) {
+			senders[i] = new Thread() {
+				@SuppressWarnings("synthetic-access")
+				@Override
+				public void run() {
+					for(int j=0; j<nbMessages; ++j) {
+						ConcurrentLinkedQueueMailboxTest.this.mailbox.add(new MessageStub(j, "m")); //$NON-NLS-1$
+					}
+				}
+			};
+			senders[i].start();
+		}
+		int received = 0;
+		long deadline = System.currentTimeMillis() + 10000;
+		while (received<nbSenders*nbMessages && System.currentTimeMillis()<deadline) {
+			if (this.mailbox.removeFirst(1000)!=null) {
+				++received;
+			}
+		}
+		for(Thread t : senders) {
+			t.join();
+		}
+		assertEquals(nbSenders*nbMessages, received);
+		assertTrue(this.mailbox.isEmpty());
+	}
+	
+	/**
+	 */
+	public void testRemoveMail() {
+		Iterator<Message> iterator;
+		
+		assertTrue(this.mailbox.remove(this.m1));
+
+		iterator = this.mailbox.iterator(false);
+		
+		assertTrue(iterator.hasNext());
+		assertSame(this.m2, iterator.next());
+		assertFalse(iterator.hasNext());
+		
+		assertFalse(this.mailbox.remove(this.m3));
+
+		iterator = this.mailbox.iterator(false);
+		
+		assertTrue(iterator.hasNext());
+		assertSame(this.m2, iterator.next());
+		assertFalse(iterator.hasNext());
+
+		assertFalse(this.mailbox.remove(this.m4));
+
+		iterator = this.mailbox.iterator(false);
+		
+		assertTrue(iterator.hasNext());
+		assertSame(this.m2, iterator.next());
+		assertFalse(iterator.hasNext());
+
+		assertTrue(this.mailbox.remove(this.m2));
+
+		iterator = this.mailbox.iterator(false);
+		
+		assertFalse(iterator.hasNext());
+	}
+
+	/**
+	 */
+	public void testRemoveInt() {
+		Iterator<Message> iterator;
+		
+		assertSame(this.m2, this.mailbox.remove(1));
+
+		iterator = this.mailbox.iterator(false);
+		
+		assertTrue(iterator.hasNext());
+		assertSame(this.m1, iterator.next());
+		assertFalse(iterator.hasNext());
+		
+		assertSame(this.m1, this.mailbox.remove(0));
+
+		iterator = this.mailbox.iterator(false);
+		
+		assertFalse(iterator.hasNext());
+	}
+
+	/**
+	 */
+	public void testRemoveAllSelector() {
+		Iterator<Message> iterator;
+
+		assertFalse(this.mailbox.removeAll(new TypeSelector<MessageStub2>(MessageStub2.class)));
+		
+		iterator = this.mailbox.iterator(false);
+		
+		assertTrue(iterator.hasNext());
+		assertSame(this.m1, iterator.next());
+		assertTrue(iterator.hasNext());
+		assertSame(this.m2, iterator.next());
+		assertFalse(iterator.hasNext());
+
+		assertTrue(this.mailbox.removeAll(new TypeSelector<MessageStub>(MessageStub.class)));
+		
+		iterator = this.mailbox.iterator(false);
+		
+		assertFalse(iterator.hasNext());
+	}
+
+	/**
+	 */
+	public void testRemoveFirst() {
+		Iterator<Message> iterator;
+
+		assertSame(this.m1, this.mailbox.removeFirst());
+		
+		iterator = this.mailbox.iterator(false);
+		
+		assertTrue(iterator.hasNext());
+		assertSame(this.m2, iterator.next());
+		assertFalse(iterator.hasNext());
+
+		assertSame(this.m2, this.mailbox.removeFirst());
+		
+		iterator = this.mailbox.iterator(false);
+		
+		assertFalse(iterator.hasNext());
+	}
+
+	/**
+	 */
+	public void testRemoveFirstSelector() {
+		Iterator<Message> iterator;
+
+		assertNull(this.mailbox.removeFirst(new TypeSelector<MessageStub2>(MessageStub2.class)));
+		
+		iterator = this.mailbox.iterator(false);
+		
+		assertTrue(iterator.hasNext());
+		assertSame(this.m1, iterator.next());
+		assertTrue(iterator.hasNext());
+		assertSame(this.m2, iterator.next());
+		assertFalse(iterator.hasNext());
+
+		assertSame(this.m2, this.mailbox.removeFirst(new OddDateSelector()));
+		
+		iterator = this.mailbox.iterator(false);
+		
+		assertTrue(iterator.hasNext());
+		assertSame(this.m1, iterator.next());
+		assertFalse(iterator.hasNext());
+	}
+
+}
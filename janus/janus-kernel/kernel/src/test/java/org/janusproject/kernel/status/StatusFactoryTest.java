@@ -0,0 +1,115 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.status;
+
+import java.util.logging.Level;
+
+import org.janusproject.kernel.logger.LoggerUtil;
+import junit.framework.TestCase;
+
+/**
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ */
+public class StatusFactoryTest extends TestCase {
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		LoggerUtil.setGlobalLevel(Level.OFF);
+	}
+	
+	/**
+	 */
+	public void testOk() {
+		Status s = StatusFactory.ok();
+		assertNotNull(s);
+		assertSame(s, StatusFactory.ok());
+		assertSame(StatusSeverity.OK, s.getSeverity());
+		assertEquals(KernelStatusConstants.SUCCESS, s.getCode());
+		assertTrue(s.isSuccess());
+		assertFalse(s.isFailure());
+		assertSame(s, s.pack(this));
+		
+		// Immutable
+		boolean loggable = s.isLoggable();
+		s.setLoggable(!loggable);
+		assertEquals(loggable, s.isLoggable());
+	}
+
+	/**
+	 */
+	public void testMerge_success() {
+		Status ok1 = StatusFactory.ok(this);
+		Status ok2 = StatusFactory.ok();
+		assertNull(StatusFactory.merge(null, null));
+		assertSame(ok1, StatusFactory.merge(null, ok1));
+		assertSame(ok1, StatusFactory.merge(ok1, null));
+		assertSame(ok1, StatusFactory.merge(ok1, ok2));
+		assertSame(ok2, StatusFactory.merge(ok2, ok1));
+		assertSame(ok1, StatusFactory.merge(ok1, new MultipleStatus()));
+	}
+
+	/**
+	 */
+	public void testMerge_failure() {
+		Status ok = StatusFactory.ok();
+		Status warning = StatusFactory.warning(this, "a", null); //$NON-NLS-1$
+		Status error = StatusFactory.error(this, "b"); //$NON-NLS-1$
+		Status cancel = StatusFactory.cancel(this);
+		
+		assertSame(error, StatusFactory.merge(ok, error));
+		assertSame(error, StatusFactory.merge(error, ok));
+		
+		Status s = StatusFactory.merge(warning, error);
+		assertTrue(s instanceof MultiStatus);
+		assertEquals(2, ((MultiStatus)s).getInnerStatus().size());
+		assertSame(error, ((MultiStatus)s).getHigherStatus());
+		
+		assertSame(s, StatusFactory.merge(s, ok));
+		assertSame(s, StatusFactory.merge(s, cancel));
+		assertEquals(3, ((MultiStatus)s).getInnerStatus().size());
+		
+		// The statuses replied by other providers are never changed
+		MultipleStatus ms = new MultipleStatus(warning, error);
+		s = StatusFactory.merge(ms, cancel);
+		assertNotSame(ms, s);
+		assertEquals(2, ms.getInnerStatus().size());
+		assertEquals(2, ((MultiStatus)s).getInnerStatus().size());
+
+		// The statuses merged by other callers are never changed
+		Status other = StatusFactory.merge(warning, error);
+		s = StatusFactory.merge(null, other);
+		assertNotSame(other, s);
+		s = StatusFactory.merge(s, cancel);
+		assertEquals(2, ((MultiStatus)other).getInnerStatus().size());
+		assertEquals(3, ((MultiStatus)s).getInnerStatus().size());
+		s = StatusFactory.merge(ok, other);
+		assertNotSame(other, s);
+		assertEquals(2, ((MultiStatus)s).getInnerStatus().size());
+	}
+
+}
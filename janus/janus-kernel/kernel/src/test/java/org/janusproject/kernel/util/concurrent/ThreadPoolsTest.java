@@ -0,0 +1,135 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.util.concurrent;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import org.janusproject.kernel.configuration.JanusProperties;
+import org.janusproject.kernel.configuration.JanusProperty;
+import org.janusproject.kernel.logger.LoggerUtil;
+
+import junit.framework.TestCase;
+
+/**
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ */
+public class ThreadPoolsTest extends TestCase {
+
+	private ThreadPoolExecutor pool;
+	
+	/**
+	 */
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		LoggerUtil.setGlobalLevel(Level.OFF);
+		this.pool = null;
+	}
+
+	/**
+	 */
+	@Override
+	protected void tearDown() throws Exception {
+		if (this.pool!=null) {
+			this.pool.shutdownNow();
+			this.pool = null;
+		}
+		super.tearDown();
+	}
+
+	/**
+	 */
+	public void testNewThreadPool_synchronous() {
+		this.pool = ThreadPools.newThreadPool(
+				2, 10, 60, TimeUnit.SECONDS,
+				ThreadPoolQueueType.SYNCHRONOUS, 5,
+				ThreadPoolRejectionPolicy.ABORT);
+		assertEquals(2, this.pool.getCorePoolSize());
+		assertEquals(10, this.pool.getMaximumPoolSize());
+		assertTrue(this.pool.getQueue() instanceof SynchronousQueue<?>);
+		assertTrue(this.pool.getRejectedExecutionHandler() instanceof ThreadPoolExecutor.AbortPolicy);
+	}
+
+	/**
+	 */
+	public void testNewThreadPool_unboundedLinked() {
+		this.pool = ThreadPools.newThreadPool(
+				2, 10, 60, TimeUnit.SECONDS,
+				ThreadPoolQueueType.LINKED, 0,
+				ThreadPoolRejectionPolicy.CALLER_RUNS);
+		assertEquals(10, this.pool.getCorePoolSize());
+		assertEquals(10, this.pool.getMaximumPoolSize());
+		assertTrue(this.pool.allowsCoreThreadTimeOut());
+		assertTrue(this.pool.getQueue() instanceof LinkedBlockingQueue<?>);
+		assertEquals(Integer.MAX_VALUE, this.pool.getQueue().remainingCapacity());
+		assertTrue(this.pool.getRejectedExecutionHandler() instanceof ThreadPoolExecutor.CallerRunsPolicy);
+	}
+
+	/**
+	 */
+	public void testNewThreadPool_boundedArray() {
+		this.pool = ThreadPools.newThreadPool(
+				20, -1, 60, TimeUnit.SECONDS,
+				ThreadPoolQueueType.ARRAY, 0,
+				ThreadPoolRejectionPolicy.DISCARD_OLDEST);
+		assertEquals(1, this.pool.getCorePoolSize());
+		assertEquals(1, this.pool.getMaximumPoolSize());
+		assertTrue(this.pool.getQueue() instanceof ArrayBlockingQueue<?>);
+		assertEquals(1, this.pool.getQueue().remainingCapacity());
+		assertTrue(this.pool.getRejectedExecutionHandler() instanceof ThreadPoolExecutor.DiscardOldestPolicy);
+	}
+
+	/**
+	 */
+	public void testNewThreadPoolJanusProperties() {
+		JanusProperties properties = new JanusProperties(UUID.randomUUID());
+		properties.setProperty(JanusProperty.JANUS_CAPACITY_POOL_CORE_SIZE, 3);
+		properties.setProperty(JanusProperty.JANUS_CAPACITY_POOL_MAX_SIZE, 7);
+		properties.setProperty(JanusProperty.JANUS_CAPACITY_POOL_QUEUE_TYPE, ThreadPoolQueueType.ARRAY.name());
+		properties.setProperty(JanusProperty.JANUS_CAPACITY_POOL_QUEUE_CAPACITY, 11);
+		properties.setProperty(JanusProperty.JANUS_CAPACITY_POOL_REJECTION_POLICY, "unknown"); //$NON-NLS-1$
+		this.pool = ThreadPools.newThreadPool(
+				properties,
+				JanusProperty.JANUS_CAPACITY_POOL_CORE_SIZE,
+				JanusProperty.JANUS_CAPACITY_POOL_MAX_SIZE,
+				JanusProperty.JANUS_CAPACITY_POOL_QUEUE_TYPE,
+				JanusProperty.JANUS_CAPACITY_POOL_QUEUE_CAPACITY,
+				JanusProperty.JANUS_CAPACITY_POOL_REJECTION_POLICY,
+				60, TimeUnit.SECONDS,
+				null);
+		assertEquals(3, this.pool.getCorePoolSize());
+		assertEquals(7, this.pool.getMaximumPoolSize());
+		assertTrue(this.pool.getQueue() instanceof ArrayBlockingQueue<?>);
+		assertEquals(11, this.pool.getQueue().remainingCapacity());
+		// Unknown policy: the default policy is used
+		assertTrue(this.pool.getRejectedExecutionHandler() instanceof ThreadPoolExecutor.AbortPolicy);
+	}
+
+}
@@ -461,6 +461,43 @@ public class NoAutoOrderEnabledAsynchronousThreadSafeCollectionTest extends Test
 		this.listener.assertNull();
 	}
 
+	/**
+	 */
+	public void testApplyChanges_batch() {
+		DataStub nd1 = new DataStub(10000);
+		DataStub nd2 = new DataStub(5000);
+		DataStub nd3 = new DataStub(50000);
+		DataStub nd4 = new DataStub(5000);
+		this.collection.addAll(Arrays.asList(nd1, this.m1));
+		this.collection.applyChanges(true);
+		this.listener.reset();
+		
+		this.collection.add(nd3);
+		this.collection.add(nd2);
+		this.collection.add(this.m2);
+		this.collection.add(nd4);
+		assertTrue(this.collection.remove(nd1));
+		
+		assertEquals(2, this.collection.size());
+		assertTrue(this.collection.applyChanges(false));
+		
+		assertEquals(5, this.collection.size());
+		assertSame(this.m2, this.collection.get(0));
+		assertSame(this.m1, this.collection.get(1));
+		assertSame(nd2, this.collection.get(2));
+		assertSame(nd4, this.collection.get(3));
+		assertSame(nd3, this.collection.get(4));
+		assertFalse(this.collection.contains(nd1));
+		this.listener.assertAdded(this.m2);
+		this.listener.assertAdded(nd2);
+		this.listener.assertAdded(nd4);
+		this.listener.assertAdded(nd3);
+		this.listener.assertRemoved(nd1);
+		this.listener.assertNull();
+		
+		assertFalse(this.collection.applyChanges(false));
+	}
+
 	/**
 	 * @author $Author: sgalland$
 	 * @version $FullVersion$
@@ -97,4 +97,42 @@ public class SafeIterator4Test extends TestCase {
 		assertFalse(iter.hasNext());
 	}
 
+	/**
+	 */
+	public void testIteratorAfterForcedChanges() {
+		this.collection.setAutoApplyEnabled(true);
+		SafeIterator<Integer> iter = this.collection.iterator();
+		try {
+			assertTrue(iter.hasNext());
+			assertSame(this.m1, iter.next());
+
+			// Forget the running iterator, so that the changes are applied immediately
+			this.collection.applyChanges(true);
+			assertFalse(this.collection.isIterated());
+			assertTrue(this.collection.add(7));
+			assertTrue(this.collection.remove(this.m4));
+			assertEquals(4, this.collection.size());
+			assertEquals(Integer.valueOf(7), this.collection.get(2));
+
+			// The running iterator still sees the content at its allocation time
+			assertTrue(iter.hasNext());
+			assertSame(this.m3, iter.next());
+			assertTrue(iter.hasNext());
+			assertSame(this.m2, iter.next());
+			assertTrue(iter.hasNext());
+			assertSame(this.m4, iter.next());
+			assertFalse(iter.hasNext());
+		}
+		finally {
+			iter.release();
+		}
+
+		assertTrue(this.collection.remove(this.m3));
+		assertEquals(3, this.collection.size());
+		assertEquals(this.m1, this.collection.get(0));
+		assertEquals(Integer.valueOf(7), this.collection.get(1));
+		assertEquals(this.m2, this.collection.get(2));
+		assertFalse(this.collection.contains(this.m4));
+	}
+
 }
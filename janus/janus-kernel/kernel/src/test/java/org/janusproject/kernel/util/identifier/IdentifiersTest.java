@@ -0,0 +1,197 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.util.identifier;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+import org.janusproject.kernel.crio.core.CRIOContext;
+import org.janusproject.kernel.logger.LoggerUtil;
+import org.janusproject.kernel.message.Message;
+import org.janusproject.kernel.message.StringMessage;
+
+import junit.framework.TestCase;
+
+/**
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public class IdentifiersTest extends TestCase {
+
+	private static final int NB_IDENTIFIERS = 10000;
+	private static final int NB_THREADS = 8;
+	
+	private IdentifierGenerator previousGenerator;
+	
+	/**
+	 * @throws Exception
+	 */
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		LoggerUtil.setGlobalLevel(Level.OFF);
+		this.previousGenerator = Identifiers.getGenerator();
+	}
+	
+	/**
+	 * @throws Exception
+	 */
+	@Override
+	public void tearDown() throws Exception {
+		Identifiers.setGenerator(this.previousGenerator);
+		this.previousGenerator = null;
+		super.tearDown();
+	}
+	
+	private static void assertUnique(IdentifierGenerator generator) {
+		Set<UUID> ids = new HashSet<UUID>();
+		for(int i=0; i<NB_IDENTIFIERS; ++i) {
+			assertTrue(ids.add(generator.newIdentifier()));
+		}
+	}
+	
+	private static void assertConcurrentUnique(final IdentifierGenerator generator) throws Exception {
+		final Set<UUID> ids = Collections.newSetFromMap(new ConcurrentHashMap<UUID,Boolean>());
+		Thread[] threads = new Thread[NB_THREADS];
+		for(int i=0; i<threads.length; ++i) {
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					for(int j=0; j<NB_IDENTIFIERS; ++j) {
+						ids.add(generator.newIdentifier());
+					}
+				}
+			};
+		}
+		for(Thread t : threads) {
+			t.start();
+		}
+		for(Thread t : threads) {
+			t.join();
+		}
+		assertEquals(NB_THREADS*NB_IDENTIFIERS, ids.size());
+	}
+
+	/**
+	 */
+	public void testSetGeneratorString() {
+		Identifiers.setGenerator(Identifiers.COUNTER);
+		assertSame(CounterIdentifierGenerator.SINGLETON, Identifiers.getGenerator());
+		Identifiers.setGenerator("time"); //$NON-NLS-1$
+		assertSame(TimeBasedIdentifierGenerator.SINGLETON, Identifiers.getGenerator());
+		Identifiers.setGenerator(Identifiers.RANDOM);
+		assertSame(RandomIdentifierGenerator.SINGLETON, Identifiers.getGenerator());
+		Identifiers.setGenerator(StubGenerator.class.getName());
+		assertTrue(Identifiers.getGenerator() instanceof StubGenerator);
+		Identifiers.setGenerator("org.janusproject.kernel.util.identifier.UnknownGenerator"); //$NON-NLS-1$
+		assertSame(RandomIdentifierGenerator.SINGLETON, Identifiers.getGenerator());
+		Identifiers.setGenerator((String)null);
+		assertSame(RandomIdentifierGenerator.SINGLETON, Identifiers.getGenerator());
+	}
+
+	/**
+	 */
+	public void testSetGeneratorIdentifierGenerator() {
+		Identifiers.setGenerator(CounterIdentifierGenerator.SINGLETON);
+		assertSame(CounterIdentifierGenerator.SINGLETON, Identifiers.getGenerator());
+		Message m = new StringMessage("a"); //$NON-NLS-1$
+		assertEquals(
+				CounterIdentifierGenerator.SINGLETON.getNodePrefix(),
+				m.getIdentifier().getMostSignificantBits());
+		Identifiers.setGenerator((IdentifierGenerator)null);
+		assertSame(RandomIdentifierGenerator.SINGLETON, Identifiers.getGenerator());
+	}
+
+	/**
+	 */
+	public void testGeneratorKeptByNewContext() {
+		Identifiers.setGenerator(CounterIdentifierGenerator.SINGLETON);
+		new CRIOContext(null);
+		assertSame(CounterIdentifierGenerator.SINGLETON, Identifiers.getGenerator());
+	}
+
+	/**
+	 */
+	public void testRandomIdentifierGenerator() {
+		assertUnique(RandomIdentifierGenerator.SINGLETON);
+	}
+
+	/**
+	 */
+	public void testCounterIdentifierGenerator() {
+		assertUnique(CounterIdentifierGenerator.SINGLETON);
+		assertUnique(new CounterIdentifierGenerator());
+		assertFalse(
+				new CounterIdentifierGenerator().getNodePrefix()
+				==CounterIdentifierGenerator.SINGLETON.getNodePrefix());
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testCounterIdentifierGenerator_concurrent() throws Exception {
+		assertConcurrentUnique(new CounterIdentifierGenerator());
+	}
+
+	/**
+	 */
+	public void testTimeBasedIdentifierGenerator() {
+		assertUnique(TimeBasedIdentifierGenerator.SINGLETON);
+		long before = System.currentTimeMillis();
+		UUID id = TimeBasedIdentifierGenerator.SINGLETON.newIdentifier();
+		assertEquals(1, id.version());
+		assertEquals(2, id.variant());
+		long time = (id.timestamp() - 0x01B21DD213814000L) / 10000;
+		assertTrue(time>=before);
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testTimeBasedIdentifierGenerator_concurrent() throws Exception {
+		assertConcurrentUnique(new TimeBasedIdentifierGenerator());
+	}
+
+	/**
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	public static class StubGenerator extends CounterIdentifierGenerator {
+		
+		/**
+		 */
+		public StubGenerator() {
+			//
+		}
+		
+	}
+
+}
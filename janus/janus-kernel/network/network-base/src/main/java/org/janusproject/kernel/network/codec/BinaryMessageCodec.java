@@ -0,0 +1,455 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.network.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.janusproject.kernel.address.Address;
+import org.janusproject.kernel.address.AgentAddress;
+import org.janusproject.kernel.crio.core.AddressUtil;
+import org.janusproject.kernel.crio.core.GroupAddress;
+import org.janusproject.kernel.crio.core.Organization;
+import org.janusproject.kernel.crio.core.Role;
+import org.janusproject.kernel.crio.core.RoleAddress;
+import org.janusproject.kernel.message.BigDecimalMessage;
+import org.janusproject.kernel.message.BigIntegerMessage;
+import org.janusproject.kernel.message.BooleanMessage;
+import org.janusproject.kernel.message.ByteMessage;
+import org.janusproject.kernel.message.DoubleMessage;
+import org.janusproject.kernel.message.EnumMessage;
+import org.janusproject.kernel.message.FloatMessage;
+import org.janusproject.kernel.message.IntMessage;
+import org.janusproject.kernel.message.LongMessage;
+import org.janusproject.kernel.message.Message;
+import org.janusproject.kernel.message.MessageFactory;
+import org.janusproject.kernel.message.ObjectMessage;
+import org.janusproject.kernel.message.ShortMessage;
+import org.janusproject.kernel.message.StringMessage;
+
+/**
+ * Compact binary codec for the messages.
+ * <p>
+ * The messages of the types provided by the Janus kernel
+ * ({@link Message}, {@link StringMessage}, {@link IntMessage}...)
+ * and their addresses are directly written in a binary form:
+ * identifiers as two longs, strings in UTF-8, numbers in their
+ * binary representation. The content of an {@link ObjectMessage},
+ * the addresses of unknown types and the messages of all the other
+ * types are encoded with the Java serialization.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public class BinaryMessageCodec extends MessageFactory implements MessageCodec {
+
+	/** Name of the codec.
+	 */
+	public static final String NAME = "binary"; //$NON-NLS-1$
+	
+	private static final Charset UTF8 = Charset.forName("UTF-8"); //$NON-NLS-1$
+	
+	private static final byte SERIALIZED = 0;
+	private static final byte MESSAGE = 1;
+	private static final byte STRING_MESSAGE = 2;
+	private static final byte BOOLEAN_MESSAGE = 3;
+	private static final byte BYTE_MESSAGE = 4;
+	private static final byte SHORT_MESSAGE = 5;
+	private static final byte INT_MESSAGE = 6;
+	private static final byte LONG_MESSAGE = 7;
+	private static final byte FLOAT_MESSAGE = 8;
+	private static final byte DOUBLE_MESSAGE = 9;
+	private static final byte BIG_INTEGER_MESSAGE = 10;
+	private static final byte BIG_DECIMAL_MESSAGE = 11;
+	private static final byte ENUM_MESSAGE = 12;
+	private static final byte OBJECT_MESSAGE = 13;
+
+	private static final byte NULL_ADDRESS = 0;
+	private static final byte SERIALIZED_ADDRESS = 1;
+	private static final byte AGENT_ADDRESS = 2;
+	private static final byte GROUP_ADDRESS = 3;
+	private static final byte ROLE_ADDRESS = 4;
+	
+	private static final Map<String,Class<?>> classes = new ConcurrentHashMap<String,Class<?>>();
+	
+	/** Type of the agent addresses created by {@link AddressUtil}.
+	 * It is the only agent address type that is written in binary
+	 * form because it is the one that is created when reading.
+	 */
+	private static final Class<?> AGENT_ADDRESS_TYPE = AddressUtil.createAgentAddress(new UUID(0, 0)).getClass();
+	
+	/**
+	 */
+	public BinaryMessageCodec() {
+		//
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	/** Replies the tag of the given message type.
+	 * Only the exact types are supported because the subclasses
+	 * may contain additional fields.
+	 * 
+	 * @param type
+	 * @return the tag of the type.
+	 */
+	private static byte getMessageTag(Class<?> type) {
+		if (type==StringMessage.class) return STRING_MESSAGE;
+		if (type==IntMessage.class) return INT_MESSAGE;
+		if (type==ObjectMessage.class) return OBJECT_MESSAGE;
+		if (type==Message.class) return MESSAGE;
+		if (type==BooleanMessage.class) return BOOLEAN_MESSAGE;
+		if (type==ByteMessage.class) return BYTE_MESSAGE;
+		if (type==ShortMessage.class) return SHORT_MESSAGE;
+		if (type==LongMessage.class) return LONG_MESSAGE;
+		if (type==FloatMessage.class) return FLOAT_MESSAGE;
+		if (type==DoubleMessage.class) return DOUBLE_MESSAGE;
+		if (type==BigIntegerMessage.class) return BIG_INTEGER_MESSAGE;
+		if (type==BigDecimalMessage.class) return BIG_DECIMAL_MESSAGE;
+		if (type==EnumMessage.class) return ENUM_MESSAGE;
+		return SERIALIZED;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public byte[] encode(Message message) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(baos);
+		try {
+			byte tag = getMessageTag(message.getClass());
+			out.writeByte(tag);
+			if (tag==SERIALIZED) {
+				writeBytes(out, JavaSerializationMessageCodec.serialize(message));
+			}
+			else {
+				writeUUID(out, message.getIdentifier());
+				out.writeFloat(message.getCreationDate());
+				writeAddress(out, message.getSender());
+				writeAddress(out, message.getReceiver());
+				writeContent(out, tag, message);
+			}
+		}
+		finally {
+			out.close();
+		}
+		return baos.toByteArray();
+	}
+	
+	private static void writeContent(DataOutputStream out, byte tag, Message message) throws IOException {
+		switch(tag) {
+		case STRING_MESSAGE:
+			writeString(out, ((StringMessage)message).getContent());
+			break;
+		case BOOLEAN_MESSAGE:
+			out.writeBoolean(((BooleanMessage)message).booleanValue());
+			break;
+		case BYTE_MESSAGE:
+			out.writeByte(((ByteMessage)message).byteValue());
+			break;
+		case SHORT_MESSAGE:
+			out.writeShort(((ShortMessage)message).shortValue());
+			break;
+		case INT_MESSAGE:
+			out.writeInt(((IntMessage)message).intValue());
+			break;
+		case LONG_MESSAGE:
+			out.writeLong(((LongMessage)message).longValue());
+			break;
+		case FLOAT_MESSAGE:
+			out.writeFloat(((FloatMessage)message).floatValue());
+			break;
+		case DOUBLE_MESSAGE:
+			out.writeDouble(((DoubleMessage)message).doubleValue());
+			break;
+		case BIG_INTEGER_MESSAGE:
+		{
+			BigInteger v = ((BigIntegerMessage)message).getContent();
+			writeBytes(out, v==null ? null : v.toByteArray());
+			break;
+		}
+		case BIG_DECIMAL_MESSAGE:
+		{
+			BigDecimal v = ((BigDecimalMessage)message).getContent();
+			if (v==null) {
+				writeBytes(out, null);
+			}
+			else {
+				writeBytes(out, v.unscaledValue().toByteArray());
+				out.writeInt(v.scale());
+			}
+			break;
+		}
+		case ENUM_MESSAGE:
+		{
+			Enum<?> v = ((EnumMessage)message).getContent();
+			if (v==null) {
+				writeString(out, null);
+			}
+			else {
+				writeString(out, v.getDeclaringClass().getName());
+				writeString(out, v.name());
+			}
+			break;
+		}
+		case OBJECT_MESSAGE:
+		{
+			Object v = ((ObjectMessage)message).getContent();
+			writeBytes(out, v==null ? null : JavaSerializationMessageCodec.serialize(v));
+			break;
+		}
+		case MESSAGE:
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Message decode(byte[] data) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+		try {
+			byte tag = in.readByte();
+			if (tag==SERIALIZED) {
+				int length = in.readInt();
+				return (Message)JavaSerializationMessageCodec.unserialize(data, data.length - length, length);
+			}
+			UUID id = readUUID(in);
+			float creationDate = in.readFloat();
+			Address sender = readAddress(in);
+			Address receiver = readAddress(in);
+			Message message = readContent(in, tag);
+			setIdentifier(message, id);
+			setCreationDate(message, creationDate);
+			setSender(message, sender);
+			setReceiver(message, receiver);
+			return message;
+		}
+		finally {
+			in.close();
+		}
+	}
+	
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Message readContent(DataInputStream in, byte tag) throws IOException {
+		switch(tag) {
+		case MESSAGE:
+			return new Message();
+		case STRING_MESSAGE:
+			return new StringMessage(readString(in));
+		case BOOLEAN_MESSAGE:
+			return new BooleanMessage(in.readBoolean());
+		case BYTE_MESSAGE:
+			return new ByteMessage(in.readByte());
+		case SHORT_MESSAGE:
+			return new ShortMessage(in.readShort());
+		case INT_MESSAGE:
+			return new IntMessage(in.readInt());
+		case LONG_MESSAGE:
+			return new LongMessage(in.readLong());
+		case FLOAT_MESSAGE:
+			return new FloatMessage(in.readFloat());
+		case DOUBLE_MESSAGE:
+			return new DoubleMessage(in.readDouble());
+		case BIG_INTEGER_MESSAGE:
+		{
+			byte[] b = readBytes(in);
+			return new BigIntegerMessage(b==null ? null : new BigInteger(b));
+		}
+		case BIG_DECIMAL_MESSAGE:
+		{
+			byte[] b = readBytes(in);
+			return new BigDecimalMessage(b==null ? null : new BigDecimal(new BigInteger(b), in.readInt()));
+		}
+		case ENUM_MESSAGE:
+		{
+			String type = readString(in);
+			if (type==null) return new EnumMessage(null);
+			Class<? extends Enum> enumType = getClass(type).asSubclass(Enum.class);
+			return new EnumMessage(Enum.valueOf(enumType, readString(in)));
+		}
+		case OBJECT_MESSAGE:
+		{
+			byte[] b = readBytes(in);
+			return new ObjectMessage(b==null ? null : JavaSerializationMessageCodec.unserialize(b, 0, b.length));
+		}
+		default:
+			throw new IOException("unsupported message type: "+tag); //$NON-NLS-1$
+		}
+	}
+
+	private static void writeAddress(DataOutputStream out, Address address) throws IOException {
+		if (address==null) {
+			out.writeByte(NULL_ADDRESS);
+		}
+		else if (address.getClass()==AGENT_ADDRESS_TYPE) {
+			out.writeByte(AGENT_ADDRESS);
+			writeUUID(out, address.getUUID());
+			writeString(out, address.getName());
+		}
+		else if (isBinaryGroupAddress(address)) {
+			GroupAddress adr = (GroupAddress)address;
+			out.writeByte(GROUP_ADDRESS);
+			writeUUID(out, adr.getUUID());
+			writeString(out, adr.getOrganization().getName());
+			writeString(out, adr.getName());
+		}
+		else if (address.getClass()==RoleAddress.class
+				&& ((RoleAddress)address).getDescription()==null
+				&& isBinaryGroupAddress(((RoleAddress)address).getGroup())) {
+			RoleAddress adr = (RoleAddress)address;
+			out.writeByte(ROLE_ADDRESS);
+			GroupAddress grp = adr.getGroup();
+			writeUUID(out, grp.getUUID());
+			writeString(out, grp.getOrganization().getName());
+			writeString(out, grp.getName());
+			writeString(out, adr.getRole().getName());
+			writeAddress(out, adr.getPlayer());
+			writeString(out, adr.getName());
+		}
+		else {
+			out.writeByte(SERIALIZED_ADDRESS);
+			writeBytes(out, JavaSerializationMessageCodec.serialize(address));
+		}
+	}
+
+	/** Replies if the given address could be written without
+	 * loosing information.
+	 */
+	private static boolean isBinaryGroupAddress(Address address) {
+		if (address!=null && address.getClass()==GroupAddress.class) {
+			GroupAddress adr = (GroupAddress)address;
+			return adr.getDescription()==null && adr.getOrganization()!=null;
+		}
+		return false;
+	}
+
+	private static Address readAddress(DataInputStream in) throws IOException {
+		byte tag = in.readByte();
+		switch(tag) {
+		case NULL_ADDRESS:
+			return null;
+		case AGENT_ADDRESS:
+		{
+			UUID id = readUUID(in);
+			return AddressUtil.createAgentAddress(id, readString(in));
+		}
+		case GROUP_ADDRESS:
+			return readGroupAddress(in);
+		case ROLE_ADDRESS:
+		{
+			GroupAddress group = readGroupAddress(in);
+			Class<? extends Role> role = getClass(readString(in)).asSubclass(Role.class);
+			AgentAddress player = (AgentAddress)readAddress(in);
+			return AddressUtil.createRoleAddress(group, role, player, readString(in));
+		}
+		case SERIALIZED_ADDRESS:
+		{
+			byte[] b = readBytes(in);
+			return (Address)JavaSerializationMessageCodec.unserialize(b, 0, b.length);
+		}
+		default:
+			throw new IOException("unsupported address type: "+tag); //$NON-NLS-1$
+		}
+	}
+	
+	private static GroupAddress readGroupAddress(DataInputStream in) throws IOException {
+		UUID id = readUUID(in);
+		Class<? extends Organization> organization = getClass(readString(in)).asSubclass(Organization.class);
+		return AddressUtil.createGroupAddress(id, organization, readString(in));
+	}
+
+	private static Class<?> getClass(String name) throws IOException {
+		Class<?> type = classes.get(name);
+		if (type==null) {
+			try {
+				type = Class.forName(name);
+			}
+			catch (ClassNotFoundException e) {
+				throw new IOException(e);
+			}
+			classes.put(name, type);
+		}
+		return type;
+	}
+	
+	private static void writeUUID(DataOutputStream out, UUID id) throws IOException {
+		out.writeLong(id.getMostSignificantBits());
+		out.writeLong(id.getLeastSignificantBits());
+	}
+
+	private static UUID readUUID(DataInputStream in) throws IOException {
+		long msb = in.readLong();
+		return new UUID(msb, in.readLong());
+	}
+
+	/** Write a buffer preceded by its length;
+	 * a <code>null</code> buffer has a negative length.
+	 */
+	private static void writeBytes(DataOutputStream out, byte[] data) throws IOException {
+		if (data==null) {
+			out.writeInt(-1);
+		}
+		else {
+			out.writeInt(data.length);
+			out.write(data);
+		}
+	}
+
+	private static byte[] readBytes(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length<0) return null;
+		byte[] data = new byte[length];
+		in.readFully(data);
+		return data;
+	}
+
+	private static void writeString(DataOutputStream out, String s) throws IOException {
+		writeBytes(out, s==null ? null : s.getBytes(UTF8));
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] data = readBytes(in);
+		return data==null ? null : new String(data, UTF8);
+	}
+
+}
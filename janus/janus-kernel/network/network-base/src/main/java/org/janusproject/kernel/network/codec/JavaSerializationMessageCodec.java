@@ -0,0 +1,120 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.network.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.janusproject.kernel.message.Message;
+
+/**
+ * Codec based on the standard Java serialization.
+ * <p>
+ * This codec supports all the serializable messages.
+ * It is supported by all the kernels, and it is used when
+ * no other codec could be negotiated.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public class JavaSerializationMessageCodec implements MessageCodec {
+
+	/** Name of the codec.
+	 */
+	public static final String NAME = "java"; //$NON-NLS-1$
+	
+	/**
+	 */
+	public JavaSerializationMessageCodec() {
+		//
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public byte[] encode(Message message) throws IOException {
+		return serialize(message);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Message decode(byte[] data) throws IOException {
+		return (Message)unserialize(data, 0, data.length);
+	}
+	
+	/** Serialize the given object with the Java serialization.
+	 * 
+	 * @param object is the object to serialize.
+	 * @return the bytes of the serialized object.
+	 * @throws IOException
+	 */
+	static byte[] serialize(Object object) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(baos);
+		try {
+			oos.writeObject(object);
+		}
+		finally {
+			oos.close();
+		}
+		return baos.toByteArray();
+	}
+
+	/** Unserialize an object with the Java serialization.
+	 * 
+	 * @param data is the buffer which is containing the serialized object.
+	 * @param offset is the position of the first byte of the object in the buffer.
+	 * @param length is the number of bytes of the object in the buffer.
+	 * @return the object.
+	 * @throws IOException
+	 */
+	static Object unserialize(byte[] data, int offset, int length) throws IOException {
+		ObjectInputStream ois = new ObjectInputStream(
+				new ByteArrayInputStream(data, offset, length));
+		try {
+			return ois.readObject();
+		}
+		catch (ClassNotFoundException e) {
+			throw new IOException(e);
+		}
+		finally {
+			ois.close();
+		}
+	}
+
+}
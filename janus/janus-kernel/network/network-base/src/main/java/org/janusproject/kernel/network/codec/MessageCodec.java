@@ -0,0 +1,70 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.network.codec;
+
+import java.io.IOException;
+
+import org.janusproject.kernel.message.Message;
+
+/**
+ * Encoder and decoder of the messages that are exchanged
+ * between distant kernels.
+ * <p>
+ * The codecs are identified by their names. The names are exchanged
+ * by the kernels when they are registering on the network to
+ * negotiate the codec to use (see {@link MessageCodecs}).
+ * Additional codecs may be provided with the standard service
+ * provider mechanism, ie. by listing their classes in the
+ * <code>META-INF/services/org.janusproject.kernel.network.codec.MessageCodec</code>
+ * resource.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public interface MessageCodec {
+
+	/** Replies the name of the codec.
+	 * The name must be the same in all the kernels.
+	 * 
+	 * @return the name of the codec.
+	 */
+	public String getName();
+	
+	/** Encode the given message.
+	 * 
+	 * @param message is the message to encode.
+	 * @return the encoded message.
+	 * @throws IOException if the message cannot be encoded.
+	 */
+	public byte[] encode(Message message) throws IOException;
+
+	/** Decode the given message.
+	 * 
+	 * @param data is the encoded message.
+	 * @return the decoded message.
+	 * @throws IOException if the message cannot be decoded.
+	 */
+	public Message decode(byte[] data) throws IOException;
+
+}
@@ -0,0 +1,147 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.network.codec;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Registry of the message codecs.
+ * <p>
+ * The codecs are sorted by preference: the last registered codec
+ * is the preferred one. The built-in codecs are
+ * {@link BinaryMessageCodec} (preferred) and
+ * {@link JavaSerializationMessageCodec} (supported by all kernels).
+ * The codecs declared with the service provider mechanism
+ * (see {@link ServiceLoader}) are preferred to the built-in codecs.
+ * <p>
+ * When kernels are registering on the network, they exchange the
+ * names of their codecs (see {@link #getCodecNames()}), and each
+ * kernel selects with {@link #negotiate(Collection)} the preferred
+ * codec that is supported by all the other kernels.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public class MessageCodecs {
+
+	private static final MessageCodec DEFAULT_CODEC = new JavaSerializationMessageCodec();
+	
+	private static final List<MessageCodec> codecs = new CopyOnWriteArrayList<MessageCodec>();
+	
+	static {
+		codecs.add(DEFAULT_CODEC);
+		codecs.add(0, new BinaryMessageCodec());
+		try {
+			Iterator<MessageCodec> iterator = ServiceLoader.load(MessageCodec.class).iterator();
+			while (iterator.hasNext()) {
+				register(iterator.next());
+			}
+		}
+		catch(ServiceConfigurationError e) {
+			Logger.getAnonymousLogger().log(Level.SEVERE, e.toString(), e);
+		}
+	}
+
+	/** Register a codec. The codec becomes the preferred codec.
+	 * If a codec with the same name was registered, it is replaced.
+	 * 
+	 * @param codec
+	 */
+	public static synchronized void register(MessageCodec codec) {
+		assert(codec!=null);
+		for(MessageCodec c : codecs) {
+			if (c.getName().equals(codec.getName())) {
+				codecs.remove(c);
+			}
+		}
+		codecs.add(0, codec);
+	}
+
+	/** Replies the codec with the given name.
+	 * 
+	 * @param name
+	 * @return the codec, or <code>null</code> if the codec is unknown.
+	 */
+	public static MessageCodec getCodec(String name) {
+		if (name!=null) {
+			for(MessageCodec c : codecs) {
+				if (name.equals(c.getName())) {
+					return c;
+				}
+			}
+		}
+		return null;
+	}
+
+	/** Replies the codec which is supported by all the kernels.
+	 * 
+	 * @return the codec based on the Java serialization.
+	 */
+	public static MessageCodec getDefaultCodec() {
+		return DEFAULT_CODEC;
+	}
+
+	/** Replies the names of the supported codecs, from the preferred
+	 * to the least preferred.
+	 * 
+	 * @return the names of the codecs.
+	 */
+	public static List<String> getCodecNames() {
+		List<String> names = new ArrayList<String>(codecs.size());
+		for(MessageCodec c : codecs) {
+			names.add(c.getName());
+		}
+		return names;
+	}
+
+	/** Replies the preferred codec which is supported by all the
+	 * given distant kernels.
+	 * 
+	 * @param distantCodecs are, for each distant kernel, the names
+	 * of its supported codecs.
+	 * @return the negotiated codec, never <code>null</code>.
+	 */
+	public static MessageCodec negotiate(Collection<? extends Collection<String>> distantCodecs) {
+		for(MessageCodec c : codecs) {
+			boolean supported = true;
+			Iterator<? extends Collection<String>> iterator = distantCodecs.iterator();
+			while (supported && iterator.hasNext()) {
+				supported = iterator.next().contains(c.getName());
+			}
+			if (supported) {
+				return c;
+			}
+		}
+		return DEFAULT_CODEC;
+	}
+
+}
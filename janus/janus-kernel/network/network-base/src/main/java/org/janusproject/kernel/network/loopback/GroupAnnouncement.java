@@ -0,0 +1,79 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.network.loopback;
+
+import java.util.Collection;
+
+import org.janusproject.kernel.crio.core.GroupAddress;
+import org.janusproject.kernel.crio.organization.GroupCondition;
+import org.janusproject.kernel.crio.organization.MembershipService;
+
+/**
+ * Description of a group announced on a {@link LoopbackNetwork}.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+class GroupAnnouncement {
+
+	/** Address of the group.
+	 */
+	public final GroupAddress address;
+	
+	/** Conditions to enter in the group.
+	 */
+	public final Collection<? extends GroupCondition> obtainConditions;
+
+	/** Conditions to leave the group.
+	 */
+	public final Collection<? extends GroupCondition> leaveConditions;
+
+	/** Membership checker of the group.
+	 */
+	public final MembershipService membership;
+	
+	/** Indicates if the group is persistent.
+	 */
+	public final boolean persistent;
+	
+	/**
+	 * @param address is the address of the group.
+	 * @param obtainConditions are the conditions to enter in the group.
+	 * @param leaveConditions are the conditions to leave the group.
+	 * @param membership is the membership checker of the group.
+	 * @param persistent indicates if the group is persistent.
+	 */
+	public GroupAnnouncement(GroupAddress address,
+			Collection<? extends GroupCondition> obtainConditions,
+			Collection<? extends GroupCondition> leaveConditions,
+			MembershipService membership,
+			boolean persistent) {
+		this.address = address;
+		this.obtainConditions = obtainConditions;
+		this.leaveConditions = leaveConditions;
+		this.membership = membership;
+		this.persistent = persistent;
+	}
+	
+}
@@ -0,0 +1,564 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.network.loopback;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.janusproject.kernel.address.Address;
+import org.janusproject.kernel.address.AgentAddress;
+import org.janusproject.kernel.crio.core.GroupAddress;
+import org.janusproject.kernel.crio.core.Role;
+import org.janusproject.kernel.network.codec.MessageCodec;
+import org.janusproject.kernel.network.codec.MessageCodecs;
+
+/**
+ * In-memory network that connects several kernels living
+ * in the same virtual machine.
+ * <p>
+ * Each kernel is connected to the network with its own
+ * {@link LoopbackNetworkAdapter}. The messages are encoded with
+ * a {@link MessageCodec}, so that the kernels never share the
+ * message instances, and they are delivered asynchronously by
+ * a single daemon thread in the order in which they were sent.
+ * <p>
+ * The network may inject defects in the message traffic:
+ * <ul>
+ * <li>a latency, added to the delivery time of each message;</li>
+ * <li>a bandwidth, which defines the transmission time of each
+ * message on the outbound link of its sender;</li>
+ * <li>a loss probability, which is the probability that a message
+ * is silently dropped.</li>
+ * </ul>
+ * The group announcements and the updates of the agent and role
+ * tables of the kernels are subject to the latency but they are
+ * never lost.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public class LoopbackNetwork {
+
+	private static final AtomicInteger NETWORK_COUNT = new AtomicInteger(0);
+	
+	private final Collection<LoopbackNetworkAdapter> adapters = new CopyOnWriteArrayList<LoopbackNetworkAdapter>();
+	private final ScheduledExecutorService executor;
+	private final Random random;
+	private final AtomicLong transmittedMessages = new AtomicLong(0);
+	private final AtomicLong lostMessages = new AtomicLong(0);
+	private volatile MessageCodec codec;
+	private volatile long latency = 0;
+	private volatile long bandwidth = 0;
+	private volatile float lossProbability = 0f;
+	
+	/** Create a perfect network: no latency, no bandwidth
+	 * limit, and no loss.
+	 */
+	public LoopbackNetwork() {
+		this(new Random());
+	}
+
+	/** Create a perfect network: no latency, no bandwidth
+	 * limit, and no loss.
+	 * 
+	 * @param seed is the seed of the random number generator
+	 * used to select the lost messages and the receivers.
+	 * A fixed seed makes the defects reproducible.
+	 */
+	public LoopbackNetwork(long seed) {
+		this(new Random(seed));
+	}
+
+	private LoopbackNetwork(Random random) {
+		this.random = random;
+		this.codec = MessageCodecs.negotiate(Collections.<Collection<String>>emptyList());
+		ScheduledThreadPoolExecutor ex = new ScheduledThreadPoolExecutor(1,
+				new DeliveryThreadFactory(NETWORK_COUNT.incrementAndGet()));
+		ex.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+		this.executor = ex;
+	}
+	
+	/** Replies the latency added to the delivery of each message.
+	 * 
+	 * @param unit is the unit of the replied value.
+	 * @return the latency.
+	 */
+	public long getLatency(TimeUnit unit) {
+		return unit.convert(this.latency, TimeUnit.NANOSECONDS);
+	}
+	
+	/** Set the latency added to the delivery of each message.
+	 * 
+	 * @param latency is the latency; a negative value is assumed to be zero.
+	 * @param unit is the unit of the latency.
+	 */
+	public void setLatency(long latency, TimeUnit unit) {
+		this.latency = Math.max(0, unit.toNanos(latency));
+	}
+
+	/** Replies the bandwidth of the outbound link of each kernel.
+	 * 
+	 * @return the bandwidth in bytes per second, or <code>0</code>
+	 * if the bandwidth is unlimited.
+	 */
+	public long getBandwidth() {
+		return this.bandwidth;
+	}
+	
+	/** Set the bandwidth of the outbound link of each kernel.
+	 * 
+	 * @param bytesPerSecond is the bandwidth in bytes per second,
+	 * or <code>0</code> if the bandwidth is unlimited.
+	 */
+	public void setBandwidth(long bytesPerSecond) {
+		this.bandwidth = Math.max(0, bytesPerSecond);
+	}
+
+	/** Replies the probability that a message is lost.
+	 * 
+	 * @return the probability in <code>[0;1]</code>.
+	 */
+	public float getLossProbability() {
+		return this.lossProbability;
+	}
+	
+	/** Set the probability that a message is lost.
+	 * 
+	 * @param probability is the probability in <code>[0;1]</code>.
+	 */
+	public void setLossProbability(float probability) {
+		this.lossProbability = Math.max(0f, Math.min(1f, probability));
+	}
+	
+	/** Replies the codec used to encode the messages.
+	 * 
+	 * @return the codec.
+	 */
+	public MessageCodec getCodec() {
+		return this.codec;
+	}
+	
+	/** Set the codec used to encode the messages.
+	 * 
+	 * @param codec is the codec, or <code>null</code> to use
+	 * the preferred codec.
+	 */
+	public void setCodec(MessageCodec codec) {
+		this.codec = (codec==null)
+				? MessageCodecs.negotiate(Collections.<Collection<String>>emptyList())
+				: codec;
+	}
+	
+	/** Replies the number of messages that were transmitted,
+	 * including the lost messages.
+	 * 
+	 * @return the number of transmitted messages.
+	 */
+	public long getTransmittedMessageCount() {
+		return this.transmittedMessages.get();
+	}
+
+	/** Replies the number of messages that were lost.
+	 * 
+	 * @return the number of lost messages.
+	 */
+	public long getLostMessageCount() {
+		return this.lostMessages.get();
+	}
+	
+	/** Create an adapter that permits to connect a kernel to this network.
+	 * The adapter is connected when the network of the kernel is
+	 * initialized.
+	 * 
+	 * @return the new adapter.
+	 */
+	public LoopbackNetworkAdapter newAdapter() {
+		return new LoopbackNetworkAdapter(this);
+	}
+	
+	/** Replies the number of connected kernels.
+	 * 
+	 * @return the number of connected kernels.
+	 */
+	public int getKernelCount() {
+		return this.adapters.size();
+	}
+	
+	/** Stop the delivery of the messages. The messages that
+	 * are not yet delivered are discarded.
+	 */
+	public void shutdown() {
+		this.executor.shutdownNow();
+		this.adapters.clear();
+	}
+	
+	/** Connect the given adapter and announce to it the
+	 * groups of the already connected kernels.
+	 * 
+	 * @param adapter
+	 */
+	void connect(LoopbackNetworkAdapter adapter) {
+		this.adapters.add(adapter);
+		for(LoopbackNetworkAdapter other : this.adapters) {
+			if (other!=adapter) {
+				for(GroupAnnouncement group : other.getLocalGroups()) {
+					schedule(other, adapter, 0, new GroupDelivery(adapter, group));
+				}
+			}
+		}
+	}
+	
+	/** Disconnect the given adapter.
+	 * 
+	 * @param adapter
+	 */
+	void disconnect(LoopbackNetworkAdapter adapter) {
+		this.adapters.remove(adapter);
+	}
+	
+	/** Replies the addresses of the kernels connected to this network,
+	 * except the given one.
+	 * 
+	 * @param source is the kernel to ignore.
+	 * @return the kernel addresses.
+	 */
+	List<AgentAddress> getKernels(LoopbackNetworkAdapter source) {
+		List<AgentAddress> kernels = new ArrayList<AgentAddress>(this.adapters.size());
+		AgentAddress adr;
+		for(LoopbackNetworkAdapter adapter : this.adapters) {
+			if (adapter!=source) {
+				adr = adapter.getKernelAddress();
+				if (adr!=null) kernels.add(adr);
+			}
+		}
+		return kernels;
+	}
+	
+	/** Replies the kernels, different from the source kernel, in
+	 * which at least one role is played in the given group.
+	 *
+	 * @param source is the kernel to ignore.
+	 * @param group is the group, or <code>null</code> for all the kernels.
+	 * @return the kernels.
+	 */
+	List<LoopbackNetworkAdapter> selectKernels(LoopbackNetworkAdapter source, GroupAddress group) {
+		List<LoopbackNetworkAdapter> kernels = new ArrayList<LoopbackNetworkAdapter>();
+		for(LoopbackNetworkAdapter adapter : this.adapters) {
+			if (adapter!=source
+				&& (group==null || adapter.hasLocalPlayer(group, null, null))) {
+				kernels.add(adapter);
+			}
+		}
+		return kernels;
+	}
+
+	/** Select at random a kernel, different from the source kernel,
+	 * in which the given role is played.
+	 * 
+	 * @param source is the kernel to ignore.
+	 * @param group is the group in which the role is played.
+	 * @param role is the type of the role.
+	 * @param player is the player of the role, or <code>null</code> for any player.
+	 * @return the kernel, or <code>null</code> if none.
+	 */
+	LoopbackNetworkAdapter selectKernel(LoopbackNetworkAdapter source, GroupAddress group, Class<? extends Role> role, AgentAddress player) {
+		List<LoopbackNetworkAdapter> candidates = new ArrayList<LoopbackNetworkAdapter>();
+		for(LoopbackNetworkAdapter adapter : this.adapters) {
+			if (adapter!=source && adapter.hasLocalPlayer(group, role, player)) {
+				if (player!=null) return adapter;
+				candidates.add(adapter);
+			}
+		}
+		return select(candidates);
+	}
+
+	/** Select at random a kernel, different from the source kernel,
+	 * in which the given agent is living.
+	 * 
+	 * @param source is the kernel to ignore.
+	 * @param agent is the agent, or <code>null</code> for any agent.
+	 * @return the kernel, or <code>null</code> if none.
+	 */
+	LoopbackNetworkAdapter selectKernel(LoopbackNetworkAdapter source, AgentAddress agent) {
+		List<LoopbackNetworkAdapter> candidates = new ArrayList<LoopbackNetworkAdapter>();
+		for(LoopbackNetworkAdapter adapter : this.adapters) {
+			if (adapter!=source && adapter.hasLocalAgent(agent)) {
+				if (agent!=null) return adapter;
+				candidates.add(adapter);
+			}
+		}
+		return select(candidates);
+	}
+	
+	/** Select an element at random.
+	 * 
+	 * @param <T> is the type of the elements.
+	 * @param candidates
+	 * @return the selected element, or <code>null</code> if the list is empty.
+	 */
+	<T> T select(List<T> candidates) {
+		if (candidates.isEmpty()) return null;
+		if (candidates.size()==1) return candidates.get(0);
+		synchronized(this.random) {
+			return candidates.get(this.random.nextInt(candidates.size()));
+		}
+	}
+	
+	/** Announce the given group to all the kernels except the source.
+	 * 
+	 * @param source is the kernel which has created the group.
+	 * @param group is the description of the group.
+	 */
+	void announceGroup(LoopbackNetworkAdapter source, GroupAnnouncement group) {
+		for(LoopbackNetworkAdapter adapter : this.adapters) {
+			if (adapter!=source) {
+				schedule(source, adapter, 0, new GroupDelivery(adapter, group));
+			}
+		}
+	}
+	
+	/** Apply an update of the tables of a kernel, as seen by the other
+	 * kernels, after the latency of the network.
+	 * 
+	 * @param source is the kernel which owns the tables.
+	 * @param update is the update to apply.
+	 */
+	void announceUpdate(LoopbackNetworkAdapter source, Runnable update) {
+		schedule(source, source, 0, new UpdateDelivery(source, update));
+	}
+	
+	/** Wait for the deliveries and updates scheduled before this call
+	 * with the current latency.
+	 * 
+	 * @param timeout is the maximal time to wait.
+	 * @param unit is the unit of the timeout.
+	 * @throws Exception if the network was shut down or if the timeout
+	 * has expired.
+	 */
+	void sync(long timeout, TimeUnit unit) throws Exception {
+		this.executor.schedule(new UpdateDelivery(null, null), this.latency, TimeUnit.NANOSECONDS).get(timeout, unit);
+	}
+	
+	/** Transmit an encoded message from a kernel to another.
+	 * 
+	 * @param source is the sending kernel.
+	 * @param target is the receiving kernel.
+	 * @param codec is the codec used to encode the message.
+	 * @param data is the encoded message.
+	 * @param receiver is the address of the receiver to put in the
+	 * decoded message, or <code>null</code> to keep the encoded receiver.
+	 * @param isBroadcast indicates if the message was broadcasted.
+	 */
+	void transmit(LoopbackNetworkAdapter source, LoopbackNetworkAdapter target,
+			MessageCodec codec, byte[] data, Address receiver, boolean isBroadcast) {
+		this.transmittedMessages.incrementAndGet();
+		float loss = this.lossProbability;
+		if (loss>0f) {
+			boolean lost;
+			synchronized(this.random) {
+				lost = this.random.nextFloat() < loss;
+			}
+			if (lost) {
+				this.lostMessages.incrementAndGet();
+				return;
+			}
+		}
+		schedule(source, target, data.length,
+				new MessageDelivery(target, codec, data, receiver, isBroadcast));
+	}
+	
+	private void schedule(LoopbackNetworkAdapter source, LoopbackNetworkAdapter target, int size, Runnable delivery) {
+		long delay = this.latency;
+		long bw = this.bandwidth;
+		if (bw>0 && size>0) {
+			delay += source.reserveOutboundLink((size * 1000000000L) / bw);
+		}
+		try {
+			this.executor.schedule(delivery, delay, TimeUnit.NANOSECONDS);
+		}
+		catch(RejectedExecutionException _) {
+			// The network was shut down.
+		}
+	}
+
+	/**
+	 * Delivers a message.
+	 * 
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	private class MessageDelivery implements Runnable {
+		
+		private final LoopbackNetworkAdapter target;
+		private final MessageCodec codec;
+		private final byte[] data;
+		private final Address receiver;
+		private final boolean isBroadcast;
+		
+		/**
+		 * @param target
+		 * @param codec
+		 * @param data
+		 * @param receiver
+		 * @param isBroadcast
+		 */
+		public MessageDelivery(LoopbackNetworkAdapter target, MessageCodec codec,
+				byte[] data, Address receiver, boolean isBroadcast) {
+			this.target = target;
+			this.codec = codec;
+			this.data = data;
+			this.receiver = receiver;
+			this.isBroadcast = isBroadcast;
+		}
+		
+		/** {@inheritDoc}
+		 */
+		@SuppressWarnings("synthetic-access")
+		@Override
+		public void run() {
+			if (LoopbackNetwork.this.adapters.contains(this.target)) {
+				this.target.receiveMessage(
+						this.codec, this.data, this.receiver, this.isBroadcast);
+			}
+		}
+		
+	}
+
+	/**
+	 * Delivers a group announcement.
+	 * 
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	private class GroupDelivery implements Runnable {
+		
+		private final LoopbackNetworkAdapter target;
+		private final GroupAnnouncement group;
+		
+		/**
+		 * @param target
+		 * @param group
+		 */
+		public GroupDelivery(LoopbackNetworkAdapter target, GroupAnnouncement group) {
+			this.target = target;
+			this.group = group;
+		}
+		
+		/** {@inheritDoc}
+		 */
+		@SuppressWarnings("synthetic-access")
+		@Override
+		public void run() {
+			if (LoopbackNetwork.this.adapters.contains(this.target)) {
+				this.target.receiveGroup(this.group);
+			}
+		}
+		
+	}
+
+	/**
+	 * Applies an update of the tables of a kernel.
+	 * 
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	private class UpdateDelivery implements Runnable {
+		
+		private final LoopbackNetworkAdapter source;
+		private final Runnable update;
+		
+		/**
+		 * @param source is the kernel which owns the tables.
+		 * @param update is the update, or <code>null</code> for none.
+		 */
+		public UpdateDelivery(LoopbackNetworkAdapter source, Runnable update) {
+			this.source = source;
+			this.update = update;
+		}
+		
+		/** {@inheritDoc}
+		 */
+		@SuppressWarnings("synthetic-access")
+		@Override
+		public void run() {
+			if (this.update!=null && LoopbackNetwork.this.adapters.contains(this.source)) {
+				this.update.run();
+			}
+		}
+		
+	}
+
+	/**
+	 * Factory of the delivery thread.
+	 * 
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	private static class DeliveryThreadFactory implements ThreadFactory {
+
+		private final int id;
+
+		/**
+		 * @param id is the identifier of the network.
+		 */
+		public DeliveryThreadFactory(int id) {
+			this.id = id;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread t = new Thread(r, "Janus Loopback Network #"+this.id); //$NON-NLS-1$
+			t.setDaemon(true);
+			return t;
+		}
+
+	}
+
+}
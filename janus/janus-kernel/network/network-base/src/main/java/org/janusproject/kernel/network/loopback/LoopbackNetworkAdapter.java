@@ -0,0 +1,584 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.network.loopback;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import org.janusproject.kernel.address.Address;
+import org.janusproject.kernel.address.AgentAddress;
+import org.janusproject.kernel.configuration.JanusProperties;
+import org.janusproject.kernel.configuration.JanusProperty;
+import org.janusproject.kernel.crio.core.AddressUtil;
+import org.janusproject.kernel.crio.core.GroupAddress;
+import org.janusproject.kernel.crio.core.Role;
+import org.janusproject.kernel.crio.core.RoleAddress;
+import org.janusproject.kernel.crio.organization.GroupCondition;
+import org.janusproject.kernel.crio.organization.MembershipService;
+import org.janusproject.kernel.message.Message;
+import org.janusproject.kernel.message.MessageFactory;
+import org.janusproject.kernel.network.NetworkAdapter;
+import org.janusproject.kernel.network.NetworkListener;
+import org.janusproject.kernel.network.codec.MessageCodec;
+import org.janusproject.kernel.status.Status;
+import org.janusproject.kernel.status.StatusFactory;
+import org.janusproject.kernel.util.sizediterator.SizedIterator;
+import org.janusproject.kernel.util.sizediterator.UnmodifiableCollectionSizedIterator;
+
+/** Network adapter that connects a kernel to a {@link LoopbackNetwork}.
+ * <p>
+ * The adapter maintains the tables of the agents, groups and roles of
+ * its kernel. The other adapters of the same network are using these
+ * tables to route the messages without any broadcast of the role
+ * announcements. When the adapter is connected, the updates of the
+ * agent and role tables are applied after the latency of the network,
+ * as if they were announced to the other kernels.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public class LoopbackNetworkAdapter implements NetworkAdapter {
+
+	private final LoopbackNetwork network;
+	private final Map<GroupAddress,GroupAnnouncement> groups = new ConcurrentHashMap<GroupAddress,GroupAnnouncement>();
+	private final Set<GroupAddress> discoveredGroups = new CopyOnWriteArraySet<GroupAddress>();
+	private final Map<GroupAddress,Set<RoleAddress>> roles = new HashMap<GroupAddress,Set<RoleAddress>>();
+	private final Set<AgentAddress> agents = new CopyOnWriteArraySet<AgentAddress>();
+	private volatile NetworkListener listener = null;
+	private volatile JanusProperties janusProperties = null;
+	private volatile AgentAddress kernelAddress = null;
+	private long outboundLinkAvailability = 0;
+	
+	/**
+	 * @param network is the network to which this adapter is connected.
+	 */
+	LoopbackNetworkAdapter(LoopbackNetwork network) {
+		assert(network!=null);
+		this.network = network;
+	}
+	
+	/** Replies the network to which this adapter is connected.
+	 * 
+	 * @return the network.
+	 */
+	public LoopbackNetwork getNetwork() {
+		return this.network;
+	}
+	
+	/** Replies the address of the kernel associated to this adapter.
+	 * 
+	 * @return the address of the kernel, or <code>null</code> if
+	 * the network was not initialized.
+	 */
+	public AgentAddress getKernelAddress() {
+		return this.kernelAddress;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void initializeNetwork(AgentAddress kernelAddress,
+			JanusProperties properties) throws Exception {
+		this.kernelAddress = kernelAddress;
+		if (this.janusProperties==null) {
+			this.janusProperties = properties;
+		}
+		this.network.connect(this);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void shutdownNetwork() throws Exception {
+		this.network.disconnect(this);
+		this.kernelAddress = null;
+		this.groups.clear();
+		this.discoveredGroups.clear();
+		synchronized(this.roles) {
+			this.roles.clear();
+		}
+		this.agents.clear();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setNetworkAdapterListener(NetworkListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setJanusProperties(JanusProperties properties) {
+		this.janusProperties = properties;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public SizedIterator<AgentAddress> getRemoteKernels() {
+		return new UnmodifiableCollectionSizedIterator<AgentAddress>(
+				this.network.getKernels(this));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Status informLocalGroupCreated(GroupAddress ga,
+			Collection<? extends GroupCondition> obtainConditions,
+			Collection<? extends GroupCondition> leaveConditions,
+			MembershipService membership) {
+		JanusProperties properties = this.janusProperties;
+		GroupAnnouncement group = new GroupAnnouncement(ga,
+				obtainConditions, leaveConditions, membership,
+				properties!=null && properties.getBoolean(JanusProperty.GROUP_PERSISTENCE));
+		if (this.groups.put(ga, group)==null
+			&& !this.discoveredGroups.contains(ga)
+			&& this.kernelAddress!=null) {
+			this.network.announceGroup(this, group);
+		}
+		return StatusFactory.ok(this);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Status informLocalGroupRemoved(GroupAddress ga) {
+		this.groups.remove(ga);
+		this.discoveredGroups.remove(ga);
+		update(new RoleTableUpdate(ga, null, false));
+		return StatusFactory.ok(this);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void informLocalAgentAdded(AgentAddress agentAdress) {
+		update(new AgentTableUpdate(agentAdress, true));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void informLocalAgentRemoved(AgentAddress agentAddress) {
+		update(new AgentTableUpdate(agentAddress, false));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void informLocalRoleTaken(GroupAddress groupAddress,
+			Class<? extends Role> role, AgentAddress agentAddress) {
+		RoleAddress adr = AddressUtil.createRoleAddress(groupAddress, role, agentAddress);
+		update(new RoleTableUpdate(groupAddress, adr, true));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void informLocalRoleReleased(GroupAddress groupAddress,
+			Class<? extends Role> role, AgentAddress agentAddress) {
+		RoleAddress adr = AddressUtil.createRoleAddress(groupAddress, role, agentAddress);
+		update(new RoleTableUpdate(groupAddress, adr, false));
+	}
+	
+	/** Apply the given update of the tables. If the adapter is connected,
+	 * the update is applied after the latency of the network.
+	 * 
+	 * @param update
+	 */
+	private void update(Runnable update) {
+		if (this.kernelAddress==null) {
+			update.run();
+		}
+		else {
+			this.network.announceUpdate(this, update);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isRemoteAddress(GroupAddress groupAddress,
+			AgentAddress address) {
+		return address!=null
+				&& this.network.selectKernel(this, groupAddress, Role.class, address)!=null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public RoleAddress getRemoteAddress(GroupAddress groupAddress) {
+		LoopbackNetworkAdapter target = this.network.selectKernel(this, groupAddress, Role.class, null);
+		if (target==null) return null;
+		return target.selectLocalPlayer(groupAddress, Role.class, null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Address sendMessage(Message message) {
+		Address receiver = message.getReceiver();
+		LoopbackNetworkAdapter target;
+		Address effectiveReceiver;
+		if (receiver instanceof RoleAddress) {
+			RoleAddress ra = (RoleAddress)receiver;
+			target = this.network.selectKernel(this, ra.getGroup(), ra.getRole(), ra.getPlayer());
+			if (target==null) return null;
+			effectiveReceiver = target.selectLocalPlayer(ra.getGroup(), ra.getRole(), ra.getPlayer());
+		}
+		else {
+			AgentAddress agent = (receiver instanceof AgentAddress) ? (AgentAddress)receiver : null;
+			target = this.network.selectKernel(this, agent);
+			if (target==null) return null;
+			effectiveReceiver = (agent!=null) ? agent : target.selectLocalAgent();
+		}
+		if (effectiveReceiver!=null) {
+			MessageCodec codec = this.network.getCodec();
+			byte[] data = encode(codec, message);
+			if (data==null) return null;
+			this.network.transmit(this, target, codec, data, effectiveReceiver, false);
+		}
+		return effectiveReceiver;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void broadcastMessage(Message message) {
+		Address sender = message.getSender();
+		GroupAddress group = (sender instanceof RoleAddress) ? ((RoleAddress)sender).getGroup() : null;
+		List<LoopbackNetworkAdapter> targets = this.network.selectKernels(this, group);
+		if (!targets.isEmpty()) {
+			MessageCodec codec = this.network.getCodec();
+			byte[] data = encode(codec, message);
+			if (data!=null) {
+				for(LoopbackNetworkAdapter target : targets) {
+					this.network.transmit(this, target, codec, data, null, true);
+				}
+			}
+		}
+	}
+	
+	private byte[] encode(MessageCodec codec, Message message) {
+		try {
+			return codec.encode(message);
+		}
+		catch(IOException e) {
+			NetworkListener l = this.listener;
+			if (l!=null) l.networkError(e);
+			return null;
+		}
+	}
+
+	/** Replies the groups created in the kernel.
+	 * 
+	 * @return the groups.
+	 */
+	Collection<GroupAnnouncement> getLocalGroups() {
+		return this.groups.values();
+	}
+	
+	/** Replies if the given agent is living in the kernel.
+	 * 
+	 * @param agent is the address of the agent, or <code>null</code> for any agent.
+	 * @return <code>true</code> if the agent is living in the kernel.
+	 */
+	boolean hasLocalAgent(AgentAddress agent) {
+		if (agent==null) return !this.agents.isEmpty();
+		return this.agents.contains(agent);
+	}
+
+	/** Select at random an agent living in the kernel.
+	 * 
+	 * @return the address of the agent, or <code>null</code> if none.
+	 */
+	AgentAddress selectLocalAgent() {
+		return this.network.select(new ArrayList<AgentAddress>(this.agents));
+	}
+
+	/** Replies if the given role is played in the kernel.
+	 * 
+	 * @param group is the group in which the role is played.
+	 * @param role is the type of the role; the subtypes are also matching.
+	 * @param player is the player of the role, or <code>null</code> for any player.
+	 * @return <code>true</code> if the role is played in the kernel.
+	 */
+	boolean hasLocalPlayer(GroupAddress group, Class<? extends Role> role, AgentAddress player) {
+		synchronized(this.roles) {
+			Set<RoleAddress> players = this.roles.get(group);
+			if (players!=null) {
+				for(RoleAddress adr : players) {
+					if (matches(adr, role, player)) return true;
+				}
+			}
+		}
+		return false;
+	}
+	
+	/** Select at random a role played in the kernel.
+	 * 
+	 * @param group is the group in which the role is played.
+	 * @param role is the type of the role; the subtypes are also matching.
+	 * @param player is the player of the role, or <code>null</code> for any player.
+	 * @return the address of the role, or <code>null</code> if none.
+	 */
+	RoleAddress selectLocalPlayer(GroupAddress group, Class<? extends Role> role, AgentAddress player) {
+		List<RoleAddress> candidates = new ArrayList<RoleAddress>();
+		synchronized(this.roles) {
+			Set<RoleAddress> players = this.roles.get(group);
+			if (players!=null) {
+				for(RoleAddress adr : players) {
+					if (matches(adr, role, player)) candidates.add(adr);
+				}
+			}
+		}
+		return this.network.select(candidates);
+	}
+	
+	private static boolean matches(RoleAddress adr, Class<? extends Role> role, AgentAddress player) {
+		return (role==null || role.isAssignableFrom(adr.getRole()))
+				&& (player==null || player.equals(adr.getPlayer()));
+	}
+	
+	/** Reserve the outbound link of the kernel for the transmission
+	 * of a message.
+	 * 
+	 * @param duration is the duration of the transmission in nanoseconds.
+	 * @return the delay in nanoseconds from now to the end of the transmission.
+	 */
+	synchronized long reserveOutboundLink(long duration) {
+		long now = System.nanoTime();
+		long start = Math.max(now, this.outboundLinkAvailability);
+		this.outboundLinkAvailability = start + duration;
+		return this.outboundLinkAvailability - now;
+	}
+	
+	/** Invoked when a group was announced by another kernel.
+	 * 
+	 * @param group is the description of the group.
+	 */
+	void receiveGroup(GroupAnnouncement group) {
+		NetworkListener l = this.listener;
+		if (l!=null) {
+			this.discoveredGroups.add(group.address);
+			try {
+				l.distantGroupDiscovered(
+						group.address.getOrganization(),
+						group.address.getUUID(),
+						group.obtainConditions,
+						group.leaveConditions,
+						group.membership,
+						group.persistent,
+						group.address.getName());
+			}
+			catch(AssertionError ae) {
+				throw ae;
+			}
+			catch(Exception e) {
+				l.networkError(e);
+			}
+		}
+	}
+	
+	/** Invoked when a message was received from another kernel.
+	 * 
+	 * @param codec is the codec to use to decode the message.
+	 * @param data is the encoded message.
+	 * @param receiver is the receiver to put in the decoded message,
+	 * or <code>null</code> to keep the encoded receiver.
+	 * @param isBroadcast indicates if the message was broadcasted.
+	 */
+	void receiveMessage(MessageCodec codec, byte[] data, Address receiver, boolean isBroadcast) {
+		NetworkListener l = this.listener;
+		if (l!=null) {
+			try {
+				Message message = codec.decode(data);
+				if (receiver!=null) {
+					Readdressing.readdress(message, receiver);
+				}
+				Address sender = message.getSender();
+				if (sender instanceof RoleAddress) {
+					RoleAddress adr = (message.getReceiver() instanceof RoleAddress)
+							? (RoleAddress)message.getReceiver()
+							: (RoleAddress)sender;
+					l.receiveOrganizationalDistantMessage(
+							adr.getGroup(), adr.getRole(), message, isBroadcast);
+				}
+				else {
+					l.receiveAgentAgentDistantMessage(message, isBroadcast);
+				}
+			}
+			catch(AssertionError ae) {
+				throw ae;
+			}
+			catch(Exception e) {
+				l.networkError(e);
+			}
+		}
+	}
+	
+	/**
+	 * Update of the table of the agents.
+	 * 
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	private class AgentTableUpdate implements Runnable {
+		
+		private final AgentAddress agent;
+		private final boolean added;
+		
+		/**
+		 * @param agent is the address of the agent.
+		 * @param added indicates if the agent was added or removed.
+		 */
+		public AgentTableUpdate(AgentAddress agent, boolean added) {
+			this.agent = agent;
+			this.added = added;
+		}
+		
+		/** {@inheritDoc}
+		 */
+		@SuppressWarnings("synthetic-access")
+		@Override
+		public void run() {
+			if (this.added) {
+				LoopbackNetworkAdapter.this.agents.add(this.agent);
+			}
+			else {
+				LoopbackNetworkAdapter.this.agents.remove(this.agent);
+			}
+		}
+		
+	}
+
+	/**
+	 * Update of the table of the roles.
+	 * 
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	private class RoleTableUpdate implements Runnable {
+		
+		private final GroupAddress group;
+		private final RoleAddress role;
+		private final boolean taken;
+		
+		/**
+		 * @param group is the address of the group.
+		 * @param role is the address of the role, or <code>null</code>
+		 * if all the roles of the group are removed.
+		 * @param taken indicates if the role was taken or released.
+		 */
+		public RoleTableUpdate(GroupAddress group, RoleAddress role, boolean taken) {
+			this.group = group;
+			this.role = role;
+			this.taken = taken;
+		}
+		
+		/** {@inheritDoc}
+		 */
+		@SuppressWarnings("synthetic-access")
+		@Override
+		public void run() {
+			Map<GroupAddress,Set<RoleAddress>> roles = LoopbackNetworkAdapter.this.roles;
+			synchronized(roles) {
+				if (this.role==null) {
+					roles.remove(this.group);
+				}
+				else if (this.taken) {
+					Set<RoleAddress> players = roles.get(this.group);
+					if (players==null) {
+						players = new HashSet<RoleAddress>();
+						roles.put(this.group, players);
+					}
+					players.add(this.role);
+				}
+				else {
+					Set<RoleAddress> players = roles.get(this.group);
+					if (players!=null) {
+						players.remove(this.role);
+						if (players.isEmpty()) {
+							roles.remove(this.group);
+						}
+					}
+				}
+			}
+		}
+		
+	}
+
+	/**
+	 * Change the receiver of the decoded messages.
+	 * 
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	private static class Readdressing extends MessageFactory {
+		
+		/**
+		 * @param message
+		 * @param receiver
+		 */
+		public static void readdress(Message message, Address receiver) {
+			setReceiver(message, receiver);
+		}
+		
+	}
+
+}
@@ -0,0 +1,257 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.network.codec;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.janusproject.kernel.address.Address;
+import org.janusproject.kernel.address.AgentAddress;
+import org.janusproject.kernel.crio.core.AddressUtil;
+import org.janusproject.kernel.crio.core.GroupAddress;
+import org.janusproject.kernel.crio.core.RoleAddress;
+import org.janusproject.kernel.message.BigDecimalMessage;
+import org.janusproject.kernel.message.BigIntegerMessage;
+import org.janusproject.kernel.message.BooleanMessage;
+import org.janusproject.kernel.message.ByteMessage;
+import org.janusproject.kernel.message.DoubleMessage;
+import org.janusproject.kernel.message.EnumMessage;
+import org.janusproject.kernel.message.FloatMessage;
+import org.janusproject.kernel.message.IntMessage;
+import org.janusproject.kernel.message.LongMessage;
+import org.janusproject.kernel.message.Message;
+import org.janusproject.kernel.message.MessageFactory;
+import org.janusproject.kernel.message.ObjectMessage;
+import org.janusproject.kernel.message.ShortMessage;
+import org.janusproject.kernel.message.StringMessage;
+
+import junit.framework.TestCase;
+
+/**
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public class BinaryMessageCodecTest extends TestCase {
+
+	private static final float DATE = 12.5f;
+	
+	private BinaryMessageCodec codec;
+	private AgentAddress agent;
+	private GroupAddress group;
+	private RoleAddress role;
+	
+	/**
+	 * @throws Exception
+	 */
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		this.codec = new BinaryMessageCodec();
+		this.agent = AddressUtil.createAgentAddress(UUID.randomUUID(), "agent"); //$NON-NLS-1$
+		this.group = AddressUtil.createGroupAddress(UUID.randomUUID(), OrganizationStub.class, "group"); //$NON-NLS-1$
+		this.role = AddressUtil.createRoleAddress(this.group, RoleStub.class, this.agent, "role"); //$NON-NLS-1$
+	}
+	
+	/**
+	 * @throws Exception
+	 */
+	@Override
+	public void tearDown() throws Exception {
+		this.codec = null;
+		this.agent = null;
+		this.group = null;
+		this.role = null;
+		super.tearDown();
+	}
+	
+	@SuppressWarnings("unchecked")
+	private <M extends Message> M transfer(M message, Address sender, Address receiver) throws Exception {
+		MessageInitializer.init(message, sender, receiver);
+		Message m = this.codec.decode(this.codec.encode(message));
+		assertNotNull(m);
+		assertNotSame(message, m);
+		assertSame(message.getClass(), m.getClass());
+		assertEquals(message.getIdentifier(), m.getIdentifier());
+		assertEquals(message, m);
+		assertEquals(DATE, m.getCreationDate());
+		assertEquals(sender, m.getSender());
+		assertEquals(receiver, m.getReceiver());
+		return (M)m;
+	}
+
+	private <M extends Message> M transfer(M message) throws Exception {
+		return transfer(message, this.agent, this.role);
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testGetName() throws Exception {
+		assertEquals(BinaryMessageCodec.NAME, this.codec.getName());
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testMessage() throws Exception {
+		transfer(new Message());
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testStringMessage() throws Exception {
+		assertEquals("h\u00e9llo", transfer(new StringMessage("h\u00e9llo")).getContent()); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("", transfer(new StringMessage("")).getContent()); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNull(transfer(new StringMessage(null)).getContent());
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testPrimitiveMessages() throws Exception {
+		assertEquals(-42, transfer(new IntMessage(-42)).intValue());
+		assertEquals(true, transfer(new BooleanMessage(true)).booleanValue());
+		assertEquals((byte)7, transfer(new ByteMessage((byte)7)).byteValue());
+		assertEquals((short)-3, transfer(new ShortMessage((short)-3)).shortValue());
+		assertEquals(Long.MAX_VALUE, transfer(new LongMessage(Long.MAX_VALUE)).longValue());
+		assertEquals(1.5f, transfer(new FloatMessage(1.5f)).floatValue());
+		assertEquals(Math.PI, transfer(new DoubleMessage(Math.PI)).doubleValue());
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testBigNumberMessages() throws Exception {
+		BigInteger i = new BigInteger("-123456789012345678901234567890"); //$NON-NLS-1$
+		assertEquals(i, transfer(new BigIntegerMessage(i)).getContent());
+		BigDecimal d = new BigDecimal("12345678901234567890.0987654321"); //$NON-NLS-1$
+		assertEquals(d, transfer(new BigDecimalMessage(d)).getContent());
+		assertNull(transfer(new BigIntegerMessage(null)).getContent());
+		assertNull(transfer(new BigDecimalMessage(null)).getContent());
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testEnumMessage() throws Exception {
+		assertSame(TimeUnit.SECONDS, transfer(new EnumMessage(TimeUnit.SECONDS)).getContent());
+		assertNull(transfer(new EnumMessage(null)).getContent());
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testObjectMessage() throws Exception {
+		ArrayList<String> content = new ArrayList<String>();
+		content.add("a"); //$NON-NLS-1$
+		content.add("b"); //$NON-NLS-1$
+		assertEquals(content, transfer(new ObjectMessage(content)).getContent());
+		assertNull(transfer(new ObjectMessage(null)).getContent());
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testUnknownMessage() throws Exception {
+		MessageStub m = transfer(new MessageStub("a", 42)); //$NON-NLS-1$
+		assertEquals("a", m.getContent()); //$NON-NLS-1$
+		assertEquals(42, m.extra);
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testAddresses() throws Exception {
+		Message m = transfer(new Message(), null, null);
+		assertNull(m.getSender());
+		assertNull(m.getReceiver());
+		
+		m = transfer(new Message(), this.role, this.group);
+		GroupAddress g = m.getReceiver();
+		assertEquals(OrganizationStub.class, g.getOrganization());
+		assertEquals("group", g.getName()); //$NON-NLS-1$
+		RoleAddress r = m.getSender();
+		assertEquals(RoleStub.class, r.getRole());
+		assertEquals(this.agent, r.getPlayer());
+		assertEquals("agent", r.getPlayer().getName()); //$NON-NLS-1$
+		assertEquals("role", r.getName()); //$NON-NLS-1$
+		assertEquals(this.group, r.getGroup());
+		
+		RoleAddress noPlayer = AddressUtil.createRoleAddress(this.group, RoleStub.class, null);
+		r = transfer(new Message(), this.agent, noPlayer).getReceiver();
+		assertNull(r.getPlayer());
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testAgentAddressSubclass() throws Exception {
+		AgentAddress stub = new AgentAddressStub(UUID.randomUUID(), "stub"); //$NON-NLS-1$
+		Message m = transfer(new Message(), stub, this.agent);
+		assertSame(AgentAddressStub.class, m.getSender().getClass());
+		assertEquals("stub", m.getSender().getName()); //$NON-NLS-1$
+		
+		RoleAddress r = AddressUtil.createRoleAddress(this.group, RoleStub.class, stub, "role"); //$NON-NLS-1$
+		r = transfer(new Message(), this.agent, r).getReceiver();
+		assertSame(AgentAddressStub.class, r.getPlayer().getClass());
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testSize() throws Exception {
+		StringMessage m = new StringMessage("hello"); //$NON-NLS-1$
+		MessageInitializer.init(m, this.agent, this.role);
+		int binarySize = this.codec.encode(m).length;
+		int javaSize = new JavaSerializationMessageCodec().encode(m).length;
+		assertTrue(binarySize * 4 < javaSize);
+	}
+
+	/**
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	private static class MessageInitializer extends MessageFactory {
+
+		/**
+		 * @param message
+		 * @param sender
+		 * @param receiver
+		 */
+		public static void init(Message message, Address sender, Address receiver) {
+			setSender(message, sender);
+			setReceiver(message, receiver);
+			setCreationDate(message, DATE);
+		}
+
+	}
+	
+}
@@ -0,0 +1,76 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.network.codec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public class MessageCodecsTest extends TestCase {
+
+	/**
+	 */
+	public static void testGetCodec() {
+		assertTrue(MessageCodecs.getCodec(BinaryMessageCodec.NAME) instanceof BinaryMessageCodec);
+		assertTrue(MessageCodecs.getCodec(JavaSerializationMessageCodec.NAME) instanceof JavaSerializationMessageCodec);
+		assertNull(MessageCodecs.getCodec("unknown")); //$NON-NLS-1$
+		assertNull(MessageCodecs.getCodec(null));
+	}
+
+	/**
+	 */
+	public static void testGetCodecNames() {
+		List<String> names = MessageCodecs.getCodecNames();
+		int binary = names.indexOf(BinaryMessageCodec.NAME);
+		int java = names.indexOf(JavaSerializationMessageCodec.NAME);
+		assertTrue(binary>=0);
+		assertTrue(java>binary);
+	}
+
+	/**
+	 */
+	public static void testNegotiate() {
+		List<Collection<String>> distant = new ArrayList<Collection<String>>();
+		assertEquals(BinaryMessageCodec.NAME, MessageCodecs.negotiate(distant).getName());
+		
+		distant.add(Arrays.asList(BinaryMessageCodec.NAME, JavaSerializationMessageCodec.NAME));
+		distant.add(Arrays.asList(JavaSerializationMessageCodec.NAME, BinaryMessageCodec.NAME));
+		assertEquals(BinaryMessageCodec.NAME, MessageCodecs.negotiate(distant).getName());
+		
+		distant.add(Collections.singletonList(JavaSerializationMessageCodec.NAME));
+		assertEquals(JavaSerializationMessageCodec.NAME, MessageCodecs.negotiate(distant).getName());
+
+		distant.add(Collections.singletonList("unknown")); //$NON-NLS-1$
+		assertSame(MessageCodecs.getDefaultCodec(), MessageCodecs.negotiate(distant));
+	}
+
+}
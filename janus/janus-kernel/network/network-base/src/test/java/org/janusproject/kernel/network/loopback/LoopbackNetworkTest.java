@@ -0,0 +1,423 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2010-2012 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.network.loopback;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.janusproject.kernel.address.Address;
+import org.janusproject.kernel.address.AgentAddress;
+import org.janusproject.kernel.crio.core.AddressUtil;
+import org.janusproject.kernel.crio.core.GroupAddress;
+import org.janusproject.kernel.crio.core.Organization;
+import org.janusproject.kernel.crio.core.Role;
+import org.janusproject.kernel.crio.core.RoleAddress;
+import org.janusproject.kernel.crio.organization.GroupCondition;
+import org.janusproject.kernel.crio.organization.MembershipService;
+import org.janusproject.kernel.message.Message;
+import org.janusproject.kernel.message.MessageFactory;
+import org.janusproject.kernel.message.StringMessage;
+import org.janusproject.kernel.network.NetworkListener;
+import org.janusproject.kernel.network.codec.BinaryMessageCodec;
+import org.janusproject.kernel.network.codec.JavaSerializationMessageCodec;
+import org.janusproject.kernel.network.codec.OrganizationStub;
+import org.janusproject.kernel.network.codec.RoleStub;
+import org.janusproject.kernel.util.sizediterator.SizedIterator;
+
+import junit.framework.TestCase;
+
+/**
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+public class LoopbackNetworkTest extends TestCase {
+
+	private static final long TIMEOUT = 5000;
+	
+	private LoopbackNetwork network;
+	private LoopbackNetworkAdapter adapter1;
+	private LoopbackNetworkAdapter adapter2;
+	private LoopbackNetworkAdapter adapter3;
+	private ListenerStub listener1;
+	private ListenerStub listener2;
+	private ListenerStub listener3;
+	private AgentAddress agent1;
+	private AgentAddress agent2;
+	private GroupAddress group;
+	
+	/**
+	 * @throws Exception
+	 */
+	@Override
+	public void setUp() throws Exception {
+		super.setUp();
+		this.network = new LoopbackNetwork(1234);
+		this.listener1 = new ListenerStub();
+		this.listener2 = new ListenerStub();
+		this.listener3 = new ListenerStub();
+		this.adapter1 = connect(this.listener1);
+		this.adapter2 = connect(this.listener2);
+		this.adapter3 = connect(this.listener3);
+		this.agent1 = AddressUtil.createAgentAddress(UUID.randomUUID());
+		this.agent2 = AddressUtil.createAgentAddress(UUID.randomUUID());
+		this.group = AddressUtil.createGroupAddress(UUID.randomUUID(), OrganizationStub.class, "group"); //$NON-NLS-1$
+		this.adapter1.informLocalAgentAdded(this.agent1);
+		this.adapter2.informLocalAgentAdded(this.agent2);
+		sync();
+	}
+	
+	/**
+	 * @throws Exception
+	 */
+	@Override
+	public void tearDown() throws Exception {
+		this.network.shutdown();
+		this.network = null;
+		this.adapter1 = this.adapter2 = this.adapter3 = null;
+		this.listener1 = this.listener2 = this.listener3 = null;
+		this.agent1 = this.agent2 = null;
+		this.group = null;
+		super.tearDown();
+	}
+	
+	private LoopbackNetworkAdapter connect(ListenerStub listener) throws Exception {
+		LoopbackNetworkAdapter adapter = this.network.newAdapter();
+		adapter.setNetworkAdapterListener(listener);
+		adapter.initializeNetwork(AddressUtil.createAgentAddress(UUID.randomUUID()), null);
+		return adapter;
+	}
+	
+	private void sync() throws Exception {
+		this.network.sync(TIMEOUT, TimeUnit.MILLISECONDS);
+	}
+	
+	private static Message newMessage(String content, Address sender, Address receiver) {
+		Message m = new StringMessage(content);
+		MessageInitializer.init(m, sender, receiver);
+		return m;
+	}
+	
+	/**
+	 */
+	public void testGetRemoteKernels() {
+		SizedIterator<AgentAddress> iterator = this.adapter1.getRemoteKernels();
+		assertEquals(2, iterator.totalSize());
+		List<AgentAddress> kernels = new ArrayList<AgentAddress>();
+		while (iterator.hasNext()) {
+			kernels.add(iterator.next());
+		}
+		assertTrue(kernels.contains(this.adapter2.getKernelAddress()));
+		assertTrue(kernels.contains(this.adapter3.getKernelAddress()));
+		assertFalse(kernels.contains(this.adapter1.getKernelAddress()));
+		assertEquals(3, this.network.getKernelCount());
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testGroupDiscovery() throws Exception {
+		this.adapter1.informLocalGroupCreated(this.group,
+				new ArrayList<GroupCondition>(), new ArrayList<GroupCondition>(), null);
+		assertEquals(this.group.getUUID(), this.listener2.groups.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+		assertEquals(this.group.getUUID(), this.listener3.groups.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+		
+		// The kernels which have discovered the group do not announce it again
+		this.adapter2.informLocalGroupCreated(this.group,
+				new ArrayList<GroupCondition>(), new ArrayList<GroupCondition>(), null);
+		
+		// Late joiner
+		ListenerStub listener4 = new ListenerStub();
+		connect(listener4);
+		assertEquals(this.group.getUUID(), listener4.groups.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+		
+		assertNull(this.listener1.groups.poll(100, TimeUnit.MILLISECONDS));
+		assertNull(this.listener3.groups.poll(100, TimeUnit.MILLISECONDS));
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testRoleRouting() throws Exception {
+		assertNull(this.adapter1.getRemoteAddress(this.group));
+		assertFalse(this.adapter1.isRemoteAddress(this.group, this.agent2));
+
+		this.adapter2.informLocalRoleTaken(this.group, RoleStub.class, this.agent2);
+		sync();
+		
+		assertTrue(this.adapter1.isRemoteAddress(this.group, this.agent2));
+		assertFalse(this.adapter2.isRemoteAddress(this.group, this.agent2));
+		RoleAddress remote = this.adapter1.getRemoteAddress(this.group);
+		assertNotNull(remote);
+		assertEquals(this.agent2, remote.getPlayer());
+		assertEquals(RoleStub.class, remote.getRole());
+		
+		RoleAddress sender = AddressUtil.createRoleAddress(this.group, RoleStub.class, this.agent1);
+		RoleAddress receiver = AddressUtil.createRoleAddress(this.group, RoleStub.class, null);
+		Message m = newMessage("hello", sender, receiver); //$NON-NLS-1$
+		Address adr = this.adapter1.sendMessage(m);
+		assertEquals(remote, adr);
+		
+		Message r = this.listener2.messages.poll(TIMEOUT, TimeUnit.MILLISECONDS);
+		assertNotNull(r);
+		assertNotSame(m, r);
+		assertEquals(m.getIdentifier(), r.getIdentifier());
+		assertEquals(remote, r.getReceiver());
+		assertEquals(Boolean.FALSE, this.listener2.broadcasts.poll());
+		assertNull(this.listener3.messages.poll(100, TimeUnit.MILLISECONDS));
+		
+		this.adapter2.informLocalRoleReleased(this.group, RoleStub.class, this.agent2);
+		sync();
+		assertFalse(this.adapter1.isRemoteAddress(this.group, this.agent2));
+		assertNull(this.adapter1.sendMessage(m));
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testAgentRouting() throws Exception {
+		Message m = newMessage("hello", this.agent1, this.agent2); //$NON-NLS-1$
+		assertEquals(this.agent2, this.adapter1.sendMessage(m));
+		Message r = this.listener2.messages.poll(TIMEOUT, TimeUnit.MILLISECONDS);
+		assertNotNull(r);
+		assertEquals(this.agent2, r.getReceiver());
+		
+		this.adapter2.informLocalAgentRemoved(this.agent2);
+		sync();
+		assertNull(this.adapter1.sendMessage(m));
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testBroadcast() throws Exception {
+		AgentAddress agent3 = AddressUtil.createAgentAddress(UUID.randomUUID());
+		this.adapter2.informLocalRoleTaken(this.group, RoleStub.class, this.agent2);
+		this.adapter3.informLocalRoleTaken(this.group, RoleStub.class, agent3);
+		sync();
+		
+		RoleAddress sender = AddressUtil.createRoleAddress(this.group, RoleStub.class, this.agent1);
+		RoleAddress receiver = AddressUtil.createRoleAddress(this.group, RoleStub.class, null);
+		this.adapter1.broadcastMessage(newMessage("hello", sender, receiver)); //$NON-NLS-1$
+		
+		assertNotNull(this.listener2.messages.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+		assertEquals(Boolean.TRUE, this.listener2.broadcasts.poll());
+		assertNotNull(this.listener3.messages.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+		assertEquals(Boolean.TRUE, this.listener3.broadcasts.poll());
+		assertNull(this.listener1.messages.poll(100, TimeUnit.MILLISECONDS));
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testLoss() throws Exception {
+		this.network.setLossProbability(1f);
+		Message m = newMessage("hello", this.agent1, this.agent2); //$NON-NLS-1$
+		assertEquals(this.agent2, this.adapter1.sendMessage(m));
+		assertNull(this.listener2.messages.poll(200, TimeUnit.MILLISECONDS));
+		assertEquals(1, this.network.getTransmittedMessageCount());
+		assertEquals(1, this.network.getLostMessageCount());
+		
+		this.network.setLossProbability(0f);
+		assertEquals(this.agent2, this.adapter1.sendMessage(m));
+		assertNotNull(this.listener2.messages.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+		assertEquals(2, this.network.getTransmittedMessageCount());
+		assertEquals(1, this.network.getLostMessageCount());
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testLatency() throws Exception {
+		this.network.setLatency(200, TimeUnit.MILLISECONDS);
+		assertEquals(200, this.network.getLatency(TimeUnit.MILLISECONDS));
+		Message m = newMessage("hello", this.agent1, this.agent2); //$NON-NLS-1$
+		long start = System.nanoTime();
+		this.adapter1.sendMessage(m);
+		assertNotNull(this.listener2.messages.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+		long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		assertTrue(duration>=200);
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testRoleTableLatency() throws Exception {
+		this.network.setLatency(200, TimeUnit.MILLISECONDS);
+		this.adapter2.informLocalRoleTaken(this.group, RoleStub.class, this.agent2);
+		assertFalse(this.adapter1.isRemoteAddress(this.group, this.agent2));
+		sync();
+		assertTrue(this.adapter1.isRemoteAddress(this.group, this.agent2));
+		
+		this.adapter2.informLocalRoleReleased(this.group, RoleStub.class, this.agent2);
+		assertTrue(this.adapter1.isRemoteAddress(this.group, this.agent2));
+		sync();
+		assertFalse(this.adapter1.isRemoteAddress(this.group, this.agent2));
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testCodecChangedDuringDelivery() throws Exception {
+		this.network.setCodec(new BinaryMessageCodec());
+		this.network.setLatency(200, TimeUnit.MILLISECONDS);
+		Message m = newMessage("hello", this.agent1, this.agent2); //$NON-NLS-1$
+		this.adapter1.sendMessage(m);
+		this.network.setCodec(new JavaSerializationMessageCodec());
+		Message r = this.listener2.messages.poll(TIMEOUT, TimeUnit.MILLISECONDS);
+		assertNotNull(r);
+		assertEquals(m.getIdentifier(), r.getIdentifier());
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testBandwidth() throws Exception {
+		Message m = newMessage("hello", this.agent1, this.agent2); //$NON-NLS-1$
+		int size = this.network.getCodec().encode(m).length;
+		// Each message needs 100ms to be transmitted
+		this.network.setBandwidth(size * 10);
+		long start = System.nanoTime();
+		this.adapter1.sendMessage(m);
+		this.adapter1.sendMessage(m);
+		assertNotNull(this.listener2.messages.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+		assertNotNull(this.listener2.messages.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+		long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		assertTrue(duration>=200);
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public void testShutdownNetwork() throws Exception {
+		this.adapter2.shutdownNetwork();
+		assertEquals(2, this.network.getKernelCount());
+		assertEquals(1, this.adapter1.getRemoteKernels().totalSize());
+		Message m = newMessage("hello", this.agent1, this.agent2); //$NON-NLS-1$
+		assertNull(this.adapter1.sendMessage(m));
+	}
+
+	/**
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	private static class ListenerStub implements NetworkListener {
+
+		/** Identifiers of the discovered groups.
+		 */
+		public final BlockingQueue<UUID> groups = new LinkedBlockingQueue<UUID>();
+
+		/** Received messages.
+		 */
+		public final BlockingQueue<Message> messages = new LinkedBlockingQueue<Message>();
+
+		/** Broadcast flags of the received messages.
+		 */
+		public final BlockingQueue<Boolean> broadcasts = new LinkedBlockingQueue<Boolean>();
+
+		/**
+		 */
+		public ListenerStub() {
+			//
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void distantGroupDiscovered(Class<? extends Organization> organization, UUID id,
+				Collection<? extends GroupCondition> obtainConditions,
+				Collection<? extends GroupCondition> leaveConditions,
+				MembershipService membership, boolean persistent, String groupName) {
+			this.groups.add(id);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public RoleAddress receiveOrganizationalDistantMessage(GroupAddress group,
+				Class<? extends Role> receiverRole, Message message, boolean isBroadcast) {
+			this.broadcasts.add(isBroadcast);
+			this.messages.add(message);
+			return null;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public AgentAddress receiveAgentAgentDistantMessage(Message message, boolean isBroadcast) {
+			this.broadcasts.add(isBroadcast);
+			this.messages.add(message);
+			return null;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void networkError(Throwable error) {
+			throw new AssertionError(error);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void networkLog(String message) {
+			//
+		}
+
+	}
+
+	/**
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	private static class MessageInitializer extends MessageFactory {
+
+		/**
+		 * @param message
+		 * @param sender
+		 * @param receiver
+		 */
+		public static void init(Message message, Address sender, Address receiver) {
+			setSender(message, sender);
+			setReceiver(message, receiver);
+		}
+
+	}
+
+}
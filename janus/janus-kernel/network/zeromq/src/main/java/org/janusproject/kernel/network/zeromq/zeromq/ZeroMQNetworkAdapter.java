@@ -91,8 +91,13 @@ public class ZeroMQNetworkAdapter implements NetworkAdapter {
 
 	@Override
 	public Address sendMessage(Message message) {
-		this.node.publish(message.getReceiver().getUUID(),
-				"message", SerializationUtil.encode(message).getBytes()); //$NON-NLS-1$
+		try {
+			this.node.publish(message.getReceiver().getUUID(),
+					"message", message); //$NON-NLS-1$
+		}
+		catch (IOException e) {
+			this.logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+		}
 		return null;
 	}
 
@@ -102,8 +107,12 @@ public class ZeroMQNetworkAdapter implements NetworkAdapter {
 		if (adr instanceof RoleAddress) {
 			GroupAddress group = ((RoleAddress) adr).getGroup();
 			this.logger.info(Locale.getString("BROADCAST_MESSAGE", message, group.getUUID())); //$NON-NLS-1$
-			this.node.publish(group.getUUID(), "broadcast", //$NON-NLS-1$
-					SerializationUtil.encode(message).getBytes());
+			try {
+				this.node.publish(group.getUUID(), "broadcast", message); //$NON-NLS-1$
+			}
+			catch (IOException e) {
+				this.logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+			}
 		}
 	}
 
@@ -113,7 +122,10 @@ public class ZeroMQNetworkAdapter implements NetworkAdapter {
 		this.logger.info(Locale.getString("INITIALIZE_NETWORK")); //$NON-NLS-1$
 		String strAdr = properties.getProperty(JanusProperty.ZEROMQ_MULICAT_GROUP_ADDRESS);
 		InetAddress groupAdr = InetAddress.getByName(strAdr);
-		this.node.init(kernelAddress, groupAdr);
+		this.node.init(kernelAddress, groupAdr,
+				properties.getInt(JanusProperty.ZEROMQ_OUTBOUND_QUEUE_SIZE),
+				properties.getInt(JanusProperty.ZEROMQ_BATCH_SIZE),
+				properties.getLong(JanusProperty.ZEROMQ_BATCH_DELAY));
 		this.node.register();
 	}
 
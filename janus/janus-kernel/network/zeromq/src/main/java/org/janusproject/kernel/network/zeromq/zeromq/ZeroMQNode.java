@@ -22,15 +22,18 @@ package org.janusproject.kernel.network.zeromq.zeromq;
 
 import java.io.IOException;
 import java.io.InterruptedIOException;
-import java.io.StringWriter;
-import java.io.Writer;
 import java.net.DatagramPacket;
 import java.net.InetAddress;
 import java.net.MulticastSocket;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -38,8 +41,10 @@ import java.util.logging.Logger;
 import org.arakhne.afc.vmutil.MACNumber;
 import org.arakhne.afc.vmutil.locale.Locale;
 import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.ObjectReader;
 import org.codehaus.jackson.type.TypeReference;
 import org.janusproject.kernel.address.AgentAddress;
+import org.janusproject.kernel.configuration.JanusProperties;
 import org.janusproject.kernel.crio.core.Organization;
 import org.janusproject.kernel.crio.core.Role;
 import org.janusproject.kernel.crio.core.RoleAddress;
@@ -47,6 +52,8 @@ import org.janusproject.kernel.crio.organization.GroupCondition;
 import org.janusproject.kernel.crio.organization.MembershipService;
 import org.janusproject.kernel.message.Message;
 import org.janusproject.kernel.network.NetworkListener;
+import org.janusproject.kernel.network.codec.MessageCodec;
+import org.janusproject.kernel.network.codec.MessageCodecs;
 import org.zeromq.ZMQ;
 import org.zeromq.ZMQ.Context;
 import org.zeromq.ZMQ.Poller;
@@ -62,6 +69,12 @@ import org.zeromq.ZMQException;
  * @mavenartifactid $ArtifactId$
  */
 public class ZeroMQNode {
+
+	/** Mapper shared by all the nodes. It is thread-safe
+	 * as long as it is not reconfigured.
+	 */
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	private static final ObjectReader MAP_READER = MAPPER.reader(new TypeReferenceImpl());
 	// Node infos
 	private UUID id = null;
 
@@ -81,6 +94,9 @@ public class ZeroMQNode {
 	private Integer subPollinId = null;
 	private Integer serverPollinId = null;
 
+	// Outbound messages
+	private volatile ZeroMQOutboundPipeline outbound = null;
+
 	// Logging
 	private Logger logger = null;
 
@@ -90,6 +106,11 @@ public class ZeroMQNode {
 
 	private String applicationName = null;
 
+	// Codecs
+	private final Map<String, Collection<String>> distantCodecs = new ConcurrentHashMap<String, Collection<String>>();
+	private final Set<String> legacyNodes = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+	private volatile MessageCodec codec = MessageCodecs.negotiate(Collections.<Collection<String>>emptyList());
+
 	/**
 	 * Initialize a zeromq node.
 	 * 
@@ -98,6 +119,26 @@ public class ZeroMQNode {
 	 * @throws IOException
 	 */
 	public void init(AgentAddress kernelAddress, InetAddress multicastGroupAddress) throws IOException {
+		init(kernelAddress, multicastGroupAddress,
+				JanusProperties.DEFAULT_ZEROMQ_OUTBOUND_QUEUE_SIZE,
+				JanusProperties.DEFAULT_ZEROMQ_BATCH_SIZE,
+				JanusProperties.DEFAULT_ZEROMQ_BATCH_DELAY);
+	}
+
+	/**
+	 * Initialize a zeromq node.
+	 * 
+	 * @param kernelAddress is the address of the Janus kernel that is owning this node.
+	 * @param multicastGroupAddress is the address of the multicast group to join.
+	 * @param outboundQueueSize is the maximal number of messages waiting to be published.
+	 * @param batchSize is the maximal number of messages published in a single batch.
+	 * @param batchDelay is the maximal delay (in milliseconds) to wait for additional
+	 * messages before publishing a batch.
+	 * @throws IOException
+	 * @since 1.1
+	 */
+	public void init(AgentAddress kernelAddress, InetAddress multicastGroupAddress,
+			int outboundQueueSize, int batchSize, long batchDelay) throws IOException {
 		// Node infos
 		this.id = kernelAddress.getUUID();
 		this.multicastGroup = multicastGroupAddress;
@@ -134,6 +175,13 @@ public class ZeroMQNode {
 				Poller.POLLIN);
 		this.serverPollinId = this.poller.register(this.serverSocket,
 				Poller.POLLIN);
+
+		// The publishing socket is used only by the thread of the pipeline
+		this.outbound = new ZeroMQOutboundPipeline(
+				"ZeroMQ publisher "+this.id, //$NON-NLS-1$
+				this.pubSocket, outboundQueueSize, batchSize, batchDelay,
+				this.logger);
+		this.outbound.start();
 	}
 
 	/**
@@ -142,6 +190,16 @@ public class ZeroMQNode {
 	 * @throws IOException
 	 */
 	public void destroy() throws IOException {
+		// No more publication is accepted after this point
+		ZeroMQOutboundPipeline pipeline = this.outbound;
+		this.outbound = null;
+		try {
+			pipeline.shutdown();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
 		this.subPollinId = null;
 		this.serverPollinId = null;
 		this.poller.unregister(this.serverSocket);
@@ -174,6 +232,7 @@ public class ZeroMQNode {
 		data.put("id", this.id); //$NON-NLS-1$
 		data.put("pub_port", this.pubPort); //$NON-NLS-1$
 		data.put("server_port", this.serverPort); //$NON-NLS-1$
+		data.put("codecs", MessageCodecs.getCodecNames()); //$NON-NLS-1$
 		return data;
 	}
 
@@ -227,6 +286,7 @@ public class ZeroMQNode {
 		}
 		this.logger.info(Locale.getString("REGISTRATION_PACK", data)); //$NON-NLS-1$
 
+		negotiateCodec(data);
 		connectSubSocket(data, hostname);
 
 		if (reply) {
@@ -235,6 +295,33 @@ public class ZeroMQNode {
 
 	}
 
+	/** Select the codec that is supported by all the known nodes.
+	 * A node that does not provide its codecs is a node that does
+	 * not support the codecs; the messages are published in the
+	 * format it supports (Base64 serialization without codec frame)
+	 * as long as such a node is known.
+	 */
+	@SuppressWarnings("unchecked")
+	private void negotiateCodec(Map<String, Object> data) {
+		String nodeId = (String) data.get("id"); //$NON-NLS-1$
+		Object codecs = data.get("codecs"); //$NON-NLS-1$
+		if (codecs instanceof Collection<?>) {
+			this.legacyNodes.remove(nodeId);
+			this.distantCodecs.put(nodeId, (Collection<String>) codecs);
+		}
+		else {
+			this.distantCodecs.remove(nodeId);
+			if (this.legacyNodes.add(nodeId)) {
+				this.logger.info(Locale.getString("LEGACY_NODE", nodeId)); //$NON-NLS-1$
+			}
+		}
+		MessageCodec c = MessageCodecs.negotiate(this.distantCodecs.values());
+		if (c!=this.codec) {
+			this.codec = c;
+			this.logger.info(Locale.getString("NEGOTIATED_CODEC", c.getName())); //$NON-NLS-1$
+		}
+	}
+
 	private void connectSubSocket(Map<String, Object> data, String hostname) {
 		String pubAddress = String.format("tcp://%s:%s", hostname, //$NON-NLS-1$
 				data.get("pub_port")); //$NON-NLS-1$
@@ -291,8 +378,32 @@ public class ZeroMQNode {
 			if (this.poller.pollin(this.subPollinId)) {
 				String dest = new String(this.subSocket.recv(0));
 				String message_type = new String(this.subSocket.recv(0));
-				message = this.subSocket.recv(0);
-				this.processSubMessage(dest, message_type, message);
+				// All the frames are received before any decoding to
+				// keep the socket synchronized on the multipart messages
+				List<byte[]> frames = new ArrayList<byte[]>();
+				do {
+					frames.add(this.subSocket.recv(0));
+				}
+				while (this.subSocket.hasReceiveMore());
+				String codecName = null;
+				int first = 0;
+				if (isEncodedMessage(message_type) && frames.size()>1) {
+					// A batch of messages encoded with the same codec;
+					// a single frame is a message from a node without codec
+					codecName = new String(frames.get(0));
+					first = 1;
+				}
+				for(int i=first; i<frames.size(); ++i) {
+					try {
+						this.processSubMessage(dest, message_type, codecName, frames.get(i));
+					}
+					catch(IOException e) {
+						this.logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+					}
+					catch(RuntimeException e) {
+						this.logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+					}
+				}
 			}
 			// Server socket
 			if (this.poller.pollin(this.serverPollinId)) {
@@ -339,9 +450,13 @@ public class ZeroMQNode {
 		}
 	}
 
+	private static boolean isEncodedMessage(String messageType) {
+		return "message".equals(messageType) || "broadcast".equals(messageType); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
 	@SuppressWarnings("unchecked")
 	private void processSubMessage(String dest, String messageType,
-			byte[] data) throws IOException {
+			String codecName, byte[] data) throws IOException {
 		this.logger.info(Locale.getString("PROCESS_SUBMESSAGE", dest, messageType, data)); //$NON-NLS-1$
 		if ("localGroupCreated".equals(messageType)) { //$NON-NLS-1$
 			Map<String, Object> message = fromBytes(data);
@@ -366,7 +481,21 @@ public class ZeroMQNode {
 			}
 		}
 		else if ("broadcast".equals(messageType)) { //$NON-NLS-1$
-			Message m = (Message) SerializationUtil.decode(new String(data));
+			Message m;
+			if (codecName==null) {
+				m = (Message) SerializationUtil.decode(new String(data));
+				if (m==null) {
+					throw new IOException(Locale.getString("INVALID_MESSAGE", dest)); //$NON-NLS-1$
+				}
+			}
+			else {
+				MessageCodec messageCodec = MessageCodecs.getCodec(codecName);
+				if (messageCodec==null) {
+					this.logger.severe(Locale.getString("UNSUPPORTED_CODEC", codecName)); //$NON-NLS-1$
+					return;
+				}
+				m = messageCodec.decode(data);
+			}
 			this.logger.info(Locale.getString("RECEIVE_BROADCAST_MESSAGE", m)); //$NON-NLS-1$
 			if (m.getReceiver() instanceof RoleAddress) {
 				RoleAddress address = m.getReceiver();
@@ -382,17 +511,67 @@ public class ZeroMQNode {
 	 * @param dest is the identifier of the dest.
 	 * @param messageType
 	 * @param data
+	 * @throws IOException if the node is destroyed or if the
+	 * outbound queue is full.
 	 */
-	public void publish(UUID dest, String messageType, byte[] data) {
+	public void publish(UUID dest, String messageType, byte[] data) throws IOException {
 		publish(dest.toString(), messageType, data);
 	}
 
-	private void publish(String dest, String messageType, byte[] data) {
+	/** Publish the given message on the socket of the given dest.
+	 * The message is encoded with the codec negotiated with the
+	 * other nodes. If a node that does not support the codecs is
+	 * known, the message is published in the format that is
+	 * supported by this node.
+	 * 
+	 * @param dest is the identifier of the dest.
+	 * @param messageType is the type of the message, <code>"message"</code>
+	 * or <code>"broadcast"</code>.
+	 * @param message is the message to publish.
+	 * @throws IOException if the message cannot be encoded, if the
+	 * node is destroyed, or if the outbound queue is full.
+	 */
+	public void publish(UUID dest, String messageType, Message message) throws IOException {
+		assert(isEncodedMessage(messageType));
+		String codecName;
+		byte[] data;
+		if (this.legacyNodes.isEmpty()) {
+			MessageCodec messageCodec = this.codec;
+			codecName = messageCodec.getName();
+			data = messageCodec.encode(message);
+		}
+		else {
+			codecName = null;
+			String encoded = SerializationUtil.encode(message);
+			if (encoded==null) {
+				throw new IOException(Locale.getString("INVALID_MESSAGE", dest)); //$NON-NLS-1$
+			}
+			data = encoded.getBytes();
+		}
+		this.logger.info(
+				Locale.getString("PUBLISH", messageType, message, dest)); //$NON-NLS-1$
+		offer(dest.toString(), messageType, codecName, data);
+	}
+
+	private void publish(String dest, String messageType, byte[] data) throws IOException {
 		this.logger.info(
 				Locale.getString("PUBLISH", messageType, new String(data), dest)); //$NON-NLS-1$
-		this.pubSocket.send(dest.toString().getBytes(), ZMQ.SNDMORE);
-		this.pubSocket.send(messageType.getBytes(), ZMQ.SNDMORE);
-		this.pubSocket.send(data, 0);
+		offer(dest, messageType, null, data);
+	}
+
+	/** Put the given publication in the outbound pipeline.
+	 * 
+	 * @throws IOException if the node is destroyed or if the
+	 * outbound queue is full.
+	 */
+	private void offer(String dest, String messageType, String codecName, byte[] data) throws IOException {
+		ZeroMQOutboundPipeline pipeline = this.outbound;
+		if (pipeline==null) {
+			throw new IOException(Locale.getString("NODE_DESTROYED", dest)); //$NON-NLS-1$
+		}
+		if (!pipeline.offer(dest, messageType, codecName, data)) {
+			throw new IOException(Locale.getString("OUTBOUND_QUEUE_FULL", dest)); //$NON-NLS-1$
+		}
 	}
 
 	/** Publish the given data on the application socket.
@@ -438,20 +617,11 @@ public class ZeroMQNode {
 
 	// Encoding/Decoding utils
 	private static String fromMap(Map<String, Object> m) throws IOException {
-		ObjectMapper mapper = new ObjectMapper();
-		Writer strWriter = new StringWriter();
-		try {
-			mapper.writeValue(strWriter, m);
-		}
-		finally {
-			strWriter.close();
-		}
-		return strWriter.toString();
+		return MAPPER.writeValueAsString(m);
 	}
 
 	private static Map<String, Object> fromBytes(byte[] byteMsg) throws IOException {
-		ObjectMapper mapper = new ObjectMapper();
-		return mapper.readValue(byteMsg, new TypeReferenceImpl());
+		return MAP_READER.readValue(byteMsg);
 	}
 
 	// Connection with listener
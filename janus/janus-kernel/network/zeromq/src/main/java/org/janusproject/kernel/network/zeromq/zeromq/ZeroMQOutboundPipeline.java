@@ -0,0 +1,254 @@
+/* 
+ * $Id$
+ * 
+ * Janus platform is an open-source multiagent platform.
+ * More details on <http://www.janus-project.org>
+ * Copyright (C) 2012-2013 Janus Core Developers
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.janusproject.kernel.network.zeromq.zeromq;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.zeromq.ZMQ;
+import org.zeromq.ZMQ.Socket;
+import org.zeromq.ZMQException;
+
+/** Outbound pipeline of a ZeroMQ node.
+ * <p>
+ * The publications are put in a bounded queue by the agent threads
+ * without blocking them. A single I/O thread, which is the only
+ * thread using the publishing socket, drains the queue.
+ * The consecutive encoded messages for the same destination, with the
+ * same type and the same codec are sent in a single multipart ZeroMQ
+ * message: destination, type, codec, and one frame per message.
+ * The publications are sent in their submission order.
+ * All the publications accepted before the shutdown are sent.
+ * A batch is sent when it contains the maximal number of messages,
+ * or when the batch delay is expired.
+ * 
+ * @author $Author: sgalland$
+ * @version $FullVersion$
+ * @mavengroupid $GroupId$
+ * @mavenartifactid $ArtifactId$
+ * @since 1.1
+ */
+class ZeroMQOutboundPipeline implements Runnable {
+
+	/** Delay (in milliseconds) between two checks of the termination
+	 * of the pipeline.
+	 */
+	private static final long POLL_TIMEOUT = 500;
+	
+	private final Socket socket;
+	private final BlockingQueue<Publication> queue;
+	private final int batchSize;
+	private final long batchDelay;
+	private final Logger logger;
+	private final Thread thread;
+	private volatile boolean running = true;
+	/** The offers are done under the read lock, the shutdown under the
+	 * write lock: no publication is queued after the I/O thread was
+	 * told to stop.
+	 */
+	private final ReadWriteLock stateLock = new ReentrantReadWriteLock();
+	
+	/**
+	 * @param name is the name of the I/O thread.
+	 * @param socket is the socket on which the messages are published.
+	 * @param queueSize is the maximal number of waiting publications.
+	 * @param batchSize is the maximal number of publications in a batch.
+	 * @param batchDelay is the maximal delay (in milliseconds) to wait for
+	 * additional publications before sending a batch.
+	 * @param logger
+	 */
+	public ZeroMQOutboundPipeline(String name, Socket socket, int queueSize, int batchSize, long batchDelay, Logger logger) {
+		this.socket = socket;
+		this.queue = new ArrayBlockingQueue<Publication>(Math.max(1, queueSize));
+		this.batchSize = Math.max(1, batchSize);
+		this.batchDelay = TimeUnit.MILLISECONDS.toNanos(Math.max(0, batchDelay));
+		this.logger = logger;
+		this.thread = new Thread(this, name);
+		this.thread.setDaemon(true);
+	}
+	
+	/** Start the I/O thread.
+	 */
+	public void start() {
+		this.thread.start();
+	}
+	
+	/** Stop the I/O thread after the waiting publications are sent.
+	 * 
+	 * @throws InterruptedException
+	 */
+	public void shutdown() throws InterruptedException {
+		this.stateLock.writeLock().lock();
+		try {
+			this.running = false;
+		}
+		finally {
+			this.stateLock.writeLock().unlock();
+		}
+		this.thread.join();
+	}
+	
+	/** Put a publication in the pipeline. This function never blocks.
+	 * 
+	 * @param dest is the destination of the publication.
+	 * @param messageType is the type of the publication.
+	 * @param codec is the name of the codec used to encode the data,
+	 * or <code>null</code> if the data are not an encoded message.
+	 * The publications without codec are never batched.
+	 * @param data are the data to publish.
+	 * @return <code>true</code> if the publication was queued;
+	 * <code>false</code> if the pipeline is full or stopped.
+	 */
+	public boolean offer(String dest, String messageType, String codec, byte[] data) {
+		this.stateLock.readLock().lock();
+		try {
+			return this.running && this.queue.offer(new Publication(dest, messageType, codec, data));
+		}
+		finally {
+			this.stateLock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void run() {
+		List<Publication> batch = new ArrayList<Publication>(this.batchSize);
+		try {
+			while (this.running || !this.queue.isEmpty()) {
+				Publication p = this.queue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+				if (p!=null) {
+					batch.add(p);
+					if (this.batchDelay>0) {
+						long deadline = System.nanoTime() + this.batchDelay;
+						long remaining = this.batchDelay;
+						while (batch.size()<this.batchSize && remaining>0
+								&& (p = this.queue.poll(remaining, TimeUnit.NANOSECONDS))!=null) {
+							batch.add(p);
+							remaining = deadline - System.nanoTime();
+						}
+					}
+					this.queue.drainTo(batch, this.batchSize - batch.size());
+					flush(batch);
+					batch.clear();
+				}
+			}
+		}
+		catch(InterruptedException _) {
+			//
+		}
+	}
+
+	/** Send the given publications in their submission order; the
+	 * consecutive publications with the same destination, type and
+	 * codec are sent in the same multipart message.
+	 */
+	private void flush(List<Publication> batch) {
+		int start = 0;
+		int size = batch.size();
+		for(int i=1; i<=size; ++i) {
+			if (i==size || !batch.get(i).canBeBatchedWith(batch.get(start))) {
+				send(batch.subList(start, i));
+				start = i;
+			}
+		}
+	}
+	
+	/** Send the given publications in a single multipart message.
+	 * The publications must have the same destination, type and codec.
+	 */
+	private void send(List<Publication> publications) {
+		Publication header = publications.get(0);
+		try {
+			this.socket.send(header.dest.getBytes(), ZMQ.SNDMORE);
+			this.socket.send(header.messageType.getBytes(), ZMQ.SNDMORE);
+			if (header.codec!=null) {
+				this.socket.send(header.codec.getBytes(), ZMQ.SNDMORE);
+			}
+			int last = publications.size() - 1;
+			for(int i=0; i<=last; ++i) {
+				this.socket.send(publications.get(i).data, i<last ? ZMQ.SNDMORE : 0);
+			}
+		}
+		catch(ZMQException e) {
+			this.logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+		}
+	}
+	
+	/** Publication in the outbound pipeline.
+	 * 
+	 * @author $Author: sgalland$
+	 * @version $FullVersion$
+	 * @mavengroupid $GroupId$
+	 * @mavenartifactid $ArtifactId$
+	 * @since 1.1
+	 */
+	private static class Publication {
+		
+		/** Destination.
+		 */
+		public final String dest;
+		/** Type of the message.
+		 */
+		public final String messageType;
+		/** Name of the codec, or <code>null</code>.
+		 */
+		public final String codec;
+		/** Data to send.
+		 */
+		public final byte[] data;
+		
+		/**
+		 * @param dest
+		 * @param messageType
+		 * @param codec
+		 * @param data
+		 */
+		public Publication(String dest, String messageType, String codec, byte[] data) {
+			this.dest = dest;
+			this.messageType = messageType;
+			this.codec = codec;
+			this.data = data;
+		}
+		
+		/** Replies if this publication could be sent in the same
+		 * multipart message as the given publication.
+		 * 
+		 * @param p
+		 * @return <code>true</code> if the publications have the same
+		 * destination, type and codec; <code>false</code> otherwise.
+		 */
+		public boolean canBeBatchedWith(Publication p) {
+			return this.codec!=null && this.codec.equals(p.codec)
+					&& this.dest.equals(p.dest) && this.messageType.equals(p.messageType);
+		}
+		
+	}
+
+}